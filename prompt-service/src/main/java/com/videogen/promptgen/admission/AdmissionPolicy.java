@@ -0,0 +1,13 @@
+package com.videogen.promptgen.admission;
+
+/**
+ * What happens to a new job of a priority class while that class is saturated.
+ */
+public enum AdmissionPolicy {
+    /** Accept it anyway and let it wait. */
+    ADMIT,
+    /** Accept it one priority class lower, behind the work already waiting. */
+    DEMOTE,
+    /** Refuse it with 503 and Retry-After. */
+    REJECT
+}
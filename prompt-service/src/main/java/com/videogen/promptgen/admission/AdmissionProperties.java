@@ -0,0 +1,37 @@
+package com.videogen.promptgen.admission;
+
+import com.videogen.promptgen.model.JobPriority;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "videogen.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * A priority class is saturated once a new call of it would wait longer than this for a
+     * Claude worker, estimated from queue depth, calls in flight and recent call latency.
+     */
+    private Duration maxEstimatedWait = Duration.ofMinutes(2);
+
+    /** Above this many queued Claude calls every new job is refused, whatever its policy. */
+    private int maxQueuedCalls = 5000;
+
+    /** Call latency assumed until the first call completes. */
+    private Duration assumedLatency = Duration.ofSeconds(10);
+
+    /** Upper bound of the Retry-After sent with a 503. */
+    private Duration maxRetryAfter = Duration.ofMinutes(1);
+
+    /** Policy per priority class while it is saturated. */
+    private Map<JobPriority, AdmissionPolicy> policies = new EnumMap<>(Map.of(
+            JobPriority.INTERACTIVE, AdmissionPolicy.REJECT,
+            JobPriority.NORMAL, AdmissionPolicy.DEMOTE,
+            JobPriority.BULK, AdmissionPolicy.REJECT));
+}
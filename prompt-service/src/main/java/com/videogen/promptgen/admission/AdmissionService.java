@@ -0,0 +1,123 @@
+package com.videogen.promptgen.admission;
+
+import com.videogen.promptgen.exception.ServiceOverloadedException;
+import com.videogen.promptgen.model.JobPriority;
+import com.videogen.promptgen.scheduling.ClaudeCallScheduler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Decides whether a new job is let in while Claude is slow or backed up, so that new work is shed
+ * or pushed back early instead of making every queued job late.
+ *
+ * <p>A job of a priority class would wait behind the calls queued in that class and the ones
+ * above it, plus the calls already running. With {@code W} workers and recent call latency
+ * {@code L}, that wait is about {@code L * (queued + running - W + 1) / W}. When it exceeds
+ * {@code max-estimated-wait} the class is saturated and its {@link AdmissionPolicy} applies.
+ */
+@Service
+public class AdmissionService {
+
+    private final AdmissionProperties properties;
+    private final ClaudeCallScheduler callScheduler;
+    private final MeterRegistry meterRegistry;
+
+    public AdmissionService(AdmissionProperties properties,
+                            ClaudeCallScheduler callScheduler,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.callScheduler = callScheduler;
+        this.meterRegistry = meterRegistry;
+        for (JobPriority priority : JobPriority.values()) {
+            Gauge.builder("videogen.prompt.admission.estimated.wait", () -> estimatedWait(priority).toMillis() / 1e3)
+                    .description("Estimated wait for a Claude worker of a newly admitted call")
+                    .tag("priority", priority.name())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Admits a job of {@code segments} Claude calls.
+     *
+     * @return the priority to run the job at, lower than requested when it was demoted
+     * @throws ServiceOverloadedException if the job is shed
+     */
+    public JobPriority admit(JobPriority requested, int segments) {
+        if (!properties.isEnabled()) {
+            return requested;
+        }
+        int queued = callScheduler.queuedCalls();
+        if (queued >= properties.getMaxQueuedCalls()) {
+            count(requested, "shed", segments);
+            Duration drain = callWaves(queued - properties.getMaxQueuedCalls() + 1);
+            throw new ServiceOverloadedException(
+                    "Prompt generation is overloaded: " + queued + " Claude calls are queued", retryAfter(drain));
+        }
+        Duration wait = estimatedWait(requested);
+        if (wait.compareTo(properties.getMaxEstimatedWait()) <= 0) {
+            count(requested, "admitted", segments);
+            return requested;
+        }
+        switch (properties.getPolicies().getOrDefault(requested, AdmissionPolicy.ADMIT)) {
+            case REJECT -> {
+                count(requested, "shed", segments);
+                throw new ServiceOverloadedException(String.format(
+                        "Prompt generation is saturated for %s jobs: estimated wait %ds exceeds %ds", requested,
+                        wait.toSeconds(), properties.getMaxEstimatedWait().toSeconds()),
+                        retryAfter(wait.minus(properties.getMaxEstimatedWait())));
+            }
+            case DEMOTE -> {
+                count(requested, "demoted", segments);
+                return JobPriority.values()[Math.min(requested.ordinal() + 1, JobPriority.values().length - 1)];
+            }
+            default -> {
+                count(requested, "admitted", segments);
+                return requested;
+            }
+        }
+    }
+
+    /**
+     * How long a call of {@code priority} submitted now would wait for a worker.
+     */
+    public Duration estimatedWait(JobPriority priority) {
+        return callWaves(callScheduler.queuedAhead(priority) + callScheduler.activeCalls()
+                - callScheduler.maxConcurrentCalls() + 1);
+    }
+
+    private Duration callWaves(int calls) {
+        if (calls <= 0) {
+            return Duration.ZERO;
+        }
+        Duration latency = callScheduler.recentCallLatency();
+        if (latency.isZero()) {
+            latency = properties.getAssumedLatency();
+        }
+        return latency.multipliedBy(calls).dividedBy(Math.max(1, callScheduler.maxConcurrentCalls()));
+    }
+
+    private Duration retryAfter(Duration backlog) {
+        Duration capped = backlog.compareTo(properties.getMaxRetryAfter()) > 0 ? properties.getMaxRetryAfter() : backlog;
+        return capped.compareTo(Duration.ofSeconds(1)) < 0 ? Duration.ofSeconds(1) : capped;
+    }
+
+    private void count(JobPriority priority, String outcome, int segments) {
+        Counter.builder("videogen.prompt.admission.jobs")
+                .description("New prompt jobs by admission outcome")
+                .tag("priority", priority.name())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+        Counter.builder("videogen.prompt.admission.segments")
+                .description("Segments of new prompt jobs by admission outcome")
+                .tag("priority", priority.name())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment(segments);
+    }
+}
@@ -0,0 +1,111 @@
+package com.videogen.promptgen.client;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * JDK {@code HttpURLConnection} requests whose read timeout can be shortened for the calls made
+ * inside {@link #withReadTimeout}, so a Claude call gives up once its job's deadline has passed
+ * instead of holding a worker for the full default timeout. Calls made inside
+ * {@link #withConnectionListener} also expose their connections, so that another thread can
+ * abort them.
+ */
+public class CallTimeoutRequestFactory implements ClientHttpRequestFactory {
+
+    private final ThreadLocal<Duration> callTimeout = new ThreadLocal<>();
+    private final ThreadLocal<ConnectionListener> connectionListener = new ThreadLocal<>();
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+
+    public CallTimeoutRequestFactory(Duration connectTimeout, Duration readTimeout) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * Runs {@code call} with requests created on this thread timing out after {@code timeout},
+     * or after the default read timeout when that is shorter or {@code timeout} is null.
+     */
+    public <T> T withReadTimeout(Duration timeout, Supplier<T> call) {
+        if (timeout == null) {
+            return call.get();
+        }
+        Duration previous = callTimeout.get();
+        callTimeout.set(timeout);
+        try {
+            return call.get();
+        } finally {
+            if (previous != null) {
+                callTimeout.set(previous);
+            } else {
+                callTimeout.remove();
+            }
+        }
+    }
+
+    /**
+     * Whether {@link #withReadTimeout} with {@code timeout} cuts calls shorter than the default
+     * read timeout; such a call timing out says more about its deadline than about Claude.
+     */
+    public boolean isShortened(Duration timeout) {
+        return timeout != null && timeout.compareTo(readTimeout) < 0;
+    }
+
+    /**
+     * Runs {@code call} with {@code listener} told of each connection opened on this thread before
+     * it connects.
+     */
+    public <T> T withConnectionListener(ConnectionListener listener, Supplier<T> call) {
+        ConnectionListener previous = connectionListener.get();
+        connectionListener.set(listener);
+        try {
+            return call.get();
+        } finally {
+            if (previous != null) {
+                connectionListener.set(previous);
+            } else {
+                connectionListener.remove();
+            }
+        }
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        Duration timeout = callTimeout.get();
+        ConnectionListener listener = connectionListener.get();
+        SimpleClientHttpRequestFactory factory = listener == null ? new SimpleClientHttpRequestFactory()
+                : new SimpleClientHttpRequestFactory() {
+                    @Override
+                    protected void prepareConnection(HttpURLConnection connection, String method) throws IOException {
+                        super.prepareConnection(connection, method);
+                        listener.opened(connection);
+                    }
+                };
+        factory.setConnectTimeout(millis(connectTimeout));
+        factory.setReadTimeout(millis(timeout != null && timeout.compareTo(readTimeout) < 0 ? timeout : readTimeout));
+        return factory.createRequest(uri, httpMethod);
+    }
+
+    @FunctionalInterface
+    public interface ConnectionListener {
+
+        /**
+         * Called with a connection that is about to connect; throwing stops the request. Calling
+         * {@link HttpURLConnection#disconnect()} later from any thread aborts it.
+         */
+        void opened(HttpURLConnection connection) throws IOException;
+    }
+
+    /** Whole milliseconds of at least one, since zero means no timeout at all. */
+    private static int millis(Duration duration) {
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, duration.toMillis()));
+    }
+}
@@ -1,8 +1,25 @@
 package com.videogen.promptgen.client;
 
 import com.videogen.promptgen.model.ArtStyle;
+import com.videogen.promptgen.model.JobPriority;
+
+import java.time.Duration;
+import java.util.function.Consumer;
 
 public interface ClaudeApiClient {
 
-    String generateImagePrompt(String segmentText, ArtStyle style, String customDescription);
+    /**
+     * @param priority priority of the job the call is for, which routing rules may match on
+     * @param timeout  how long to wait for the response; null waits up to
+     *                 {@code anthropic.api.read-timeout}
+     */
+    PromptCompletion generateImagePrompt(String segmentText, ArtStyle style, String customDescription,
+                                         JobPriority priority, Duration timeout);
+
+    /**
+     * Like {@link #generateImagePrompt}, but streams the response and hands each text fragment to
+     * {@code onText} as it arrives; the returned completion holds the assembled text.
+     */
+    PromptCompletion streamImagePrompt(String segmentText, ArtStyle style, String customDescription,
+                                       JobPriority priority, Duration timeout, Consumer<String> onText);
 }
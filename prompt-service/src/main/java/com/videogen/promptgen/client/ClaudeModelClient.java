@@ -0,0 +1,26 @@
+package com.videogen.promptgen.client;
+
+import com.videogen.promptgen.model.ArtStyle;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Claude calls to a given model. {@link ClaudeApiClient} decides which model a call goes to.
+ */
+public interface ClaudeModelClient {
+
+    /**
+     * @param timeout how long to wait for the response; null waits up to
+     *                {@code anthropic.api.read-timeout}
+     */
+    PromptCompletion generateImagePrompt(String model, String segmentText, ArtStyle style, String customDescription,
+                                         Duration timeout);
+
+    /**
+     * Like {@link #generateImagePrompt}, but streams the response and hands each text fragment to
+     * {@code onText} as it arrives; the returned completion holds the assembled text.
+     */
+    PromptCompletion streamImagePrompt(String model, String segmentText, ArtStyle style, String customDescription,
+                                       Duration timeout, Consumer<String> onText);
+}
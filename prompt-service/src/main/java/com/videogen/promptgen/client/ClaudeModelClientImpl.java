@@ -0,0 +1,199 @@
+package com.videogen.promptgen.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.videogen.promptgen.model.ArtStyle;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+@Component
+public class ClaudeModelClientImpl implements ClaudeModelClient {
+
+    private final RestTemplate restTemplate;
+    private final CallTimeoutRequestFactory requestFactory;
+    private final ObjectMapper objectMapper;
+    private final String apiUrl;
+
+    public ClaudeModelClientImpl(
+            @Qualifier("claudeRestTemplate") RestTemplate restTemplate,
+            CallTimeoutRequestFactory requestFactory,
+            ObjectMapper objectMapper,
+            @Value("${anthropic.api.url}") String apiUrl) {
+        this.restTemplate = restTemplate;
+        this.requestFactory = requestFactory;
+        this.objectMapper = objectMapper;
+        this.apiUrl = apiUrl;
+    }
+
+    @Override
+    public PromptCompletion generateImagePrompt(String model, String segmentText, ArtStyle style,
+                                                String customDescription, Duration timeout) {
+        Map<String, Object> requestBody = requestBody(model, segmentText, style, customDescription);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> response = requestFactory.withReadTimeout(timeout,
+                () -> restTemplate.postForObject(apiUrl, requestBody, Map.class));
+
+        if (response == null) {
+            throw new RuntimeException("Claude API returned null response");
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> content = (List<Map<String, Object>>) response.get("content");
+        if (content == null || content.isEmpty()) {
+            throw new RuntimeException("Claude API returned empty content");
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> usage = (Map<String, Object>) response.getOrDefault("usage", Map.of());
+
+        return PromptCompletion.builder()
+                .text((String) content.get(0).get("text"))
+                .model(response.get("model") instanceof String responseModel ? responseModel : model)
+                .inputTokens(tokenCount(usage, "input_tokens"))
+                .outputTokens(tokenCount(usage, "output_tokens"))
+                .cacheCreationInputTokens(tokenCount(usage, "cache_creation_input_tokens"))
+                .cacheReadInputTokens(tokenCount(usage, "cache_read_input_tokens"))
+                .build();
+    }
+
+    /**
+     * Sends the request with {@code "stream": true} and reads the server-sent events as they
+     * arrive: {@code message_start} carries the model and input usage, each text
+     * {@code content_block_delta} goes to {@code onText}, and {@code message_delta} carries the
+     * output usage. The read timeout applies to each read rather than to the whole response.
+     */
+    @Override
+    public PromptCompletion streamImagePrompt(String model, String segmentText, ArtStyle style,
+                                              String customDescription, Duration timeout, Consumer<String> onText) {
+        Map<String, Object> requestBody = new HashMap<>(requestBody(model, segmentText, style, customDescription));
+        requestBody.put("stream", true);
+
+        return requestFactory.withReadTimeout(timeout, () -> restTemplate.execute(apiUrl, HttpMethod.POST,
+                restTemplate.httpEntityCallback(requestBody),
+                response -> readStream(response.getBody(), model, onText)));
+    }
+
+    private PromptCompletion readStream(InputStream body, String model, Consumer<String> onText) throws IOException {
+        PromptCompletion.PromptCompletionBuilder completion = PromptCompletion.builder().model(model);
+        StringBuilder text = new StringBuilder();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            // Every data line repeats its event name as "type", so "event:" lines are not needed
+            if (!line.startsWith("data:")) {
+                continue;
+            }
+            JsonNode data = objectMapper.readTree(line.substring("data:".length()));
+            switch (data.path("type").asText()) {
+                case "message_start" -> {
+                    JsonNode message = data.path("message");
+                    JsonNode usage = message.path("usage");
+                    completion.model(message.path("model").asText(model))
+                            .inputTokens(usage.path("input_tokens").asInt())
+                            .outputTokens(usage.path("output_tokens").asInt())
+                            .cacheCreationInputTokens(usage.path("cache_creation_input_tokens").asInt())
+                            .cacheReadInputTokens(usage.path("cache_read_input_tokens").asInt());
+                }
+                case "content_block_delta" -> {
+                    JsonNode delta = data.path("delta");
+                    if ("text_delta".equals(delta.path("type").asText())) {
+                        String fragment = delta.path("text").asText();
+                        text.append(fragment);
+                        onText.accept(fragment);
+                    }
+                }
+                case "message_delta" -> {
+                    // Output usage is cumulative
+                    JsonNode usage = data.path("usage");
+                    if (usage.has("output_tokens")) {
+                        completion.outputTokens(usage.path("output_tokens").asInt());
+                    }
+                }
+                case "message_stop" -> {
+                    if (text.isEmpty()) {
+                        throw new RuntimeException("Claude API returned empty content");
+                    }
+                    return completion.text(text.toString()).build();
+                }
+                case "error" -> throw streamError(data.path("error"));
+                default -> {
+                    // ping, content_block_start and content_block_stop carry nothing we use
+                }
+            }
+        }
+        throw new RuntimeException("Claude API stream ended before message_stop");
+    }
+
+    /**
+     * The exception an error event's type raises when it comes as a plain HTTP response, so that
+     * an overloaded stream can be told from other failures the same way.
+     */
+    private RestClientResponseException streamError(JsonNode error) {
+        String type = error.path("type").asText();
+        HttpStatusCode status = HttpStatusCode.valueOf(switch (type) {
+            case "invalid_request_error" -> 400;
+            case "authentication_error" -> 401;
+            case "permission_error" -> 403;
+            case "not_found_error" -> 404;
+            case "request_too_large" -> 413;
+            case "rate_limit_error" -> 429;
+            case "overloaded_error" -> 529;
+            default -> 500;
+        });
+        String message = "Claude API stream failed: " + error.path("message").asText(error.toString());
+        return status.is4xxClientError()
+                ? HttpClientErrorException.create(message, status, type, HttpHeaders.EMPTY, new byte[0], null)
+                : HttpServerErrorException.create(message, status, type, HttpHeaders.EMPTY, new byte[0], null);
+    }
+
+    private Map<String, Object> requestBody(String model, String segmentText, ArtStyle style,
+                                            String customDescription) {
+        String systemPrompt = buildSystemPrompt(style, customDescription);
+        String userMessage = "Based on the following narration segment, create a detailed text-to-image prompt:\n\n" + segmentText;
+
+        return Map.of(
+                "model", model,
+                "max_tokens", 1024,
+                "system", systemPrompt,
+                "messages", List.of(
+                        Map.of("role", "user", "content", userMessage)
+                )
+        );
+    }
+
+    private int tokenCount(Map<String, Object> usage, String key) {
+        return usage.get(key) instanceof Number number ? number.intValue() : 0;
+    }
+
+    private String buildSystemPrompt(ArtStyle style, String customDescription) {
+        return switch (style) {
+            case CINEMATIC -> "Generate a cinematic film-style text-to-image prompt. Use film terminology like wide shot, close-up, dramatic lighting, depth of field, lens flare. Think David Fincher, Roger Deakins cinematography.";
+            case GHIBLI -> "Generate a Studio Ghibli-style text-to-image prompt. Emphasize Miyazaki aesthetic: lush nature, soft watercolor tones, whimsical details, gentle light, hand-drawn feel, serene atmosphere.";
+            case PIXAR -> "Generate a Pixar-style text-to-image prompt. Focus on 3D rendered look, vibrant saturated colors, expressive characters, clean lighting, polished surfaces, storytelling composition.";
+            case WATERCOLOR -> "Generate a watercolor painting-style text-to-image prompt. Emphasize wet-on-wet technique, soft color bleeding, visible brush strokes, paper texture, translucent washes, organic imperfections.";
+            case PHOTOREALISTIC -> "Generate a photorealistic text-to-image prompt. Specify camera details (DSLR, 85mm lens), natural lighting, high dynamic range, fine detail, realistic skin texture, accurate shadows.";
+            case ANIME -> "Generate an anime-style text-to-image prompt. Include cel-shading, bold outlines, vibrant hair colors, expressive eyes, dynamic poses, manga-influenced composition, Japanese aesthetic.";
+            case CUSTOM -> customDescription != null ? customDescription : "Generate a detailed text-to-image prompt.";
+        };
+    }
+}
@@ -0,0 +1,397 @@
+package com.videogen.promptgen.client;
+
+import com.videogen.promptgen.config.ClaudePricingProperties;
+import com.videogen.promptgen.metrics.PromptMetrics;
+import com.videogen.promptgen.model.ArtStyle;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Hedges blocking Claude calls against slow upstream responses: a call still running after the
+ * {@code percentile} of recent latency of its model gets one duplicate, the first of the two to
+ * succeed is used, and the other is aborted by closing its connection. A straggler then costs
+ * about the hedge delay plus a typical call instead of holding up its whole job.
+ *
+ * <p>Every call earns {@code budget} of a duplicate, up to {@code budget * window} saved, and a
+ * duplicate spends one, so hedging adds at most that share of calls even when Claude is slow
+ * across the board. Duplicates run on their own threads, beside the scheduler's workers.
+ *
+ * <p>Only the winning reply reaches the caller, so the request that lost is accounted here, in
+ * the token and cost meters tagged {@code hedge=discarded}: in full if it finished too, and at the
+ * winner's input tokens if it was aborted after being sent, which it was billed at least.
+ *
+ * <p>Streamed calls are not hedged, since their text is handed on as it arrives.
+ */
+@Primary
+@Component
+public class HedgingClaudeModelClient implements ClaudeModelClient {
+
+    private final ClaudeModelClientImpl delegate;
+    private final CallTimeoutRequestFactory requestFactory;
+    private final HedgingProperties properties;
+    private final ClaudePricingProperties pricing;
+    private final PromptMetrics promptMetrics;
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private final HedgeBudget budget;
+    private final ScheduledThreadPoolExecutor timer;
+    private final ExecutorService hedges;
+    private final Counter unhedged;
+    private final Counter hedged;
+    private final Counter overBudget;
+    private final Counter hedgeWins;
+    private final Counter primaryWins;
+    private final Counter noWinner;
+
+    public HedgingClaudeModelClient(ClaudeModelClientImpl delegate,
+                                    CallTimeoutRequestFactory requestFactory,
+                                    HedgingProperties properties,
+                                    ClaudePricingProperties pricing,
+                                    PromptMetrics promptMetrics,
+                                    MeterRegistry meterRegistry,
+                                    ObservationRegistry observationRegistry) {
+        this.delegate = delegate;
+        this.requestFactory = requestFactory;
+        this.properties = properties;
+        this.pricing = pricing;
+        this.promptMetrics = promptMetrics;
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+        this.budget = new HedgeBudget(properties.getBudget(), properties.getWindow());
+        this.timer = new ScheduledThreadPoolExecutor(1, daemonThreads("claude-hedge-timer"));
+        this.timer.setRemoveOnCancelPolicy(true);
+        this.hedges = Executors.newCachedThreadPool(daemonThreads("claude-hedge"));
+
+        this.unhedged = outcome(meterRegistry, "unhedged");
+        this.hedged = outcome(meterRegistry, "hedged");
+        this.overBudget = outcome(meterRegistry, "over_budget");
+        this.hedgeWins = winner(meterRegistry, "hedge");
+        this.primaryWins = winner(meterRegistry, "primary");
+        this.noWinner = winner(meterRegistry, "none");
+    }
+
+    @Override
+    public PromptCompletion generateImagePrompt(String model, String segmentText, ArtStyle style,
+                                                String customDescription, Duration timeout) {
+        LatencyWindow latencies = properties.isEnabled() ? latencies(model) : null;
+        Duration delay = latencies != null ? hedgeDelay(latencies, timeout) : null;
+        long startedAt = System.nanoTime();
+        if (delay == null) {
+            PromptCompletion completion = delegate.generateImagePrompt(model, segmentText, style, customDescription,
+                    timeout);
+            if (latencies != null) {
+                latencies.record(System.nanoTime() - startedAt);
+            }
+            return completion;
+        }
+
+        budget.earn();
+        HedgedCall call = new HedgedCall(style);
+        Observation parent = observationRegistry.getCurrentObservation();
+        ScheduledFuture<?> trigger = timer.schedule(() -> {
+            Duration remaining = timeout != null ? timeout.minusNanos(System.nanoTime() - startedAt) : null;
+            if (call.startHedge(remaining)) {
+                hedges.execute(() -> runHedge(call, parent, model, segmentText, style, customDescription, remaining));
+            }
+        }, delay.toNanos(), TimeUnit.NANOSECONDS);
+
+        try {
+            PromptCompletion completion = requestFactory.withConnectionListener(call.primary,
+                    () -> delegate.generateImagePrompt(model, segmentText, style, customDescription, timeout));
+            latencies.record(System.nanoTime() - startedAt);
+            call.finished(call.primary, completion, null);
+        } catch (RuntimeException e) {
+            if (call.primary.cancelled) {
+                // Beaten by the hedge; it took at least this long
+                latencies.record(System.nanoTime() - startedAt);
+            }
+            call.finished(call.primary, null, e);
+        } finally {
+            trigger.cancel(false);
+        }
+        return call.await();
+    }
+
+    @Override
+    public PromptCompletion streamImagePrompt(String model, String segmentText, ArtStyle style,
+                                              String customDescription, Duration timeout, Consumer<String> onText) {
+        return delegate.streamImagePrompt(model, segmentText, style, customDescription, timeout, onText);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        hedges.shutdownNow();
+    }
+
+    /**
+     * When to hedge a call of {@code timeout}, or null not to: before enough calls to its model were
+     * seen, or when the call would time out first.
+     */
+    private Duration hedgeDelay(LatencyWindow latencies, Duration timeout) {
+        Duration delay = latencies.percentile(properties.getPercentile(), properties.getMinSamples());
+        if (delay == null) {
+            return null;
+        }
+        if (delay.compareTo(properties.getMinDelay()) < 0) {
+            delay = properties.getMinDelay();
+        }
+        return timeout != null && delay.compareTo(timeout) >= 0 ? null : delay;
+    }
+
+    /**
+     * Recent latencies of calls to {@code model}, with a gauge of its hedge delay.
+     */
+    private LatencyWindow latencies(String model) {
+        return latencies.computeIfAbsent(model, key -> {
+            LatencyWindow window = new LatencyWindow(properties.getWindow());
+            Gauge.builder("videogen.claude.hedge.delay", window, w -> {
+                        Duration delay = w.percentile(properties.getPercentile(), properties.getMinSamples());
+                        return delay != null ? delay.toNanos() / 1e9 : 0;
+                    })
+                    .description("Time after which a Claude call to the model still running is hedged; "
+                            + "0 until enough calls are seen")
+                    .tag("model", key)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            return window;
+        });
+    }
+
+    private void runHedge(HedgedCall call, Observation parent, String model, String segmentText, ArtStyle style,
+                          String customDescription, Duration timeout) {
+        Observation.Scope scope = parent != null ? parent.openScope() : null;
+        try {
+            PromptCompletion completion = requestFactory.withConnectionListener(call.hedge,
+                    () -> delegate.generateImagePrompt(model, segmentText, style, customDescription, timeout));
+            call.finished(call.hedge, completion, null);
+        } catch (RuntimeException e) {
+            call.finished(call.hedge, null, e);
+        } finally {
+            if (scope != null) {
+                scope.close();
+            }
+        }
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("videogen.claude.hedge.calls")
+                .description("Blocking Claude calls eligible for hedging, by whether a duplicate was sent")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter winner(MeterRegistry meterRegistry, String winner) {
+        return Counter.builder("videogen.claude.hedge.wins")
+                .description("Hedged Claude calls by which request succeeded first")
+                .tag("winner", winner)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The least an aborted request was billed: the input tokens of the same prompt to the same
+     * model, as reported for the request that won. Output generated before the abort is unknown.
+     */
+    private static PromptCompletion abortedUsage(PromptCompletion winner) {
+        return PromptCompletion.builder()
+                .model(winner.getModel())
+                .inputTokens(winner.getInputTokens())
+                .cacheCreationInputTokens(winner.getCacheCreationInputTokens())
+                .cacheReadInputTokens(winner.getCacheReadInputTokens())
+                .build();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * One call and its possible duplicate. The first success completes {@link #result}; the call
+     * fails only once every request sent has, with the original's error.
+     */
+    private final class HedgedCall {
+
+        private final ArtStyle style;
+        private final CompletableFuture<PromptCompletion> result = new CompletableFuture<>();
+        private final Attempt primary = new Attempt();
+        private final Attempt hedge = new Attempt();
+        private boolean decided;
+        private boolean hedgeStarted;
+        private int running = 1;
+        private RuntimeException failure;
+
+        HedgedCall(ArtStyle style) {
+            this.style = style;
+        }
+
+        /**
+         * Decides, once the hedge delay has passed, whether to send the duplicate.
+         */
+        boolean startHedge(Duration remaining) {
+            synchronized (this) {
+                if (decided) {
+                    return false;
+                }
+                decided = true;
+                if (remaining != null && (remaining.isNegative() || remaining.isZero())) {
+                    unhedged.increment();
+                    return false;
+                }
+                if (!budget.trySpend()) {
+                    overBudget.increment();
+                    return false;
+                }
+                hedgeStarted = true;
+                running++;
+            }
+            hedged.increment();
+            return true;
+        }
+
+        void finished(Attempt attempt, PromptCompletion completion, RuntimeException error) {
+            Attempt loser = null;
+            PromptCompletion discarded = null;
+            synchronized (this) {
+                if (!decided) {
+                    decided = true;
+                    unhedged.increment();
+                }
+                running--;
+                if (completion != null) {
+                    if (result.complete(completion)) {
+                        if (hedgeStarted) {
+                            (attempt == hedge ? hedgeWins : primaryWins).increment();
+                            loser = attempt == hedge ? primary : hedge;
+                        }
+                    } else {
+                        // Finished before it could be aborted
+                        discarded = completion;
+                    }
+                } else {
+                    if (attempt.cancelled && attempt.wasSent() && result.isDone()
+                            && !result.isCompletedExceptionally()) {
+                        discarded = abortedUsage(result.join());
+                    }
+                    if (attempt == primary || failure == null) {
+                        failure = error;
+                    }
+                    if (running == 0 && !result.isDone()) {
+                        if (hedgeStarted) {
+                            noWinner.increment();
+                        }
+                        result.completeExceptionally(failure);
+                    }
+                }
+            }
+            if (loser != null) {
+                loser.cancel();
+            }
+            if (discarded != null) {
+                promptMetrics.recordDiscardedHedgeUsage(style, discarded, pricing.estimateCost(discarded));
+            }
+        }
+
+        PromptCompletion await() {
+            try {
+                return result.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new RuntimeException(e.getCause());
+            } catch (InterruptedException e) {
+                hedge.cancel();
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for a hedged Claude call", e);
+            }
+        }
+    }
+
+    /**
+     * The connection of one request, so it can be aborted from another thread.
+     */
+    private static final class Attempt implements CallTimeoutRequestFactory.ConnectionListener {
+
+        private HttpURLConnection connection;
+        private volatile boolean cancelled;
+
+        @Override
+        public synchronized void opened(HttpURLConnection opened) throws IOException {
+            if (cancelled) {
+                throw new IOException("Claude call cancelled: the other request finished first");
+            }
+            connection = opened;
+        }
+
+        /** Whether the request got as far as a connection, and so may have reached Claude. */
+        synchronized boolean wasSent() {
+            return connection != null;
+        }
+
+        void cancel() {
+            HttpURLConnection open;
+            synchronized (this) {
+                cancelled = true;
+                open = connection;
+            }
+            if (open != null) {
+                open.disconnect();
+            }
+        }
+    }
+
+    /**
+     * Duplicates earned by calls and not yet spent.
+     */
+    private static final class HedgeBudget {
+
+        private final double perCall;
+        private final double max;
+        private double saved;
+
+        HedgeBudget(double perCall, int window) {
+            this.perCall = Math.max(0, perCall);
+            this.max = Math.max(1, this.perCall * window);
+        }
+
+        synchronized void earn() {
+            saved = Math.min(max, saved + perCall);
+        }
+
+        synchronized boolean trySpend() {
+            if (saved < 1) {
+                return false;
+            }
+            saved -= 1;
+            return true;
+        }
+    }
+}
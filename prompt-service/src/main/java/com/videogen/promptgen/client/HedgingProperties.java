@@ -0,0 +1,31 @@
+package com.videogen.promptgen.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "anthropic.api.hedging")
+public class HedgingProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * A call still running after this percentile of recent call latency gets one duplicate, and
+     * whichever finishes first is used.
+     */
+    private double percentile = 0.95;
+
+    /** Earliest a duplicate is sent, however fast recent calls were. */
+    private Duration minDelay = Duration.ofSeconds(1);
+
+    /** Duplicates allowed per call; 0.05 adds at most 5% more Claude calls. */
+    private double budget = 0.05;
+
+    /** Recent calls the percentile is taken over. */
+    private int window = 200;
+
+    /** Calls to observe before the first duplicate is sent. */
+    private int minSamples = 20;
+}
@@ -0,0 +1,41 @@
+package com.videogen.promptgen.client;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * The last {@code size} call latencies, for percentiles over recent traffic only.
+ */
+final class LatencyWindow {
+
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    LatencyWindow(int size) {
+        this.samples = new long[Math.max(1, size)];
+    }
+
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    /**
+     * The nearest-rank {@code percentile} (0 to 1) of the recorded latencies, or null while fewer
+     * than {@code minSamples} are recorded.
+     */
+    Duration percentile(double percentile, int minSamples) {
+        long[] sorted;
+        synchronized (this) {
+            if (count == 0 || count < minSamples) {
+                return null;
+            }
+            sorted = Arrays.copyOf(samples, count);
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return Duration.ofNanos(sorted[Math.min(sorted.length, Math.max(1, rank)) - 1]);
+    }
+}
@@ -0,0 +1,23 @@
+package com.videogen.promptgen.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Generated prompt text plus the model and token usage reported by the Messages API.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PromptCompletion {
+
+    private String text;
+    private String model;
+    private int inputTokens;
+    private int outputTokens;
+    private int cacheCreationInputTokens;
+    private int cacheReadInputTokens;
+}
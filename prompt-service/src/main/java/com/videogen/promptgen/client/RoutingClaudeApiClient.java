@@ -0,0 +1,106 @@
+package com.videogen.promptgen.client;
+
+import com.videogen.promptgen.model.ArtStyle;
+import com.videogen.promptgen.model.JobPriority;
+import com.videogen.promptgen.routing.ModelRouter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Sends each call to the model {@link ModelRouter} picks for it. A call that is overloaded, rate
+ * limited or timed out is retried once on the model's fallback, with whatever is left of its
+ * timeout; a stream is not retried once text of it was handed on. Every attempt's latency and
+ * outcome is fed back to the router, except for timeouts of calls whose read timeout a deadline
+ * had cut below {@code anthropic.api.read-timeout}.
+ */
+@Component
+public class RoutingClaudeApiClient implements ClaudeApiClient {
+
+    private final ClaudeModelClient modelClient;
+    private final ModelRouter router;
+    private final CallTimeoutRequestFactory requestFactory;
+
+    public RoutingClaudeApiClient(ClaudeModelClient modelClient, ModelRouter router,
+                                  CallTimeoutRequestFactory requestFactory) {
+        this.modelClient = modelClient;
+        this.router = router;
+        this.requestFactory = requestFactory;
+    }
+
+    @Override
+    public PromptCompletion generateImagePrompt(String segmentText, ArtStyle style, String customDescription,
+                                                JobPriority priority, Duration timeout) {
+        return call(segmentText, style, priority, timeout, () -> false, (model, callTimeout) ->
+                modelClient.generateImagePrompt(model, segmentText, style, customDescription, callTimeout));
+    }
+
+    @Override
+    public PromptCompletion streamImagePrompt(String segmentText, ArtStyle style, String customDescription,
+                                              JobPriority priority, Duration timeout, Consumer<String> onText) {
+        AtomicBoolean textSent = new AtomicBoolean();
+        Consumer<String> tracked = fragment -> {
+            textSent.set(true);
+            onText.accept(fragment);
+        };
+        return call(segmentText, style, priority, timeout, textSent::get, (model, callTimeout) ->
+                modelClient.streamImagePrompt(model, segmentText, style, customDescription, callTimeout, tracked));
+    }
+
+    private PromptCompletion call(String segmentText, ArtStyle style, JobPriority priority, Duration timeout,
+                                  BooleanSupplier textSent, BiFunction<String, Duration, PromptCompletion> attempt) {
+        ModelRouter.Route route = router.route(segmentText.length(), style, priority);
+        long startedAt = System.nanoTime();
+        try {
+            return attempt(route.model(), timeout, attempt);
+        } catch (RuntimeException e) {
+            Duration remaining = timeout != null ? timeout.minusNanos(System.nanoTime() - startedAt) : null;
+            if (route.fallback() == null || textSent.getAsBoolean() || !isOverloadOrTimeout(e)
+                    || (remaining != null && (remaining.isNegative() || remaining.isZero()))) {
+                throw e;
+            }
+            router.fellBack(route.model(), route.fallback(), e);
+            return attempt(route.fallback(), remaining, attempt);
+        }
+    }
+
+    private PromptCompletion attempt(String model, Duration timeout,
+                                     BiFunction<String, Duration, PromptCompletion> attempt) {
+        long startedAt = System.nanoTime();
+        try {
+            PromptCompletion completion = attempt.apply(model, timeout);
+            router.record(model, System.nanoTime() - startedAt, false);
+            return completion;
+        } catch (RuntimeException e) {
+            if (!(isTimeout(e) && requestFactory.isShortened(timeout))) {
+                router.record(model, System.nanoTime() - startedAt, !isClientError(e));
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isOverloadOrTimeout(RuntimeException e) {
+        if (e instanceof RestClientResponseException response) {
+            int status = response.getStatusCode().value();
+            return status == 429 || status == 503 || status == 529;
+        }
+        return isTimeout(e);
+    }
+
+    private static boolean isTimeout(RuntimeException e) {
+        return e instanceof ResourceAccessException && e.getCause() instanceof SocketTimeoutException;
+    }
+
+    /** A rejected request, which says nothing about the model; rate limiting does. */
+    private static boolean isClientError(RuntimeException e) {
+        return e instanceof HttpClientErrorException client && client.getStatusCode().value() != 429;
+    }
+}
@@ -1,7 +1,22 @@
 package com.videogen.promptgen.config;
 
+import com.videogen.promptgen.admission.AdmissionProperties;
+import com.videogen.promptgen.grpc.GrpcServerProperties;
+import com.videogen.promptgen.idempotency.IdempotencyProperties;
+import com.videogen.promptgen.ratelimit.RateLimitProperties;
+import com.videogen.promptgen.retention.RetentionProperties;
+import com.videogen.promptgen.reuse.PromptReuseProperties;
+import com.videogen.promptgen.scheduling.SchedulerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
+@EnableScheduling
+@ImportRuntimeHints(NativeRuntimeHints.class)
+@EnableConfigurationProperties({RetentionProperties.class, GrpcServerProperties.class, IdempotencyProperties.class,
+        PromptReuseProperties.class, SchedulerProperties.class, RateLimitProperties.class,
+        AdmissionProperties.class})
 public class AppConfig {
 }
@@ -1,6 +1,10 @@
 package com.videogen.promptgen.config;
 
+import com.videogen.promptgen.client.CallTimeoutRequestFactory;
+import com.videogen.promptgen.client.HedgingProperties;
+import com.videogen.promptgen.routing.ModelRoutingProperties;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -8,15 +12,26 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 @Configuration
+@EnableConfigurationProperties({ClaudePricingProperties.class, HedgingProperties.class, ModelRoutingProperties.class})
 public class ClaudeApiConfig {
 
     @Value("${anthropic.api.key}")
     private String apiKey;
 
+    @Bean
+    public CallTimeoutRequestFactory claudeRequestFactory(
+            @Value("${anthropic.api.connect-timeout:5s}") Duration connectTimeout,
+            @Value("${anthropic.api.read-timeout:2m}") Duration readTimeout) {
+        return new CallTimeoutRequestFactory(connectTimeout, readTimeout);
+    }
+
     @Bean("claudeRestTemplate")
-    public RestTemplate claudeRestTemplate(RestTemplateBuilder builder) {
+    public RestTemplate claudeRestTemplate(RestTemplateBuilder builder, CallTimeoutRequestFactory requestFactory) {
         return builder
+                .requestFactory(() -> requestFactory)
                 .defaultHeader("x-api-key", apiKey)
                 .defaultHeader("anthropic-version", "2023-06-01")
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
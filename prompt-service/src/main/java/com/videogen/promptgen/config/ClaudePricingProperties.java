@@ -0,0 +1,43 @@
+package com.videogen.promptgen.config;
+
+import com.videogen.promptgen.client.PromptCompletion;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * USD list prices per million tokens, keyed by model id. Models without an entry are costed at zero.
+ */
+@Data
+@ConfigurationProperties(prefix = "anthropic.pricing")
+public class ClaudePricingProperties {
+
+    private static final BigDecimal ONE_MILLION = BigDecimal.valueOf(1_000_000);
+
+    private Map<String, ModelPrice> models = new HashMap<>();
+
+    public BigDecimal estimateCost(PromptCompletion completion) {
+        ModelPrice price = models.get(completion.getModel());
+        if (price == null) {
+            return BigDecimal.ZERO;
+        }
+        return price.getInputPerMillion().multiply(BigDecimal.valueOf(completion.getInputTokens()))
+                .add(price.getOutputPerMillion().multiply(BigDecimal.valueOf(completion.getOutputTokens())))
+                .add(price.getCacheWritePerMillion().multiply(BigDecimal.valueOf(completion.getCacheCreationInputTokens())))
+                .add(price.getCacheReadPerMillion().multiply(BigDecimal.valueOf(completion.getCacheReadInputTokens())))
+                .divide(ONE_MILLION, 6, RoundingMode.HALF_UP);
+    }
+
+    @Data
+    public static class ModelPrice {
+
+        private BigDecimal inputPerMillion = BigDecimal.ZERO;
+        private BigDecimal outputPerMillion = BigDecimal.ZERO;
+        private BigDecimal cacheWritePerMillion = BigDecimal.ZERO;
+        private BigDecimal cacheReadPerMillion = BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,42 @@
+package com.videogen.promptgen.config;
+
+import com.google.protobuf.Descriptors;
+import com.videogen.promptgen.dto.PromptResponse;
+import com.videogen.promptgen.dto.PromptTextDelta;
+import com.videogen.promptgen.grpc.v1.PromptGenerationProto;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+/**
+ * Reflection hints for the native image that AOT processing cannot derive from bean, controller
+ * and repository signatures. Entities, DTOs returned by controllers and JPA projections are
+ * registered by Spring itself.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Retention archives serialize jobs with Jackson outside any controller
+        // ... and streamed job events are written straight to the response
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), PromptResponse.class,
+                PromptTextDelta.class);
+
+        // Generated protobuf messages look up their accessors reflectively when first used
+        Descriptors.FileDescriptor file = PromptGenerationProto.getDescriptor();
+        String javaPackage = file.getOptions().getJavaPackage();
+        for (Descriptors.Descriptor message : file.getMessageTypes()) {
+            hints.reflection()
+                    .registerType(TypeReference.of(javaPackage + "." + message.getName()),
+                            MemberCategory.INVOKE_PUBLIC_METHODS)
+                    .registerType(TypeReference.of(javaPackage + "." + message.getName() + "$Builder"),
+                            MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        for (Descriptors.EnumDescriptor enumType : file.getEnumTypes()) {
+            hints.reflection().registerType(TypeReference.of(javaPackage + "." + enumType.getName()),
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.videogen.promptgen.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.aop.ObservedAspect;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Local span exporters, selected with {@code videogen.tracing.exporter}. Boot's tracing
+ * auto-configuration picks up every {@link SpanExporter} bean, so these sit alongside the
+ * OTLP exporter enabled by {@code management.otlp.tracing.endpoint}. The exporter is chosen when
+ * the bean is created rather than by bean conditions, which AOT would fix when the image is built.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    public ObservedAspect observedAspect(ObservationRegistry observationRegistry) {
+        return new ObservedAspect(observationRegistry);
+    }
+
+    @Bean
+    public SpanExporter localSpanExporter(@Value("${videogen.tracing.exporter:none}") String exporter) {
+        return switch (exporter) {
+            case "logging" -> LoggingSpanExporter.create();
+            case "otlp-json" -> OtlpJsonLoggingSpanExporter.create();
+            // An empty composite exports nothing
+            case "none" -> SpanExporter.composite();
+            default -> throw new IllegalArgumentException(
+                    "videogen.tracing.exporter must be logging, otlp-json or none: " + exporter);
+        };
+    }
+}
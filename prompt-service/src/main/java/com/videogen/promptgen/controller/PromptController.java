@@ -1,41 +1,208 @@
 package com.videogen.promptgen.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.videogen.promptgen.dto.BulkDeleteRequest;
+import com.videogen.promptgen.dto.BulkDeleteResponse;
+import com.videogen.promptgen.dto.CostSummaryResponse;
+import com.videogen.promptgen.dto.CursorPageResponse;
+import com.videogen.promptgen.dto.PromptJobFilter;
+import com.videogen.promptgen.dto.PromptJobSummaryResponse;
 import com.videogen.promptgen.dto.PromptRequest;
 import com.videogen.promptgen.dto.PromptResponse;
+import com.videogen.promptgen.dto.PromptResultResponse;
+import com.videogen.promptgen.dto.PromptTextDelta;
+import com.videogen.promptgen.dto.PromptView;
+import com.videogen.promptgen.exception.ServiceOverloadedException;
+import com.videogen.promptgen.idempotency.IdempotencyService;
+import com.videogen.promptgen.idempotency.IdempotentResult;
+import com.videogen.promptgen.ratelimit.RateLimiter;
 import com.videogen.promptgen.service.PromptGenerationService;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @RestController
 @RequestMapping("/api/v1/prompts")
 public class PromptController {
 
+    /** Seconds the client will wait for a new job; like the request's timeoutSeconds, at most a day. */
+    public static final String REQUEST_TIMEOUT_HEADER = "Request-Timeout";
+
+    private static final double MAX_TIMEOUT_SECONDS = 86_400;
+
+    private static final String CREATE_OPERATION = "create-prompt-job";
+
+    /** Time past a streamed job's deadline for its results to be stored and sent. */
+    private static final Duration STREAM_DEADLINE_GRACE = Duration.ofSeconds(30);
+
     private final PromptGenerationService promptGenerationService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final RateLimiter rateLimiter;
+    private final Duration streamTimeout;
+    private final int streamBufferedEvents;
+    private final ExecutorService streams;
 
-    public PromptController(PromptGenerationService promptGenerationService) {
+    public PromptController(PromptGenerationService promptGenerationService,
+                            IdempotencyService idempotencyService,
+                            ObjectMapper objectMapper,
+                            RateLimiter rateLimiter,
+                            @Value("${videogen.prompt-stream.timeout:PT30M}") Duration streamTimeout,
+                            @Value("${videogen.prompt-stream.buffered-events:1000}") int streamBufferedEvents) {
         this.promptGenerationService = promptGenerationService;
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+        this.rateLimiter = rateLimiter;
+        this.streamTimeout = streamTimeout;
+        this.streamBufferedEvents = streamBufferedEvents;
+        AtomicInteger count = new AtomicInteger();
+        this.streams = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "prompt-stream-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streams.shutdownNow();
     }
 
     @PostMapping
-    public ResponseEntity<PromptResponse> createPromptJob(@Valid @RequestBody PromptRequest request) {
-        PromptResponse response = promptGenerationService.createPromptJob(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    public ResponseEntity<PromptResponse> createPromptJob(
+            @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestHeader(name = REQUEST_TIMEOUT_HEADER, required = false) String requestTimeout,
+            @Valid @RequestBody PromptRequest request,
+            HttpServletRequest httpRequest) {
+        Instant deadline = deadline(requestTimeout);
+        request.setClientId(rateLimiter.clientOf(httpRequest));
+        if (idempotencyKey == null) {
+            rateLimiter.checkSegments(httpRequest, request.getSegments().size());
+            PromptResponse response = promptGenerationService.createPromptJob(request, deadline);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        }
+        // Segments are charged only when the job runs, not when a retry replays it
+        IdempotentResult<PromptResponse> result = idempotencyService.execute(CREATE_OPERATION, idempotencyKey, request,
+                created -> {
+                    rateLimiter.checkSegments(httpRequest, request.getSegments().size());
+                    return promptGenerationService.createPromptJob(request, deadline, null, created);
+                },
+                PromptResponse::getId,
+                id -> promptGenerationService.getPromptJob(id, PromptView.FULL));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IdempotencyService.REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(result.body());
+    }
+
+    /**
+     * Creates a job like {@link #createPromptJob}, answering with server-sent events: a
+     * {@code delta} per prompt fragment as Claude generates it, then one {@code job} with the
+     * finished job, or an {@code error} if the job could not be created.
+     *
+     * <p>The response times out 30 seconds after the job's deadline, or after
+     * {@code videogen.prompt-stream.timeout} when it has none. The job runs on a thread of its
+     * own and events are written by another; see {@link PromptEventStream}.
+     */
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamPromptJob(
+            @RequestHeader(name = REQUEST_TIMEOUT_HEADER, required = false) String requestTimeout,
+            @Valid @RequestBody PromptRequest request,
+            HttpServletRequest httpRequest) {
+        Instant deadline = deadline(requestTimeout);
+        rateLimiter.checkSegments(httpRequest, request.getSegments().size());
+        request.setClientId(rateLimiter.clientOf(httpRequest));
+
+        Instant jobDeadline = request.getTimeoutSeconds() == null ? deadline
+                : earliest(deadline, Instant.now().plusMillis(Math.round(request.getTimeoutSeconds() * 1000)));
+        Duration timeout = jobDeadline != null
+                ? Duration.between(Instant.now(), jobDeadline).plus(STREAM_DEADLINE_GRACE) : streamTimeout;
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        PromptEventStream events = new PromptEventStream(emitter, objectMapper, streamBufferedEvents);
+        streams.execute(events::drain);
+        streams.execute(() -> {
+            try {
+                PromptResponse job = promptGenerationService.createPromptJob(request, deadline,
+                        (segmentNumber, fragment) -> events.send("delta", new PromptTextDelta(segmentNumber, fragment)));
+                events.finish("job", job);
+            } catch (ServiceOverloadedException e) {
+                events.finish("error", error(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()));
+            } catch (IllegalArgumentException e) {
+                events.finish("error", error(HttpStatus.BAD_REQUEST, e.getMessage()));
+            } catch (RuntimeException e) {
+                events.finish("error", error(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage()));
+            }
+        });
+        return ResponseEntity.ok()
+                .header("Cache-Control", "no-cache")
+                .body(emitter);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<PromptResponse> getPromptJob(@PathVariable Long id) {
-        PromptResponse response = promptGenerationService.getPromptJob(id);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<MappingJacksonValue> getPromptJob(@PathVariable Long id,
+                                                            @RequestParam(defaultValue = "full") String view,
+                                                            WebRequest webRequest) {
+        PromptView promptView = PromptView.parse(view);
+        // Answer 304 from the version column alone, before results are loaded and serialized
+        if (webRequest.checkNotModified(etag(id, promptGenerationService.getPromptJobVersion(id), promptView))) {
+            return null;
+        }
+        PromptResponse response = promptGenerationService.getPromptJob(id, promptView);
+        MappingJacksonValue body = new MappingJacksonValue(response);
+        body.setSerializationView(promptView.getJsonView());
+        return ResponseEntity.ok().eTag(etag(id, response.getVersion(), promptView)).body(body);
     }
 
     @GetMapping
-    public ResponseEntity<List<PromptResponse>> getAllPromptJobs() {
-        List<PromptResponse> responses = promptGenerationService.getAllPromptJobs();
-        return ResponseEntity.ok(responses);
+    public ResponseEntity<CursorPageResponse<PromptJobSummaryResponse>> listPromptJobs(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String style,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit) {
+        PromptJobFilter filter = PromptJobFilter.builder()
+                .status(status)
+                .style(style)
+                .createdFrom(createdFrom)
+                .createdTo(createdTo)
+                .cursor(cursor)
+                .limit(limit)
+                .build();
+        return ResponseEntity.ok(promptGenerationService.listPromptJobs(filter));
+    }
+
+    @GetMapping("/costs")
+    public ResponseEntity<CostSummaryResponse> getCostSummary(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(promptGenerationService.getCostSummary(from, to));
+    }
+
+    @GetMapping("/{id}/results")
+    public ResponseEntity<CursorPageResponse<PromptResultResponse>> getPromptResults(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer after,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(promptGenerationService.getPromptResults(id, after, limit));
     }
 
     @DeleteMapping("/{id}")
@@ -43,4 +210,46 @@ public class PromptController {
         promptGenerationService.deletePromptJob(id);
         return ResponseEntity.noContent().build();
     }
+
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<BulkDeleteResponse> bulkDeletePromptJobs(@Valid @RequestBody BulkDeleteRequest request) {
+        return ResponseEntity.ok(promptGenerationService.bulkDeletePromptJobs(request));
+    }
+
+    private static Map<String, Object> error(HttpStatus status, String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", status.value());
+        body.put("error", status.getReasonPhrase());
+        body.put("message", message);
+        return body;
+    }
+
+    private static Instant deadline(String requestTimeout) {
+        if (requestTimeout == null) {
+            return null;
+        }
+        try {
+            double seconds = Double.parseDouble(requestTimeout.strip());
+            if (seconds > 0 && seconds <= MAX_TIMEOUT_SECONDS) {
+                return Instant.now().plusMillis(Math.round(seconds * 1000));
+            }
+        } catch (NumberFormatException e) {
+            // fall through
+        }
+        throw new IllegalArgumentException(REQUEST_TIMEOUT_HEADER + " must be a number of seconds between 0 and 86400: "
+                + requestTimeout);
+    }
+
+    private static Instant earliest(Instant a, Instant b) {
+        return a == null ? b : b == null || a.isBefore(b) ? a : b;
+    }
+
+    /**
+     * Weak so that Tomcat still gzips the body: it skips compression for strong ETags, which would
+     * otherwise have to differ per encoding.
+     */
+    private static String etag(Long id, Long version, PromptView view) {
+        String suffix = view == PromptView.FULL ? "" : "-" + view.name().toLowerCase(Locale.ROOT);
+        return "W/\"" + id + "-" + version + suffix + "\"";
+    }
 }
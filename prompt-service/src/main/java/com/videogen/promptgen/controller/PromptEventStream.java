@@ -0,0 +1,90 @@
+package com.videogen.promptgen.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-sent events of one streamed job. Claude call workers only queue events; one writer
+ * thread sends them, so a slow client never blocks a worker. A client that falls more than the
+ * queue's capacity behind, times out or goes away is disconnected; the job still finishes and is
+ * stored.
+ */
+final class PromptEventStream {
+
+    private static final Event END = new Event(null, null);
+
+    private final SseEmitter emitter;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<Event> events;
+    private volatile boolean open = true;
+
+    PromptEventStream(SseEmitter emitter, ObjectMapper objectMapper, int capacity) {
+        this.emitter = emitter;
+        this.objectMapper = objectMapper;
+        this.events = new ArrayBlockingQueue<>(capacity);
+        emitter.onTimeout(this::close);
+        emitter.onError(e -> close());
+    }
+
+    /**
+     * Queues an event without blocking; the stream is closed instead when its queue is full.
+     */
+    void send(String name, Object data) {
+        if (open && !events.offer(new Event(name, data))) {
+            close();
+        }
+    }
+
+    /**
+     * Queues the last event, waiting for room if need be; the stream ends once it is sent. Called
+     * by the job's own thread, never by a Claude call worker.
+     */
+    void finish(String name, Object data) {
+        try {
+            if (open) {
+                events.put(new Event(name, data));
+                events.put(END);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+        }
+    }
+
+    /**
+     * Sends queued events until the stream is finished or closed; runs on the writer thread.
+     */
+    void drain() {
+        try {
+            while (open) {
+                Event event = events.poll(1, TimeUnit.SECONDS);
+                if (event == END) {
+                    break;
+                }
+                if (event != null && open) {
+                    emitter.send(SseEmitter.event().name(event.name()).data(objectMapper.writeValueAsString(event.data())));
+                }
+            }
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            // Client gone, or the emitter already timed out
+            close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+        }
+    }
+
+    private void close() {
+        open = false;
+        events.clear();
+    }
+
+    private record Event(String name, Object data) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.videogen.promptgen.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.observation.boot.autoconfigure.DataSourceObservationBeanPostProcessor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the application's DataSource in place of Boot's. The primary Hikari pool is configured
+ * from {@code spring.datasource.*} as Boot would; when replicas are configured under
+ * {@code videogen.datasource.routing.replicas} it is wrapped so read-only transactions go to them.
+ * The choice is made at runtime rather than with a condition so AOT-built images can turn routing
+ * on through the environment.
+ * <p>
+ * JDBC observation wraps each pool rather than the routing proxy (the {@code dataSource} bean is in
+ * {@code jdbc.excluded-datasource-bean-names}): it reads connection metadata on checkout, which
+ * would make the lazy proxy pick a pool before the transaction has marked the connection read-only.
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+public class DataSourceRoutingConfig {
+
+    private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+    @Bean(destroyMethod = "close")
+    public ReadReplicas readReplicas(ReplicaRoutingProperties routing, DataSourceProperties properties,
+                                     Environment environment, MeterRegistry meterRegistry,
+                                     ObjectProvider<DataSourceObservationBeanPostProcessor> observation) {
+        List<ReadReplicas.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < routing.getReplicas().size(); i++) {
+            ReplicaRoutingProperties.Replica config = routing.getReplicas().get(i);
+            if (!StringUtils.hasText(config.getUrl())) {
+                throw new IllegalArgumentException("videogen.datasource.routing.replicas[" + i + "].url is required");
+            }
+            String name = StringUtils.hasText(config.getName()) ? config.getName() : "replica-" + (i + 1);
+            HikariDataSource pool = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(config.getUrl())
+                    .username(config.getUsername() != null ? config.getUsername() : properties.determineUsername())
+                    .password(config.getPassword() != null ? config.getPassword() : properties.determinePassword())
+                    .build();
+            // Same timeouts and sizing knobs as the primary, then the replica-specific overrides
+            Binder.get(environment).bind(HIKARI_PREFIX, Bindable.ofInstance(pool));
+            pool.setPoolName(name);
+            pool.setMaximumPoolSize(config.getMaximumPoolSize());
+            pool.setReadOnly(true);
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new ReadReplicas.Replica(name, pool, observed(observation, pool, name)));
+        }
+        return new ReadReplicas(replicas);
+    }
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+                                 ReadReplicas replicas, MeterRegistry meterRegistry,
+                                 ObjectProvider<DataSourceObservationBeanPostProcessor> observation) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        if (StringUtils.hasText(properties.getName())) {
+            pool.setPoolName(properties.getName());
+        }
+        Binder.get(environment).bind(HIKARI_PREFIX, Bindable.ofInstance(pool));
+        DataSource primary = observed(observation, pool, "dataSource");
+        if (replicas.isEmpty()) {
+            return primary;
+        }
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(new ReadReplicaRoutingDataSource(primary, replicas, meterRegistry));
+        return proxy;
+    }
+
+    private static DataSource observed(ObjectProvider<DataSourceObservationBeanPostProcessor> observation,
+                                       DataSource pool, String name) {
+        DataSourceObservationBeanPostProcessor postProcessor = observation.getIfAvailable();
+        return postProcessor == null ? pool : (DataSource) postProcessor.postProcessAfterInitialization(pool, name);
+    }
+}
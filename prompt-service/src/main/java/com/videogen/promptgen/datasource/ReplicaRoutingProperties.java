@@ -0,0 +1,48 @@
+package com.videogen.promptgen.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "videogen.datasource.routing")
+public class ReplicaRoutingProperties {
+
+    /** Read replicas; with none configured the primary pool serves everything. */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /** A replica lagging further behind than this is taken out of rotation. */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /** Pause between replica health checks; ISO-8601 (PT5S) because @Scheduled parses it too. */
+    private Duration checkInterval = Duration.ofSeconds(5);
+
+    /** How long a health check waits for a replica connection to validate. */
+    private Duration validationTimeout = Duration.ofSeconds(2);
+
+    /** Query reporting replication lag in seconds; unset means lag is not checked. */
+    private String lagQuery;
+
+    /** Column of the lag query holding the lag; unset means the first column. */
+    private String lagColumn;
+
+    @Data
+    public static class Replica {
+
+        /** Pool name, also the replica tag on metrics. Defaults to replica-N. */
+        private String name;
+
+        private String url;
+
+        /** Defaults to the primary's username. */
+        private String username;
+
+        /** Defaults to the primary's password. */
+        private String password;
+
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,104 @@
+package com.videogen.promptgen.dto;
+
+import com.videogen.promptgen.repository.ModelUsageTotals;
+import com.videogen.promptgen.repository.StyleUsageTotals;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CostSummaryResponse {
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private long jobCount;
+    private long totalInputTokens;
+    private long totalOutputTokens;
+    private long totalCacheCreationInputTokens;
+    private long totalCacheReadInputTokens;
+    private BigDecimal estimatedCostUsd;
+
+    /** Per art style, aggregated from job totals. */
+    private List<StyleCost> byStyle;
+
+    /** Per model, aggregated from the results that made a Claude call. */
+    private List<ModelCost> byModel;
+
+    public static CostSummaryResponse of(LocalDateTime from, LocalDateTime to,
+                                         List<StyleCost> byStyle, List<ModelCost> byModel) {
+        return CostSummaryResponse.builder()
+                .from(from)
+                .to(to)
+                .jobCount(byStyle.stream().mapToLong(StyleCost::getJobCount).sum())
+                .totalInputTokens(byStyle.stream().mapToLong(StyleCost::getInputTokens).sum())
+                .totalOutputTokens(byStyle.stream().mapToLong(StyleCost::getOutputTokens).sum())
+                .totalCacheCreationInputTokens(byStyle.stream().mapToLong(StyleCost::getCacheCreationInputTokens).sum())
+                .totalCacheReadInputTokens(byStyle.stream().mapToLong(StyleCost::getCacheReadInputTokens).sum())
+                .estimatedCostUsd(byStyle.stream().map(StyleCost::getEstimatedCostUsd).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .byStyle(byStyle)
+                .byModel(byModel)
+                .build();
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StyleCost {
+
+        private String style;
+        private long jobCount;
+        private long inputTokens;
+        private long outputTokens;
+        private long cacheCreationInputTokens;
+        private long cacheReadInputTokens;
+        private BigDecimal estimatedCostUsd;
+
+        public static StyleCost fromTotals(StyleUsageTotals totals) {
+            return StyleCost.builder()
+                    .style(totals.getStyle().name())
+                    .jobCount(totals.getCount())
+                    .inputTokens(totals.getInputTokens())
+                    .outputTokens(totals.getOutputTokens())
+                    .cacheCreationInputTokens(totals.getCacheCreationInputTokens())
+                    .cacheReadInputTokens(totals.getCacheReadInputTokens())
+                    .estimatedCostUsd(totals.getEstimatedCostUsd())
+                    .build();
+        }
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ModelCost {
+
+        private String model;
+        private long callCount;
+        private long inputTokens;
+        private long outputTokens;
+        private long cacheCreationInputTokens;
+        private long cacheReadInputTokens;
+        private BigDecimal estimatedCostUsd;
+
+        public static ModelCost fromTotals(ModelUsageTotals totals) {
+            return ModelCost.builder()
+                    .model(totals.getModel())
+                    .callCount(totals.getCount())
+                    .inputTokens(totals.getInputTokens())
+                    .outputTokens(totals.getOutputTokens())
+                    .cacheCreationInputTokens(totals.getCacheCreationInputTokens())
+                    .cacheReadInputTokens(totals.getCacheReadInputTokens())
+                    .estimatedCostUsd(totals.getEstimatedCostUsd())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.videogen.promptgen.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+
+    private List<T> items;
+    private Integer limit;
+
+    /**
+     * Cursor to pass back for the next page, or {@code null} when this is the last page.
+     */
+    private Long nextCursor;
+}
@@ -0,0 +1,22 @@
+package com.videogen.promptgen.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PromptJobFilter {
+
+    private String status;
+    private String style;
+    private LocalDateTime createdFrom;
+    private LocalDateTime createdTo;
+    private Long cursor;
+    private Integer limit;
+}
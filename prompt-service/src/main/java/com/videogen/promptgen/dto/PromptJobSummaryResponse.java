@@ -0,0 +1,41 @@
+package com.videogen.promptgen.dto;
+
+import com.videogen.promptgen.repository.PromptJobSummary;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PromptJobSummaryResponse {
+
+    private Long id;
+    private String style;
+    private String customStyleDescription;
+    private String status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Long resultCount;
+    private Long failedResultCount;
+    private BigDecimal estimatedCostUsd;
+
+    public static PromptJobSummaryResponse fromSummary(PromptJobSummary summary) {
+        return PromptJobSummaryResponse.builder()
+                .id(summary.getId())
+                .style(summary.getStyle().name())
+                .customStyleDescription(summary.getCustomStyleDescription())
+                .status(summary.getStatus().name())
+                .createdAt(summary.getCreatedAt())
+                .updatedAt(summary.getUpdatedAt())
+                .resultCount(summary.getResultCount())
+                .failedResultCount(summary.getFailedResultCount())
+                .estimatedCostUsd(summary.getEstimatedCostUsd())
+                .build();
+    }
+}
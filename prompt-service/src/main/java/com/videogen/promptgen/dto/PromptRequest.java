@@ -1,5 +1,8 @@
 package com.videogen.promptgen.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.AllArgsConstructor;
@@ -22,4 +25,30 @@ public class PromptRequest {
     private String style;
 
     private String customStyleDescription;
+
+    /**
+     * Opt-in: reuse an earlier prompt of the same style for any segment at least this similar to
+     * the segment it was generated for, instead of calling Claude. Unset never reuses.
+     */
+    @DecimalMin(value = "0.5", message = "reuseThreshold must be between 0.5 and 1.0")
+    @DecimalMax(value = "1.0", message = "reuseThreshold must be between 0.5 and 1.0")
+    private Double reuseThreshold;
+
+    /** INTERACTIVE, NORMAL (default) or BULK; decides whose Claude calls run first. */
+    private String priority;
+
+    /**
+     * Client or tenant sharing Claude capacity fairly with the others; unset shares as one anonymous
+     * client. Set by the controller from the rate limiter's client identity, never from the body.
+     */
+    @JsonIgnore
+    private String clientId;
+
+    /**
+     * Seconds the caller will wait for the job; segments that cannot be generated in time are
+     * skipped and the job ends PARTIAL. A {@code Request-Timeout} header sets the same limit.
+     */
+    @DecimalMin(value = "0", inclusive = false, message = "timeoutSeconds must be between 0 and 86400")
+    @DecimalMax(value = "86400", message = "timeoutSeconds must be between 0 and 86400")
+    private Double timeoutSeconds;
 }
@@ -1,11 +1,15 @@
 package com.videogen.promptgen.dto;
 
+import com.fasterxml.jackson.annotation.JsonView;
 import com.videogen.promptgen.model.PromptJob;
+import com.videogen.promptgen.repository.PromptJobHeader;
+import com.videogen.promptgen.repository.PromptResultUsage;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -16,12 +20,43 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class PromptResponse {
 
+    @JsonView(PromptView.Summary.class)
     private Long id;
+    @JsonView(PromptView.Summary.class)
     private String style;
+    @JsonView(PromptView.Full.class)
     private String customStyleDescription;
+    @JsonView(PromptView.Summary.class)
     private String status;
+    @JsonView(PromptView.Summary.class)
+    private String priority;
+    @JsonView(PromptView.Summary.class)
+    private String clientId;
+    @JsonView(PromptView.Summary.class)
+    private LocalDateTime deadline;
+    @JsonView(PromptView.Summary.class)
+    private Long version;
+    @JsonView(PromptView.Summary.class)
+    private Integer segmentCount;
+    @JsonView(PromptView.Summary.class)
+    private Integer uniqueSegmentCount;
+    @JsonView(PromptView.Summary.class)
+    private Integer deduplicatedSegmentCount;
+    @JsonView(PromptView.Summary.class)
+    private Long totalInputTokens;
+    @JsonView(PromptView.Summary.class)
+    private Long totalOutputTokens;
+    @JsonView(PromptView.Summary.class)
+    private Long totalCacheCreationInputTokens;
+    @JsonView(PromptView.Summary.class)
+    private Long totalCacheReadInputTokens;
+    @JsonView(PromptView.Summary.class)
+    private BigDecimal estimatedCostUsd;
+    @JsonView(PromptView.Summary.class)
     private LocalDateTime createdAt;
+    @JsonView(PromptView.Summary.class)
     private LocalDateTime updatedAt;
+    @JsonView(PromptView.Usage.class)
     private List<PromptResultResponse> results;
 
     public static PromptResponse fromEntity(PromptJob job) {
@@ -34,9 +69,53 @@ public class PromptResponse {
                 .style(job.getStyle().name())
                 .customStyleDescription(job.getCustomStyleDescription())
                 .status(job.getStatus().name())
+                .priority(job.getPriority().name())
+                .clientId(job.getClientId())
+                .deadline(job.getDeadline())
+                .version(job.getVersion())
+                .segmentCount(job.getSegmentCount())
+                .uniqueSegmentCount(job.getUniqueSegmentCount())
+                .deduplicatedSegmentCount(deduplicated(job.getSegmentCount(), job.getUniqueSegmentCount()))
+                .totalInputTokens(job.getTotalInputTokens())
+                .totalOutputTokens(job.getTotalOutputTokens())
+                .totalCacheCreationInputTokens(job.getTotalCacheCreationInputTokens())
+                .totalCacheReadInputTokens(job.getTotalCacheReadInputTokens())
+                .estimatedCostUsd(job.getEstimatedCostUsd())
                 .createdAt(job.getCreatedAt())
                 .updatedAt(job.getUpdatedAt())
                 .results(resultResponses)
                 .build();
     }
+
+    /**
+     * Builds a response from a header projection; {@code usages} is null for the summary view.
+     */
+    public static PromptResponse fromHeader(PromptJobHeader header, List<PromptResultUsage> usages) {
+        return PromptResponse.builder()
+                .id(header.getId())
+                .style(header.getStyle().name())
+                .status(header.getStatus().name())
+                .priority(header.getPriority().name())
+                .clientId(header.getClientId())
+                .deadline(header.getDeadline())
+                .version(header.getVersion())
+                .segmentCount(header.getSegmentCount())
+                .uniqueSegmentCount(header.getUniqueSegmentCount())
+                .deduplicatedSegmentCount(deduplicated(header.getSegmentCount(), header.getUniqueSegmentCount()))
+                .totalInputTokens(header.getTotalInputTokens())
+                .totalOutputTokens(header.getTotalOutputTokens())
+                .totalCacheCreationInputTokens(header.getTotalCacheCreationInputTokens())
+                .totalCacheReadInputTokens(header.getTotalCacheReadInputTokens())
+                .estimatedCostUsd(header.getEstimatedCostUsd())
+                .createdAt(header.getCreatedAt())
+                .updatedAt(header.getUpdatedAt())
+                .results(usages != null
+                        ? usages.stream().map(PromptResultResponse::fromUsage).collect(Collectors.toList())
+                        : null)
+                .build();
+    }
+
+    private static Integer deduplicated(Integer segmentCount, Integer uniqueSegmentCount) {
+        return segmentCount != null && uniqueSegmentCount != null ? segmentCount - uniqueSegmentCount : null;
+    }
 }
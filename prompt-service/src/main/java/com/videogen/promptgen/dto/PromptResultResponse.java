@@ -1,11 +1,14 @@
 package com.videogen.promptgen.dto;
 
+import com.fasterxml.jackson.annotation.JsonView;
 import com.videogen.promptgen.model.PromptResult;
+import com.videogen.promptgen.repository.PromptResultUsage;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -14,10 +17,33 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class PromptResultResponse {
 
+    @JsonView(PromptView.Usage.class)
     private Long id;
+    @JsonView(PromptView.Usage.class)
     private Integer segmentNumber;
+    @JsonView(PromptView.Full.class)
     private String segmentText;
+    @JsonView(PromptView.Full.class)
     private String generatedPrompt;
+    @JsonView(PromptView.Usage.class)
+    private Integer reusedFromSegment;
+    @JsonView(PromptView.Usage.class)
+    private Long reusedFromResultId;
+    @JsonView(PromptView.Usage.class)
+    private Double similarity;
+    @JsonView(PromptView.Usage.class)
+    private String model;
+    @JsonView(PromptView.Usage.class)
+    private Integer inputTokens;
+    @JsonView(PromptView.Usage.class)
+    private Integer outputTokens;
+    @JsonView(PromptView.Usage.class)
+    private Integer cacheCreationInputTokens;
+    @JsonView(PromptView.Usage.class)
+    private Integer cacheReadInputTokens;
+    @JsonView(PromptView.Usage.class)
+    private BigDecimal estimatedCostUsd;
+    @JsonView(PromptView.Usage.class)
     private LocalDateTime createdAt;
 
     public static PromptResultResponse fromEntity(PromptResult result) {
@@ -26,7 +52,33 @@ public class PromptResultResponse {
                 .segmentNumber(result.getSegmentNumber())
                 .segmentText(result.getSegmentText())
                 .generatedPrompt(result.getGeneratedPrompt())
+                .reusedFromSegment(result.getReusedFromSegment())
+                .reusedFromResultId(result.getReusedFromResultId())
+                .similarity(result.getSimilarity())
+                .model(result.getModel())
+                .inputTokens(result.getInputTokens())
+                .outputTokens(result.getOutputTokens())
+                .cacheCreationInputTokens(result.getCacheCreationInputTokens())
+                .cacheReadInputTokens(result.getCacheReadInputTokens())
+                .estimatedCostUsd(result.getEstimatedCostUsd())
                 .createdAt(result.getCreatedAt())
                 .build();
     }
+
+    public static PromptResultResponse fromUsage(PromptResultUsage usage) {
+        return PromptResultResponse.builder()
+                .id(usage.getId())
+                .segmentNumber(usage.getSegmentNumber())
+                .reusedFromSegment(usage.getReusedFromSegment())
+                .reusedFromResultId(usage.getReusedFromResultId())
+                .similarity(usage.getSimilarity())
+                .model(usage.getModel())
+                .inputTokens(usage.getInputTokens())
+                .outputTokens(usage.getOutputTokens())
+                .cacheCreationInputTokens(usage.getCacheCreationInputTokens())
+                .cacheReadInputTokens(usage.getCacheReadInputTokens())
+                .estimatedCostUsd(usage.getEstimatedCostUsd())
+                .createdAt(usage.getCreatedAt())
+                .build();
+    }
 }
@@ -0,0 +1,19 @@
+package com.videogen.promptgen.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A fragment of a segment's prompt, sent as a {@code delta} event while Claude generates it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PromptTextDelta {
+
+    private Integer segmentNumber;
+    private String text;
+}
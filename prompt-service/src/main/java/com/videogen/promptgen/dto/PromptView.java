@@ -0,0 +1,46 @@
+package com.videogen.promptgen.dto;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Named representations of a prompt job. Each view selects a Jackson view for serialization and is
+ * served from a projection that reads only the columns it exposes.
+ */
+public enum PromptView {
+
+    /** Job status, counts, token totals and cost; no style description and no results. */
+    SUMMARY(Summary.class),
+    /** Summary plus per-result model, token usage and cost, without segment text or prompts. */
+    USAGE(Usage.class),
+    /** Everything, including the style description, segment texts and generated prompts. */
+    FULL(Full.class);
+
+    public interface Summary {
+    }
+
+    public interface Usage extends Summary {
+    }
+
+    public interface Full extends Usage {
+    }
+
+    private final Class<?> jsonView;
+
+    PromptView(Class<?> jsonView) {
+        this.jsonView = jsonView;
+    }
+
+    public Class<?> getJsonView() {
+        return jsonView;
+    }
+
+    public static PromptView parse(String value) {
+        try {
+            return PromptView.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid view: " + value
+                    + ". Valid views are: " + Arrays.toString(PromptView.values()).toLowerCase(Locale.ROOT));
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.videogen.promptgen.exception;
+
+/**
+ * A Claude call was not started, or was abandoned, because its job's deadline left too little
+ * time for it to finish.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
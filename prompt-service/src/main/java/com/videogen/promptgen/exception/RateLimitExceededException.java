@@ -0,0 +1,37 @@
+package com.videogen.promptgen.exception;
+
+import java.time.Duration;
+
+/**
+ * The client has used up one of its rate limits; carries what the 429 response reports.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final int limit;
+    private final Duration reset;
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String what, int limit, Duration reset, Duration retryAfter) {
+        super(String.format("Rate limit exceeded for %s; retry in %d seconds", what, seconds(retryAfter)));
+        this.limit = limit;
+        this.reset = reset;
+        this.retryAfter = retryAfter;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public Duration getReset() {
+        return reset;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /** Whole seconds, rounded up so that a client retrying on time is not refused again. */
+    public static long seconds(Duration duration) {
+        return Math.max(1, (duration.toMillis() + 999) / 1000);
+    }
+}
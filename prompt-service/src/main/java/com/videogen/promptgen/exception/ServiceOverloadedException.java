@@ -0,0 +1,20 @@
+package com.videogen.promptgen.exception;
+
+import java.time.Duration;
+
+/**
+ * Claude capacity is saturated and the new job was shed instead of queued.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,87 @@
+package com.videogen.promptgen.grpc;
+
+import io.grpc.BindableService;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.micrometer.core.instrument.binder.grpc.ObservationGrpcServerInterceptor;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the gRPC services on their own Netty server and port, started after and stopped before the
+ * rest of the context. Every call is observed, so gRPC traffic shows up in the same metrics and
+ * traces as HTTP requests.
+ *
+ * <p>{@code videogen.grpc.enabled} is checked when the context starts rather than through a bean
+ * condition, which AOT would fix when the image is built.
+ */
+@Component
+public class GrpcServerLifecycle implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(GrpcServerLifecycle.class);
+
+    private final GrpcServerProperties properties;
+    private final List<BindableService> services;
+    private final ObservationRegistry observationRegistry;
+    private Server server;
+
+    public GrpcServerLifecycle(GrpcServerProperties properties, List<BindableService> services,
+                               ObservationRegistry observationRegistry) {
+        this.properties = properties;
+        this.services = services;
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        if (!properties.isEnabled()) {
+            log.info("gRPC server disabled");
+        }
+        return properties.isEnabled();
+    }
+
+    @Override
+    public void start() {
+        NettyServerBuilder builder = NettyServerBuilder.forPort(properties.getPort())
+                .maxInboundMessageSize((int) properties.getMaxInboundMessageSize().toBytes())
+                .maxConcurrentCallsPerConnection(properties.getMaxConcurrentCallsPerConnection())
+                .keepAliveTime(properties.getKeepAliveTime().toMillis(), TimeUnit.MILLISECONDS)
+                .permitKeepAliveTime(properties.getPermitKeepAliveTime().toMillis(), TimeUnit.MILLISECONDS);
+        ObservationGrpcServerInterceptor observation = new ObservationGrpcServerInterceptor(observationRegistry);
+        services.forEach(service -> builder.addService(ServerInterceptors.intercept(service, observation)));
+        try {
+            server = builder.build().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start gRPC server on port " + properties.getPort(), e);
+        }
+        log.info("gRPC server started on port {}", server.getPort());
+    }
+
+    @Override
+    public void stop() {
+        server.shutdown();
+        try {
+            if (!server.awaitTermination(properties.getShutdownGracePeriod().toMillis(), TimeUnit.MILLISECONDS)) {
+                server.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            server.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+}
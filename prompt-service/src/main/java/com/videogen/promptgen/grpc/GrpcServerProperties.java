@@ -0,0 +1,33 @@
+package com.videogen.promptgen.grpc;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "videogen.grpc")
+public class GrpcServerProperties {
+
+    /** Whether the gRPC server is started next to the HTTP server. */
+    private boolean enabled = true;
+
+    /** Port of the gRPC server; kept apart from server.port so HTTP/2 traffic can be routed separately. */
+    private int port = 9091;
+
+    /** Largest inbound message accepted; one segment or start message per message. */
+    private DataSize maxInboundMessageSize = DataSize.ofMegabytes(4);
+
+    /** Concurrent calls one connection may multiplex before new calls queue on the client. */
+    private int maxConcurrentCallsPerConnection = 100;
+
+    /** Interval of server keepalive pings on idle connections. */
+    private Duration keepAliveTime = Duration.ofMinutes(2);
+
+    /** Shortest client keepalive interval tolerated before the connection is closed. */
+    private Duration permitKeepAliveTime = Duration.ofSeconds(30);
+
+    /** How long in-flight calls may run on shutdown before they are cancelled. */
+    private Duration shutdownGracePeriod = Duration.ofSeconds(30);
+}
@@ -0,0 +1,199 @@
+package com.videogen.promptgen.grpc;
+
+import com.videogen.promptgen.dto.PromptResponse;
+import com.videogen.promptgen.exception.ResourceNotFoundException;
+import com.videogen.promptgen.exception.ServiceOverloadedException;
+import com.videogen.promptgen.grpc.v1.GetPromptJobRequest;
+import com.videogen.promptgen.grpc.v1.ListPromptResultsRequest;
+import com.videogen.promptgen.grpc.v1.ListPromptResultsResponse;
+import com.videogen.promptgen.grpc.v1.PromptGenerationGrpc;
+import com.videogen.promptgen.grpc.v1.PromptJob;
+import com.videogen.promptgen.grpc.v1.StreamPromptsRequest;
+import com.videogen.promptgen.grpc.v1.StreamPromptsResponse;
+import com.videogen.promptgen.service.PromptGenerationService;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+/**
+ * gRPC front end of {@link PromptGenerationService}; status codes mirror GlobalExceptionHandler.
+ */
+@Component
+public class PromptGenerationGrpcService extends PromptGenerationGrpc.PromptGenerationImplBase {
+
+    private static final Logger log = LoggerFactory.getLogger(PromptGenerationGrpcService.class);
+
+    private final PromptGenerationService promptGenerationService;
+
+    public PromptGenerationGrpcService(PromptGenerationService promptGenerationService) {
+        this.promptGenerationService = promptGenerationService;
+    }
+
+    @Override
+    public StreamObserver<StreamPromptsRequest> streamPrompts(StreamObserver<StreamPromptsResponse> responseObserver) {
+        ServerCallStreamObserver<StreamPromptsResponse> call =
+                (ServerCallStreamObserver<StreamPromptsResponse>) responseObserver;
+        PromptStream stream = new PromptStream(call);
+        // Segments are pulled one at a time, so a slow client stops the intake instead of queueing results
+        call.disableAutoRequest();
+        call.setOnReadyHandler(stream::requestNextIfReady);
+        return stream;
+    }
+
+    @Override
+    public void getPromptJob(GetPromptJobRequest request, StreamObserver<PromptJob> responseObserver) {
+        try {
+            PromptResponse job = promptGenerationService.getPromptJob(request.getJobId(),
+                    PromptProtoMapper.fromProto(request.getView()));
+            responseObserver.onNext(PromptProtoMapper.toProto(job));
+            responseObserver.onCompleted();
+        } catch (RuntimeException e) {
+            responseObserver.onError(toStatus(e));
+        }
+    }
+
+    @Override
+    public void listPromptResults(ListPromptResultsRequest request,
+                                  StreamObserver<ListPromptResultsResponse> responseObserver) {
+        try {
+            responseObserver.onNext(PromptProtoMapper.toProto(promptGenerationService.getPromptResults(
+                    request.getJobId(), request.getAfterSegmentNumber(),
+                    request.getLimit() > 0 ? request.getLimit() : null)));
+            responseObserver.onCompleted();
+        } catch (RuntimeException e) {
+            responseObserver.onError(toStatus(e));
+        }
+    }
+
+    static StatusRuntimeException toStatus(RuntimeException e) {
+        Status status;
+        if (e instanceof ResourceNotFoundException) {
+            status = Status.NOT_FOUND;
+        } else if (e instanceof IllegalArgumentException) {
+            status = Status.INVALID_ARGUMENT;
+        } else if (e instanceof ObjectOptimisticLockingFailureException) {
+            status = Status.ABORTED;
+        } else if (e instanceof ServiceOverloadedException) {
+            status = Status.UNAVAILABLE;
+        } else {
+            log.error("gRPC call failed", e);
+            status = Status.INTERNAL;
+        }
+        return status.withDescription(e.getMessage()).asRuntimeException();
+    }
+
+    /**
+     * State of one StreamPrompts call. gRPC delivers its callbacks one at a time, so no locking is needed.
+     */
+    private final class PromptStream implements StreamObserver<StreamPromptsRequest> {
+
+        private final ServerCallStreamObserver<StreamPromptsResponse> call;
+        private Long jobId;
+        private boolean requested;
+        private boolean closed;
+
+        private PromptStream(ServerCallStreamObserver<StreamPromptsResponse> call) {
+            this.call = call;
+        }
+
+        @Override
+        public void onNext(StreamPromptsRequest request) {
+            requested = false;
+            if (closed) {
+                return;
+            }
+            try {
+                if (jobId == null) {
+                    start(request);
+                } else if (request.hasSegment()) {
+                    call.onNext(StreamPromptsResponse.newBuilder()
+                            .setResult(PromptProtoMapper.toProto(
+                                    promptGenerationService.appendSegment(jobId, request.getSegment().getText())))
+                            .build());
+                } else {
+                    throw new IllegalArgumentException("Only the first message may start a job");
+                }
+                requestNextIfReady();
+            } catch (RuntimeException e) {
+                abort(toStatus(e));
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            // The client cancelled or the connection dropped; nobody is left to receive a reply
+            if (!closed && jobId != null) {
+                closed = true;
+                finish(true);
+            }
+        }
+
+        @Override
+        public void onCompleted() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                PromptResponse job = jobId != null ? finish(false) : null;
+                if (job != null) {
+                    call.onNext(StreamPromptsResponse.newBuilder()
+                            .setJobFinished(PromptProtoMapper.toProto(job))
+                            .build());
+                }
+                call.onCompleted();
+            } catch (RuntimeException e) {
+                call.onError(toStatus(e));
+            }
+        }
+
+        /**
+         * Asks for one more segment unless one is already outstanding or the client has not drained
+         * the previous result yet; the ready handler calls back once it has.
+         */
+        private void requestNextIfReady() {
+            if (!closed && !requested && call.isReady()) {
+                requested = true;
+                call.request(1);
+            }
+        }
+
+        private void start(StreamPromptsRequest request) {
+            if (!request.hasStart()) {
+                throw new IllegalArgumentException("The first message must start a job");
+            }
+            String customStyleDescription = request.getStart().getCustomStyleDescription();
+            PromptResponse job = promptGenerationService.startPromptJob(request.getStart().getStyle(),
+                    customStyleDescription.isEmpty() ? null : customStyleDescription);
+            jobId = job.getId();
+            call.onNext(StreamPromptsResponse.newBuilder()
+                    .setJobStarted(PromptProtoMapper.toProto(job))
+                    .build());
+        }
+
+        private void abort(StatusRuntimeException status) {
+            closed = true;
+            if (jobId != null) {
+                finish(true);
+            }
+            call.onError(status);
+        }
+
+        private PromptResponse finish(boolean aborted) {
+            try {
+                return promptGenerationService.finishPromptJob(jobId, aborted);
+            } catch (RuntimeException e) {
+                if (!aborted) {
+                    throw e;
+                }
+                log.warn("Could not mark streamed prompt job {} as failed", jobId, e);
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.videogen.promptgen.grpc;
+
+import com.videogen.promptgen.dto.CursorPageResponse;
+import com.videogen.promptgen.dto.PromptResponse;
+import com.videogen.promptgen.dto.PromptResultResponse;
+import com.videogen.promptgen.dto.PromptView;
+import com.videogen.promptgen.grpc.v1.ListPromptResultsResponse;
+import com.videogen.promptgen.grpc.v1.PromptJob;
+import com.videogen.promptgen.grpc.v1.PromptResult;
+
+import java.util.Objects;
+
+/**
+ * Converts service DTOs to protobuf messages. Protobuf setters reject null, so absent values are
+ * left at their defaults or, for optional fields, unset.
+ */
+final class PromptProtoMapper {
+
+    private PromptProtoMapper() {
+    }
+
+    static PromptJob toProto(PromptResponse job) {
+        PromptJob.Builder builder = PromptJob.newBuilder()
+                .setId(job.getId())
+                .setStyle(job.getStyle())
+                .setCustomStyleDescription(Objects.toString(job.getCustomStyleDescription(), ""))
+                .setStatus(job.getStatus())
+                .setVersion(valueOf(job.getVersion()))
+                .setSegmentCount(valueOf(job.getSegmentCount()))
+                .setUniqueSegmentCount(valueOf(job.getUniqueSegmentCount()))
+                .setTotalInputTokens(valueOf(job.getTotalInputTokens()))
+                .setTotalOutputTokens(valueOf(job.getTotalOutputTokens()))
+                .setTotalCacheCreationInputTokens(valueOf(job.getTotalCacheCreationInputTokens()))
+                .setTotalCacheReadInputTokens(valueOf(job.getTotalCacheReadInputTokens()))
+                .setEstimatedCostUsd(Objects.toString(job.getEstimatedCostUsd(), ""))
+                .setCreatedAt(Objects.toString(job.getCreatedAt(), ""))
+                .setUpdatedAt(Objects.toString(job.getUpdatedAt(), ""));
+        if (job.getResults() != null) {
+            job.getResults().forEach(result -> builder.addResults(toProto(result)));
+        }
+        return builder.build();
+    }
+
+    static PromptResult toProto(PromptResultResponse result) {
+        PromptResult.Builder builder = PromptResult.newBuilder()
+                .setId(result.getId())
+                .setSegmentNumber(result.getSegmentNumber())
+                .setSegmentText(Objects.toString(result.getSegmentText(), ""))
+                .setModel(Objects.toString(result.getModel(), ""))
+                .setInputTokens(valueOf(result.getInputTokens()))
+                .setOutputTokens(valueOf(result.getOutputTokens()))
+                .setCacheCreationInputTokens(valueOf(result.getCacheCreationInputTokens()))
+                .setCacheReadInputTokens(valueOf(result.getCacheReadInputTokens()))
+                .setEstimatedCostUsd(Objects.toString(result.getEstimatedCostUsd(), ""))
+                .setCreatedAt(Objects.toString(result.getCreatedAt(), ""));
+        if (result.getGeneratedPrompt() != null) {
+            builder.setGeneratedPrompt(result.getGeneratedPrompt());
+        }
+        if (result.getReusedFromSegment() != null) {
+            builder.setReusedFromSegment(result.getReusedFromSegment());
+        }
+        if (result.getReusedFromResultId() != null) {
+            builder.setReusedFromResultId(result.getReusedFromResultId());
+            builder.setSimilarity(result.getSimilarity());
+        }
+        return builder.build();
+    }
+
+    static ListPromptResultsResponse toProto(CursorPageResponse<PromptResultResponse> page) {
+        ListPromptResultsResponse.Builder builder = ListPromptResultsResponse.newBuilder();
+        page.getItems().forEach(result -> builder.addResults(toProto(result)));
+        if (page.getNextCursor() != null) {
+            builder.setNextCursor(page.getNextCursor());
+        }
+        return builder.build();
+    }
+
+    static PromptView fromProto(com.videogen.promptgen.grpc.v1.PromptView view) {
+        return switch (view) {
+            case PROMPT_VIEW_SUMMARY -> PromptView.SUMMARY;
+            case PROMPT_VIEW_USAGE -> PromptView.USAGE;
+            case PROMPT_VIEW_UNSPECIFIED, PROMPT_VIEW_FULL -> PromptView.FULL;
+            case UNRECOGNIZED -> throw new IllegalArgumentException("Unknown view: " + view);
+        };
+    }
+
+    private static long valueOf(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private static int valueOf(Integer value) {
+        return value != null ? value : 0;
+    }
+}
@@ -0,0 +1,30 @@
+package com.videogen.promptgen.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "videogen.idempotency")
+public class IdempotencyProperties {
+
+    /** How long a key is remembered after its first use. */
+    private Duration ttl = Duration.ofHours(24);
+
+    /** How long a retry waits for the original request to store its resource before answering 409. */
+    private Duration inProgressWait = Duration.ofSeconds(30);
+
+    /** How often a waiting retry re-reads the key. */
+    private Duration pollInterval = Duration.ofMillis(250);
+
+    /**
+     * How long an IN_PROGRESS key without a resource is held without renewal. The request holding
+     * it renews it every third of this while it runs; a key whose lease ran out is taken to belong
+     * to an instance that died mid-request and may be claimed again.
+     */
+    private Duration inProgressLease = Duration.ofMinutes(15);
+
+    /** How often expired keys are deleted. */
+    private Duration purgeInterval = Duration.ofMinutes(10);
+}
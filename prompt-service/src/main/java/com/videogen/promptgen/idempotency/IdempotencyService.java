@@ -0,0 +1,248 @@
+package com.videogen.promptgen.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.videogen.promptgen.exception.IdempotencyKeyInProgressException;
+import com.videogen.promptgen.exception.IdempotencyKeyMismatchException;
+import com.videogen.promptgen.model.IdempotencyKey;
+import com.videogen.promptgen.model.IdempotencyKeyStatus;
+import com.videogen.promptgen.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+/**
+ * Runs create operations at most once per {@code Idempotency-Key}.
+ *
+ * <p>The first request inserts the key in its own short transaction; the unique constraint on
+ * (operation, key) makes exactly one of any concurrent duplicates win. The winner then runs the
+ * operation with no transaction of its own open, so a job that runs for hours holds no connection.
+ * The operation stores its resource id on the key as soon as the resource is committed; from then
+ * on losers replay that resource in its current state, even while the operation is still running,
+ * and only those arriving before it was committed wait.
+ *
+ * <p>Until then the winner holds the key on a lease that it renews while the operation runs, so
+ * the key of an instance that died is freed once the lease runs out.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final IdempotencyKeyRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final IdempotencyProperties properties;
+    private final ScheduledThreadPoolExecutor leaseRenewer;
+
+    public IdempotencyService(IdempotencyKeyRepository repository,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              IdempotencyProperties properties) {
+        this.repository = repository;
+        // Read-write, so key lookups go to the primary: a lagging replica could miss a fresh claim
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.leaseRenewer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.leaseRenewer.setRemoveOnCancelPolicy(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        leaseRenewer.shutdownNow();
+    }
+
+    /**
+     * Runs {@code action} unless an earlier request already used {@code key} for
+     * {@code operation}, in which case that request's resource is returned through
+     * {@code replay}. A duplicate of a request that has not stored its resource yet waits for it
+     * for up to {@code videogen.idempotency.in-progress-wait}.
+     *
+     * @param request    the request body; replaying a key with a different body is rejected
+     * @param action     creates the resource, passing its id to the given callback as soon as it is
+     *                   committed; once it has, a failure of the action no longer frees the key
+     * @param resourceId extracts the id of the created resource, stored with the key
+     * @param replay     loads the current representation of a stored resource id
+     * @throws IdempotencyKeyMismatchException   if the key was used with a different body
+     * @throws IdempotencyKeyInProgressException if the original request is still running
+     */
+    public <T> IdempotentResult<T> execute(String operation, String key, Object request,
+                                           Function<LongConsumer, T> action,
+                                           Function<T, Long> resourceId,
+                                           Function<Long, T> replay) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = hash(request);
+        long deadline = System.nanoTime() + properties.getInProgressWait().toNanos();
+
+        while (true) {
+            IdempotencyKey existing = transactionTemplate.execute(status ->
+                    repository.findByOperationAndIdempotencyKey(operation, key).orElse(null));
+            if (existing == null) {
+                IdempotencyKey claimed = claim(operation, key, requestHash);
+                if (claimed != null) {
+                    T body = run(claimed, action, resourceId);
+                    count(operation, "executed");
+                    return new IdempotentResult<>(body, false);
+                }
+                // Lost the race to a concurrent duplicate; read its claim
+                continue;
+            }
+            if (!existing.getRequestHash().equals(requestHash)) {
+                count(operation, "mismatch");
+                throw new IdempotencyKeyMismatchException(key);
+            }
+            if (isStale(existing)) {
+                log.warn("Reclaiming stale idempotency key {} for {} created at {}",
+                        key, operation, existing.getCreatedAt());
+                release(existing.getId());
+                continue;
+            }
+            if (existing.getResourceId() != null) {
+                count(operation, "replayed");
+                return new IdempotentResult<>(replay.apply(existing.getResourceId()), true);
+            }
+            if (System.nanoTime() >= deadline) {
+                count(operation, "in_progress");
+                throw new IdempotencyKeyInProgressException(key, RETRY_AFTER);
+            }
+            try {
+                Thread.sleep(properties.getPollInterval().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdempotencyKeyInProgressException(key, RETRY_AFTER);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${videogen.idempotency.purge-interval:PT10M}")
+    public void purgeExpired() {
+        Integer purged = transactionTemplate.execute(status -> repository.deleteExpired(LocalDateTime.now()));
+        if (purged != null && purged > 0) {
+            log.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    /**
+     * Inserts the key, or returns null when another request already holds it.
+     */
+    private IdempotencyKey claim(String operation, String key, String requestHash) {
+        try {
+            return transactionTemplate.execute(status -> repository.saveAndFlush(IdempotencyKey.builder()
+                    .operation(operation)
+                    .idempotencyKey(key)
+                    .requestHash(requestHash)
+                    .status(IdempotencyKeyStatus.IN_PROGRESS)
+                    .expiresAt(LocalDateTime.now().plus(properties.getTtl()))
+                    .leaseExpiresAt(LocalDateTime.now().plus(properties.getInProgressLease()))
+                    .build()));
+        } catch (DataIntegrityViolationException e) {
+            return null;
+        }
+    }
+
+    private <T> T run(IdempotencyKey claimed, Function<LongConsumer, T> action, Function<T, Long> resourceId) {
+        long renewEvery = Math.max(1, properties.getInProgressLease().toNanos() / 3);
+        ScheduledFuture<?> renewal = leaseRenewer.scheduleAtFixedRate(() -> renew(claimed.getId()),
+                renewEvery, renewEvery, TimeUnit.NANOSECONDS);
+        AtomicBoolean recorded = new AtomicBoolean();
+        try {
+            T body = action.apply(id -> {
+                transactionTemplate.executeWithoutResult(status -> repository.recordResource(claimed.getId(), id));
+                recorded.set(true);
+            });
+            transactionTemplate.executeWithoutResult(status ->
+                    repository.markCompleted(claimed.getId(), resourceId.apply(body)));
+            return body;
+        } catch (RuntimeException e) {
+            // A stored resource stays on the key for retries to replay; otherwise they may run again
+            if (!recorded.get()) {
+                release(claimed.getId());
+            }
+            throw e;
+        } finally {
+            renewal.cancel(false);
+        }
+    }
+
+    private void renew(Long id) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    repository.renewLease(id, LocalDateTime.now().plus(properties.getInProgressLease())));
+        } catch (RuntimeException e) {
+            // The next renewal tries again; only a lease missed for its whole length frees the key
+            log.warn("Could not renew idempotency key lease {}", id, e);
+        }
+    }
+
+    private void release(Long id) {
+        transactionTemplate.executeWithoutResult(status -> repository.deleteById(id));
+    }
+
+    private boolean isStale(IdempotencyKey key) {
+        LocalDateTime now = LocalDateTime.now();
+        if (key.getExpiresAt().isBefore(now)) {
+            return true;
+        }
+        // A key with a resource replays it until it expires, whether or not its request still runs
+        if (key.getStatus() != IdempotencyKeyStatus.IN_PROGRESS || key.getResourceId() != null) {
+            return false;
+        }
+        // Keys claimed before leases were renewed have none; they fall back to their age
+        LocalDateTime leaseExpiresAt = key.getLeaseExpiresAt() != null ? key.getLeaseExpiresAt()
+                : key.getCreatedAt().plus(properties.getInProgressLease());
+        return leaseExpiresAt.isBefore(now);
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash request for idempotency check", e);
+        }
+    }
+
+    private void count(String operation, String outcome) {
+        Counter.builder("videogen.idempotency.requests")
+                .description("Create requests carrying an Idempotency-Key, by outcome")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,8 @@
+package com.videogen.promptgen.idempotency;
+
+/**
+ * Response body of an idempotent create, and whether it was replayed from an earlier request
+ * with the same key rather than produced by this one.
+ */
+public record IdempotentResult<T>(T body, boolean replayed) {
+}
@@ -0,0 +1,239 @@
+package com.videogen.promptgen.metrics;
+
+import com.videogen.promptgen.client.PromptCompletion;
+import com.videogen.promptgen.model.ArtStyle;
+import com.videogen.promptgen.model.JobPriority;
+import com.videogen.promptgen.model.JobStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Prompt generation meters and spans. Timed sections are Observations, so each one yields a
+ * timer and, when tracing is on, a span. Names share the {@code videogen.} prefix with segmentation-service
+ * so the percentile/histogram settings in application.yml apply to both.
+ */
+@Component
+public class PromptMetrics {
+
+    private final MeterRegistry registry;
+    private final ObservationRegistry observationRegistry;
+    private final AtomicInteger jobsInFlight = new AtomicInteger();
+    private final AtomicInteger segmentsQueued = new AtomicInteger();
+
+    public PromptMetrics(MeterRegistry registry, ObservationRegistry observationRegistry) {
+        this.registry = registry;
+        this.observationRegistry = observationRegistry;
+        Gauge.builder("videogen.prompt.jobs.in.flight", jobsInFlight, AtomicInteger::get)
+                .description("Prompt jobs currently being processed")
+                .register(registry);
+        Gauge.builder("videogen.prompt.segments.queued", segmentsQueued, AtomicInteger::get)
+                .description("Distinct segments of in-flight jobs still waiting for a Claude call")
+                .register(registry);
+    }
+
+    /**
+     * Starts the job observation (timer + span) and makes it current until the handle is closed.
+     */
+    public JobObservation startJob(ArtStyle style, JobPriority priority, int segmentsToGenerate) {
+        jobsInFlight.incrementAndGet();
+        segmentsQueued.addAndGet(segmentsToGenerate);
+        Observation observation = Observation.createNotStarted("videogen.prompt.job.create", observationRegistry)
+                .contextualName("create-prompt-job")
+                .lowCardinalityKeyValue("style", style.name())
+                .lowCardinalityKeyValue("priority", priority.name())
+                .highCardinalityKeyValue("segments.unique", String.valueOf(segmentsToGenerate))
+                .start();
+        return new JobObservation(observation, segmentsToGenerate);
+    }
+
+    /**
+     * Observes one generateImagePrompt call, tagged by style and outcome, and takes the segment off the queue.
+     * The span carries the job id and segment number so per-segment outliers can be found.
+     */
+    public PromptCompletion timeClaudeCall(ArtStyle style, Long jobId, int segmentNumber,
+                                           Supplier<PromptCompletion> call) {
+        return observeClaudeCall(style, jobId, segmentNumber, "blocking", fragment -> { }, onText -> call.get());
+    }
+
+    /**
+     * Like {@link #timeClaudeCall} for a streamed call, which hands each text fragment to the
+     * consumer it is given; fragments are passed on to {@code onText}.
+     */
+    public PromptCompletion timeClaudeStream(ArtStyle style, Long jobId, int segmentNumber, Consumer<String> onText,
+                                             Function<Consumer<String>, PromptCompletion> call) {
+        return observeClaudeCall(style, jobId, segmentNumber, "stream", onText, call);
+    }
+
+    /**
+     * Both modes also record {@code videogen.claude.first.token}: until the first fragment when
+     * streaming, and the whole call otherwise, since nothing is available before it ends.
+     */
+    private PromptCompletion observeClaudeCall(ArtStyle style, Long jobId, int segmentNumber, String mode,
+                                               Consumer<String> onText,
+                                               Function<Consumer<String>, PromptCompletion> call) {
+        Timer firstToken = Timer.builder("videogen.claude.first.token")
+                .description("Time from the start of a Claude call until its first prompt text is available")
+                .tag("style", style.name())
+                .tag("mode", mode)
+                .register(registry);
+        long startedAt = System.nanoTime();
+        AtomicBoolean firstTextSeen = new AtomicBoolean();
+        Consumer<String> timedOnText = fragment -> {
+            if (firstTextSeen.compareAndSet(false, true)) {
+                firstToken.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+            onText.accept(fragment);
+        };
+        Observation observation = Observation.createNotStarted("videogen.claude.call", observationRegistry)
+                .contextualName("claude-generate-image-prompt")
+                .lowCardinalityKeyValue("style", style.name())
+                .lowCardinalityKeyValue("mode", mode)
+                .highCardinalityKeyValue("job.id", String.valueOf(jobId))
+                .highCardinalityKeyValue("segment.number", String.valueOf(segmentNumber))
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            PromptCompletion completion = call.apply(timedOnText);
+            if (firstTextSeen.compareAndSet(false, true)) {
+                firstToken.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+            observation.lowCardinalityKeyValue("outcome", "success");
+            observation.highCardinalityKeyValue("model", completion.getModel());
+            return completion;
+        } catch (RuntimeException e) {
+            observation.lowCardinalityKeyValue("outcome", "error");
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    public void promptsGenerated(ArtStyle style, int count) {
+        Counter.builder("videogen.prompt.results.generated")
+                .description("Prompt results that received a generated prompt")
+                .tag("style", style.name())
+                .register(registry)
+                .increment(count);
+    }
+
+    public void promptsReused(ArtStyle style, int count) {
+        Counter.builder("videogen.prompt.results.reused")
+                .description("Prompt results served by an earlier near-duplicate segment's prompt instead of a Claude call")
+                .tag("style", style.name())
+                .register(registry)
+                .increment(count);
+    }
+
+    public void promptsFailed(ArtStyle style, int count) {
+        Counter.builder("videogen.prompt.results.failed")
+                .description("Prompt results left without a prompt because the Claude call failed")
+                .tag("style", style.name())
+                .register(registry)
+                .increment(count);
+    }
+
+    public void promptsSkipped(ArtStyle style, int count) {
+        Counter.builder("videogen.prompt.results.skipped")
+                .description("Prompt results left without a prompt because the job's deadline passed first")
+                .tag("style", style.name())
+                .register(registry)
+                .increment(count);
+    }
+
+    public void recordUsage(ArtStyle style, PromptCompletion completion, BigDecimal costUsd) {
+        recordUsage(style, completion, costUsd, "none");
+    }
+
+    /**
+     * Usage of a hedged duplicate whose reply was not used, tagged {@code hedge=discarded}: it is
+     * billed all the same but stored on no result.
+     */
+    public void recordDiscardedHedgeUsage(ArtStyle style, PromptCompletion completion, BigDecimal costUsd) {
+        recordUsage(style, completion, costUsd, "discarded");
+    }
+
+    private void recordUsage(ArtStyle style, PromptCompletion completion, BigDecimal costUsd, String hedge) {
+        String styleTag = style.name();
+        String modelTag = completion.getModel();
+        tokens("input", styleTag, modelTag, hedge).increment(completion.getInputTokens());
+        tokens("output", styleTag, modelTag, hedge).increment(completion.getOutputTokens());
+        tokens("cache_creation", styleTag, modelTag, hedge).increment(completion.getCacheCreationInputTokens());
+        tokens("cache_read", styleTag, modelTag, hedge).increment(completion.getCacheReadInputTokens());
+        Counter.builder("videogen.claude.cost")
+                .description("Estimated Claude spend")
+                .baseUnit("usd")
+                .tag("style", styleTag)
+                .tag("model", modelTag)
+                .tag("hedge", hedge)
+                .register(registry)
+                .increment(costUsd.doubleValue());
+    }
+
+    private Counter tokens(String type, String style, String model, String hedge) {
+        return Counter.builder("videogen.claude.tokens")
+                .description("Tokens billed by the Claude Messages API")
+                .baseUnit("tokens")
+                .tag("type", type)
+                .tag("style", style)
+                .tag("model", model)
+                .tag("hedge", hedge)
+                .register(registry);
+    }
+
+    /**
+     * Handle for an in-flight job; closing it stops the observation and releases the gauges.
+     */
+    public final class JobObservation implements AutoCloseable {
+
+        private final Observation observation;
+        private final Observation.Scope scope;
+        private final AtomicInteger segmentsNotDispatched;
+        private String status = "ERROR";
+
+        private JobObservation(Observation observation, int segmentsToGenerate) {
+            this.observation = observation;
+            this.scope = observation.openScope();
+            this.segmentsNotDispatched = new AtomicInteger(segmentsToGenerate);
+        }
+
+        public void jobId(Long jobId) {
+            observation.highCardinalityKeyValue("job.id", String.valueOf(jobId));
+        }
+
+        /**
+         * Called from the worker that starts the segment's Claude call. A call that starts after
+         * the job has given up on it and closed is no longer counted as queued.
+         */
+        public void segmentDispatched() {
+            if (segmentsNotDispatched.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                segmentsQueued.decrementAndGet();
+            }
+        }
+
+        public void status(JobStatus jobStatus) {
+            status = jobStatus.name();
+        }
+
+        @Override
+        public void close() {
+            segmentsQueued.addAndGet(-segmentsNotDispatched.getAndSet(0));
+            jobsInFlight.decrementAndGet();
+            observation.lowCardinalityKeyValue("status", status);
+            scope.close();
+            observation.stop();
+        }
+    }
+}
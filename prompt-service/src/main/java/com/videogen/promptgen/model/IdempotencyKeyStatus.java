@@ -0,0 +1,6 @@
+package com.videogen.promptgen.model;
+
+public enum IdempotencyKeyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
@@ -0,0 +1,12 @@
+package com.videogen.promptgen.model;
+
+/**
+ * Scheduling class of a job's Claude calls, most urgent first.
+ */
+public enum JobPriority {
+    /** Someone is waiting on the result, e.g. a preview. */
+    INTERACTIVE,
+    NORMAL,
+    /** Catalogue and backfill work that only needs capacity nobody else is using. */
+    BULK
+}
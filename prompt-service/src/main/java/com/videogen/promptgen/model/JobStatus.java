@@ -4,5 +4,7 @@ public enum JobStatus {
     PENDING,
     PROCESSING,
     COMPLETED,
-    FAILED
+    FAILED,
+    /** The job's deadline passed first; segments not generated by then have no prompt. */
+    PARTIAL
 }
@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -33,6 +34,58 @@ public class PromptJob {
     @Column(nullable = false, length = 20)
     private JobStatus status;
 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private JobPriority priority = JobPriority.NORMAL;
+
+    /** Client or tenant whose share of Claude capacity the job draws on; null for anonymous callers. */
+    @Column(name = "client_id", length = 100)
+    private String clientId;
+
+    /** When the caller stops needing the prompts; null waits for every segment. */
+    @Column(name = "deadline")
+    private LocalDateTime deadline;
+
+    /** Opened with segments to follow one at a time, as over gRPC, rather than submitted whole. */
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean streamed = false;
+
+    @Column(name = "segment_count")
+    private Integer segmentCount;
+
+    @Column(name = "unique_segment_count")
+    private Integer uniqueSegmentCount;
+
+    @Column(name = "total_input_tokens", nullable = false)
+    @Builder.Default
+    private Long totalInputTokens = 0L;
+
+    @Column(name = "total_output_tokens", nullable = false)
+    @Builder.Default
+    private Long totalOutputTokens = 0L;
+
+    @Column(name = "total_cache_creation_input_tokens", nullable = false)
+    @Builder.Default
+    private Long totalCacheCreationInputTokens = 0L;
+
+    @Column(name = "total_cache_read_input_tokens", nullable = false)
+    @Builder.Default
+    private Long totalCacheReadInputTokens = 0L;
+
+    @Column(name = "estimated_cost_usd", nullable = false, precision = 14, scale = 6)
+    @Builder.Default
+    private BigDecimal estimatedCostUsd = BigDecimal.ZERO;
+
+    /**
+     * Bumped on every update of this row; backs the job's ETag. Results are only written together
+     * with a status or segment count change, so they cannot change without bumping it.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
@@ -56,4 +109,12 @@ public class PromptJob {
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
     }
+
+    public void addUsage(PromptResult result) {
+        totalInputTokens += result.getInputTokens();
+        totalOutputTokens += result.getOutputTokens();
+        totalCacheCreationInputTokens += result.getCacheCreationInputTokens();
+        totalCacheReadInputTokens += result.getCacheReadInputTokens();
+        estimatedCostUsd = estimatedCostUsd.add(result.getEstimatedCostUsd());
+    }
 }
@@ -6,11 +6,15 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "prompt_results")
+@Table(name = "prompt_results",
+        indexes = @Index(name = "idx_prompt_results_job_segment", columnList = "job_id, segment_number"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -23,6 +27,7 @@ public class PromptResult {
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "job_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
     @JsonIgnore
     private PromptJob job;
 
@@ -35,6 +40,34 @@ public class PromptResult {
     @Column(name = "generated_prompt", columnDefinition = "TEXT")
     private String generatedPrompt;
 
+    @Column(length = 100)
+    private String model;
+
+    @Column(name = "input_tokens")
+    private Integer inputTokens;
+
+    @Column(name = "output_tokens")
+    private Integer outputTokens;
+
+    @Column(name = "cache_creation_input_tokens")
+    private Integer cacheCreationInputTokens;
+
+    @Column(name = "cache_read_input_tokens")
+    private Integer cacheReadInputTokens;
+
+    @Column(name = "estimated_cost_usd", precision = 12, scale = 6)
+    private BigDecimal estimatedCostUsd;
+
+    @Column(name = "reused_from_segment")
+    private Integer reusedFromSegment;
+
+    /** Earlier result, usually of another job, whose prompt was reused for this near-duplicate text. */
+    @Column(name = "reused_from_result_id")
+    private Long reusedFromResultId;
+
+    /** Shingle similarity between this text and the reused result's, when reused. */
+    private Double similarity;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,44 @@
+package com.videogen.promptgen.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * One MinHash band of a generated prompt's segment text; results sharing a band key with a new
+ * segment in the same style are candidates for prompt reuse.
+ */
+@Entity
+@Table(name = "prompt_result_signatures",
+        indexes = {
+                @Index(name = "idx_prompt_result_signatures_band", columnList = "style, band_key"),
+                @Index(name = "idx_prompt_result_signatures_result", columnList = "result_id")
+        },
+        uniqueConstraints = @UniqueConstraint(name = "uk_prompt_result_signatures_result_band",
+                columnNames = {"result_id", "band_key"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PromptResultSignature {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "result_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private PromptResult result;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private ArtStyle style;
+
+    @Column(name = "band_key", nullable = false)
+    private Long bandKey;
+}
@@ -0,0 +1,64 @@
+package com.videogen.promptgen.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "videogen.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Request headers naming the client, tried in order; requests without one that names a known
+     * client are limited by remote address.
+     */
+    private List<String> clientHeaders = List.of("X-API-Key", "X-Client-Id");
+
+    /** Limits of every client not listed under {@link #clients}. */
+    private Limits defaults = Limits.of(10.0, 20, 600.0, 300);
+
+    /**
+     * Per-client overrides keyed by the client header value; unset fields fall back to the defaults.
+     * Listing a client, even with no overrides, is what makes its header value count as a client.
+     */
+    private Map<String, Limits> clients = new HashMap<>();
+
+    /**
+     * Optional YAML or properties file with {@code videogen.rate-limit.*} entries laid over these
+     * ones. It is re-read whenever it changes, so limits can be tuned without a restart.
+     */
+    private Path limitsFile;
+
+    /** How often the limits file is checked and idle clients are forgotten. */
+    private Duration reloadInterval = Duration.ofSeconds(15);
+
+    /**
+     * Sustained rates and the bursts allowed on top of them; a rate of 0 turns that limit off.
+     */
+    @Data
+    public static class Limits {
+
+        private Double requestsPerSecond;
+        private Integer requestBurst;
+
+        /** Segments submitted in prompt jobs; each one costs a Claude call. */
+        private Double segmentsPerMinute;
+        private Integer segmentBurst;
+
+        static Limits of(double requestsPerSecond, int requestBurst, double segmentsPerMinute, int segmentBurst) {
+            Limits limits = new Limits();
+            limits.setRequestsPerSecond(requestsPerSecond);
+            limits.setRequestBurst(requestBurst);
+            limits.setSegmentsPerMinute(segmentsPerMinute);
+            limits.setSegmentBurst(segmentBurst);
+            return limits;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.videogen.promptgen.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket kept as a single theoretical arrival time (the generic cell rate algorithm): the
+ * moment at which the bucket would be full again. Taking tokens pushes that moment forward, so a
+ * check is one compare-and-set and never blocks.
+ */
+final class TokenBucket {
+
+    private final AtomicLong fullAt;
+
+    TokenBucket(long now) {
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Takes {@code cost} tokens at {@code now} (nanoTime) if the bucket holds them. A cost larger
+     * than the whole bucket is let through when the bucket is full and leaves it in debt, so an
+     * oversized request is slowed down rather than refused forever.
+     */
+    Decision tryConsume(Rate rate, int cost, long now) {
+        long capacity = rate.capacityNanos();
+        long increment = cost * rate.intervalNanos();
+        while (true) {
+            long current = fullAt.get();
+            long base = Math.max(current, now);
+            long next = base + increment;
+            if (next - now > capacity && base > now) {
+                long retryAfter = Math.min(next - now - capacity, base - now);
+                return new Decision(false, rate.burst(), tokens(rate, base - now), base - now, retryAfter);
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return new Decision(true, rate.burst(), tokens(rate, next - now), next - now, 0);
+            }
+        }
+    }
+
+    /** True when the bucket has refilled, so forgetting it changes nothing. */
+    boolean isFull(long now) {
+        return fullAt.get() <= now;
+    }
+
+    private static long tokens(Rate rate, long debt) {
+        return Math.max(0, (rate.capacityNanos() - debt) / rate.intervalNanos());
+    }
+
+    /**
+     * @param intervalNanos time to earn one token
+     * @param burst         tokens the bucket holds
+     */
+    record Rate(long intervalNanos, int burst) {
+
+        static Rate of(double perPeriod, long periodNanos, int burst) {
+            return new Rate(Math.max(1, Math.round(periodNanos / perPeriod)), Math.max(1, burst));
+        }
+
+        long capacityNanos() {
+            return intervalNanos * burst;
+        }
+    }
+
+    /**
+     * @param remaining  tokens left after this decision
+     * @param resetNanos time until the bucket is full again
+     * @param retryAfterNanos time until the refused cost would fit; 0 when allowed
+     */
+    record Decision(boolean allowed, int limit, long remaining, long resetNanos, long retryAfterNanos) {
+    }
+}
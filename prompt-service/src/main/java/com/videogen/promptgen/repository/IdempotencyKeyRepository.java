@@ -0,0 +1,44 @@
+package com.videogen.promptgen.repository;
+
+import com.videogen.promptgen.model.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+
+    Optional<IdempotencyKey> findByOperationAndIdempotencyKey(String operation, String idempotencyKey);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            update IdempotencyKey k
+            set k.status = com.videogen.promptgen.model.IdempotencyKeyStatus.COMPLETED, k.resourceId = :resourceId
+            where k.id = :id
+            """)
+    int markCompleted(@Param("id") Long id, @Param("resourceId") Long resourceId);
+
+    /**
+     * Stores the created resource on a key still IN_PROGRESS, so duplicates replay it while the
+     * request that created it is still running.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update IdempotencyKey k set k.resourceId = :resourceId where k.id = :id")
+    int recordResource(@Param("id") Long id, @Param("resourceId") Long resourceId);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            update IdempotencyKey k set k.leaseExpiresAt = :leaseExpiresAt
+            where k.id = :id and k.status = com.videogen.promptgen.model.IdempotencyKeyStatus.IN_PROGRESS
+            """)
+    int renewLease(@Param("id") Long id, @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("delete from IdempotencyKey k where k.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
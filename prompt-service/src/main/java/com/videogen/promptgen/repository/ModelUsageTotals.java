@@ -0,0 +1,6 @@
+package com.videogen.promptgen.repository;
+
+public interface ModelUsageTotals extends UsageTotals {
+
+    String getModel();
+}
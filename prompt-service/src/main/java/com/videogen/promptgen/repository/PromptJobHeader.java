@@ -0,0 +1,46 @@
+package com.videogen.promptgen.repository;
+
+import com.videogen.promptgen.model.ArtStyle;
+import com.videogen.promptgen.model.JobPriority;
+import com.videogen.promptgen.model.JobStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Closed projection over prompt_jobs without the {@code custom_style_description} TEXT column.
+ */
+public interface PromptJobHeader {
+
+    Long getId();
+
+    ArtStyle getStyle();
+
+    JobStatus getStatus();
+
+    JobPriority getPriority();
+
+    String getClientId();
+
+    LocalDateTime getDeadline();
+
+    Long getVersion();
+
+    Integer getSegmentCount();
+
+    Integer getUniqueSegmentCount();
+
+    Long getTotalInputTokens();
+
+    Long getTotalOutputTokens();
+
+    Long getTotalCacheCreationInputTokens();
+
+    Long getTotalCacheReadInputTokens();
+
+    BigDecimal getEstimatedCostUsd();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
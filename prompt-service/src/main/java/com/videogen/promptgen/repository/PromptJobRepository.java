@@ -1,9 +1,155 @@
 package com.videogen.promptgen.repository;
 
+import com.videogen.promptgen.model.ArtStyle;
+import com.videogen.promptgen.model.JobStatus;
 import com.videogen.promptgen.model.PromptJob;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PromptJobRepository extends JpaRepository<PromptJob, Long> {
+
+    /**
+     * Keyset page of job summaries, newest first. Pass {@code beforeId = null} for the first page
+     * and the last id of the previous page afterwards.
+     */
+    @Query("""
+            select j.id as id, j.style as style, j.customStyleDescription as customStyleDescription,
+                   j.status as status, j.estimatedCostUsd as estimatedCostUsd,
+                   j.createdAt as createdAt, j.updatedAt as updatedAt,
+                   (select count(r) from PromptResult r where r.job.id = j.id) as resultCount,
+                   (select count(r) from PromptResult r where r.job.id = j.id and r.generatedPrompt is null) as failedResultCount
+            from PromptJob j
+            where (:beforeId is null or j.id < :beforeId)
+              and (:status is null or j.status = :status)
+              and (:style is null or j.style = :style)
+              and (:createdFrom is null or j.createdAt >= :createdFrom)
+              and (:createdTo is null or j.createdAt < :createdTo)
+            order by j.id desc
+            """)
+    List<PromptJobSummary> findSummaries(@Param("beforeId") Long beforeId,
+                                         @Param("status") JobStatus status,
+                                         @Param("style") ArtStyle style,
+                                         @Param("createdFrom") LocalDateTime createdFrom,
+                                         @Param("createdTo") LocalDateTime createdTo,
+                                         Limit limit);
+
+    @Query("""
+            select j.style as style, count(j) as count,
+                   coalesce(sum(j.totalInputTokens), 0) as inputTokens,
+                   coalesce(sum(j.totalOutputTokens), 0) as outputTokens,
+                   coalesce(sum(j.totalCacheCreationInputTokens), 0) as cacheCreationInputTokens,
+                   coalesce(sum(j.totalCacheReadInputTokens), 0) as cacheReadInputTokens,
+                   coalesce(sum(j.estimatedCostUsd), 0) as estimatedCostUsd
+            from PromptJob j
+            where (:from is null or j.createdAt >= :from)
+              and (:to is null or j.createdAt < :to)
+            group by j.style
+            order by j.style
+            """)
+    List<StyleUsageTotals> sumUsageByStyle(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("""
+            select j.id as id, j.style as style, j.status as status, j.version as version,
+                   j.priority as priority, j.clientId as clientId, j.deadline as deadline,
+                   j.segmentCount as segmentCount, j.uniqueSegmentCount as uniqueSegmentCount,
+                   j.totalInputTokens as totalInputTokens, j.totalOutputTokens as totalOutputTokens,
+                   j.totalCacheCreationInputTokens as totalCacheCreationInputTokens,
+                   j.totalCacheReadInputTokens as totalCacheReadInputTokens,
+                   j.estimatedCostUsd as estimatedCostUsd, j.createdAt as createdAt, j.updatedAt as updatedAt
+            from PromptJob j
+            where j.id = :id
+            """)
+    Optional<PromptJobHeader> findHeaderById(@Param("id") Long id);
+
+    /**
+     * Reads only the version column so conditional GETs can answer 304 without loading results.
+     */
+    @Query("select j.version from PromptJob j where j.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    long countByStatusInAndCreatedAtBefore(Collection<JobStatus> statuses, LocalDateTime cutoff);
+
+    @Query("""
+            select j.id from PromptJob j
+            where j.status in :statuses and j.createdAt < :cutoff
+            order by j.id
+            """)
+    List<Long> findIdsByStatusInAndCreatedAtBefore(@Param("statuses") Collection<JobStatus> statuses,
+                                                   @Param("cutoff") LocalDateTime cutoff,
+                                                   Limit limit);
+
+    @Query("select distinct j from PromptJob j left join fetch j.results where j.id in :ids order by j.id")
+    List<PromptJob> findAllWithResultsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            select j.id from PromptJob j
+            where j.status in :statuses
+              and (:createdBefore is null or j.createdAt < :createdBefore)
+            order by j.id
+            """)
+    List<Long> findIdsMatching(@Param("statuses") Collection<JobStatus> statuses,
+                               @Param("createdBefore") LocalDateTime createdBefore,
+                               Limit limit);
+
+    /**
+     * Fails streamed jobs still PROCESSING that have not been written since {@code idleSince}; their
+     * stream ended without finishing them, e.g. because the instance holding it stopped.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            update versioned PromptJob j
+            set j.status = com.videogen.promptgen.model.JobStatus.FAILED, j.updatedAt = :now
+            where j.streamed = true
+              and j.status = com.videogen.promptgen.model.JobStatus.PROCESSING
+              and j.updatedAt < :idleSince
+            """)
+    int failIdleStreamedJobs(@Param("idleSince") LocalDateTime idleSince, @Param("now") LocalDateTime now);
+
+    /**
+     * Fails the job if it is still PROCESSING; used when a batch job's results could not be stored.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            update versioned PromptJob j
+            set j.status = com.videogen.promptgen.model.JobStatus.FAILED, j.updatedAt = :now
+            where j.id = :id
+              and j.status = com.videogen.promptgen.model.JobStatus.PROCESSING
+            """)
+    int failProcessingJob(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Set-based delete; results go with the job through the foreign key's ON DELETE CASCADE.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("delete from PromptJob j where j.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Deletes the given jobs that also match the filters, in one statement.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            delete from PromptJob j
+            where j.id in :ids
+              and j.status in :statuses
+              and (:createdBefore is null or j.createdAt < :createdBefore)
+            """)
+    int deleteMatchingByIdIn(@Param("ids") Collection<Long> ids,
+                             @Param("statuses") Collection<JobStatus> statuses,
+                             @Param("createdBefore") LocalDateTime createdBefore);
 }
@@ -0,0 +1,32 @@
+package com.videogen.promptgen.repository;
+
+import com.videogen.promptgen.model.ArtStyle;
+import com.videogen.promptgen.model.JobStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Closed projection over prompt_jobs used by the paginated job listing.
+ * Result counts are computed in SQL so the lazy results collection is never loaded.
+ */
+public interface PromptJobSummary {
+
+    Long getId();
+
+    ArtStyle getStyle();
+
+    String getCustomStyleDescription();
+
+    JobStatus getStatus();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    Long getResultCount();
+
+    Long getFailedResultCount();
+
+    BigDecimal getEstimatedCostUsd();
+}
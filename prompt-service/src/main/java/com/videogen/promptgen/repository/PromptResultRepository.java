@@ -1,13 +1,87 @@
 package com.videogen.promptgen.repository;
 
 import com.videogen.promptgen.model.PromptResult;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface PromptResultRepository extends JpaRepository<PromptResult, Long> {
 
     List<PromptResult> findByJobIdOrderBySegmentNumberAsc(Long jobId);
+
+    long countByJobIdAndGeneratedPromptIsNull(Long jobId);
+
+    /**
+     * Keyset page of a job's results, served by the (job_id, segment_number) index.
+     */
+    @Query("""
+            select r from PromptResult r
+            where r.job.id = :jobId and r.segmentNumber > :afterSegmentNumber
+            order by r.segmentNumber asc
+            """)
+    List<PromptResult> findByJobIdOrderBySegmentNumberAsc(@Param("jobId") Long jobId,
+                                                          @Param("afterSegmentNumber") Integer afterSegmentNumber,
+                                                          Limit limit);
+
+    @Query("""
+            select r.id as id, r.segmentNumber as segmentNumber, r.reusedFromSegment as reusedFromSegment,
+                   r.reusedFromResultId as reusedFromResultId, r.similarity as similarity,
+                   r.model as model, r.inputTokens as inputTokens, r.outputTokens as outputTokens,
+                   r.cacheCreationInputTokens as cacheCreationInputTokens,
+                   r.cacheReadInputTokens as cacheReadInputTokens,
+                   r.estimatedCostUsd as estimatedCostUsd, r.createdAt as createdAt
+            from PromptResult r
+            where r.job.id = :jobId
+            order by r.segmentNumber asc
+            """)
+    List<PromptResultUsage> findUsageByJobId(@Param("jobId") Long jobId);
+
+    @Query("""
+            select r.model as model, count(r) as count,
+                   coalesce(sum(r.inputTokens), 0) as inputTokens,
+                   coalesce(sum(r.outputTokens), 0) as outputTokens,
+                   coalesce(sum(r.cacheCreationInputTokens), 0) as cacheCreationInputTokens,
+                   coalesce(sum(r.cacheReadInputTokens), 0) as cacheReadInputTokens,
+                   coalesce(sum(r.estimatedCostUsd), 0) as estimatedCostUsd
+            from PromptResult r
+            where r.model is not null
+              and (:from is null or r.createdAt >= :from)
+              and (:to is null or r.createdAt < :to)
+            group by r.model
+            order by r.model
+            """)
+    List<ModelUsageTotals> sumUsageByModel(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Segment texts and prompts of reuse candidates, with the custom style their prompt was written for.
+     */
+    @Query("""
+            select r.id as id, r.segmentText as segmentText, r.generatedPrompt as generatedPrompt,
+                   j.customStyleDescription as customStyleDescription
+            from PromptResult r join r.job j
+            where r.id in :ids and r.generatedPrompt is not null
+            """)
+    List<ReuseCandidate> findReuseCandidates(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Keyset batch of results whose prompt came from a Claude call but that have no signature yet.
+     */
+    @Query("""
+            select r.id as id, r.segmentText as segmentText, j.style as style
+            from PromptResult r join r.job j
+            where r.id > :afterId
+              and r.generatedPrompt is not null
+              and r.reusedFromSegment is null
+              and r.reusedFromResultId is null
+              and not exists (select 1 from PromptResultSignature s where s.result = r)
+            order by r.id asc
+            """)
+    List<UnsignedResult> findUnsigned(@Param("afterId") Long afterId, Limit limit);
 }
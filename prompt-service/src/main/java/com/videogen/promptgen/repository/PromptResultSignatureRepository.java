@@ -0,0 +1,34 @@
+package com.videogen.promptgen.repository;
+
+import com.videogen.promptgen.model.ArtStyle;
+import com.videogen.promptgen.model.PromptResultSignature;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PromptResultSignatureRepository extends JpaRepository<PromptResultSignature, Long> {
+
+    /**
+     * Results sharing at least one band with {@code bandKeys}, most shared bands (and so most
+     * likely most similar) first, newest first among equals. Served by the (style, band_key) index.
+     * A non-null {@code customStyleDescription} keeps only results of jobs with that description,
+     * before the limit applies.
+     */
+    @Query("""
+            select r.id from PromptResultSignature s join s.result r join r.job j
+            where s.style = :style and s.bandKey in :bandKeys
+              and (:customStyleDescription is null or j.customStyleDescription = :customStyleDescription)
+            group by r.id
+            order by count(s) desc, r.id desc
+            """)
+    List<Long> findCandidateResultIds(@Param("style") ArtStyle style,
+                                      @Param("customStyleDescription") String customStyleDescription,
+                                      @Param("bandKeys") Collection<Long> bandKeys,
+                                      Limit limit);
+}
@@ -0,0 +1,35 @@
+package com.videogen.promptgen.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Closed projection over prompt_results without the {@code segment_text} and {@code generated_prompt}
+ * TEXT columns.
+ */
+public interface PromptResultUsage {
+
+    Long getId();
+
+    Integer getSegmentNumber();
+
+    Integer getReusedFromSegment();
+
+    Long getReusedFromResultId();
+
+    Double getSimilarity();
+
+    String getModel();
+
+    Integer getInputTokens();
+
+    Integer getOutputTokens();
+
+    Integer getCacheCreationInputTokens();
+
+    Integer getCacheReadInputTokens();
+
+    BigDecimal getEstimatedCostUsd();
+
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,15 @@
+package com.videogen.promptgen.repository;
+
+/**
+ * A stored prompt that a near-duplicate segment may reuse.
+ */
+public interface ReuseCandidate {
+
+    Long getId();
+
+    String getSegmentText();
+
+    String getGeneratedPrompt();
+
+    String getCustomStyleDescription();
+}
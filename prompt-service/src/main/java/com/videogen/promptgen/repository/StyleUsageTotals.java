@@ -0,0 +1,8 @@
+package com.videogen.promptgen.repository;
+
+import com.videogen.promptgen.model.ArtStyle;
+
+public interface StyleUsageTotals extends UsageTotals {
+
+    ArtStyle getStyle();
+}
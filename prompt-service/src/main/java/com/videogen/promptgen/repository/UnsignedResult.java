@@ -0,0 +1,15 @@
+package com.videogen.promptgen.repository;
+
+import com.videogen.promptgen.model.ArtStyle;
+
+/**
+ * A generated prompt's segment text still missing from the reuse signature index.
+ */
+public interface UnsignedResult {
+
+    Long getId();
+
+    String getSegmentText();
+
+    ArtStyle getStyle();
+}
@@ -0,0 +1,21 @@
+package com.videogen.promptgen.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Token and cost sums for one group of an aggregate usage query.
+ */
+public interface UsageTotals {
+
+    Long getCount();
+
+    Long getInputTokens();
+
+    Long getOutputTokens();
+
+    Long getCacheCreationInputTokens();
+
+    Long getCacheReadInputTokens();
+
+    BigDecimal getEstimatedCostUsd();
+}
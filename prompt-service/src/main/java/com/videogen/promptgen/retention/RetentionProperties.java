@@ -0,0 +1,30 @@
+package com.videogen.promptgen.retention;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "videogen.retention")
+public class RetentionProperties {
+
+    /** Whether the scheduled run archives and purges anything. */
+    private boolean enabled = false;
+
+    /** Jobs created longer ago than this are archived and deleted. */
+    private Duration maxAge = Duration.ofDays(90);
+
+    /** Directory receiving one gzip-compressed JSONL file per chunk. */
+    private Path archiveDir = Path.of("archive");
+
+    /** Jobs per archive file and per delete transaction; bounds lock hold time. */
+    private int chunkSize = 500;
+
+    /** When the scheduled run fires. */
+    private String cron = "0 30 3 * * *";
+
+    /** Upper bound on chunks per run so one run cannot monopolise the database. */
+    private int maxChunksPerRun = 200;
+}
@@ -0,0 +1,149 @@
+package com.videogen.promptgen.retention;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.videogen.promptgen.dto.PromptResponse;
+import com.videogen.promptgen.model.JobStatus;
+import com.videogen.promptgen.model.PromptJob;
+import com.videogen.promptgen.repository.PromptJobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archives finished prompt jobs older than {@code videogen.retention.max-age} to gzip JSONL
+ * files and purges them with set-based deletes, one short transaction per chunk. Results are
+ * removed by the schema's ON DELETE CASCADE rather than row by row through JPA.
+ */
+@Service
+public class RetentionService {
+
+    private static final Logger log = LoggerFactory.getLogger(RetentionService.class);
+    private static final List<JobStatus> FINISHED = List.of(JobStatus.COMPLETED, JobStatus.FAILED,
+            JobStatus.PARTIAL);
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private final PromptJobRepository jobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final RetentionProperties properties;
+    private final AtomicLong backlog = new AtomicLong();
+    private final Counter archivedJobs;
+    private final Counter archivedBytes;
+    private final Timer chunkTimer;
+
+    public RetentionService(PromptJobRepository jobRepository,
+                            PlatformTransactionManager transactionManager,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            RetentionProperties properties) {
+        this.jobRepository = jobRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper.copy().disable(SerializationFeature.INDENT_OUTPUT);
+        this.properties = properties;
+        this.archivedJobs = Counter.builder("videogen.retention.archived")
+                .description("Records archived and purged by retention")
+                .tag("entity", "prompt_job")
+                .register(meterRegistry);
+        this.archivedBytes = Counter.builder("videogen.retention.archive.bytes")
+                .description("Compressed bytes written to retention archives")
+                .baseUnit("bytes")
+                .tag("entity", "prompt_job")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("videogen.retention.chunk")
+                .description("Time to archive and purge one retention chunk")
+                .tag("entity", "prompt_job")
+                .register(meterRegistry);
+        Gauge.builder("videogen.retention.backlog", backlog, AtomicLong::get)
+                .description("Records past the retention age still waiting to be archived")
+                .tag("entity", "prompt_job")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${videogen.retention.cron:0 30 3 * * *}")
+    public void runScheduled() {
+        if (properties.isEnabled()) {
+            archiveAndPurge(LocalDateTime.now().minus(properties.getMaxAge()));
+        }
+    }
+
+    /**
+     * Archives and deletes finished jobs created before {@code cutoff}.
+     *
+     * @return number of jobs archived and deleted
+     */
+    public synchronized int archiveAndPurge(LocalDateTime cutoff) {
+        backlog.set(jobRepository.countByStatusInAndCreatedAtBefore(FINISHED, cutoff));
+        int total = 0;
+        for (int chunk = 0; chunk < properties.getMaxChunksPerRun(); chunk++) {
+            Integer archived = chunkTimer.record(() -> transactionTemplate.execute(status -> archiveChunk(cutoff)));
+            if (archived == null || archived == 0) {
+                break;
+            }
+            total += archived;
+            backlog.addAndGet(-archived);
+        }
+        if (total > 0) {
+            log.info("Retention archived and purged {} prompt jobs created before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    private int archiveChunk(LocalDateTime cutoff) {
+        List<Long> ids = jobRepository.findIdsByStatusInAndCreatedAtBefore(
+                FINISHED, cutoff, Limit.of(properties.getChunkSize()));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<PromptJob> jobs = jobRepository.findAllWithResultsByIdIn(ids);
+        // The archive is complete on disk before the rows it holds are deleted
+        writeArchive(jobs, ids.get(0), ids.get(ids.size() - 1));
+        int deleted = jobRepository.deleteAllByIdIn(ids);
+        archivedJobs.increment(deleted);
+        return deleted;
+    }
+
+    private void writeArchive(List<PromptJob> jobs, Long firstId, Long lastId) {
+        try {
+            Files.createDirectories(properties.getArchiveDir());
+            String name = String.format("prompt-jobs-%s-%d-%d.jsonl.gz",
+                    LocalDateTime.now().format(FILE_TIMESTAMP), firstId, lastId);
+            Path target = properties.getArchiveDir().resolve(name);
+            Path partial = properties.getArchiveDir().resolve(name + ".partial");
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(partial)), StandardCharsets.UTF_8))) {
+                for (PromptJob job : jobs) {
+                    writer.write(objectMapper.writeValueAsString(PromptResponse.fromEntity(job)));
+                    writer.write('\n');
+                }
+            }
+            archivedBytes.increment(Files.size(partial));
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write retention archive", e);
+        }
+    }
+}
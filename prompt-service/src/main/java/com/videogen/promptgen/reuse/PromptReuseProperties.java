@@ -0,0 +1,18 @@
+package com.videogen.promptgen.reuse;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "videogen.reuse")
+public class PromptReuseProperties {
+
+    /** Candidates whose exact similarity is checked per segment, most shared bands first. */
+    private int maxCandidates = 20;
+
+    /** Sign results generated before reuse existed, or while signing failed, at startup. */
+    private boolean backfillOnStartup = true;
+
+    /** Results signed per transaction by the backfill. */
+    private int batchSize = 500;
+}
@@ -0,0 +1,176 @@
+package com.videogen.promptgen.reuse;
+
+import com.videogen.promptgen.model.ArtStyle;
+import com.videogen.promptgen.model.PromptResult;
+import com.videogen.promptgen.model.PromptResultSignature;
+import com.videogen.promptgen.repository.PromptResultRepository;
+import com.videogen.promptgen.repository.PromptResultSignatureRepository;
+import com.videogen.promptgen.repository.ReuseCandidate;
+import com.videogen.promptgen.repository.UnsignedResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Finds earlier prompts whose segment text is a near-duplicate of a new segment, so the prompt can
+ * be reused instead of calling Claude again.
+ *
+ * <p>Every result whose prompt came from a Claude call is signed with the MinHash bands of its
+ * text ({@link SegmentSignature}). A lookup fetches results sharing a band in the same style, then
+ * keeps the one with the highest exact shingle similarity at or above the caller's threshold. A
+ * {@code CUSTOM} prompt is only reused for the same custom style description.
+ */
+@Service
+public class PromptReuseService {
+
+    private static final Logger log = LoggerFactory.getLogger(PromptReuseService.class);
+
+    /** Consecutive re-reads of one backfill batch before a constraint violation is treated as real. */
+    private static final int MAX_BATCH_COLLISIONS = 3;
+
+    private final PromptResultSignatureRepository signatureRepository;
+    private final PromptResultRepository resultRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final PromptReuseProperties properties;
+
+    public PromptReuseService(PromptResultSignatureRepository signatureRepository,
+                              PromptResultRepository resultRepository,
+                              PlatformTransactionManager transactionManager,
+                              PromptReuseProperties properties) {
+        this.signatureRepository = signatureRepository;
+        this.resultRepository = resultRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    /**
+     * The most similar earlier prompt for {@code text} in {@code style}, if one reaches
+     * {@code threshold} (Jaccard similarity of 5-character shingles, 0 to 1).
+     */
+    public Optional<Match> findSimilar(ArtStyle style, String customStyleDescription, String text, double threshold) {
+        SegmentSignature signature = SegmentSignature.of(text);
+        if (signature.isEmpty()) {
+            return Optional.empty();
+        }
+        List<Long> candidateIds = signatureRepository.findCandidateResultIds(style,
+                style == ArtStyle.CUSTOM ? customStyleDescription : null,
+                Arrays.stream(signature.bandKeys()).boxed().toList(), Limit.of(properties.getMaxCandidates()));
+        if (candidateIds.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Match best = null;
+        for (ReuseCandidate candidate : resultRepository.findReuseCandidates(candidateIds)) {
+            double similarity = signature.similarity(SegmentSignature.of(candidate.getSegmentText()));
+            if (similarity >= threshold && (best == null || similarity > best.similarity())) {
+                best = new Match(candidate.getId(), candidate.getGeneratedPrompt(), similarity);
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * Adds a persisted result to the index; call it only for prompts that came from a Claude call,
+     * so that reuse always points at an original.
+     */
+    public void sign(PromptResult result, ArtStyle style) {
+        sign(result, result.getSegmentText(), style);
+    }
+
+    private void sign(PromptResult result, String segmentText, ArtStyle style) {
+        SegmentSignature signature = SegmentSignature.of(segmentText);
+        if (signature.isEmpty()) {
+            return;
+        }
+        List<PromptResultSignature> bands = new ArrayList<>(SegmentSignature.BANDS);
+        for (long bandKey : signature.bandKeys()) {
+            bands.add(PromptResultSignature.builder().result(result).style(style).bandKey(bandKey).build());
+        }
+        signatureRepository.saveAll(bands);
+    }
+
+    /**
+     * Runs {@link #backfill()} in the background, so signing a long history does not hold up
+     * readiness; results it has not reached yet are simply not offered for reuse meanwhile.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!properties.isBackfillOnStartup()) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                backfill();
+            } catch (RuntimeException e) {
+                // Results signed so far are kept; the next startup resumes with the rest
+                log.error("Could not sign existing prompt results for reuse", e);
+            }
+        }, "prompt-reuse-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Signs generated results that have no signature yet, one keyset batch per transaction. Every
+     * instance runs it at startup; a batch that collides with another instance's signatures is
+     * rolled back and re-read, which skips the results that instance has signed meanwhile. A batch
+     * that keeps colliding ends the backfill early.
+     *
+     * @return number of results signed
+     */
+    public int backfill() {
+        int signed = 0;
+        int collisions = 0;
+        long afterId = 0;
+        while (true) {
+            long from = afterId;
+            List<UnsignedResult> batch;
+            try {
+                batch = transactionTemplate.execute(status -> {
+                    List<UnsignedResult> rows = resultRepository.findUnsigned(from,
+                            Limit.of(properties.getBatchSize()));
+                    rows.forEach(row -> sign(resultRepository.getReferenceById(row.getId()), row.getSegmentText(),
+                            row.getStyle()));
+                    signatureRepository.flush();
+                    return rows;
+                });
+            } catch (DataIntegrityViolationException e) {
+                if (++collisions > MAX_BATCH_COLLISIONS) {
+                    log.warn("Giving up the reuse backfill at result id {} after {} collisions; the next startup "
+                            + "resumes it", from, collisions, e);
+                    break;
+                }
+                log.debug("Another instance signed results after id {} first; re-reading the batch", from);
+                continue;
+            }
+            collisions = 0;
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+            signed += batch.size();
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+        if (signed > 0) {
+            log.info("Signed {} existing prompt results for reuse", signed);
+        }
+        return signed;
+    }
+
+    /**
+     * @param resultId   the result whose prompt is reused
+     * @param similarity exact shingle similarity to the new text
+     */
+    public record Match(Long resultId, String generatedPrompt, double similarity) {
+    }
+}
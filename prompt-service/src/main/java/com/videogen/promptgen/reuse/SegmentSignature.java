@@ -0,0 +1,114 @@
+package com.videogen.promptgen.reuse;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Character-shingle set of a segment text with its MinHash locality-sensitive hash bands.
+ *
+ * <p>Text is lowercased and reduced to letters and digits separated by single spaces, so
+ * punctuation and spacing never make two segments differ. Two texts whose shingle sets have
+ * Jaccard similarity {@code s} share at least one band with probability
+ * {@code 1 - (1 - s^ROWS)^BANDS}: about 0.98 at 0.7 and over 0.99 at 0.8.
+ *
+ * <p>Band keys are stored, so the hash functions below must never change; changing them would
+ * silently stop old results from matching new ones.
+ */
+public final class SegmentSignature {
+
+    static final int SHINGLE_SIZE = 5;
+    static final int BANDS = 20;
+    static final int ROWS = 5;
+
+    private static final long[] SEEDS = seeds(BANDS * ROWS);
+
+    private final Set<Integer> shingles;
+
+    private SegmentSignature(Set<Integer> shingles) {
+        this.shingles = shingles;
+    }
+
+    public static SegmentSignature of(String text) {
+        String normalized = normalize(text);
+        Set<Integer> shingles = new HashSet<>();
+        if (normalized.length() <= SHINGLE_SIZE) {
+            if (!normalized.isEmpty()) {
+                shingles.add(normalized.hashCode());
+            }
+        } else {
+            for (int i = 0; i + SHINGLE_SIZE <= normalized.length(); i++) {
+                shingles.add(normalized.substring(i, i + SHINGLE_SIZE).hashCode());
+            }
+        }
+        return new SegmentSignature(shingles);
+    }
+
+    static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").strip();
+    }
+
+    /** True for text without letters or digits, which can match nothing. */
+    public boolean isEmpty() {
+        return shingles.isEmpty();
+    }
+
+    /**
+     * One key per band; texts sharing any key are candidates. The band number is folded into its
+     * key so that all bands can live in one indexed column.
+     */
+    public long[] bandKeys() {
+        long[] minHashes = new long[SEEDS.length];
+        Arrays.fill(minHashes, Long.MAX_VALUE);
+        for (int shingle : shingles) {
+            for (int i = 0; i < SEEDS.length; i++) {
+                long hash = mix(shingle ^ SEEDS[i]);
+                if (hash < minHashes[i]) {
+                    minHashes[i] = hash;
+                }
+            }
+        }
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long key = mix(band + 1);
+            for (int row = 0; row < ROWS; row++) {
+                key = mix(key ^ minHashes[band * ROWS + row]);
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    /** Exact Jaccard similarity of the two shingle sets, from 0 to 1. */
+    public double similarity(SegmentSignature other) {
+        if (shingles.isEmpty() || other.shingles.isEmpty()) {
+            return 0;
+        }
+        Set<Integer> smaller = shingles.size() <= other.shingles.size() ? shingles : other.shingles;
+        Set<Integer> larger = smaller == shingles ? other.shingles : shingles;
+        int intersection = 0;
+        for (int shingle : smaller) {
+            if (larger.contains(shingle)) {
+                intersection++;
+            }
+        }
+        return (double) intersection / (shingles.size() + other.shingles.size() - intersection);
+    }
+
+    /** SplitMix64 finalizer. */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long[] seeds(int count) {
+        long[] seeds = new long[count];
+        for (int i = 0; i < count; i++) {
+            seeds[i] = mix(0x5EED0000L + i);
+        }
+        return seeds;
+    }
+}
@@ -0,0 +1,178 @@
+package com.videogen.promptgen.routing;
+
+import com.videogen.promptgen.model.ArtStyle;
+import com.videogen.promptgen.model.JobPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Picks the Claude model of each call: the first matching rule's, else {@code anthropic.api.model}.
+ *
+ * <p>Callers report every call's latency and outcome, kept per model as exponentially weighted
+ * means. Once a model has had {@code min-calls} calls and its error rate exceeds
+ * {@code max-error-rate} or its latency {@code max-latency}, it is avoided for {@code cool-down}:
+ * calls routed to it go to its fallback instead, if that is not avoided too. Afterwards it is
+ * judged afresh, like a replica that passes its next health check.
+ */
+@Component
+public class ModelRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelRouter.class);
+
+    /** Weight of the latest call in a model's latency and error rate; about the last ten calls count. */
+    private static final double SMOOTHING = 0.2;
+
+    private final ModelRoutingProperties properties;
+    private final String defaultModel;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ModelHealth> health = new ConcurrentHashMap<>();
+
+    public ModelRouter(ModelRoutingProperties properties,
+                       @Value("${anthropic.api.model}") String defaultModel,
+                       MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.defaultModel = defaultModel;
+        this.meterRegistry = meterRegistry;
+        health(defaultModel);
+        properties.getRules().forEach(rule -> health(rule.getModel()));
+        properties.getFallbacks().forEach((model, fallback) -> {
+            health(model);
+            health(fallback);
+        });
+    }
+
+    /**
+     * The model for a call of a {@code segmentLength}-character segment, and the model to retry it
+     * on if it is overloaded or times out; the latter is null when there is none.
+     */
+    public Route route(int segmentLength, ArtStyle style, JobPriority priority) {
+        String model = defaultModel;
+        String reason = "default";
+        for (ModelRoutingProperties.Rule rule : properties.getRules()) {
+            if (rule.matches(segmentLength, style, priority)) {
+                model = rule.getModel();
+                reason = "rule";
+                break;
+            }
+        }
+        String fallback = properties.getFallbacks().get(model);
+        long now = System.nanoTime();
+        if (fallback != null && !health(model).isAvailable(now) && health(fallback).isAvailable(now)) {
+            count(fallback, "avoided");
+            return new Route(fallback, model);
+        }
+        count(model, reason);
+        return new Route(model, fallback);
+    }
+
+    /**
+     * Counts a call that is retried on {@code fallback} after it failed on {@code model}.
+     */
+    public void fellBack(String model, String fallback, RuntimeException cause) {
+        log.debug("Claude call to {} failed ({}); retrying on {}", model, cause.getMessage(), fallback);
+        count(fallback, "fallback");
+    }
+
+    /**
+     * Feeds a call to {@code model} back into routing.
+     *
+     * @param failed whether it failed for reasons of the model's, not the request's
+     */
+    public void record(String model, long nanos, boolean failed) {
+        health(model).record(nanos, failed, System.nanoTime());
+    }
+
+    /**
+     * @param fallback null when the call has nowhere else to go
+     */
+    public record Route(String model, String fallback) {
+    }
+
+    private ModelHealth health(String model) {
+        return health.computeIfAbsent(model, key -> {
+            ModelHealth modelHealth = new ModelHealth(key);
+            Gauge.builder("videogen.claude.routing.model.latency", modelHealth, ModelHealth::latencySeconds)
+                    .description("Weighted mean latency of recent Claude calls to the model")
+                    .tag("model", key)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("videogen.claude.routing.model.error.rate", modelHealth, ModelHealth::errorRate)
+                    .description("Weighted share of recent Claude calls to the model that failed")
+                    .tag("model", key)
+                    .register(meterRegistry);
+            Gauge.builder("videogen.claude.routing.model.available", modelHealth,
+                            h -> h.isAvailable(System.nanoTime()) ? 1 : 0)
+                    .description("Whether calls are routed to the model, 0 while it is avoided")
+                    .tag("model", key)
+                    .register(meterRegistry);
+            return modelHealth;
+        });
+    }
+
+    private void count(String model, String reason) {
+        Counter.builder("videogen.claude.routing.decisions")
+                .description("Claude calls by model routed to and why")
+                .tag("model", model)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private final class ModelHealth {
+
+        private final String model;
+        private double latencyNanos;
+        private double errorRate;
+        private int calls;
+        private boolean avoided;
+        private long avoidedUntil;
+
+        private ModelHealth(String model) {
+            this.model = model;
+        }
+
+        synchronized void record(long nanos, boolean failed, long now) {
+            double error = failed ? 1 : 0;
+            latencyNanos = calls == 0 ? nanos : latencyNanos + SMOOTHING * (nanos - latencyNanos);
+            errorRate = calls == 0 ? error : errorRate + SMOOTHING * (error - errorRate);
+            calls++;
+            if (calls < properties.getMinCalls()) {
+                return;
+            }
+            if (errorRate > properties.getMaxErrorRate() || latencyNanos > properties.getMaxLatency().toNanos()) {
+                log.warn("Avoiding Claude model {} for {}s: error rate {}, mean latency {}s", model,
+                        properties.getCoolDown().toSeconds(), String.format("%.2f", errorRate),
+                        String.format("%.1f", latencyNanos / 1e9));
+                avoided = true;
+                avoidedUntil = now + properties.getCoolDown().toNanos();
+                latencyNanos = 0;
+                errorRate = 0;
+                calls = 0;
+            }
+        }
+
+        synchronized boolean isAvailable(long now) {
+            if (avoided && now - avoidedUntil >= 0) {
+                log.info("Claude model {} back in rotation", model);
+                avoided = false;
+            }
+            return !avoided;
+        }
+
+        synchronized double latencySeconds() {
+            return latencyNanos / 1e9;
+        }
+
+        synchronized double errorRate() {
+            return errorRate;
+        }
+    }
+}
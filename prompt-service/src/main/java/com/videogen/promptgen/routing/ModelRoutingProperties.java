@@ -0,0 +1,65 @@
+package com.videogen.promptgen.routing;
+
+import com.videogen.promptgen.model.ArtStyle;
+import com.videogen.promptgen.model.JobPriority;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "anthropic.routing")
+public class ModelRoutingProperties {
+
+    /** Tried in order; the first that matches picks the model, else {@code anthropic.api.model} is used. */
+    private List<Rule> rules = new ArrayList<>();
+
+    /**
+     * Model to retry on when a call to the key model is overloaded or times out, and to send calls
+     * to while the key model is avoided.
+     */
+    private Map<String, String> fallbacks = new HashMap<>();
+
+    /** A model whose recent error rate exceeds this is avoided for {@code cool-down}. */
+    private double maxErrorRate = 0.5;
+
+    /** A model whose recent mean call latency exceeds this is avoided for {@code cool-down}. */
+    private Duration maxLatency = Duration.ofSeconds(60);
+
+    /** Calls to a model before its error rate and latency are judged. */
+    private int minCalls = 10;
+
+    /** How long an avoided model gets no calls that can go elsewhere; then it starts afresh. */
+    private Duration coolDown = Duration.ofSeconds(30);
+
+    @Data
+    public static class Rule {
+
+        private String model;
+
+        /** Matches segments of at least this many characters; unset matches any. */
+        private Integer minSegmentLength;
+
+        /** Matches segments of at most this many characters; unset matches any. */
+        private Integer maxSegmentLength;
+
+        /** Matches these styles; empty matches all. */
+        private Set<ArtStyle> styles = EnumSet.noneOf(ArtStyle.class);
+
+        /** Matches jobs of these priorities; empty matches all. */
+        private Set<JobPriority> priorities = EnumSet.noneOf(JobPriority.class);
+
+        boolean matches(int segmentLength, ArtStyle style, JobPriority priority) {
+            return (minSegmentLength == null || segmentLength >= minSegmentLength)
+                    && (maxSegmentLength == null || segmentLength <= maxSegmentLength)
+                    && (styles.isEmpty() || styles.contains(style))
+                    && (priorities.isEmpty() || priorities.contains(priority));
+        }
+    }
+}
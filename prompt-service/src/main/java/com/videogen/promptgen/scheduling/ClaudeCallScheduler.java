@@ -0,0 +1,401 @@
+package com.videogen.promptgen.scheduling;
+
+import com.videogen.promptgen.exception.DeadlineExceededException;
+import com.videogen.promptgen.model.JobPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Runs Claude calls of all jobs on a fixed number of workers, one segment at a time, so that
+ * segments of different jobs interleave instead of a large job holding Claude until it finishes.
+ *
+ * <p>The next call is chosen in two steps:
+ * <ol>
+ *   <li>Priority class: INTERACTIVE before NORMAL before BULK. A class's level improves by one for
+ *   every {@code aging-interval} its oldest call has waited, and the older call wins a tie.</li>
+ *   <li>Within the class, weighted fair queuing across clients: each call gets a virtual finish
+ *   tag of {@code max(class virtual time, client's last tag) + 1 / weight}, and the lowest tag
+ *   runs first. A client with 2,000 queued segments therefore alternates with one that just
+ *   arrived instead of going first. A class that only won through aging runs its oldest call
+ *   instead, the one that aged it.</li>
+ * </ol>
+ * Idle workers always take queued work, so BULK calls use whatever capacity others leave.
+ *
+ * <p>A call whose future was cancelled while it waited, or whose deadline no longer leaves the
+ * larger of {@code min-call-time} and half the recent call latency, is dropped without using a
+ * worker.
+ */
+@Component
+public class ClaudeCallScheduler {
+
+    public static final String ANONYMOUS_CLIENT = "anonymous";
+
+    private static final Logger log = LoggerFactory.getLogger(ClaudeCallScheduler.class);
+
+    /** Weight of the latest call in {@link #recentCallLatency()}; about the last ten calls count. */
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final SchedulerProperties properties;
+    private final ObservationRegistry observationRegistry;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Map<JobPriority, ClassQueue> queues = new EnumMap<>(JobPriority.class);
+    private final Map<JobPriority, Timer> waitTimers = new EnumMap<>(JobPriority.class);
+    private final Map<JobPriority, Counter> skippedCalls = new EnumMap<>(JobPriority.class);
+    private final AtomicInteger activeCalls = new AtomicInteger();
+    private final AtomicLong recentLatencyNanos = new AtomicLong();
+    private final List<Thread> workers = new ArrayList<>();
+    private long sequence;
+    private boolean shutdown;
+
+    public ClaudeCallScheduler(SchedulerProperties properties,
+                               MeterRegistry meterRegistry,
+                               ObservationRegistry observationRegistry) {
+        this.properties = properties;
+        this.observationRegistry = observationRegistry;
+        for (JobPriority priority : JobPriority.values()) {
+            ClassQueue queue = new ClassQueue();
+            queues.put(priority, queue);
+            Gauge.builder("videogen.prompt.scheduler.queued", queue.size, AtomicInteger::get)
+                    .description("Claude calls waiting for a worker")
+                    .tag("priority", priority.name())
+                    .register(meterRegistry);
+            waitTimers.put(priority, Timer.builder("videogen.prompt.scheduler.wait")
+                    .description("Time a Claude call waited for a worker")
+                    .tag("priority", priority.name())
+                    .register(meterRegistry));
+            skippedCalls.put(priority, Counter.builder("videogen.prompt.scheduler.skipped")
+                    .description("Queued Claude calls dropped because they were cancelled or past their deadline")
+                    .tag("priority", priority.name())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("videogen.prompt.scheduler.active", activeCalls, AtomicInteger::get)
+                .description("Claude calls currently running")
+                .register(meterRegistry);
+        Gauge.builder("videogen.prompt.scheduler.latency", recentLatencyNanos, nanos -> nanos.get() / 1e9)
+                .description("Weighted mean run time of recent Claude calls")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+
+        for (int i = 0; i < properties.getMaxConcurrentCalls(); i++) {
+            Thread worker = new Thread(this::runWorker, "claude-call-" + (i + 1));
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Queues {@code call} for a worker. The caller's current observation is made current while the
+     * call runs, so its spans stay children of the job.
+     *
+     * @param clientId fair-share client; null shares as {@value #ANONYMOUS_CLIENT}
+     */
+    public <T> CompletableFuture<T> submit(JobPriority priority, String clientId, Supplier<T> call) {
+        return submit(priority, clientId, null, call);
+    }
+
+    /**
+     * Like {@link #submit(JobPriority, String, Supplier)}, but a call still queued when too little
+     * time is left before {@code deadline} completes with {@link DeadlineExceededException}
+     * instead of running.
+     *
+     * @param deadline when the result is no longer needed; null for none
+     */
+    public <T> CompletableFuture<T> submit(JobPriority priority, String clientId, Instant deadline,
+                                           Supplier<T> call) {
+        Observation parent = observationRegistry.getCurrentObservation();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable work = () -> {
+            Observation.Scope scope = parent != null ? parent.openScope() : null;
+            try {
+                future.complete(call.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                if (scope != null) {
+                    scope.close();
+                }
+            }
+        };
+        String client = clientId != null ? clientId : ANONYMOUS_CLIENT;
+
+        lock.lock();
+        try {
+            if (shutdown) {
+                future.completeExceptionally(new RejectedExecutionException("Claude call scheduler is shut down"));
+                return future;
+            }
+            queues.get(priority).add(new Task(priority, client, work, future, deadline, System.nanoTime(),
+                    sequence++),
+                    weight(client));
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        return future;
+    }
+
+    public int activeCalls() {
+        return activeCalls.get();
+    }
+
+    public int maxConcurrentCalls() {
+        return workers.size();
+    }
+
+    /**
+     * Calls queued that a new call of {@code priority} would wait behind, ignoring aging: those of
+     * its own class and of higher ones.
+     */
+    public int queuedAhead(JobPriority priority) {
+        int queued = 0;
+        for (JobPriority other : JobPriority.values()) {
+            if (other.ordinal() <= priority.ordinal()) {
+                queued += queues.get(other).size.get();
+            }
+        }
+        return queued;
+    }
+
+    public int queuedCalls() {
+        return queuedAhead(JobPriority.BULK);
+    }
+
+    /**
+     * Exponentially weighted mean run time of recent calls; zero before the first call completes.
+     */
+    public Duration recentCallLatency() {
+        return Duration.ofNanos(recentLatencyNanos.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        List<Task> abandoned = new ArrayList<>();
+        lock.lock();
+        try {
+            shutdown = true;
+            queues.values().forEach(queue -> queue.drainTo(abandoned));
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        abandoned.forEach(task -> task.future.completeExceptionally(
+                new RejectedExecutionException("Claude call scheduler is shut down")));
+        workers.forEach(Thread::interrupt);
+    }
+
+    private void runWorker() {
+        while (true) {
+            Task task;
+            lock.lock();
+            try {
+                while ((task = next()) == null) {
+                    if (shutdown) {
+                        return;
+                    }
+                    available.await();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            waitTimers.get(task.priority).record(System.nanoTime() - task.enqueuedAt, TimeUnit.NANOSECONDS);
+            if (task.future.isDone()) {
+                // Cancelled by a caller that stopped waiting
+                skippedCalls.get(task.priority).increment();
+                continue;
+            }
+            if (task.deadline != null && !canFinishBefore(task.deadline)) {
+                skippedCalls.get(task.priority).increment();
+                task.future.completeExceptionally(new DeadlineExceededException(
+                        "Deadline " + task.deadline + " leaves too little time for a Claude call"));
+                continue;
+            }
+            activeCalls.incrementAndGet();
+            long startedAt = System.nanoTime();
+            try {
+                task.work.run();
+            } catch (RuntimeException e) {
+                log.error("Claude call task failed outside its future", e);
+            } finally {
+                activeCalls.decrementAndGet();
+                recordLatency(System.nanoTime() - startedAt);
+            }
+        }
+    }
+
+    /**
+     * Picks the next call; must hold {@link #lock}.
+     */
+    private Task next() {
+        long now = System.nanoTime();
+        long agingNanos = Math.max(1, properties.getAgingInterval().toNanos());
+        ClassQueue chosen = null;
+        ClassQueue highest = null;
+        long chosenLevel = 0;
+        long chosenEnqueuedAt = 0;
+        for (JobPriority priority : JobPriority.values()) {
+            ClassQueue queue = queues.get(priority);
+            Task oldest = queue.oldest();
+            if (oldest == null) {
+                continue;
+            }
+            if (highest == null) {
+                highest = queue;
+            }
+            long level = priority.ordinal() - (now - oldest.enqueuedAt) / agingNanos;
+            if (chosen == null || level < chosenLevel
+                    || (level == chosenLevel && oldest.enqueuedAt < chosenEnqueuedAt)) {
+                chosen = queue;
+                chosenLevel = level;
+                chosenEnqueuedAt = oldest.enqueuedAt;
+            }
+        }
+        if (chosen == null) {
+            return null;
+        }
+        return chosen == highest ? chosen.poll() : chosen.pollOldest();
+    }
+
+    /**
+     * True when more than the larger of {@code min-call-time} and half the recent call latency is
+     * left before {@code deadline}.
+     */
+    boolean canFinishBefore(Instant deadline) {
+        Duration needed = properties.getMinCallTime();
+        Duration halfLatency = recentCallLatency().dividedBy(2);
+        if (halfLatency.compareTo(needed) > 0) {
+            needed = halfLatency;
+        }
+        return Duration.between(Instant.now(), deadline).compareTo(needed) > 0;
+    }
+
+    private void recordLatency(long nanos) {
+        recentLatencyNanos.getAndUpdate(previous -> previous == 0 ? nanos
+                : Math.round(previous + LATENCY_SMOOTHING * (nanos - previous)));
+    }
+
+    private int weight(String client) {
+        return Math.max(1, properties.getClientWeights().getOrDefault(client, 1));
+    }
+
+    private static final class Task {
+
+        private final JobPriority priority;
+        private final String client;
+        private final Runnable work;
+        private final CompletableFuture<?> future;
+        private final Instant deadline;
+        private final long enqueuedAt;
+        private final long sequence;
+        private double finishTag;
+        private boolean dispatched;
+
+        private Task(JobPriority priority, String client, Runnable work, CompletableFuture<?> future,
+                     Instant deadline, long enqueuedAt, long sequence) {
+            this.priority = priority;
+            this.client = client;
+            this.work = work;
+            this.future = future;
+            this.deadline = deadline;
+            this.enqueuedAt = enqueuedAt;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Calls of one priority class, ordered by fair-share tag and, for aging, by arrival. A call
+     * taken by one order stays in the other, flagged dispatched, until it reaches the front.
+     */
+    private static final class ClassQueue {
+
+        private final PriorityQueue<Task> byFinishTag = new PriorityQueue<>(
+                Comparator.<Task>comparingDouble(task -> task.finishTag).thenComparingLong(task -> task.sequence));
+        private final ArrayDeque<Task> byArrival = new ArrayDeque<>();
+        private final Map<String, Double> lastFinishTag = new HashMap<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private double virtualTime;
+
+        void add(Task task, int weight) {
+            double start = Math.max(virtualTime, lastFinishTag.getOrDefault(task.client, 0.0));
+            task.finishTag = start + 1.0 / weight;
+            lastFinishTag.put(task.client, task.finishTag);
+            byFinishTag.add(task);
+            byArrival.addLast(task);
+            size.incrementAndGet();
+        }
+
+        Task oldest() {
+            while (!byArrival.isEmpty() && byArrival.peekFirst().dispatched) {
+                byArrival.pollFirst();
+            }
+            return byArrival.peekFirst();
+        }
+
+        /** The call with the lowest finish tag; the class must not be empty. */
+        Task poll() {
+            Task task = byFinishTag.poll();
+            while (task.dispatched) {
+                task = byFinishTag.poll();
+            }
+            virtualTime = task.finishTag;
+            return dispatch(task);
+        }
+
+        /** The longest waiting call, out of fair-share order; the class must not be empty. */
+        Task pollOldest() {
+            Task task = oldest();
+            byArrival.pollFirst();
+            return dispatch(task);
+        }
+
+        private Task dispatch(Task task) {
+            task.dispatched = true;
+            if (size.decrementAndGet() == 0) {
+                // A new busy period starts everyone level again
+                byFinishTag.clear();
+                lastFinishTag.clear();
+                byArrival.clear();
+            }
+            return task;
+        }
+
+        void drainTo(List<Task> tasks) {
+            byFinishTag.stream().filter(task -> !task.dispatched).forEach(tasks::add);
+            byFinishTag.clear();
+            byArrival.clear();
+            lastFinishTag.clear();
+            size.set(0);
+        }
+    }
+}
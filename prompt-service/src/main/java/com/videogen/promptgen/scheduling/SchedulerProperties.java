@@ -0,0 +1,54 @@
+package com.videogen.promptgen.scheduling;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "videogen.scheduler")
+public class SchedulerProperties {
+
+    /** Claude calls this instance runs at once; all jobs share them. */
+    private int maxConcurrentCalls = 8;
+
+    /**
+     * Each interval a call waits raises its priority class by one level, so BULK work still
+     * progresses under a steady stream of INTERACTIVE jobs.
+     */
+    private Duration agingInterval = Duration.ofSeconds(30);
+
+    /** Fair-share weight per client id within a priority class; unlisted clients weigh 1. */
+    private Map<String, Integer> clientWeights = new HashMap<>();
+
+    /**
+     * Clients, as identified by the rate limiter's client headers, whose jobs may run INTERACTIVE;
+     * INTERACTIVE jobs of any other client run as NORMAL.
+     */
+    private Set<String> interactiveClients = new HashSet<>();
+
+    /**
+     * Least time a call must have left before its job's deadline to be started; half the recent
+     * call latency is required when that is more.
+     */
+    private Duration minCallTime = Duration.ofSeconds(1);
+
+    /**
+     * Longest a segment appended to a streamed job waits for its Claude call, queueing included;
+     * it is then stored without a prompt.
+     */
+    private Duration streamedSegmentTimeout = Duration.ofMinutes(3);
+
+    /**
+     * A streamed job left PROCESSING this long without a new segment is marked FAILED; its stream
+     * is assumed gone. Keep it well above {@link #streamedSegmentTimeout}.
+     */
+    private Duration streamedJobIdleTimeout = Duration.ofMinutes(15);
+
+    /** How often idle streamed jobs are looked for; ISO-8601 (PT1M) because @Scheduled parses it too. */
+    private Duration streamedJobSweepInterval = Duration.ofMinutes(1);
+}
@@ -1,17 +1,67 @@
 package com.videogen.promptgen.service;
 
+import com.videogen.promptgen.dto.BulkDeleteRequest;
+import com.videogen.promptgen.dto.BulkDeleteResponse;
+import com.videogen.promptgen.dto.CostSummaryResponse;
+import com.videogen.promptgen.dto.CursorPageResponse;
+import com.videogen.promptgen.dto.PromptJobFilter;
+import com.videogen.promptgen.dto.PromptJobSummaryResponse;
 import com.videogen.promptgen.dto.PromptRequest;
 import com.videogen.promptgen.dto.PromptResponse;
+import com.videogen.promptgen.dto.PromptResultResponse;
+import com.videogen.promptgen.dto.PromptView;
 
-import java.util.List;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.function.LongConsumer;
 
 public interface PromptGenerationService {
 
-    PromptResponse createPromptJob(PromptRequest request);
+    /**
+     * @param deadline when the caller stops waiting, e.g. from a {@code Request-Timeout} header;
+     *                 null for none. The earlier of it and the request's own timeout applies.
+     */
+    PromptResponse createPromptJob(PromptRequest request, Instant deadline);
 
-    PromptResponse getPromptJob(Long id);
+    /**
+     * Streams each Claude call and passes the prompt text to {@code listener} as it is generated.
+     */
+    PromptResponse createPromptJob(PromptRequest request, Instant deadline, PromptTextListener listener);
 
-    List<PromptResponse> getAllPromptJobs();
+    /**
+     * Like {@link #createPromptJob(PromptRequest, Instant, PromptTextListener)}, and passes the
+     * job's id to {@code onCreated} once the PROCESSING job is committed, before any Claude call.
+     *
+     * @param listener  null to not stream
+     * @param onCreated null if the id is not needed early
+     */
+    PromptResponse createPromptJob(PromptRequest request, Instant deadline, PromptTextListener listener,
+                                   LongConsumer onCreated);
+
+    PromptResponse startPromptJob(String style, String customStyleDescription);
+
+    PromptResultResponse appendSegment(Long jobId, String segmentText);
+
+    PromptResponse finishPromptJob(Long jobId, boolean aborted);
+
+    /**
+     * Marks streamed jobs FAILED that were left open past the idle timeout.
+     *
+     * @return number of jobs failed
+     */
+    int failIdleStreamedJobs();
+
+    PromptResponse getPromptJob(Long id, PromptView view);
+
+    long getPromptJobVersion(Long id);
+
+    CursorPageResponse<PromptJobSummaryResponse> listPromptJobs(PromptJobFilter filter);
+
+    CursorPageResponse<PromptResultResponse> getPromptResults(Long jobId, Integer after, Integer limit);
 
     void deletePromptJob(Long id);
+
+    BulkDeleteResponse bulkDeletePromptJobs(BulkDeleteRequest request);
+
+    CostSummaryResponse getCostSummary(LocalDateTime from, LocalDateTime to);
 }
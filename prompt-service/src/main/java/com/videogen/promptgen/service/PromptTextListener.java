@@ -0,0 +1,14 @@
+package com.videogen.promptgen.service;
+
+/**
+ * Receives a job's prompt text while Claude is still generating it.
+ */
+@FunctionalInterface
+public interface PromptTextListener {
+
+    /**
+     * Called from the Claude call workers, so calls for different segments may be concurrent.
+     * Segments repeating an earlier segment's text get no fragments of their own.
+     */
+    void onText(int segmentNumber, String fragment);
+}
@@ -1,116 +1,659 @@
 package com.videogen.promptgen.service.impl;
 
+import com.videogen.promptgen.admission.AdmissionService;
 import com.videogen.promptgen.client.ClaudeApiClient;
+import com.videogen.promptgen.client.PromptCompletion;
+import com.videogen.promptgen.config.ClaudePricingProperties;
+import com.videogen.promptgen.dto.BulkDeleteRequest;
+import com.videogen.promptgen.dto.BulkDeleteResponse;
+import com.videogen.promptgen.dto.CostSummaryResponse;
+import com.videogen.promptgen.dto.CursorPageResponse;
+import com.videogen.promptgen.dto.PromptJobFilter;
+import com.videogen.promptgen.dto.PromptJobSummaryResponse;
 import com.videogen.promptgen.dto.PromptRequest;
 import com.videogen.promptgen.dto.PromptResponse;
+import com.videogen.promptgen.dto.PromptResultResponse;
+import com.videogen.promptgen.dto.PromptView;
+import com.videogen.promptgen.exception.DeadlineExceededException;
 import com.videogen.promptgen.exception.ResourceNotFoundException;
+import com.videogen.promptgen.metrics.PromptMetrics;
 import com.videogen.promptgen.model.ArtStyle;
+import com.videogen.promptgen.model.JobPriority;
 import com.videogen.promptgen.model.JobStatus;
 import com.videogen.promptgen.model.PromptJob;
 import com.videogen.promptgen.model.PromptResult;
+import com.videogen.promptgen.repository.PromptJobHeader;
 import com.videogen.promptgen.repository.PromptJobRepository;
+import com.videogen.promptgen.repository.PromptJobSummary;
+import com.videogen.promptgen.repository.PromptResultRepository;
+import com.videogen.promptgen.repository.PromptResultUsage;
+import com.videogen.promptgen.reuse.PromptReuseService;
+import com.videogen.promptgen.scheduling.ClaudeCallScheduler;
+import com.videogen.promptgen.scheduling.SchedulerProperties;
 import com.videogen.promptgen.service.PromptGenerationService;
+import com.videogen.promptgen.service.PromptTextListener;
+import io.micrometer.observation.annotation.Observed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class PromptGenerationServiceImpl implements PromptGenerationService {
 
+    private static final Logger log = LoggerFactory.getLogger(PromptGenerationServiceImpl.class);
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int BULK_DELETE_CHUNK_SIZE = 500;
+    private static final List<JobStatus> FINISHED = List.of(JobStatus.COMPLETED, JobStatus.FAILED,
+            JobStatus.PARTIAL);
+
     private final PromptJobRepository jobRepository;
+    private final PromptResultRepository resultRepository;
     private final ClaudeApiClient claudeApiClient;
+    private final ClaudePricingProperties pricing;
+    private final PromptMetrics promptMetrics;
+    private final PromptReuseService reuseService;
+    private final ClaudeCallScheduler callScheduler;
+    private final AdmissionService admissionService;
+    private final SchedulerProperties schedulerProperties;
+    private final TransactionTemplate transactionTemplate;
 
     public PromptGenerationServiceImpl(PromptJobRepository jobRepository,
-                                       ClaudeApiClient claudeApiClient) {
+                                       PromptResultRepository resultRepository,
+                                       ClaudeApiClient claudeApiClient,
+                                       ClaudePricingProperties pricing,
+                                       PromptMetrics promptMetrics,
+                                       PromptReuseService reuseService,
+                                       ClaudeCallScheduler callScheduler,
+                                       AdmissionService admissionService,
+                                       SchedulerProperties schedulerProperties,
+                                       PlatformTransactionManager transactionManager) {
         this.jobRepository = jobRepository;
+        this.resultRepository = resultRepository;
         this.claudeApiClient = claudeApiClient;
+        this.pricing = pricing;
+        this.promptMetrics = promptMetrics;
+        this.reuseService = reuseService;
+        this.callScheduler = callScheduler;
+        this.admissionService = admissionService;
+        this.schedulerProperties = schedulerProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
-    public PromptResponse createPromptJob(PromptRequest request) {
-        // Parse style
-        ArtStyle style;
-        try {
-            style = ArtStyle.valueOf(request.getStyle().toUpperCase());
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Invalid art style: " + request.getStyle()
-                    + ". Valid styles are: CINEMATIC, GHIBLI, PIXAR, WATERCOLOR, PHOTOREALISTIC, ANIME, CUSTOM");
-        }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PromptResponse createPromptJob(PromptRequest request, Instant requestDeadline) {
+        return createPromptJob(request, requestDeadline, null, null);
+    }
 
-        // Validate CUSTOM requires description
-        if (style == ArtStyle.CUSTOM &&
-                (request.getCustomStyleDescription() == null || request.getCustomStyleDescription().isBlank())) {
-            throw new IllegalArgumentException("Custom style requires a customStyleDescription");
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PromptResponse createPromptJob(PromptRequest request, Instant requestDeadline,
+                                          PromptTextListener listener) {
+        return createPromptJob(request, requestDeadline, listener, null);
+    }
+
+    /**
+     * Claude calls of the job's distinct segments are queued on the {@link ClaudeCallScheduler} all
+     * at once and run concurrently, interleaved with other jobs' calls by priority and client. While
+     * Claude is saturated the {@link AdmissionService} may refuse the job or lower its priority.
+     * INTERACTIVE is only granted to clients in {@code videogen.scheduler.interactive-clients}.
+     *
+     * <p>With a deadline, each call's read timeout is the time left, calls still queued when too
+     * little is left are dropped, and those unfinished at the deadline are abandoned; their
+     * segments get no prompt and the job ends PARTIAL.
+     *
+     * <p>With a listener, calls are streamed so that text reaches it while Claude generates it.
+     *
+     * <p>No transaction is open while the calls are queued or running: the PROCESSING job is
+     * committed first, and the results and final status are written in a second transaction. A
+     * failure in between fails the job and cancels its calls still queued.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PromptResponse createPromptJob(PromptRequest request, Instant requestDeadline,
+                                          PromptTextListener listener, LongConsumer onCreated) {
+        Instant deadline = earliest(requestDeadline, request.getTimeoutSeconds() == null ? null
+                : Instant.now().plusMillis(Math.round(request.getTimeoutSeconds() * 1000)));
+        ArtStyle style = resolveStyle(request.getStyle(), request.getCustomStyleDescription());
+        JobPriority requested = request.getPriority() != null ? parsePriority(request.getPriority()) : JobPriority.NORMAL;
+        if (requested == JobPriority.INTERACTIVE
+                && !schedulerProperties.getInteractiveClients().contains(request.getClientId())) {
+            requested = JobPriority.NORMAL;
         }
 
-        // Create job
-        PromptJob job = PromptJob.builder()
-                .style(style)
-                .customStyleDescription(request.getCustomStyleDescription())
-                .status(JobStatus.PENDING)
-                .build();
-        job = jobRepository.save(job);
+        // Plan one Claude call per distinct segment text
+        SegmentPlan plan = SegmentPlan.of(request.getSegments());
+        // Shed or demote the job before anything is stored when Claude is saturated
+        JobPriority priority = admissionService.admit(requested, plan.uniqueSegmentCount());
 
-        // Set processing
-        job.setStatus(JobStatus.PROCESSING);
-        job = jobRepository.save(job);
+        try (PromptMetrics.JobObservation observation =
+                     promptMetrics.startJob(style, priority, plan.uniqueSegmentCount())) {
+            // Create job and set processing
+            PromptJob job = transactionTemplate.execute(status -> {
+                PromptJob created = jobRepository.save(PromptJob.builder()
+                        .style(style)
+                        .customStyleDescription(request.getCustomStyleDescription())
+                        .status(JobStatus.PENDING)
+                        .priority(priority)
+                        .clientId(request.getClientId())
+                        .deadline(deadline != null ? LocalDateTime.ofInstant(deadline, ZoneId.systemDefault()) : null)
+                        .segmentCount(plan.segmentCount())
+                        .uniqueSegmentCount(plan.uniqueSegmentCount())
+                        .build());
+                created.setStatus(JobStatus.PROCESSING);
+                return jobRepository.save(created);
+            });
+            observation.jobId(job.getId());
 
-        // Process segments
-        List<PromptResult> results = new ArrayList<>();
-        boolean hasFailed = false;
+            // Queue a Claude call for every distinct segment that cannot reuse an earlier prompt
+            List<SegmentPlan.Group> groups = plan.groups();
+            PromptReuseService.Match[] reused = new PromptReuseService.Match[groups.size()];
+            List<CompletableFuture<PromptCompletion>> calls = new ArrayList<>(groups.size());
+            Long jobId = job.getId();
+            try {
+                if (onCreated != null) {
+                    onCreated.accept(jobId);
+                }
+                for (int i = 0; i < groups.size(); i++) {
+                    SegmentPlan.Group group = groups.get(i);
+                    // Opt-in: a near-duplicate of an earlier segment takes that segment's prompt
+                    reused[i] = request.getReuseThreshold() == null ? null
+                            : reuseService.findSimilar(style, request.getCustomStyleDescription(), group.text(),
+                                    request.getReuseThreshold()).orElse(null);
+                    if (reused[i] != null) {
+                        observation.segmentDispatched();
+                        promptMetrics.promptsReused(style, group.segmentNumbers().size());
+                        calls.add(null);
+                    } else {
+                        int segmentNumber = group.firstSegmentNumber();
+                        calls.add(callScheduler.submit(priority, request.getClientId(), deadline, () -> {
+                            observation.segmentDispatched();
+                            if (listener == null) {
+                                return promptMetrics.timeClaudeCall(style, jobId, segmentNumber,
+                                        () -> claudeApiClient.generateImagePrompt(group.text(), style,
+                                                request.getCustomStyleDescription(), priority, timeLeft(deadline)));
+                            }
+                            return promptMetrics.timeClaudeStream(style, jobId, segmentNumber,
+                                    fragment -> listener.onText(segmentNumber, fragment),
+                                    onText -> claudeApiClient.streamImagePrompt(group.text(), style,
+                                            request.getCustomStyleDescription(), priority, timeLeft(deadline), onText));
+                        }));
+                    }
+                }
 
-        for (int i = 0; i < request.getSegments().size(); i++) {
-            String segmentText = request.getSegments().get(i);
-            String generatedPrompt = null;
+                // Process segments
+                PromptResult[] results = new PromptResult[plan.segmentCount()];
+                boolean hasFailed = false;
+                boolean deadlineExceeded = false;
 
-            try {
-                generatedPrompt = claudeApiClient.generateImagePrompt(
-                        segmentText, style, request.getCustomStyleDescription());
-            } catch (Exception e) {
-                hasFailed = true;
+                for (int i = 0; i < groups.size(); i++) {
+                    SegmentPlan.Group group = groups.get(i);
+                    PromptCompletion completion = null;
+                    if (calls.get(i) != null) {
+                        try {
+                            completion = await(calls.get(i), deadline);
+                            promptMetrics.promptsGenerated(style, group.segmentNumbers().size());
+                        } catch (DeadlineExceededException e) {
+                            deadlineExceeded = true;
+                            promptMetrics.promptsSkipped(style, group.segmentNumbers().size());
+                        } catch (CompletionException e) {
+                            // A call cut off by its deadline-derived read timeout counts as skipped too
+                            if (e.getCause() instanceof DeadlineExceededException || isPast(deadline)) {
+                                deadlineExceeded = true;
+                                promptMetrics.promptsSkipped(style, group.segmentNumbers().size());
+                            } else {
+                                hasFailed = true;
+                                promptMetrics.promptsFailed(style, group.segmentNumbers().size());
+                            }
+                        }
+                    }
+
+                    for (int segmentNumber : group.segmentNumbers()) {
+                        PromptResult result = PromptResult.builder()
+                                .job(job)
+                                .segmentNumber(segmentNumber)
+                                .segmentText(plan.segmentText(segmentNumber))
+                                .generatedPrompt(reused[i] != null ? reused[i].generatedPrompt()
+                                        : completion != null ? completion.getText() : null)
+                                .reusedFromSegment(segmentNumber == group.firstSegmentNumber()
+                                        ? null : group.firstSegmentNumber())
+                                .reusedFromResultId(reused[i] != null ? reused[i].resultId() : null)
+                                .similarity(reused[i] != null ? reused[i].similarity() : null)
+                                .build();
+                        // Usage is billed once per call, so it is attributed to the segment that made it
+                        if (completion != null && segmentNumber == group.firstSegmentNumber()) {
+                            recordUsage(job, result, completion);
+                        }
+                        results[segmentNumber - 1] = result;
+                    }
+                }
+
+                job.getResults().addAll(Arrays.asList(results));
+                job.setStatus(deadlineExceeded ? JobStatus.PARTIAL
+                        : hasFailed ? JobStatus.FAILED : JobStatus.COMPLETED);
+                PromptJob finished = job;
+                PromptResponse response = transactionTemplate.execute(status -> {
+                    PromptJob saved = jobRepository.save(finished);
+                    for (PromptResult result : saved.getResults()) {
+                        if (isOriginal(result)) {
+                            reuseService.sign(result, style);
+                        }
+                    }
+                    return PromptResponse.fromEntity(saved);
+                });
+                observation.status(finished.getStatus());
+
+                return response;
+            } catch (RuntimeException e) {
+                // The job is committed, so no rollback removes it; fail it rather than leave it PROCESSING
+                failUnfinishedJob(jobId, calls, e);
+                throw e;
             }
+        }
+    }
+
+    /**
+     * Opens a job whose segments arrive one at a time through {@link #appendSegment}; it stays
+     * PROCESSING until {@link #finishPromptJob} is called.
+     */
+    @Override
+    @Observed(name = "videogen.prompt.job.stream", contextualName = "start-prompt-job")
+    public PromptResponse startPromptJob(String style, String customStyleDescription) {
+        ArtStyle artStyle = resolveStyle(style, customStyleDescription);
+        JobPriority priority = admissionService.admit(JobPriority.NORMAL, 0);
+        PromptJob job = PromptJob.builder()
+                .style(artStyle)
+                .customStyleDescription(customStyleDescription)
+                .status(JobStatus.PROCESSING)
+                .priority(priority)
+                .streamed(true)
+                .segmentCount(0)
+                .uniqueSegmentCount(0)
+                .build();
+        return PromptResponse.fromEntity(jobRepository.saveAndFlush(job));
+    }
+
+    /**
+     * Generates the prompt for the next segment of an open job. A failed Claude call is stored as a
+     * result without a prompt, like in a batch job, and fails the job when it is finished. Streamed
+     * segments are not deduplicated because later segments are unknown when a prompt is generated.
+     *
+     * <p>The call gets {@code videogen.scheduler.streamed-segment-timeout}, queueing included, and
+     * runs with no transaction open; a segment whose call times out is stored without a prompt.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Observed(name = "videogen.prompt.job.stream", contextualName = "append-segment")
+    public PromptResultResponse appendSegment(Long jobId, String segmentText) {
+        if (segmentText == null || segmentText.isBlank()) {
+            throw new IllegalArgumentException("Segment text must not be blank");
+        }
+        PromptJob job = transactionTemplate.execute(status -> findOpenJob(jobId));
+        ArtStyle style = job.getStyle();
+        int segmentNumber = job.getSegmentCount() + 1;
+        Instant deadline = Instant.now().plus(schedulerProperties.getStreamedSegmentTimeout());
+
+        PromptCompletion completion = null;
+        try {
+            completion = await(callScheduler.submit(job.getPriority(), job.getClientId(), deadline, () ->
+                    promptMetrics.timeClaudeCall(style, jobId, segmentNumber,
+                            () -> claudeApiClient.generateImagePrompt(segmentText, style,
+                                    job.getCustomStyleDescription(), job.getPriority(), timeLeft(deadline)))),
+                    deadline);
+            promptMetrics.promptsGenerated(style, 1);
+        } catch (DeadlineExceededException | CompletionException e) {
+            promptMetrics.promptsFailed(style, 1);
+        }
 
+        PromptCompletion generated = completion;
+        return transactionTemplate.execute(status -> {
+            // Re-read so that a job finished while the call ran is not written to
+            PromptJob open = findOpenJob(jobId);
             PromptResult result = PromptResult.builder()
-                    .job(job)
-                    .segmentNumber(i + 1)
+                    .job(open)
+                    .segmentNumber(segmentNumber)
                     .segmentText(segmentText)
-                    .generatedPrompt(generatedPrompt)
+                    .generatedPrompt(generated != null ? generated.getText() : null)
                     .build();
-            results.add(result);
-        }
+            if (generated != null) {
+                recordUsage(open, result, generated);
+            }
+            // Updating the counts bumps the job version, so ETags change with every appended result
+            open.setSegmentCount(segmentNumber);
+            open.setUniqueSegmentCount(segmentNumber);
+            result = resultRepository.save(result);
+            jobRepository.save(open);
+            if (isOriginal(result)) {
+                reuseService.sign(result, style);
+            }
+            return PromptResultResponse.fromEntity(result);
+        });
+    }
 
-        job.getResults().addAll(results);
+    @Override
+    @Observed(name = "videogen.prompt.job.stream", contextualName = "finish-prompt-job")
+    public PromptResponse finishPromptJob(Long jobId, boolean aborted) {
+        PromptJob job = findOpenJob(jobId);
+        boolean hasFailed = aborted || resultRepository.countByJobIdAndGeneratedPromptIsNull(jobId) > 0;
         job.setStatus(hasFailed ? JobStatus.FAILED : JobStatus.COMPLETED);
-        job = jobRepository.save(job);
+        return PromptResponse.fromEntity(jobRepository.saveAndFlush(job));
+    }
+
+    /**
+     * Catches streams that ended without finishing their job: a client that vanished without the
+     * connection reporting it, or an instance that stopped mid-stream. Every instance sweeps; the
+     * update only touches jobs still PROCESSING, so they do not conflict.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${videogen.scheduler.streamed-job-sweep-interval:PT1M}")
+    public int failIdleStreamedJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        Duration idleTimeout = schedulerProperties.getStreamedJobIdleTimeout();
+        int failed = jobRepository.failIdleStreamedJobs(now.minus(idleTimeout), now);
+        if (failed > 0) {
+            log.warn("Marked {} streamed prompt jobs FAILED after {} without a segment", failed, idleTimeout);
+        }
+        return failed;
+    }
 
-        return PromptResponse.fromEntity(job);
+    @Override
+    @Transactional(readOnly = true)
+    @Observed(name = "videogen.prompt.job.read", contextualName = "get-prompt-job")
+    public PromptResponse getPromptJob(Long id, PromptView view) {
+        if (view == PromptView.FULL) {
+            PromptJob job = jobRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("PromptJob", id));
+            return PromptResponse.fromEntity(job);
+        }
+        // Narrower views never select the style description, segment texts or prompts
+        PromptJobHeader header = jobRepository.findHeaderById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("PromptJob", id));
+        List<PromptResultUsage> usages = view == PromptView.USAGE ? resultRepository.findUsageByJobId(id) : null;
+        return PromptResponse.fromHeader(header, usages);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public PromptResponse getPromptJob(Long id) {
-        PromptJob job = jobRepository.findById(id)
+    public long getPromptJobVersion(Long id) {
+        return jobRepository.findVersionById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("PromptJob", id));
-        return PromptResponse.fromEntity(job);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<PromptResponse> getAllPromptJobs() {
-        return jobRepository.findAll().stream()
-                .map(PromptResponse::fromEntity)
+    @Observed(name = "videogen.prompt.cost.summary", contextualName = "get-cost-summary")
+    public CostSummaryResponse getCostSummary(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        return CostSummaryResponse.of(from, to,
+                jobRepository.sumUsageByStyle(from, to).stream()
+                        .map(CostSummaryResponse.StyleCost::fromTotals)
+                        .collect(Collectors.toList()),
+                resultRepository.sumUsageByModel(from, to).stream()
+                        .map(CostSummaryResponse.ModelCost::fromTotals)
+                        .collect(Collectors.toList()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Observed(name = "videogen.prompt.job.read", contextualName = "list-prompt-jobs")
+    public CursorPageResponse<PromptJobSummaryResponse> listPromptJobs(PromptJobFilter filter) {
+        int limit = resolveLimit(filter.getLimit());
+        JobStatus status = filter.getStatus() != null ? parseStatus(filter.getStatus()) : null;
+        ArtStyle style = filter.getStyle() != null ? parseStyle(filter.getStyle()) : null;
+
+        // Fetch one extra row to learn whether another page exists
+        List<PromptJobSummary> rows = jobRepository.findSummaries(filter.getCursor(), status, style,
+                filter.getCreatedFrom(), filter.getCreatedTo(), Limit.of(limit + 1));
+
+        boolean hasMore = rows.size() > limit;
+        List<PromptJobSummaryResponse> items = rows.stream()
+                .limit(limit)
+                .map(PromptJobSummaryResponse::fromSummary)
                 .collect(Collectors.toList());
+
+        return CursorPageResponse.<PromptJobSummaryResponse>builder()
+                .items(items)
+                .limit(limit)
+                .nextCursor(hasMore ? items.get(items.size() - 1).getId() : null)
+                .build();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @Observed(name = "videogen.prompt.job.read", contextualName = "get-prompt-results")
+    public CursorPageResponse<PromptResultResponse> getPromptResults(Long jobId, Integer after, Integer limit) {
+        if (!jobRepository.existsById(jobId)) {
+            throw new ResourceNotFoundException("PromptJob", jobId);
+        }
+        int pageSize = resolveLimit(limit);
+        int afterSegmentNumber = after != null ? after : 0;
+
+        List<PromptResult> rows = resultRepository.findByJobIdOrderBySegmentNumberAsc(
+                jobId, afterSegmentNumber, Limit.of(pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        List<PromptResultResponse> items = rows.stream()
+                .limit(pageSize)
+                .map(PromptResultResponse::fromEntity)
+                .collect(Collectors.toList());
+
+        return CursorPageResponse.<PromptResultResponse>builder()
+                .items(items)
+                .limit(pageSize)
+                .nextCursor(hasMore ? items.get(items.size() - 1).getSegmentNumber().longValue() : null)
+                .build();
+    }
+
+    @Override
+    @Observed(name = "videogen.prompt.job.delete", contextualName = "delete-prompt-job")
     public void deletePromptJob(Long id) {
         if (!jobRepository.existsById(id)) {
             throw new ResourceNotFoundException("PromptJob", id);
         }
         jobRepository.deleteById(id);
     }
+
+    /**
+     * Runs outside the class-level transaction so every chunk commits on its own and row locks are
+     * held for one statement at a time rather than for the whole cleanup. Like retention, it only
+     * deletes finished jobs; PENDING and PROCESSING ones are skipped.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Observed(name = "videogen.prompt.job.delete", contextualName = "bulk-delete-prompt-jobs")
+    public BulkDeleteResponse bulkDeletePromptJobs(BulkDeleteRequest request) {
+        boolean hasIds = request.getIds() != null && !request.getIds().isEmpty();
+        if (!hasIds && request.getCreatedBefore() == null && request.getStatus() == null) {
+            throw new IllegalArgumentException("Bulk delete requires at least one of ids, createdBefore or status");
+        }
+        List<JobStatus> statuses = FINISHED;
+        if (request.getStatus() != null) {
+            JobStatus status = parseStatus(request.getStatus());
+            if (!FINISHED.contains(status)) {
+                throw new IllegalArgumentException("Only finished jobs can be bulk deleted; status must be one of "
+                        + FINISHED);
+            }
+            statuses = List.of(status);
+        }
+
+        long deleted = 0;
+        int chunks = 0;
+        if (hasIds) {
+            List<Long> ids = request.getIds().stream().distinct().toList();
+            for (int from = 0; from < ids.size(); from += BULK_DELETE_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + BULK_DELETE_CHUNK_SIZE, ids.size()));
+                deleted += jobRepository.deleteMatchingByIdIn(chunk, statuses, request.getCreatedBefore());
+                chunks++;
+            }
+        } else {
+            List<Long> chunk;
+            while (!(chunk = jobRepository.findIdsMatching(statuses, request.getCreatedBefore(),
+                    Limit.of(BULK_DELETE_CHUNK_SIZE))).isEmpty()) {
+                deleted += jobRepository.deleteAllByIdIn(chunk);
+                chunks++;
+            }
+        }
+
+        return BulkDeleteResponse.builder()
+                .deletedCount(deleted)
+                .chunks(chunks)
+                .build();
+    }
+
+    /**
+     * Fails a job that could not be finished and cancels its outstanding calls; calls still queued
+     * are dropped by the scheduler, while running ones complete unused.
+     */
+    private void failUnfinishedJob(Long jobId, List<CompletableFuture<PromptCompletion>> calls,
+                                   RuntimeException cause) {
+        for (CompletableFuture<PromptCompletion> call : calls) {
+            if (call != null) {
+                call.cancel(false);
+            }
+        }
+        try {
+            jobRepository.failProcessingJob(jobId, LocalDateTime.now());
+        } catch (RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+        log.error("Prompt job {} failed before its results were stored", jobId, cause);
+    }
+
+    private void recordUsage(PromptJob job, PromptResult result, PromptCompletion completion) {
+        BigDecimal cost = pricing.estimateCost(completion);
+        result.setModel(completion.getModel());
+        result.setInputTokens(completion.getInputTokens());
+        result.setOutputTokens(completion.getOutputTokens());
+        result.setCacheCreationInputTokens(completion.getCacheCreationInputTokens());
+        result.setCacheReadInputTokens(completion.getCacheReadInputTokens());
+        result.setEstimatedCostUsd(cost);
+        job.addUsage(result);
+        promptMetrics.recordUsage(job.getStyle(), completion, cost);
+    }
+
+    /** A prompt that came from this result's own Claude call, and so may be reused by later jobs. */
+    private static boolean isOriginal(PromptResult result) {
+        return result.getGeneratedPrompt() != null
+                && result.getReusedFromSegment() == null
+                && result.getReusedFromResultId() == null;
+    }
+
+    /**
+     * Waits for a call until {@code deadline}; a call still unfinished then is cancelled, so a
+     * worker that has not started it drops it.
+     *
+     * @throws DeadlineExceededException when the deadline passes first
+     * @throws CompletionException       when the call failed
+     */
+    private static <T> T await(CompletableFuture<T> call, Instant deadline) {
+        if (deadline == null) {
+            return call.join();
+        }
+        try {
+            return call.get(Math.max(0, Duration.between(Instant.now(), deadline).toNanos()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            call.cancel(false);
+            throw new DeadlineExceededException("Deadline " + deadline + " passed before the Claude call finished");
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            call.cancel(false);
+            throw new CompletionException(e);
+        }
+    }
+
+    private static Duration timeLeft(Instant deadline) {
+        return deadline != null ? Duration.between(Instant.now(), deadline) : null;
+    }
+
+    private static boolean isPast(Instant deadline) {
+        return deadline != null && !Instant.now().isBefore(deadline);
+    }
+
+    private static Instant earliest(Instant a, Instant b) {
+        return a == null ? b : b == null || a.isBefore(b) ? a : b;
+    }
+
+    private PromptJob findOpenJob(Long jobId) {
+        PromptJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("PromptJob", jobId));
+        if (job.getStatus() != JobStatus.PROCESSING) {
+            throw new IllegalArgumentException("PromptJob " + jobId + " is " + job.getStatus()
+                    + " and no longer accepts segments");
+        }
+        return job;
+    }
+
+    private ArtStyle resolveStyle(String value, String customStyleDescription) {
+        ArtStyle style = parseStyle(value);
+        if (style == ArtStyle.CUSTOM && (customStyleDescription == null || customStyleDescription.isBlank())) {
+            throw new IllegalArgumentException("Custom style requires a customStyleDescription");
+        }
+        return style;
+    }
+
+    private ArtStyle parseStyle(String value) {
+        try {
+            return ArtStyle.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid art style: " + value
+                    + ". Valid styles are: CINEMATIC, GHIBLI, PIXAR, WATERCOLOR, PHOTOREALISTIC, ANIME, CUSTOM");
+        }
+    }
+
+    private JobPriority parsePriority(String value) {
+        try {
+            return JobPriority.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid job priority: " + value
+                    + ". Valid priorities are: " + Arrays.toString(JobPriority.values()));
+        }
+    }
+
+    private JobStatus parseStatus(String value) {
+        try {
+            return JobStatus.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid job status: " + value
+                    + ". Valid statuses are: " + Arrays.toString(JobStatus.values()));
+        }
+    }
+
+    private int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return limit;
+    }
 }
@@ -0,0 +1,83 @@
+package com.videogen.promptgen.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Groups the segments of a job by normalized text so that each distinct text is sent
+ * to Claude once and the generated prompt is fanned out to every matching segment.
+ */
+final class SegmentPlan {
+
+    private final List<String> segments;
+    private final List<Group> groups;
+
+    private SegmentPlan(List<String> segments, List<Group> groups) {
+        this.segments = segments;
+        this.groups = groups;
+    }
+
+    static SegmentPlan of(List<String> segments) {
+        Map<String, Group> byKey = new LinkedHashMap<>();
+        for (int i = 0; i < segments.size(); i++) {
+            String text = segments.get(i);
+            int segmentNumber = i + 1;
+            byKey.computeIfAbsent(normalize(text), key -> new Group(text, segmentNumber))
+                    .segmentNumbers.add(segmentNumber);
+        }
+        return new SegmentPlan(segments, List.copyOf(byKey.values()));
+    }
+
+    /**
+     * Case-insensitive, whitespace-insensitive key; punctuation is kept because it
+     * changes what the narration is saying.
+     */
+    static String normalize(String text) {
+        return text.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    List<Group> groups() {
+        return groups;
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    int uniqueSegmentCount() {
+        return groups.size();
+    }
+
+    String segmentText(int segmentNumber) {
+        return segments.get(segmentNumber - 1);
+    }
+
+    static final class Group {
+
+        private final String text;
+        private final int firstSegmentNumber;
+        private final List<Integer> segmentNumbers = new ArrayList<>();
+
+        private Group(String text, int firstSegmentNumber) {
+            this.text = text;
+            this.firstSegmentNumber = firstSegmentNumber;
+        }
+
+        /** Text of the first occurrence; this is what gets sent to Claude. */
+        String text() {
+            return text;
+        }
+
+        int firstSegmentNumber() {
+            return firstSegmentNumber;
+        }
+
+        List<Integer> segmentNumbers() {
+            return Collections.unmodifiableList(segmentNumbers);
+        }
+    }
+}
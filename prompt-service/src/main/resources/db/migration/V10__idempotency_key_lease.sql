@@ -0,0 +1,2 @@
+-- Renewed while the request holding an IN_PROGRESS key runs; a key past it belongs to a request that died
+ALTER TABLE idempotency_keys ADD COLUMN lease_expires_at TIMESTAMP;
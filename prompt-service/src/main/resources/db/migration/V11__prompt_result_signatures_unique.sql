@@ -0,0 +1,10 @@
+-- Instances backfilling at the same time could sign a result twice; keep the first copy of each band
+DELETE FROM prompt_result_signatures
+WHERE id NOT IN (
+    SELECT keep_id FROM (
+        SELECT MIN(id) AS keep_id FROM prompt_result_signatures GROUP BY result_id, band_key
+    ) kept
+);
+
+ALTER TABLE prompt_result_signatures
+    ADD CONSTRAINT uk_prompt_result_signatures_result_band UNIQUE (result_id, band_key);
@@ -0,0 +1,2 @@
+-- Jobs opened over gRPC, whose segments arrive one at a time; swept to FAILED once left idle
+ALTER TABLE prompt_jobs ADD COLUMN streamed BOOLEAN NOT NULL DEFAULT FALSE;
@@ -0,0 +1,5 @@
+-- Serves keyset paging of a job's results: WHERE job_id = ? AND segment_number > ? ORDER BY segment_number
+CREATE INDEX idx_prompt_results_job_segment ON prompt_results(job_id, segment_number);
+
+-- The composite index covers the foreign key, so the single-column index is redundant
+DROP INDEX idx_prompt_results_job_id ON prompt_results;
@@ -0,0 +1,5 @@
+ALTER TABLE prompt_jobs ADD COLUMN segment_count INT;
+ALTER TABLE prompt_jobs ADD COLUMN unique_segment_count INT;
+
+-- Segment number whose Claude call produced this prompt when the text was a repeat within the job
+ALTER TABLE prompt_results ADD COLUMN reused_from_segment INT;
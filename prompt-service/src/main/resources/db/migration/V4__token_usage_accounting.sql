@@ -0,0 +1,15 @@
+ALTER TABLE prompt_results ADD COLUMN model VARCHAR(100);
+ALTER TABLE prompt_results ADD COLUMN input_tokens INT;
+ALTER TABLE prompt_results ADD COLUMN output_tokens INT;
+ALTER TABLE prompt_results ADD COLUMN cache_creation_input_tokens INT;
+ALTER TABLE prompt_results ADD COLUMN cache_read_input_tokens INT;
+ALTER TABLE prompt_results ADD COLUMN estimated_cost_usd DECIMAL(12, 6);
+
+ALTER TABLE prompt_jobs ADD COLUMN total_input_tokens BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE prompt_jobs ADD COLUMN total_output_tokens BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE prompt_jobs ADD COLUMN total_cache_creation_input_tokens BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE prompt_jobs ADD COLUMN total_cache_read_input_tokens BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE prompt_jobs ADD COLUMN estimated_cost_usd DECIMAL(14, 6) NOT NULL DEFAULT 0;
+
+-- Cost summaries filter jobs by creation time
+CREATE INDEX idx_prompt_jobs_created_at ON prompt_jobs(created_at);
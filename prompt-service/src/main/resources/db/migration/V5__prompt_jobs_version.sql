@@ -0,0 +1,2 @@
+-- Optimistic-locking version; also the basis of the job's ETag
+ALTER TABLE prompt_jobs ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,16 @@
+-- Result whose prompt was reused for a near-duplicate segment, and the shingle similarity it matched with
+ALTER TABLE prompt_results ADD COLUMN reused_from_result_id BIGINT;
+ALTER TABLE prompt_results ADD COLUMN similarity DOUBLE;
+
+-- MinHash bands of generated prompts' segment texts; filled for existing results at startup
+CREATE TABLE prompt_result_signatures (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    result_id BIGINT NOT NULL,
+    style VARCHAR(50) NOT NULL,
+    band_key BIGINT NOT NULL,
+    CONSTRAINT fk_prompt_result_signatures_result
+        FOREIGN KEY (result_id) REFERENCES prompt_results(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_prompt_result_signatures_band ON prompt_result_signatures(style, band_key);
+CREATE INDEX idx_prompt_result_signatures_result ON prompt_result_signatures(result_id);
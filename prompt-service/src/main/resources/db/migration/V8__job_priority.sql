@@ -0,0 +1,3 @@
+-- Scheduling class and fair-share client of each job's Claude calls
+ALTER TABLE prompt_jobs ADD COLUMN priority VARCHAR(20) NOT NULL DEFAULT 'NORMAL';
+ALTER TABLE prompt_jobs ADD COLUMN client_id VARCHAR(100);
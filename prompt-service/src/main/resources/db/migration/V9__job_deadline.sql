@@ -0,0 +1,2 @@
+-- Time by which a job's prompts were needed; segments not generated by then are skipped (status PARTIAL)
+ALTER TABLE prompt_jobs ADD COLUMN deadline TIMESTAMP;
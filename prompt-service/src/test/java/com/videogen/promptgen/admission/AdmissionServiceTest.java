@@ -0,0 +1,123 @@
+package com.videogen.promptgen.admission;
+
+import com.videogen.promptgen.exception.ServiceOverloadedException;
+import com.videogen.promptgen.model.JobPriority;
+import com.videogen.promptgen.scheduling.ClaudeCallScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AdmissionServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AdmissionProperties properties = new AdmissionProperties();
+
+    @Mock
+    private ClaudeCallScheduler callScheduler;
+
+    private AdmissionService admissionService;
+
+    @BeforeEach
+    void setUp() {
+        properties.setMaxEstimatedWait(Duration.ofSeconds(60));
+        properties.setMaxQueuedCalls(1000);
+        when(callScheduler.maxConcurrentCalls()).thenReturn(4);
+        when(callScheduler.recentCallLatency()).thenReturn(Duration.ofSeconds(8));
+        admissionService = new AdmissionService(properties, callScheduler, meterRegistry);
+    }
+
+    @Test
+    void estimatedWait_shouldDivideTheBacklogAheadAcrossWorkers() {
+        queued(JobPriority.INTERACTIVE, 0);
+        queued(JobPriority.NORMAL, 19);
+        when(callScheduler.activeCalls()).thenReturn(4);
+
+        assertThat(admissionService.estimatedWait(JobPriority.INTERACTIVE)).isEqualTo(Duration.ofSeconds(2));
+        // 19 queued + 4 running on 4 workers: 20 calls' turns of 8s, 4 at a time
+        assertThat(admissionService.estimatedWait(JobPriority.NORMAL)).isEqualTo(Duration.ofSeconds(40));
+    }
+
+    @Test
+    void estimatedWait_beforeAnyCall_shouldUseAssumedLatency() {
+        properties.setAssumedLatency(Duration.ofSeconds(4));
+        when(callScheduler.recentCallLatency()).thenReturn(Duration.ZERO);
+        queued(JobPriority.NORMAL, 8);
+        when(callScheduler.activeCalls()).thenReturn(4);
+
+        assertThat(admissionService.estimatedWait(JobPriority.NORMAL)).isEqualTo(Duration.ofSeconds(9));
+    }
+
+    @Test
+    void admit_belowTheWaitLimit_shouldKeepThePriority() {
+        queued(JobPriority.BULK, 10);
+
+        assertThat(admissionService.admit(JobPriority.BULK, 10)).isEqualTo(JobPriority.BULK);
+
+        assertThat(count("videogen.prompt.admission.segments", JobPriority.BULK, "admitted")).isEqualTo(10.0);
+    }
+
+    @Test
+    void admit_saturatedNormal_shouldDemoteToBulk() {
+        queued(JobPriority.NORMAL, 40);
+        when(callScheduler.activeCalls()).thenReturn(4);
+
+        assertThat(admissionService.admit(JobPriority.NORMAL, 3)).isEqualTo(JobPriority.BULK);
+
+        assertThat(count("videogen.prompt.admission.jobs", JobPriority.NORMAL, "demoted")).isEqualTo(1.0);
+    }
+
+    @Test
+    void admit_saturatedInteractive_shouldShedWithRetryAfterTheExcessWait() {
+        queued(JobPriority.INTERACTIVE, 35);
+        when(callScheduler.activeCalls()).thenReturn(4);
+
+        // 36 turns of 8s on 4 workers: 72s, 12s over the limit
+        assertThatThrownBy(() -> admissionService.admit(JobPriority.INTERACTIVE, 2))
+                .isInstanceOf(ServiceOverloadedException.class)
+                .satisfies(e -> assertThat(((ServiceOverloadedException) e).getRetryAfter())
+                        .isEqualTo(Duration.ofSeconds(12)));
+
+        assertThat(count("videogen.prompt.admission.segments", JobPriority.INTERACTIVE, "shed")).isEqualTo(2.0);
+    }
+
+    @Test
+    void admit_tooManyQueuedCalls_shouldShedWhateverThePolicy() {
+        properties.getPolicies().put(JobPriority.BULK, AdmissionPolicy.ADMIT);
+        when(callScheduler.queuedCalls()).thenReturn(1000);
+
+        assertThatThrownBy(() -> admissionService.admit(JobPriority.BULK, 1))
+                .isInstanceOf(ServiceOverloadedException.class)
+                .satisfies(e -> assertThat(((ServiceOverloadedException) e).getRetryAfter())
+                        .isEqualTo(Duration.ofSeconds(2)));
+    }
+
+    @Test
+    void admit_disabled_shouldAdmitEverything() {
+        properties.setEnabled(false);
+        when(callScheduler.queuedCalls()).thenReturn(100_000);
+
+        assertThat(admissionService.admit(JobPriority.INTERACTIVE, 1)).isEqualTo(JobPriority.INTERACTIVE);
+    }
+
+    private void queued(JobPriority priority, int calls) {
+        when(callScheduler.queuedAhead(priority)).thenReturn(calls);
+        when(callScheduler.queuedCalls()).thenReturn(calls);
+    }
+
+    private double count(String name, JobPriority priority, String outcome) {
+        return meterRegistry.get(name).tag("priority", priority.name()).tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,109 @@
+package com.videogen.promptgen.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.videogen.promptgen.model.ArtStyle;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.endsWith;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.jsonPath;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class ClaudeModelClientImplTest {
+
+    private static final String URL = "http://claude.test/v1/messages";
+    private static final String MODEL = "claude-routed";
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+    private final ClaudeModelClientImpl client = new ClaudeModelClientImpl(restTemplate,
+            new CallTimeoutRequestFactory(Duration.ofSeconds(5), Duration.ofMinutes(2)), new ObjectMapper(), URL);
+
+    @Test
+    void generateImagePrompt_shouldReturnTextModelAndUsage() {
+        server.expect(requestTo(URL))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(jsonPath("$.model").value(MODEL))
+                .andExpect(jsonPath("$.stream").doesNotExist())
+                .andRespond(withSuccess("""
+                        {"model":"claude-test","content":[{"type":"text","text":"A Pixar hero"}],
+                         "usage":{"input_tokens":12,"output_tokens":5,"cache_read_input_tokens":3}}
+                        """, MediaType.APPLICATION_JSON));
+
+        PromptCompletion completion = client.generateImagePrompt(MODEL, "A hero walks.", ArtStyle.PIXAR, null, null);
+
+        assertThat(completion).isEqualTo(new PromptCompletion("A Pixar hero", "claude-test", 12, 5, 0, 3));
+        server.verify();
+    }
+
+    @Test
+    void streamImagePrompt_shouldPassFragmentsOnAndAssembleTheCompletion() {
+        server.expect(requestTo(URL))
+                .andExpect(jsonPath("$.stream").value(true))
+                .andExpect(jsonPath("$.messages[0].content").value(endsWith("A hero walks.")))
+                .andRespond(withSuccess("""
+                        event: message_start
+                        data: {"type":"message_start","message":{"model":"claude-test","usage":{"input_tokens":12,"output_tokens":1,"cache_creation_input_tokens":4}}}
+
+                        event: content_block_start
+                        data: {"type":"content_block_start","index":0,"content_block":{"type":"text","text":""}}
+
+                        event: ping
+                        data: {"type":"ping"}
+
+                        event: content_block_delta
+                        data: {"type":"content_block_delta","index":0,"delta":{"type":"text_delta","text":"A Pixar"}}
+
+                        event: content_block_delta
+                        data: {"type":"content_block_delta","index":0,"delta":{"type":"text_delta","text":" hero"}}
+
+                        event: content_block_stop
+                        data: {"type":"content_block_stop","index":0}
+
+                        event: message_delta
+                        data: {"type":"message_delta","delta":{"stop_reason":"end_turn"},"usage":{"output_tokens":5}}
+
+                        event: message_stop
+                        data: {"type":"message_stop"}
+
+                        """, MediaType.TEXT_EVENT_STREAM));
+        List<String> fragments = new ArrayList<>();
+
+        PromptCompletion completion = client.streamImagePrompt(MODEL, "A hero walks.", ArtStyle.PIXAR, null,
+                Duration.ofSeconds(30), fragments::add);
+
+        assertThat(fragments).containsExactly("A Pixar", " hero");
+        assertThat(completion).isEqualTo(new PromptCompletion("A Pixar hero", "claude-test", 12, 5, 4, 0));
+        server.verify();
+    }
+
+    @Test
+    void streamImagePrompt_overloadedEvent_shouldThrowAs529() {
+        server.expect(requestTo(URL)).andRespond(withSuccess("""
+                event: message_start
+                data: {"type":"message_start","message":{"model":"claude-test","usage":{"input_tokens":12}}}
+
+                event: error
+                data: {"type":"error","error":{"type":"overloaded_error","message":"Overloaded"}}
+
+                """, MediaType.TEXT_EVENT_STREAM));
+
+        assertThatThrownBy(() -> client.streamImagePrompt(MODEL, "A hero walks.", ArtStyle.PIXAR, null, null,
+                text -> { }))
+                .isInstanceOfSatisfying(HttpServerErrorException.class,
+                        e -> assertThat(e.getStatusCode().value()).isEqualTo(529))
+                .hasMessageContaining("Overloaded");
+    }
+}
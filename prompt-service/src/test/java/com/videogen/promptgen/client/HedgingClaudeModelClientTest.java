@@ -0,0 +1,149 @@
+package com.videogen.promptgen.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.videogen.promptgen.config.ClaudePricingProperties;
+import com.videogen.promptgen.metrics.PromptMetrics;
+import com.videogen.promptgen.model.ArtStyle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HedgingClaudeModelClientTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Queue<Long> delaysMillis = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private HttpServer server;
+    private HedgingClaudeModelClient client;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/v1/messages", exchange -> {
+            int request = requests.incrementAndGet();
+            Long delay = delaysMillis.poll();
+            try {
+                Thread.sleep(delay != null ? delay : 0);
+                byte[] body = ("{\"model\":\"claude-test\",\"content\":[{\"type\":\"text\",\"text\":\"reply-" + request
+                        + "\"}],\"usage\":{\"input_tokens\":10,\"output_tokens\":5}}").getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } catch (InterruptedException | IOException e) {
+                // The client gave up on this request
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.shutdown();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void generateImagePrompt_slowCall_shouldUseTheDuplicateThatFinishesFirst() {
+        client = client(1.0);
+        prime();
+        delaysMillis.add(5_000L);
+
+        long startedAt = System.nanoTime();
+        PromptCompletion completion = generate();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - startedAt)).isLessThan(Duration.ofSeconds(2));
+        assertThat(completion.getText()).isEqualTo("reply-4");
+        assertThat(count("videogen.claude.hedge.calls", "outcome", "hedged")).isEqualTo(1.0);
+        assertThat(count("videogen.claude.hedge.wins", "winner", "hedge")).isEqualTo(1.0);
+        // The aborted original was billed at least the input tokens the hedge reported
+        assertThat(meterRegistry.get("videogen.claude.tokens").tags("type", "input", "hedge", "discarded")
+                .counter().count()).isEqualTo(10.0);
+        assertThat(meterRegistry.get("videogen.claude.tokens").tags("type", "output", "hedge", "discarded")
+                .counter().count()).isZero();
+        // 10 * 3 per million tokens
+        assertThat(meterRegistry.get("videogen.claude.cost").tag("hedge", "discarded").counter().count())
+                .isEqualTo(0.00003);
+    }
+
+    @Test
+    void generateImagePrompt_fastCall_shouldNotBeHedged() {
+        client = client(1.0);
+        prime();
+
+        assertThat(generate().getText()).isEqualTo("reply-3");
+        assertThat(requests).hasValue(3);
+        assertThat(count("videogen.claude.hedge.calls", "outcome", "unhedged")).isEqualTo(1.0);
+    }
+
+    @Test
+    void generateImagePrompt_budgetSpent_shouldWaitForTheOriginal() {
+        client = client(0.0);
+        prime();
+        delaysMillis.add(400L);
+
+        assertThat(generate().getText()).isEqualTo("reply-3");
+        assertThat(requests).hasValue(3);
+        assertThat(count("videogen.claude.hedge.calls", "outcome", "over_budget")).isEqualTo(1.0);
+    }
+
+    private HedgingClaudeModelClient client(double budget) {
+        HedgingProperties properties = new HedgingProperties();
+        properties.setEnabled(true);
+        properties.setPercentile(0.5);
+        properties.setMinDelay(Duration.ofMillis(100));
+        properties.setBudget(budget);
+        properties.setWindow(10);
+        properties.setMinSamples(2);
+        CallTimeoutRequestFactory requestFactory = new CallTimeoutRequestFactory(Duration.ofSeconds(5),
+                Duration.ofSeconds(30));
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        ClaudeModelClientImpl delegate = new ClaudeModelClientImpl(restTemplate, requestFactory, new ObjectMapper(),
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/messages");
+        ClaudePricingProperties.ModelPrice price = new ClaudePricingProperties.ModelPrice();
+        price.setInputPerMillion(new BigDecimal("3.00"));
+        price.setOutputPerMillion(new BigDecimal("15.00"));
+        ClaudePricingProperties pricing = new ClaudePricingProperties();
+        pricing.getModels().put("claude-test", price);
+        return new HedgingClaudeModelClient(delegate, requestFactory, properties, pricing,
+                new PromptMetrics(meterRegistry, ObservationRegistry.NOOP), meterRegistry, ObservationRegistry.NOOP);
+    }
+
+    /** Two fast calls, so that later calls are hedged after the minimum delay. */
+    private void prime() {
+        generate();
+        generate();
+    }
+
+    private PromptCompletion generate() {
+        return client.generateImagePrompt("claude-default", "A hero walks.", ArtStyle.PIXAR, null,
+                Duration.ofSeconds(20));
+    }
+
+    private double count(String name, String tag, String value) {
+        return meterRegistry.get(name).tag(tag, value).counter().count();
+    }
+}
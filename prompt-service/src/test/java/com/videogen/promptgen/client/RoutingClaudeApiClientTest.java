@@ -0,0 +1,140 @@
+package com.videogen.promptgen.client;
+
+import com.videogen.promptgen.model.ArtStyle;
+import com.videogen.promptgen.model.JobPriority;
+import com.videogen.promptgen.routing.ModelRouter;
+import com.videogen.promptgen.routing.ModelRoutingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RoutingClaudeApiClientTest {
+
+    private static final String SONNET = "claude-sonnet";
+    private static final String HAIKU = "claude-haiku";
+
+    @Mock
+    private ClaudeModelClient modelClient;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RoutingClaudeApiClient client;
+
+    @BeforeEach
+    void setUp() {
+        ModelRoutingProperties properties = new ModelRoutingProperties();
+        properties.getFallbacks().put(SONNET, HAIKU);
+        client = new RoutingClaudeApiClient(modelClient, new ModelRouter(properties, SONNET, meterRegistry),
+                new CallTimeoutRequestFactory(Duration.ofSeconds(10), Duration.ofMinutes(2)));
+    }
+
+    @Test
+    void generateImagePrompt_overloaded_shouldRetryOnTheFallbackModel() {
+        when(modelClient.generateImagePrompt(eq(SONNET), anyString(), any(), any(), any()))
+                .thenThrow(HttpServerErrorException.create(HttpStatusCode.valueOf(529), "Overloaded",
+                        HttpHeaders.EMPTY, new byte[0], null));
+        when(modelClient.generateImagePrompt(eq(HAIKU), anyString(), any(), any(), any()))
+                .thenReturn(completion(HAIKU));
+
+        PromptCompletion completion = client.generateImagePrompt("A hero walks.", ArtStyle.PIXAR, null,
+                JobPriority.NORMAL, null);
+
+        assertThat(completion.getModel()).isEqualTo(HAIKU);
+        assertThat(meterRegistry.get("videogen.claude.routing.decisions").tag("model", HAIKU).tag("reason", "fallback")
+                .counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("videogen.claude.routing.model.error.rate").tag("model", SONNET).gauge().value())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void generateImagePrompt_timedOut_shouldRetryWithWhatIsLeftOfTheTimeout() {
+        when(modelClient.generateImagePrompt(eq(SONNET), anyString(), any(), any(), any()))
+                .thenThrow(new ResourceAccessException("I/O error", new SocketTimeoutException("Read timed out")));
+        when(modelClient.generateImagePrompt(eq(HAIKU), anyString(), any(), any(),
+                argThat(timeout -> timeout.compareTo(Duration.ofSeconds(30)) < 0)))
+                .thenReturn(completion(HAIKU));
+
+        assertThat(client.generateImagePrompt("A hero walks.", ArtStyle.PIXAR, null, JobPriority.NORMAL,
+                Duration.ofSeconds(30)).getModel()).isEqualTo(HAIKU);
+    }
+
+    @Test
+    void generateImagePrompt_timedOutOnADeadline_shouldNotCountAgainstTheModel() {
+        when(modelClient.generateImagePrompt(anyString(), anyString(), any(), any(), any()))
+                .thenThrow(new ResourceAccessException("I/O error", new SocketTimeoutException("Read timed out")));
+
+        assertThatThrownBy(() -> client.generateImagePrompt("A hero walks.", ArtStyle.PIXAR, null,
+                JobPriority.NORMAL, Duration.ofSeconds(5))).isInstanceOf(ResourceAccessException.class);
+        assertThat(errorRate(SONNET)).isZero();
+
+        assertThatThrownBy(() -> client.generateImagePrompt("A hero walks.", ArtStyle.PIXAR, null,
+                JobPriority.NORMAL, null)).isInstanceOf(ResourceAccessException.class);
+        assertThat(errorRate(SONNET)).isEqualTo(1.0);
+    }
+
+    @Test
+    void generateImagePrompt_badRequest_shouldNotRetryOrCountAgainstTheModel() {
+        when(modelClient.generateImagePrompt(eq(SONNET), anyString(), any(), any(), any()))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "Bad Request", HttpHeaders.EMPTY,
+                        new byte[0], null));
+
+        assertThatThrownBy(() -> client.generateImagePrompt("A hero walks.", ArtStyle.PIXAR, null,
+                JobPriority.NORMAL, null)).isInstanceOf(HttpClientErrorException.class);
+
+        verify(modelClient, never()).generateImagePrompt(eq(HAIKU), anyString(), any(), any(), any());
+        assertThat(meterRegistry.get("videogen.claude.routing.model.error.rate").tag("model", SONNET).gauge().value())
+                .isZero();
+    }
+
+    @Test
+    void streamImagePrompt_overloadedAfterText_shouldNotRetry() {
+        when(modelClient.streamImagePrompt(eq(SONNET), anyString(), any(), isNull(), isNull(), any()))
+                .thenAnswer(invocation -> {
+                    Consumer<String> onText = invocation.getArgument(5);
+                    onText.accept("A Pixar");
+                    throw HttpServerErrorException.create(HttpStatusCode.valueOf(529), "Overloaded",
+                            HttpHeaders.EMPTY, new byte[0], null);
+                });
+        List<String> fragments = new ArrayList<>();
+
+        assertThatThrownBy(() -> client.streamImagePrompt("A hero walks.", ArtStyle.PIXAR, null, JobPriority.NORMAL,
+                null, fragments::add)).isInstanceOf(HttpServerErrorException.class);
+
+        assertThat(fragments).containsExactly("A Pixar");
+        verify(modelClient, never()).streamImagePrompt(eq(HAIKU), anyString(), any(), any(), any(), any());
+    }
+
+    private double errorRate(String model) {
+        return meterRegistry.get("videogen.claude.routing.model.error.rate").tag("model", model).gauge().value();
+    }
+
+    private static PromptCompletion completion(String model) {
+        return PromptCompletion.builder().text("A Pixar hero").model(model).build();
+    }
+}
@@ -0,0 +1,43 @@
+package com.videogen.promptgen.config;
+
+import com.videogen.promptgen.dto.PromptResponse;
+import com.videogen.promptgen.dto.PromptResultResponse;
+import com.videogen.promptgen.dto.PromptTextDelta;
+import com.videogen.promptgen.grpc.v1.PromptView;
+import com.videogen.promptgen.grpc.v1.StreamPromptsRequest;
+import com.videogen.promptgen.grpc.v1.StreamPromptsResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NativeRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    NativeRuntimeHintsTest() {
+        new NativeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registerHints_shouldCoverArchivedJobsAndNestedResults() throws Exception {
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(PromptResponse.class.getMethod("getResults")))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(PromptResultResponse.class.getMethod("getGeneratedPrompt")))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(PromptTextDelta.class.getMethod("getText")))
+                .accepts(hints);
+    }
+
+    @Test
+    void registerHints_shouldCoverEveryProtobufMessageBuilderAndEnum() throws Exception {
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(StreamPromptsRequest.class.getMethod("getSegment")))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onMethod(StreamPromptsResponse.Builder.class.getMethod("clearJobFinished")))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(PromptView.class.getMethod("getValueDescriptor")))
+                .accepts(hints);
+    }
+}
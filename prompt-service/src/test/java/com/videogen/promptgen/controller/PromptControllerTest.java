@@ -1,29 +1,60 @@
 package com.videogen.promptgen.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.videogen.promptgen.config.ContentNegotiationConfig;
+import com.videogen.promptgen.dto.BulkDeleteRequest;
+import com.videogen.promptgen.dto.BulkDeleteResponse;
+import com.videogen.promptgen.dto.CostSummaryResponse;
+import com.videogen.promptgen.dto.CursorPageResponse;
+import com.videogen.promptgen.dto.PromptJobFilter;
+import com.videogen.promptgen.dto.PromptJobSummaryResponse;
 import com.videogen.promptgen.dto.PromptRequest;
 import com.videogen.promptgen.dto.PromptResponse;
 import com.videogen.promptgen.dto.PromptResultResponse;
+import com.videogen.promptgen.dto.PromptView;
+import com.videogen.promptgen.exception.IdempotencyKeyInProgressException;
+import com.videogen.promptgen.exception.IdempotencyKeyMismatchException;
+import com.videogen.promptgen.exception.RateLimitExceededException;
 import com.videogen.promptgen.exception.ResourceNotFoundException;
+import com.videogen.promptgen.exception.ServiceOverloadedException;
+import com.videogen.promptgen.idempotency.IdempotencyService;
+import com.videogen.promptgen.idempotency.IdempotentResult;
+import com.videogen.promptgen.ratelimit.RateLimiter;
 import com.videogen.promptgen.service.PromptGenerationService;
+import com.videogen.promptgen.service.PromptTextListener;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(PromptController.class)
+@Import(ContentNegotiationConfig.class)
 class PromptControllerTest {
 
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -33,6 +64,12 @@ class PromptControllerTest {
     @MockBean
     private PromptGenerationService promptGenerationService;
 
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    @MockBean
+    private RateLimiter rateLimiter;
+
     @Test
     void createPromptJob_validRequest_shouldReturn201() throws Exception {
         PromptRequest request = PromptRequest.builder()
@@ -57,7 +94,7 @@ class PromptControllerTest {
                 ))
                 .build();
 
-        when(promptGenerationService.createPromptJob(any(PromptRequest.class))).thenReturn(response);
+        when(promptGenerationService.createPromptJob(any(PromptRequest.class), any())).thenReturn(response);
 
         mockMvc.perform(post("/api/v1/prompts")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -68,6 +105,206 @@ class PromptControllerTest {
                 .andExpect(jsonPath("$.results[0].segmentNumber").value(1));
     }
 
+    @Test
+    void createPromptJob_clientIdInBody_shouldBeReplacedByTheRateLimiterClient() throws Exception {
+        when(rateLimiter.clientOf(any())).thenReturn("studio-a");
+        when(promptGenerationService.createPromptJob(any(PromptRequest.class), any()))
+                .thenReturn(PromptResponse.builder().id(1L).style("PIXAR").status("COMPLETED").build());
+
+        mockMvc.perform(post("/api/v1/prompts")
+                        .header("X-API-Key", "studio-a")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"segments\":[\"A scene.\"],\"style\":\"PIXAR\",\"clientId\":\"someone-else\"}"))
+                .andExpect(status().isCreated());
+
+        verify(promptGenerationService).createPromptJob(argThat(request -> "studio-a".equals(request.getClientId())),
+                any());
+    }
+
+    @Test
+    void createPromptJob_replayedIdempotencyKey_shouldReturnOriginalJob() throws Exception {
+        PromptRequest request = PromptRequest.builder()
+                .segments(List.of("A hero walks through a misty forest."))
+                .style("CINEMATIC")
+                .build();
+        PromptResponse original = PromptResponse.builder().id(7L).style("CINEMATIC").status("COMPLETED").build();
+
+        when(idempotencyService.<PromptResponse>execute(eq("create-prompt-job"), eq("retry-1"), eq(request),
+                any(), any(), any())).thenReturn(new IdempotentResult<>(original, true));
+
+        mockMvc.perform(post("/api/v1/prompts")
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(7));
+
+        verify(promptGenerationService, never()).createPromptJob(any(), any());
+        verify(rateLimiter, never()).checkSegments(any(), anyInt());
+    }
+
+    @Test
+    void createPromptJob_newIdempotencyKey_shouldChargeSegmentsWhenTheJobRuns() throws Exception {
+        when(idempotencyService.<PromptResponse>execute(eq("create-prompt-job"), eq("new-1"), any(), any(), any(),
+                any())).thenAnswer(invocation -> {
+                    Function<LongConsumer, PromptResponse> action = invocation.getArgument(3);
+                    return new IdempotentResult<>(action.apply(id -> { }), false);
+                });
+        when(promptGenerationService.createPromptJob(any(), isNull(), isNull(), any()))
+                .thenReturn(PromptResponse.builder().id(8L).status("COMPLETED").build());
+
+        mockMvc.perform(post("/api/v1/prompts")
+                        .header("Idempotency-Key", "new-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"segments\":[\"A scene.\",\"Another.\"],\"style\":\"PIXAR\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(8));
+
+        verify(rateLimiter).checkSegments(any(), eq(2));
+    }
+
+    @Test
+    void createPromptJob_idempotencyKeyStillInProgress_shouldReturn409WithRetryAfter() throws Exception {
+        when(idempotencyService.execute(any(), any(), any(), any(), any(), any()))
+                .thenThrow(new IdempotencyKeyInProgressException("retry-1", Duration.ofSeconds(1)));
+
+        mockMvc.perform(post("/api/v1/prompts")
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"segments\":[\"A scene.\"],\"style\":\"PIXAR\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void createPromptJob_segmentLimitExceeded_shouldReturn429WithRateLimitHeaders() throws Exception {
+        doThrow(new RateLimitExceededException("segments", 300, Duration.ofSeconds(42), Duration.ofMillis(2500)))
+                .when(rateLimiter).checkSegments(any(), eq(2));
+
+        mockMvc.perform(post("/api/v1/prompts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"segments\":[\"A scene.\",\"Another scene.\"],\"style\":\"PIXAR\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "3"))
+                .andExpect(header().string("RateLimit-Limit", "300"))
+                .andExpect(header().string("RateLimit-Remaining", "0"))
+                .andExpect(header().string("RateLimit-Reset", "42"));
+
+        verifyNoInteractions(promptGenerationService);
+    }
+
+    @Test
+    void createPromptJob_overloaded_shouldReturn503WithRetryAfter() throws Exception {
+        when(promptGenerationService.createPromptJob(any(), any()))
+                .thenThrow(new ServiceOverloadedException("Prompt generation is saturated", Duration.ofSeconds(30)));
+
+        mockMvc.perform(post("/api/v1/prompts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"segments\":[\"A scene.\"],\"style\":\"PIXAR\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "30"));
+    }
+
+    @Test
+    void createPromptJob_requestTimeoutHeader_shouldPassDeadline() throws Exception {
+        when(promptGenerationService.createPromptJob(any(), any()))
+                .thenReturn(PromptResponse.builder().id(1L).status("PARTIAL").build());
+        Instant before = Instant.now();
+
+        mockMvc.perform(post("/api/v1/prompts")
+                        .header("Request-Timeout", "2.5")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"segments\":[\"A scene.\"],\"style\":\"PIXAR\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.status").value("PARTIAL"));
+
+        verify(promptGenerationService).createPromptJob(any(), argThat(deadline ->
+                !deadline.isBefore(before.plusMillis(2500)) && deadline.isBefore(Instant.now().plusMillis(2500))));
+    }
+
+    @Test
+    void streamPromptJob_shouldSendDeltasThenTheFinishedJob() throws Exception {
+        when(promptGenerationService.createPromptJob(any(), isNull(), any())).thenAnswer(invocation -> {
+            PromptTextListener listener = invocation.getArgument(2);
+            listener.onText(1, "A Pixar ");
+            listener.onText(1, "scene");
+            return PromptResponse.builder().id(1L).status("COMPLETED").build();
+        });
+
+        MvcResult result = mockMvc.perform(post("/api/v1/prompts/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"segments\":[\"A scene.\"],\"style\":\"PIXAR\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM));
+
+        assertThat(result.getResponse().getContentAsString()).isEqualTo("""
+                event:delta
+                data:{"segmentNumber":1,"text":"A Pixar "}
+
+                event:delta
+                data:{"segmentNumber":1,"text":"scene"}
+
+                event:job
+                """ + "data:" + objectMapper.writeValueAsString(PromptResponse.builder().id(1L).status("COMPLETED").build())
+                + "\n\n");
+    }
+
+    @Test
+    void streamPromptJob_overloaded_shouldSendErrorEvent() throws Exception {
+        when(promptGenerationService.createPromptJob(any(), any(), any()))
+                .thenThrow(new ServiceOverloadedException("Prompt generation is saturated", Duration.ofSeconds(30)));
+
+        MvcResult result = mockMvc.perform(post("/api/v1/prompts/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"segments\":[\"A scene.\"],\"style\":\"PIXAR\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        assertThat(result.getResponse().getContentAsString()).startsWith("event:error\ndata:{\"status\":503,");
+    }
+
+    @Test
+    void createPromptJob_invalidRequestTimeout_shouldReturn400() throws Exception {
+        mockMvc.perform(post("/api/v1/prompts")
+                        .header("Request-Timeout", "soon")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"segments\":[\"A scene.\"],\"style\":\"PIXAR\"}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(promptGenerationService);
+    }
+
+    @Test
+    void getPromptJob_requestLimitExceeded_shouldReturn429BeforeTheController() throws Exception {
+        doThrow(new RateLimitExceededException("requests", 20, Duration.ofSeconds(2), Duration.ofMillis(100)))
+                .when(rateLimiter).checkRequest(any(), any());
+
+        mockMvc.perform(get("/api/v1/prompts/1"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+
+        verifyNoInteractions(promptGenerationService);
+        verify(rateLimiter, never()).checkSegments(any(), anyInt());
+    }
+
+    @Test
+    void createPromptJob_idempotencyKeyReusedWithOtherBody_shouldReturn422() throws Exception {
+        when(idempotencyService.execute(any(), any(), any(), any(), any(), any()))
+                .thenThrow(new IdempotencyKeyMismatchException("retry-1"));
+
+        mockMvc.perform(post("/api/v1/prompts")
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"segments\":[\"A scene.\"],\"style\":\"PIXAR\"}"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
     @Test
     void createPromptJob_missingSegments_shouldReturn400() throws Exception {
         String json = "{\"style\":\"CINEMATIC\"}";
@@ -107,22 +344,112 @@ class PromptControllerTest {
                 .id(1L)
                 .style("CINEMATIC")
                 .status("COMPLETED")
+                .version(3L)
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .results(List.of())
                 .build();
 
-        when(promptGenerationService.getPromptJob(1L)).thenReturn(response);
+        when(promptGenerationService.getPromptJobVersion(1L)).thenReturn(3L);
+        when(promptGenerationService.getPromptJob(1L, PromptView.FULL)).thenReturn(response);
 
         mockMvc.perform(get("/api/v1/prompts/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"1-3\""))
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.style").value("CINEMATIC"));
     }
 
+    @Test
+    void getPromptJob_matchingIfNoneMatch_shouldReturn304WithoutLoadingJob() throws Exception {
+        when(promptGenerationService.getPromptJobVersion(1L)).thenReturn(3L);
+
+        mockMvc.perform(get("/api/v1/prompts/1").header("If-None-Match", "W/\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "W/\"1-3\""))
+                .andExpect(content().string(""));
+
+        verify(promptGenerationService, never()).getPromptJob(any(), any());
+    }
+
+    @Test
+    void getPromptJob_staleIfNoneMatch_shouldReturn200() throws Exception {
+        when(promptGenerationService.getPromptJobVersion(1L)).thenReturn(4L);
+        when(promptGenerationService.getPromptJob(1L, PromptView.FULL)).thenReturn(PromptResponse.builder()
+                .id(1L).style("CINEMATIC").status("COMPLETED").version(4L).results(List.of()).build());
+
+        mockMvc.perform(get("/api/v1/prompts/1").header("If-None-Match", "\"1-3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"1-4\""));
+    }
+
+    @Test
+    void createPromptJob_smileRequestAndResponse_shouldRoundTrip() throws Exception {
+        SmileMapper smileMapper = SmileMapper.builder().findAndAddModules().build();
+        PromptRequest request = PromptRequest.builder()
+                .segments(List.of("A hero walks through a misty forest."))
+                .style("GHIBLI")
+                .build();
+        when(promptGenerationService.createPromptJob(eq(request), isNull())).thenReturn(PromptResponse.builder()
+                .id(9L)
+                .style("GHIBLI")
+                .status("COMPLETED")
+                .estimatedCostUsd(new BigDecimal("0.003638"))
+                .createdAt(LocalDateTime.of(2025, 1, 1, 9, 30))
+                .results(List.of(PromptResultResponse.builder().segmentNumber(1).generatedPrompt("A Ghibli forest").build()))
+                .build());
+
+        byte[] body = mockMvc.perform(post("/api/v1/prompts")
+                        .contentType(SMILE)
+                        .accept(SMILE)
+                        .content(smileMapper.writeValueAsBytes(request)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        PromptResponse response = smileMapper.readValue(body, PromptResponse.class);
+        assertThat(response.getEstimatedCostUsd()).isEqualByComparingTo("0.003638");
+        assertThat(response.getCreatedAt()).isEqualTo(LocalDateTime.of(2025, 1, 1, 9, 30));
+        assertThat(response.getResults()).singleElement()
+                .satisfies(result -> assertThat(result.getGeneratedPrompt()).isEqualTo("A Ghibli forest"));
+    }
+
+    @Test
+    void getPromptJob_usageView_shouldOmitTextFields() throws Exception {
+        PromptResponse response = PromptResponse.builder()
+                .id(1L)
+                .style("CUSTOM")
+                .customStyleDescription("Should not be serialized.")
+                .status("COMPLETED")
+                .version(3L)
+                .results(List.of(PromptResultResponse.builder().id(7L).segmentNumber(1).model("claude-test")
+                        .inputTokens(120).segmentText("Should not be serialized.")
+                        .generatedPrompt("Should not be serialized.").build()))
+                .build();
+        when(promptGenerationService.getPromptJobVersion(1L)).thenReturn(3L);
+        when(promptGenerationService.getPromptJob(1L, PromptView.USAGE)).thenReturn(response);
+
+        mockMvc.perform(get("/api/v1/prompts/1").param("view", "usage"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"1-3-usage\""))
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.customStyleDescription").doesNotExist())
+                .andExpect(jsonPath("$.results[0].inputTokens").value(120))
+                .andExpect(jsonPath("$.results[0].segmentText").doesNotExist())
+                .andExpect(jsonPath("$.results[0].generatedPrompt").doesNotExist());
+    }
+
+    @Test
+    void getPromptJob_invalidView_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/v1/prompts/1").param("view", "compact"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(promptGenerationService);
+    }
+
     @Test
     void getPromptJob_nonExistingId_shouldReturn404() throws Exception {
-        when(promptGenerationService.getPromptJob(99L))
+        when(promptGenerationService.getPromptJob(99L, PromptView.FULL))
                 .thenThrow(new ResourceNotFoundException("PromptJob", 99L));
 
         mockMvc.perform(get("/api/v1/prompts/99"))
@@ -130,17 +457,63 @@ class PromptControllerTest {
     }
 
     @Test
-    void getAllPromptJobs_shouldReturn200() throws Exception {
-        List<PromptResponse> responses = List.of(
-                PromptResponse.builder().id(1L).style("CINEMATIC").status("COMPLETED").results(List.of()).build(),
-                PromptResponse.builder().id(2L).style("GHIBLI").status("COMPLETED").results(List.of()).build()
-        );
+    void listPromptJobs_shouldReturn200WithPage() throws Exception {
+        CursorPageResponse<PromptJobSummaryResponse> page = CursorPageResponse.<PromptJobSummaryResponse>builder()
+                .items(List.of(
+                        PromptJobSummaryResponse.builder().id(2L).style("GHIBLI").status("COMPLETED").resultCount(3L).build(),
+                        PromptJobSummaryResponse.builder().id(1L).style("CINEMATIC").status("COMPLETED").resultCount(5L).build()))
+                .limit(2)
+                .nextCursor(1L)
+                .build();
 
-        when(promptGenerationService.getAllPromptJobs()).thenReturn(responses);
+        when(promptGenerationService.listPromptJobs(any(PromptJobFilter.class))).thenReturn(page);
 
-        mockMvc.perform(get("/api/v1/prompts"))
+        mockMvc.perform(get("/api/v1/prompts")
+                        .param("status", "COMPLETED")
+                        .param("createdFrom", "2024-01-01T00:00:00")
+                        .param("limit", "2"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(2));
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].resultCount").value(3))
+                .andExpect(jsonPath("$.items[0].results").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value(1));
+
+        verify(promptGenerationService).listPromptJobs(argThat(filter ->
+                "COMPLETED".equals(filter.getStatus())
+                        && filter.getCreatedFrom().equals(LocalDateTime.of(2024, 1, 1, 0, 0))
+                        && filter.getLimit() == 2));
+    }
+
+    @Test
+    void getCostSummary_shouldReturn200() throws Exception {
+        CostSummaryResponse summary = CostSummaryResponse.of(null, null,
+                List.of(CostSummaryResponse.StyleCost.builder().style("ANIME").jobCount(2)
+                        .inputTokens(500).outputTokens(900).estimatedCostUsd(new BigDecimal("0.0150")).build()),
+                List.of());
+
+        when(promptGenerationService.getCostSummary(LocalDateTime.of(2024, 1, 1, 0, 0), null)).thenReturn(summary);
+
+        mockMvc.perform(get("/api/v1/prompts/costs").param("from", "2024-01-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.jobCount").value(2))
+                .andExpect(jsonPath("$.estimatedCostUsd").value(0.015))
+                .andExpect(jsonPath("$.byStyle[0].style").value("ANIME"));
+    }
+
+    @Test
+    void getPromptResults_shouldReturn200WithPage() throws Exception {
+        CursorPageResponse<PromptResultResponse> page = CursorPageResponse.<PromptResultResponse>builder()
+                .items(List.of(PromptResultResponse.builder().id(21L).segmentNumber(21).build()))
+                .limit(1)
+                .nextCursor(21L)
+                .build();
+
+        when(promptGenerationService.getPromptResults(1L, 20, 1)).thenReturn(page);
+
+        mockMvc.perform(get("/api/v1/prompts/1/results").param("after", "20").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].segmentNumber").value(21))
+                .andExpect(jsonPath("$.nextCursor").value(21));
     }
 
     @Test
@@ -152,4 +525,21 @@ class PromptControllerTest {
 
         verify(promptGenerationService).deletePromptJob(1L);
     }
+
+    @Test
+    void bulkDeletePromptJobs_shouldReturnDeletedCount() throws Exception {
+        when(promptGenerationService.bulkDeletePromptJobs(any(BulkDeleteRequest.class)))
+                .thenReturn(BulkDeleteResponse.builder().deletedCount(42).chunks(1).build());
+
+        mockMvc.perform(post("/api/v1/prompts/bulk-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"FAILED\",\"createdBefore\":\"2025-01-01T00:00:00\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deletedCount").value(42))
+                .andExpect(jsonPath("$.chunks").value(1));
+
+        verify(promptGenerationService).bulkDeletePromptJobs(argThat(request ->
+                "FAILED".equals(request.getStatus())
+                        && LocalDateTime.of(2025, 1, 1, 0, 0).equals(request.getCreatedBefore())));
+    }
 }
@@ -0,0 +1,61 @@
+package com.videogen.promptgen.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.videogen.promptgen.dto.PromptTextDelta;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PromptEventStreamTest {
+
+    private final SseEmitter emitter = mock(SseEmitter.class);
+
+    @Test
+    void drain_shouldSendQueuedEventsThenComplete() throws Exception {
+        PromptEventStream events = new PromptEventStream(emitter, new ObjectMapper(), 10);
+
+        events.send("delta", new PromptTextDelta(1, "A Pixar "));
+        events.send("delta", new PromptTextDelta(1, "scene"));
+        events.finish("job", Map.of("id", 1));
+        events.drain();
+
+        verify(emitter, times(3)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(emitter).complete();
+    }
+
+    @Test
+    void send_queueFull_shouldCloseTheStreamWithoutBlocking() throws Exception {
+        PromptEventStream events = new PromptEventStream(emitter, new ObjectMapper(), 2);
+
+        for (int i = 0; i < 3; i++) {
+            events.send("delta", new PromptTextDelta(1, "fragment " + i));
+        }
+        events.finish("job", Map.of("id", 1));
+        events.drain();
+
+        verify(emitter, never()).send(any(SseEmitter.SseEventBuilder.class));
+        verify(emitter).complete();
+    }
+
+    @Test
+    void drain_clientGone_shouldStopSending() throws Exception {
+        doThrow(new IOException("Broken pipe")).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+        PromptEventStream events = new PromptEventStream(emitter, new ObjectMapper(), 10);
+
+        events.send("delta", new PromptTextDelta(1, "A Pixar "));
+        events.send("delta", new PromptTextDelta(1, "scene"));
+        events.drain();
+
+        verify(emitter, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(emitter, never()).complete();
+    }
+}
@@ -0,0 +1,273 @@
+package com.videogen.promptgen.grpc;
+
+import com.videogen.promptgen.dto.CursorPageResponse;
+import com.videogen.promptgen.dto.PromptResponse;
+import com.videogen.promptgen.dto.PromptResultResponse;
+import com.videogen.promptgen.dto.PromptView;
+import com.videogen.promptgen.exception.ResourceNotFoundException;
+import com.videogen.promptgen.grpc.v1.GetPromptJobRequest;
+import com.videogen.promptgen.grpc.v1.ListPromptResultsRequest;
+import com.videogen.promptgen.grpc.v1.ListPromptResultsResponse;
+import com.videogen.promptgen.grpc.v1.PromptGenerationGrpc;
+import com.videogen.promptgen.grpc.v1.PromptJob;
+import com.videogen.promptgen.grpc.v1.Segment;
+import com.videogen.promptgen.grpc.v1.StartJob;
+import com.videogen.promptgen.grpc.v1.StreamPromptsRequest;
+import com.videogen.promptgen.grpc.v1.StreamPromptsResponse;
+import com.videogen.promptgen.service.PromptGenerationService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PromptGenerationGrpcServiceTest {
+
+    @Mock
+    private PromptGenerationService promptGenerationService;
+
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new PromptGenerationGrpcService(promptGenerationService))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void streamPrompts_shouldStreamOneResultPerSegmentAndFinishOnHalfClose() throws InterruptedException {
+        when(promptGenerationService.startPromptJob("PIXAR", null)).thenReturn(job(5L, "PROCESSING"));
+        when(promptGenerationService.appendSegment(5L, "A hero walks.")).thenReturn(result(1, "A Pixar hero..."));
+        when(promptGenerationService.appendSegment(5L, "A villain appears.")).thenReturn(result(2, null));
+        when(promptGenerationService.finishPromptJob(5L, false)).thenReturn(job(5L, "FAILED"));
+
+        RecordingObserver observer = new RecordingObserver(Integer.MAX_VALUE);
+        var requests = PromptGenerationGrpc.newStub(channel).streamPrompts(observer);
+        requests.onNext(start("PIXAR", ""));
+        requests.onNext(segment("A hero walks."));
+        requests.onNext(segment("A villain appears."));
+        requests.onCompleted();
+
+        assertThat(observer.done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(observer.error).isNull();
+        assertThat(observer.responses).extracting(StreamPromptsResponse::getPayloadCase).containsExactly(
+                StreamPromptsResponse.PayloadCase.JOB_STARTED,
+                StreamPromptsResponse.PayloadCase.RESULT,
+                StreamPromptsResponse.PayloadCase.RESULT,
+                StreamPromptsResponse.PayloadCase.JOB_FINISHED);
+        assertThat(observer.responses.get(1).getResult().getGeneratedPrompt()).isEqualTo("A Pixar hero...");
+        assertThat(observer.responses.get(2).getResult().hasGeneratedPrompt()).isFalse();
+        assertThat(observer.responses.get(3).getJobFinished().getStatus()).isEqualTo("FAILED");
+    }
+
+    @Test
+    void streamPrompts_shouldNotPullSegmentsWhileClientIsNotReadingResults() throws InterruptedException {
+        when(promptGenerationService.startPromptJob("PIXAR", null)).thenReturn(job(5L, "PROCESSING"));
+        when(promptGenerationService.appendSegment(eq(5L), anyString())).thenReturn(result(1, "A Pixar scene..."));
+
+        RecordingObserver observer = new RecordingObserver(1);
+        var requests = PromptGenerationGrpc.newStub(channel).streamPrompts(observer);
+        requests.onNext(start("PIXAR", ""));
+        requests.onNext(segment("A hero walks."));
+        requests.onNext(segment("A villain appears."));
+
+        // Only job_started was requested, so the server must leave the segments unread
+        assertThat(observer.responses).hasSize(1);
+        verify(promptGenerationService, never()).appendSegment(anyLong(), anyString());
+
+        observer.call.request(2);
+
+        assertThat(observer.responses).hasSize(3);
+        verify(promptGenerationService, times(2)).appendSegment(eq(5L), anyString());
+        observer.call.cancel("done", null);
+    }
+
+    @Test
+    void streamPrompts_firstMessageWithoutStart_shouldFailWithInvalidArgument() throws InterruptedException {
+        RecordingObserver observer = new RecordingObserver(Integer.MAX_VALUE);
+        var requests = PromptGenerationGrpc.newStub(channel).streamPrompts(observer);
+        requests.onNext(segment("A hero walks."));
+
+        assertThat(observer.done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(Status.fromThrowable(observer.error).getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+        verifyNoInteractions(promptGenerationService);
+    }
+
+    @Test
+    void streamPrompts_clientCancel_shouldFailOpenJob() {
+        when(promptGenerationService.startPromptJob("PIXAR", null)).thenReturn(job(5L, "PROCESSING"));
+
+        RecordingObserver observer = new RecordingObserver(Integer.MAX_VALUE);
+        var requests = PromptGenerationGrpc.newStub(channel).streamPrompts(observer);
+        requests.onNext(start("PIXAR", ""));
+        observer.call.cancel("client gave up", null);
+
+        verify(promptGenerationService).finishPromptJob(5L, true);
+    }
+
+    @Test
+    void streamPrompts_invalidStyle_shouldFailWithInvalidArgument() throws InterruptedException {
+        when(promptGenerationService.startPromptJob("UNKNOWN", null))
+                .thenThrow(new IllegalArgumentException("Invalid art style: UNKNOWN"));
+
+        RecordingObserver observer = new RecordingObserver(Integer.MAX_VALUE);
+        var requests = PromptGenerationGrpc.newStub(channel).streamPrompts(observer);
+        requests.onNext(start("UNKNOWN", ""));
+
+        assertThat(observer.done.await(5, TimeUnit.SECONDS)).isTrue();
+        Status status = Status.fromThrowable(observer.error);
+        assertThat(status.getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+        assertThat(status.getDescription()).contains("Invalid art style");
+        verify(promptGenerationService, never()).finishPromptJob(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void getPromptJob_shouldMapViewAndFields() {
+        when(promptGenerationService.getPromptJob(5L, PromptView.SUMMARY)).thenReturn(job(5L, "COMPLETED"));
+
+        PromptJob job = PromptGenerationGrpc.newBlockingStub(channel).getPromptJob(GetPromptJobRequest.newBuilder()
+                .setJobId(5L)
+                .setView(com.videogen.promptgen.grpc.v1.PromptView.PROMPT_VIEW_SUMMARY)
+                .build());
+
+        assertThat(job.getId()).isEqualTo(5L);
+        assertThat(job.getStatus()).isEqualTo("COMPLETED");
+        assertThat(job.getEstimatedCostUsd()).isEqualTo("0.003638");
+        assertThat(job.getCustomStyleDescription()).isEmpty();
+    }
+
+    @Test
+    void getPromptJob_nonExistingId_shouldFailWithNotFound() {
+        when(promptGenerationService.getPromptJob(99L, PromptView.FULL))
+                .thenThrow(new ResourceNotFoundException("PromptJob", 99L));
+
+        assertThatThrownBy(() -> PromptGenerationGrpc.newBlockingStub(channel)
+                .getPromptJob(GetPromptJobRequest.newBuilder().setJobId(99L).build()))
+                .isInstanceOf(StatusRuntimeException.class)
+                .satisfies(e -> assertThat(Status.fromThrowable(e).getCode()).isEqualTo(Status.Code.NOT_FOUND));
+    }
+
+    @Test
+    void listPromptResults_shouldReturnPageWithNextCursor() {
+        when(promptGenerationService.getPromptResults(5L, 0, null))
+                .thenReturn(CursorPageResponse.<PromptResultResponse>builder()
+                        .items(List.of(result(1, "A Pixar hero...")))
+                        .limit(50)
+                        .nextCursor(1L)
+                        .build());
+
+        ListPromptResultsResponse page = PromptGenerationGrpc.newBlockingStub(channel)
+                .listPromptResults(ListPromptResultsRequest.newBuilder().setJobId(5L).build());
+
+        assertThat(page.getResultsList()).hasSize(1);
+        assertThat(page.getNextCursor()).isEqualTo(1L);
+    }
+
+    private static StreamPromptsRequest start(String style, String customStyleDescription) {
+        return StreamPromptsRequest.newBuilder()
+                .setStart(StartJob.newBuilder().setStyle(style).setCustomStyleDescription(customStyleDescription))
+                .build();
+    }
+
+    private static StreamPromptsRequest segment(String text) {
+        return StreamPromptsRequest.newBuilder()
+                .setSegment(Segment.newBuilder().setText(text))
+                .build();
+    }
+
+    private static PromptResponse job(Long id, String status) {
+        return PromptResponse.builder()
+                .id(id)
+                .style("PIXAR")
+                .status(status)
+                .version(1L)
+                .segmentCount(0)
+                .uniqueSegmentCount(0)
+                .estimatedCostUsd(new BigDecimal("0.003638"))
+                .build();
+    }
+
+    private static PromptResultResponse result(int segmentNumber, String prompt) {
+        return PromptResultResponse.builder()
+                .id((long) segmentNumber)
+                .segmentNumber(segmentNumber)
+                .segmentText("Segment " + segmentNumber)
+                .generatedPrompt(prompt)
+                .build();
+    }
+
+    /**
+     * Collects responses, reading only as many as initially requested until more are asked for.
+     */
+    private static final class RecordingObserver
+            implements ClientResponseObserver<StreamPromptsRequest, StreamPromptsResponse> {
+
+        private final List<StreamPromptsResponse> responses = new CopyOnWriteArrayList<>();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final int initialRequest;
+        private ClientCallStreamObserver<StreamPromptsRequest> call;
+        private Throwable error;
+
+        private RecordingObserver(int initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<StreamPromptsRequest> requestStream) {
+            this.call = requestStream;
+            requestStream.disableAutoRequestWithInitial(initialRequest);
+        }
+
+        @Override
+        public void onNext(StreamPromptsResponse response) {
+            responses.add(response);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+            done.countDown();
+        }
+
+        @Override
+        public void onCompleted() {
+            done.countDown();
+        }
+    }
+}
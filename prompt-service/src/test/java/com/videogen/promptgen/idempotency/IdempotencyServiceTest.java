@@ -0,0 +1,297 @@
+package com.videogen.promptgen.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.videogen.promptgen.dto.PromptRequest;
+import com.videogen.promptgen.exception.IdempotencyKeyInProgressException;
+import com.videogen.promptgen.exception.IdempotencyKeyMismatchException;
+import com.videogen.promptgen.exception.ServiceOverloadedException;
+import com.videogen.promptgen.model.ArtStyle;
+import com.videogen.promptgen.model.IdempotencyKey;
+import com.videogen.promptgen.model.JobStatus;
+import com.videogen.promptgen.model.PromptJob;
+import com.videogen.promptgen.repository.IdempotencyKeyRepository;
+import com.videogen.promptgen.repository.PromptJobRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs without a test transaction so that claims commit and are visible across threads, as they
+ * are between concurrent requests.
+ */
+@DataJpaTest
+@ActiveProfiles("local")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceTest {
+
+    private static final String OPERATION = "create-prompt-job";
+
+    @Autowired
+    private IdempotencyKeyRepository keyRepository;
+
+    @Autowired
+    private PromptJobRepository jobRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger executions = new AtomicInteger();
+    private IdempotencyProperties properties;
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new IdempotencyProperties();
+        properties.setInProgressWait(Duration.ofSeconds(5));
+        properties.setPollInterval(Duration.ofMillis(10));
+        idempotencyService = new IdempotencyService(keyRepository, transactionManager,
+                new ObjectMapper(), meterRegistry, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        idempotencyService.shutdown();
+        keyRepository.deleteAll();
+        jobRepository.deleteAll();
+    }
+
+    @Test
+    void execute_sameKeyTwice_shouldRunOnceAndReplayTheCreatedResource() {
+        IdempotentResult<Long> first = execute("key-1", request("A hero walks."));
+        IdempotentResult<Long> second = execute("key-1", request("A hero walks."));
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(second.replayed()).isTrue();
+        assertThat(second.body()).isEqualTo(first.body());
+        assertThat(executions).hasValue(1);
+        assertThat(jobRepository.count()).isEqualTo(1);
+        assertThat(meterRegistry.get("videogen.idempotency.requests").tag("outcome", "replayed").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void execute_sameKeyWithDifferentBody_shouldBeRejected() {
+        execute("key-1", request("A hero walks."));
+
+        assertThatThrownBy(() -> execute("key-1", request("A villain appears.")))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void execute_actionFailingBeforeItStoresAResource_shouldReleaseTheKey() {
+        assertThatThrownBy(() -> idempotencyService.execute(OPERATION, "key-1", request("A hero walks."),
+                created -> {
+                    throw new ServiceOverloadedException("Claude is saturated", Duration.ofSeconds(5));
+                },
+                Function.identity(), Function.identity()))
+                .isInstanceOf(ServiceOverloadedException.class);
+
+        assertThat(keyRepository.count()).isZero();
+
+        IdempotentResult<Long> retry = execute("key-1", request("A hero walks."));
+        assertThat(retry.replayed()).isFalse();
+        assertThat(jobRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_actionFailingAfterItStoredAResource_shouldKeepTheKeyForRetriesToReplay() {
+        assertThatThrownBy(() -> idempotencyService.execute(OPERATION, "key-1", request("A hero walks."),
+                created -> {
+                    created.accept(createJob());
+                    throw new IllegalStateException("Results could not be stored");
+                },
+                Function.identity(), Function.identity()))
+                .isInstanceOf(IllegalStateException.class);
+
+        IdempotentResult<Long> retry = execute("key-1", request("A hero walks."));
+        assertThat(retry.replayed()).isTrue();
+        assertThat(executions).hasValue(1);
+        assertThat(jobRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_originalRunningAfterStoringItsResource_shouldReplayItWithoutWaiting() throws Exception {
+        properties.setInProgressWait(Duration.ofMillis(50));
+        CountDownLatch stored = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<IdempotentResult<Long>> original = executor.submit(() ->
+                    idempotencyService.execute(OPERATION, "key-1", request("A hero walks."),
+                            created -> {
+                                Long jobId = createJob();
+                                created.accept(jobId);
+                                stored.countDown();
+                                await(release);
+                                return jobId;
+                            },
+                            Function.identity(), Function.identity()));
+            assertThat(stored.await(5, TimeUnit.SECONDS)).isTrue();
+
+            IdempotentResult<Long> duplicate = execute("key-1", request("A hero walks."));
+
+            assertThat(duplicate.replayed()).isTrue();
+            release.countDown();
+            assertThat(duplicate.body()).isEqualTo(original.get(5, TimeUnit.SECONDS).body());
+            assertThat(executions).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_concurrentDuplicates_shouldRunExactlyOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<IdempotentResult<Long>> original = executor.submit(() ->
+                    idempotencyService.execute(OPERATION, "key-1", request("A hero walks."),
+                            created -> {
+                                started.countDown();
+                                await(release);
+                                return createJob();
+                            },
+                            Function.identity(), Function.identity()));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            List<Future<IdempotentResult<Long>>> duplicates = List.of(
+                    executor.submit(() -> execute("key-1", request("A hero walks."))),
+                    executor.submit(() -> execute("key-1", request("A hero walks."))),
+                    executor.submit(() -> execute("key-1", request("A hero walks."))));
+            release.countDown();
+
+            Long jobId = original.get(5, TimeUnit.SECONDS).body();
+            for (Future<IdempotentResult<Long>> duplicate : duplicates) {
+                IdempotentResult<Long> result = duplicate.get(5, TimeUnit.SECONDS);
+                assertThat(result.replayed()).isTrue();
+                assertThat(result.body()).isEqualTo(jobId);
+            }
+            assertThat(executions).hasValue(1);
+            assertThat(jobRepository.count()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_originalStillRunningPastTheWait_shouldAnswerInProgress() throws Exception {
+        properties.setInProgressWait(Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<IdempotentResult<Long>> original = executor.submit(() ->
+                    idempotencyService.execute(OPERATION, "key-1", request("A hero walks."),
+                            created -> {
+                                started.countDown();
+                                await(release);
+                                return createJob();
+                            },
+                            Function.identity(), Function.identity()));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> execute("key-1", request("A hero walks.")))
+                    .isInstanceOf(IdempotencyKeyInProgressException.class);
+
+            release.countDown();
+            assertThat(original.get(5, TimeUnit.SECONDS).replayed()).isFalse();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_originalRunningPastTheLease_shouldKeepItsKeyByRenewingIt() throws Exception {
+        properties.setInProgressLease(Duration.ofMillis(300));
+        properties.setInProgressWait(Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<IdempotentResult<Long>> original = executor.submit(() ->
+                    idempotencyService.execute(OPERATION, "key-1", request("A hero walks."),
+                            created -> {
+                                started.countDown();
+                                await(release);
+                                return createJob();
+                            },
+                            Function.identity(), Function.identity()));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(700);
+
+            assertThatThrownBy(() -> execute("key-1", request("A hero walks.")))
+                    .isInstanceOf(IdempotencyKeyInProgressException.class);
+
+            release.countDown();
+            assertThat(original.get(5, TimeUnit.SECONDS).replayed()).isFalse();
+            assertThat(executions).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void purgeExpired_shouldDeleteOnlyExpiredKeys() {
+        execute("key-1", request("A hero walks."));
+        keyRepository.save(IdempotencyKey.builder()
+                .operation(OPERATION)
+                .idempotencyKey("old-key")
+                .requestHash("0".repeat(64))
+                .expiresAt(LocalDateTime.now().minusMinutes(1))
+                .build());
+
+        idempotencyService.purgeExpired();
+
+        assertThat(keyRepository.findAll()).extracting(IdempotencyKey::getIdempotencyKey).containsExactly("key-1");
+    }
+
+    private IdempotentResult<Long> execute(String key, PromptRequest request) {
+        return idempotencyService.execute(OPERATION, key, request, created -> {
+            Long jobId = createJob();
+            created.accept(jobId);
+            return jobId;
+        }, Function.identity(), Function.identity());
+    }
+
+    private Long createJob() {
+        executions.incrementAndGet();
+        return jobRepository.save(PromptJob.builder().style(ArtStyle.PIXAR).status(JobStatus.COMPLETED).build())
+                .getId();
+    }
+
+    private static PromptRequest request(String segment) {
+        return PromptRequest.builder().segments(List.of(segment)).style("PIXAR").build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
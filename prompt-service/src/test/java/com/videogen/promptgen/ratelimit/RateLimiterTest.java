@@ -0,0 +1,161 @@
+package com.videogen.promptgen.ratelimit;
+
+import com.videogen.promptgen.exception.RateLimitExceededException;
+import com.videogen.promptgen.scheduling.SchedulerProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void checkRequest_shouldLimitEachClientSeparatelyAndSetHeaders() {
+        RateLimiter rateLimiter = new RateLimiter(properties(2, "key-a", "other"), new SchedulerProperties(), meterRegistry);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        rateLimiter.checkRequest(request("X-API-Key", "key-a"), response);
+        rateLimiter.checkRequest(request("X-API-Key", "key-a"), new MockHttpServletResponse());
+
+        assertThat(response.getHeader("RateLimit-Limit")).isEqualTo("2");
+        assertThat(response.getHeader("RateLimit-Remaining")).isEqualTo("1");
+        assertThatThrownBy(() -> rateLimiter.checkRequest(request("X-API-Key", "key-a"), new MockHttpServletResponse()))
+                .isInstanceOf(RateLimitExceededException.class);
+        assertThatCode(() -> rateLimiter.checkRequest(request("X-Client-Id", "other"), new MockHttpServletResponse()))
+                .doesNotThrowAnyException();
+        assertThat(meterRegistry.get("videogen.ratelimit.rejected").tag("limit", "requests").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void clientOf_shouldPreferConfiguredHeadersOverRemoteAddress() {
+        RateLimiter rateLimiter = new RateLimiter(properties(2, "key-a", "studio"), new SchedulerProperties(), meterRegistry);
+        MockHttpServletRequest both = request("X-Client-Id", "studio");
+        both.addHeader("X-API-Key", "key-a");
+
+        assertThat(rateLimiter.clientOf(both)).isEqualTo("key-a");
+        assertThat(rateLimiter.clientOf(request("X-Client-Id", "studio"))).isEqualTo("studio");
+        assertThat(rateLimiter.clientOf(new MockHttpServletRequest())).isEqualTo("127.0.0.1");
+    }
+
+    @Test
+    void clientOf_unknownHeaderValue_shouldFallBackToTheRemoteAddress() {
+        RateLimiter rateLimiter = new RateLimiter(properties(2, "studio"), new SchedulerProperties(), meterRegistry);
+        MockHttpServletRequest unknownKey = request("X-API-Key", "made-up-" + "x".repeat(200));
+        unknownKey.addHeader("X-Client-Id", "studio");
+
+        assertThat(rateLimiter.clientOf(unknownKey)).isEqualTo("studio");
+        assertThat(rateLimiter.clientOf(request("X-API-Key", "made-up"))).isEqualTo("127.0.0.1");
+
+        // Rotating made-up keys does not earn fresh buckets
+        rateLimiter.checkRequest(request("X-API-Key", "key-1"), new MockHttpServletResponse());
+        rateLimiter.checkRequest(request("X-API-Key", "key-2"), new MockHttpServletResponse());
+        assertThatThrownBy(() -> rateLimiter.checkRequest(request("X-API-Key", "key-3"),
+                new MockHttpServletResponse())).isInstanceOf(RateLimitExceededException.class);
+        assertThat(meterRegistry.get("videogen.ratelimit.clients").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void clientOf_schedulerClients_shouldBeKnown() {
+        SchedulerProperties schedulerProperties = new SchedulerProperties();
+        schedulerProperties.getInteractiveClients().add("editor");
+        schedulerProperties.getClientWeights().put("studio-a", 3);
+        RateLimiter rateLimiter = new RateLimiter(properties(2), schedulerProperties, meterRegistry);
+
+        assertThat(rateLimiter.clientOf(request("X-API-Key", "editor"))).isEqualTo("editor");
+        assertThat(rateLimiter.clientOf(request("X-Client-Id", "studio-a"))).isEqualTo("studio-a");
+    }
+
+    @Test
+    void checkSegments_shouldApplyClientOverridesOnTopOfDefaults() {
+        RateLimitProperties properties = properties(100, "studio");
+        RateLimitProperties.Limits batch = new RateLimitProperties.Limits();
+        batch.setSegmentBurst(5);
+        properties.getClients().put("batch", batch);
+        RateLimiter rateLimiter = new RateLimiter(properties, new SchedulerProperties(), meterRegistry);
+
+        rateLimiter.checkSegments(request("X-Client-Id", "batch"), 5);
+
+        assertThatThrownBy(() -> rateLimiter.checkSegments(request("X-Client-Id", "batch"), 1))
+                .isInstanceOf(RateLimitExceededException.class)
+                .satisfies(e -> assertThat(((RateLimitExceededException) e).getLimit()).isEqualTo(5));
+        assertThatCode(() -> rateLimiter.checkSegments(request("X-Client-Id", "studio"), 50))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void refresh_changedLimitsFile_shouldReplaceLimitsWithoutRestart(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("rate-limits.yml");
+        Files.writeString(file, "videogen.rate-limit.defaults.request-burst: 1\n");
+        RateLimitProperties properties = properties(100, "studio", "other");
+        properties.setLimitsFile(file);
+        RateLimiter rateLimiter = new RateLimiter(properties, new SchedulerProperties(), meterRegistry);
+
+        rateLimiter.checkRequest(request("X-Client-Id", "studio"), new MockHttpServletResponse());
+        assertThatThrownBy(() -> rateLimiter.checkRequest(request("X-Client-Id", "studio"),
+                new MockHttpServletResponse())).isInstanceOf(RateLimitExceededException.class);
+
+        Files.writeString(file, """
+                videogen:
+                  rate-limit:
+                    defaults:
+                      request-burst: 1
+                    clients:
+                      studio:
+                        requests-per-second: 0
+                """);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(60)));
+        rateLimiter.refresh();
+
+        // A rate of 0 turns the limit off, while the other clients keep the file's burst of 1
+        for (int i = 0; i < 5; i++) {
+            rateLimiter.checkRequest(request("X-Client-Id", "studio"), new MockHttpServletResponse());
+        }
+        rateLimiter.checkRequest(request("X-Client-Id", "other"), new MockHttpServletResponse());
+        assertThatThrownBy(() -> rateLimiter.checkRequest(request("X-Client-Id", "other"),
+                new MockHttpServletResponse())).isInstanceOf(RateLimitExceededException.class);
+    }
+
+    @Test
+    void checkRequest_disabled_shouldNotLimit() {
+        RateLimitProperties properties = properties(1, "studio");
+        properties.setEnabled(false);
+        RateLimiter rateLimiter = new RateLimiter(properties, new SchedulerProperties(), meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            rateLimiter.checkRequest(request("X-Client-Id", "studio"), new MockHttpServletResponse());
+        }
+        rateLimiter.checkSegments(request("X-Client-Id", "studio"), 10_000);
+    }
+
+    /**
+     * Bursts of {@code burst} requests and 10 segments that effectively never refill during a test,
+     * with {@code clients} known on the default limits.
+     */
+    private static RateLimitProperties properties(int burst, String... clients) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setDefaults(RateLimitProperties.Limits.of(0.001, burst, 0.001, 10));
+        for (String client : clients) {
+            properties.getClients().put(client, new RateLimitProperties.Limits());
+        }
+        return properties;
+    }
+
+    private static MockHttpServletRequest request(String header, String value) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(header, value);
+        return request;
+    }
+}
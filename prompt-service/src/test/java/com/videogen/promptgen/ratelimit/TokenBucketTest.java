@@ -0,0 +1,58 @@
+package com.videogen.promptgen.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /** 2 tokens per second, 4 at most. */
+    private final TokenBucket.Rate rate = TokenBucket.Rate.of(2, SECOND, 4);
+
+    @Test
+    void tryConsume_shouldAllowTheBurstThenRefuseUntilATokenIsEarned() {
+        TokenBucket bucket = new TokenBucket(0);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(bucket.tryConsume(rate, 1, 0).allowed()).isTrue();
+        }
+        TokenBucket.Decision refused = bucket.tryConsume(rate, 1, 0);
+
+        assertThat(refused.allowed()).isFalse();
+        assertThat(refused.remaining()).isZero();
+        assertThat(refused.retryAfterNanos()).isEqualTo(SECOND / 2);
+        assertThat(refused.resetNanos()).isEqualTo(2 * SECOND);
+        assertThat(bucket.tryConsume(rate, 1, SECOND / 2).allowed()).isTrue();
+    }
+
+    @Test
+    void tryConsume_shouldReportRemainingTokens() {
+        TokenBucket bucket = new TokenBucket(0);
+
+        TokenBucket.Decision decision = bucket.tryConsume(rate, 3, 0);
+
+        assertThat(decision.allowed()).isTrue();
+        assertThat(decision.limit()).isEqualTo(4);
+        assertThat(decision.remaining()).isEqualTo(1);
+        assertThat(bucket.isFull(0)).isFalse();
+        assertThat(bucket.isFull(3 * SECOND / 2)).isTrue();
+    }
+
+    @Test
+    void tryConsume_costAboveTheBurst_shouldPassOnlyOnAFullBucketAndLeaveItInDebt() {
+        TokenBucket bucket = new TokenBucket(0);
+
+        assertThat(bucket.tryConsume(rate, 10, 0).allowed()).isTrue();
+        TokenBucket.Decision next = bucket.tryConsume(rate, 1, SECOND);
+
+        assertThat(next.allowed()).isFalse();
+        // Full again at 5s; one more token fits once no more than the 2s burst window is owed, at 3.5s
+        assertThat(next.retryAfterNanos()).isEqualTo(SECOND * 5 / 2);
+        assertThat(bucket.tryConsume(rate, 10, 4 * SECOND).allowed()).isFalse();
+        assertThat(bucket.tryConsume(rate, 10, 5 * SECOND).allowed()).isTrue();
+    }
+}
@@ -7,8 +7,11 @@ import com.videogen.promptgen.model.PromptResult;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -117,4 +120,144 @@ class PromptJobRepositoryTest {
         assertThat(results.get(1).getSegmentNumber()).isEqualTo(2);
         assertThat(results.get(2).getSegmentNumber()).isEqualTo(3);
     }
+
+    @Test
+    void findSummaries_shouldPageByKeysetAndCountResults() {
+        PromptJob oldest = jobRepository.save(PromptJob.builder().style(ArtStyle.ANIME).status(JobStatus.COMPLETED).build());
+        PromptJob middle = jobRepository.save(PromptJob.builder().style(ArtStyle.ANIME).status(JobStatus.FAILED).build());
+        PromptJob newest = jobRepository.save(PromptJob.builder().style(ArtStyle.ANIME).status(JobStatus.COMPLETED).build());
+
+        newest.getResults().add(PromptResult.builder().job(newest).segmentNumber(1).segmentText("One.").generatedPrompt("p1").build());
+        newest.getResults().add(PromptResult.builder().job(newest).segmentNumber(2).segmentText("Two.").build());
+        jobRepository.saveAndFlush(newest);
+
+        List<PromptJobSummary> firstPage = jobRepository.findSummaries(null, null, ArtStyle.ANIME, null, null, Limit.of(2));
+        assertThat(firstPage).extracting(PromptJobSummary::getId).containsExactly(newest.getId(), middle.getId());
+        assertThat(firstPage.get(0).getResultCount()).isEqualTo(2L);
+        assertThat(firstPage.get(0).getFailedResultCount()).isEqualTo(1L);
+
+        List<PromptJobSummary> secondPage = jobRepository.findSummaries(middle.getId(), null, ArtStyle.ANIME, null, null, Limit.of(2));
+        assertThat(secondPage).extracting(PromptJobSummary::getId).containsExactly(oldest.getId());
+
+        List<PromptJobSummary> failedOnly = jobRepository.findSummaries(null, JobStatus.FAILED, ArtStyle.ANIME,
+                LocalDateTime.now().minusHours(1), LocalDateTime.now().plusHours(1), Limit.of(10));
+        assertThat(failedOnly).extracting(PromptJobSummary::getId).containsExactly(middle.getId());
+    }
+
+    @Test
+    void findResultsAfterSegmentNumber_shouldReturnBoundedPage() {
+        PromptJob job = jobRepository.save(PromptJob.builder().style(ArtStyle.WATERCOLOR).status(JobStatus.COMPLETED).build());
+        for (int i = 1; i <= 5; i++) {
+            job.getResults().add(PromptResult.builder().job(job).segmentNumber(i).segmentText("Segment " + i).build());
+        }
+        jobRepository.saveAndFlush(job);
+
+        List<PromptResult> page = resultRepository.findByJobIdOrderBySegmentNumberAsc(job.getId(), 2, Limit.of(2));
+
+        assertThat(page).extracting(PromptResult::getSegmentNumber).containsExactly(3, 4);
+    }
+
+    @Test
+    void sumUsage_shouldAggregateByStyleAndModel() {
+        PromptJob job = PromptJob.builder().style(ArtStyle.PHOTOREALISTIC).status(JobStatus.COMPLETED).build();
+        job.getResults().add(PromptResult.builder().job(job).segmentNumber(1).segmentText("One.").generatedPrompt("p1")
+                .model("model-a").inputTokens(10).outputTokens(20).cacheCreationInputTokens(0).cacheReadInputTokens(5)
+                .estimatedCostUsd(new BigDecimal("0.000500")).build());
+        job.getResults().add(PromptResult.builder().job(job).segmentNumber(2).segmentText("Two.").generatedPrompt("p2")
+                .model("model-b").inputTokens(30).outputTokens(40).cacheCreationInputTokens(0).cacheReadInputTokens(0)
+                .estimatedCostUsd(new BigDecimal("0.000700")).build());
+        job.getResults().forEach(job::addUsage);
+        jobRepository.saveAndFlush(job);
+
+        List<StyleUsageTotals> byStyle = jobRepository.sumUsageByStyle(LocalDateTime.now().minusHours(1), null);
+        assertThat(byStyle).hasSize(1);
+        assertThat(byStyle.get(0).getStyle()).isEqualTo(ArtStyle.PHOTOREALISTIC);
+        assertThat(byStyle.get(0).getInputTokens()).isEqualTo(40L);
+        assertThat(byStyle.get(0).getEstimatedCostUsd()).isEqualByComparingTo("0.0012");
+
+        List<ModelUsageTotals> byModel = resultRepository.sumUsageByModel(null, null);
+        assertThat(byModel).extracting(ModelUsageTotals::getModel).containsExactly("model-a", "model-b");
+        assertThat(byModel.get(1).getOutputTokens()).isEqualTo(40L);
+    }
+
+    @Test
+    void findHeaderAndUsage_shouldReturnProjectionsWithoutText() {
+        PromptJob job = jobWithResults(JobStatus.COMPLETED, 2);
+        job.getResults().get(0).setModel("claude-test");
+        job.getResults().get(0).setInputTokens(120);
+        jobRepository.saveAndFlush(job);
+
+        PromptJobHeader header = jobRepository.findHeaderById(job.getId()).orElseThrow();
+        assertThat(header.getStatus()).isEqualTo(JobStatus.COMPLETED);
+        assertThat(header.getVersion()).isNotNull();
+        assertThat(jobRepository.findHeaderById(-1L)).isEmpty();
+
+        List<PromptResultUsage> usage = resultRepository.findUsageByJobId(job.getId());
+        assertThat(usage).extracting(PromptResultUsage::getSegmentNumber).containsExactly(1, 2);
+        assertThat(usage.get(0).getModel()).isEqualTo("claude-test");
+        assertThat(usage.get(0).getInputTokens()).isEqualTo(120);
+    }
+
+    @Test
+    void deleteMatchingByIdIn_shouldDeleteOnlyMatchingJobsAndCascadeResults() {
+        PromptJob failed = jobWithResults(JobStatus.FAILED, 2);
+        PromptJob completed = jobWithResults(JobStatus.COMPLETED, 1);
+        PromptJob untouched = jobWithResults(JobStatus.FAILED, 1);
+        PromptJob running = jobWithResults(JobStatus.PROCESSING, 1);
+
+        int deleted = jobRepository.deleteMatchingByIdIn(
+                List.of(failed.getId(), completed.getId()), List.of(JobStatus.FAILED), null);
+
+        assertThat(deleted).isEqualTo(1);
+        assertThat(jobRepository.findAll()).extracting(PromptJob::getId)
+                .containsExactlyInAnyOrder(completed.getId(), untouched.getId(), running.getId());
+        assertThat(resultRepository.findByJobIdOrderBySegmentNumberAsc(failed.getId())).isEmpty();
+        assertThat(jobRepository.findIdsMatching(List.of(JobStatus.COMPLETED, JobStatus.FAILED), null, Limit.of(10)))
+                .containsExactly(completed.getId(), untouched.getId());
+        assertThat(jobRepository.deleteMatchingByIdIn(List.of(running.getId()),
+                List.of(JobStatus.COMPLETED, JobStatus.FAILED, JobStatus.PARTIAL), null)).isZero();
+    }
+
+    @Test
+    void failIdleStreamedJobs_shouldFailOnlyIdleStreamedJobsStillProcessing() {
+        PromptJob orphaned = jobRepository.saveAndFlush(PromptJob.builder()
+                .style(ArtStyle.ANIME).status(JobStatus.PROCESSING).streamed(true).build());
+        PromptJob finished = jobRepository.saveAndFlush(PromptJob.builder()
+                .style(ArtStyle.ANIME).status(JobStatus.COMPLETED).streamed(true).build());
+        PromptJob batch = jobWithResults(JobStatus.PROCESSING, 1);
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThat(jobRepository.failIdleStreamedJobs(now.minusMinutes(15), now)).isZero();
+        assertThat(jobRepository.failIdleStreamedJobs(now.plusSeconds(1), now)).isEqualTo(1);
+
+        PromptJob failed = jobRepository.findById(orphaned.getId()).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(JobStatus.FAILED);
+        assertThat(failed.getVersion()).isGreaterThan(orphaned.getVersion());
+        assertThat(jobRepository.findById(finished.getId()).orElseThrow().getStatus()).isEqualTo(JobStatus.COMPLETED);
+        assertThat(jobRepository.findById(batch.getId()).orElseThrow().getStatus()).isEqualTo(JobStatus.PROCESSING);
+    }
+
+    @Test
+    void failProcessingJob_shouldFailTheJobOnlyWhileProcessing() {
+        PromptJob processing = jobWithResults(JobStatus.PROCESSING, 0);
+        PromptJob completed = jobWithResults(JobStatus.COMPLETED, 1);
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThat(jobRepository.failProcessingJob(processing.getId(), now)).isEqualTo(1);
+        assertThat(jobRepository.failProcessingJob(completed.getId(), now)).isZero();
+
+        PromptJob failed = jobRepository.findById(processing.getId()).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(JobStatus.FAILED);
+        assertThat(failed.getVersion()).isGreaterThan(processing.getVersion());
+        assertThat(jobRepository.findById(completed.getId()).orElseThrow().getStatus()).isEqualTo(JobStatus.COMPLETED);
+    }
+
+    private PromptJob jobWithResults(JobStatus status, int resultCount) {
+        PromptJob job = PromptJob.builder().style(ArtStyle.ANIME).status(status).build();
+        for (int i = 1; i <= resultCount; i++) {
+            job.getResults().add(PromptResult.builder().job(job).segmentNumber(i)
+                    .segmentText("Segment " + i).generatedPrompt("Prompt " + i).build());
+        }
+        return jobRepository.saveAndFlush(job);
+    }
 }
@@ -0,0 +1,122 @@
+package com.videogen.promptgen.retention;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.videogen.promptgen.model.ArtStyle;
+import com.videogen.promptgen.model.JobStatus;
+import com.videogen.promptgen.model.PromptJob;
+import com.videogen.promptgen.model.PromptResult;
+import com.videogen.promptgen.repository.PromptJobRepository;
+import com.videogen.promptgen.repository.PromptResultRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("local")
+class RetentionServiceTest {
+
+    @Autowired
+    private PromptJobRepository jobRepository;
+
+    @Autowired
+    private PromptResultRepository resultRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path archiveDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RetentionService retentionService;
+
+    @BeforeEach
+    void setUp() {
+        RetentionProperties properties = new RetentionProperties();
+        properties.setArchiveDir(archiveDir);
+        properties.setChunkSize(2);
+        retentionService = new RetentionService(jobRepository, transactionManager, objectMapper, meterRegistry, properties);
+    }
+
+    @Test
+    void archiveAndPurge_shouldArchiveOldFinishedJobsInChunksAndCascadeResults() throws Exception {
+        Long old1 = saveJob(JobStatus.COMPLETED, 2);
+        Long old2 = saveJob(JobStatus.FAILED, 1);
+        Long old3 = saveJob(JobStatus.COMPLETED, 3);
+        Long oldRunning = saveJob(JobStatus.PROCESSING, 1);
+        Long recent = saveJob(JobStatus.COMPLETED, 1);
+        backdate(List.of(old1, old2, old3, oldRunning), LocalDateTime.now().minusDays(120));
+
+        int archived = retentionService.archiveAndPurge(LocalDateTime.now().minusDays(90));
+
+        assertThat(archived).isEqualTo(3);
+        assertThat(jobRepository.findAll()).extracting(PromptJob::getId).containsExactlyInAnyOrder(oldRunning, recent);
+        assertThat(resultRepository.findByJobIdOrderBySegmentNumberAsc(old3)).isEmpty();
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(archiveDir)) {
+            files = listing.sorted().toList();
+        }
+        assertThat(files).hasSize(2).allMatch(file -> file.getFileName().toString().endsWith(".jsonl.gz"));
+
+        List<JsonNode> records = files.stream().flatMap(this::readArchive).toList();
+        assertThat(records).extracting(node -> node.get("id").asLong()).containsExactlyInAnyOrder(old1, old2, old3);
+        assertThat(records).filteredOn(node -> node.get("id").asLong() == old3)
+                .singleElement().satisfies(node -> assertThat(node.get("results")).hasSize(3));
+
+        assertThat(meterRegistry.get("videogen.retention.archived").counter().count()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("videogen.retention.backlog").gauge().value()).isZero();
+    }
+
+    private Long saveJob(JobStatus status, int resultCount) {
+        PromptJob job = PromptJob.builder().style(ArtStyle.CINEMATIC).status(status).build();
+        for (int i = 1; i <= resultCount; i++) {
+            job.getResults().add(PromptResult.builder().job(job).segmentNumber(i).segmentText("Segment " + i)
+                    .generatedPrompt("Prompt " + i).build());
+        }
+        return jobRepository.saveAndFlush(job).getId();
+    }
+
+    private void backdate(List<Long> ids, LocalDateTime createdAt) {
+        ids.forEach(id -> jdbcTemplate.update("UPDATE prompt_jobs SET created_at = ? WHERE id = ?", createdAt, id));
+    }
+
+    private Stream<JsonNode> readArchive(Path file) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            List<JsonNode> lines = reader.lines().map(line -> {
+                try {
+                    return objectMapper.readTree(line);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }).toList();
+            return lines.stream();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.videogen.promptgen.reuse;
+
+import com.videogen.promptgen.model.ArtStyle;
+import com.videogen.promptgen.model.JobStatus;
+import com.videogen.promptgen.model.PromptJob;
+import com.videogen.promptgen.model.PromptResult;
+import com.videogen.promptgen.repository.PromptJobRepository;
+import com.videogen.promptgen.repository.PromptResultRepository;
+import com.videogen.promptgen.repository.PromptResultSignatureRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("local")
+class PromptReuseServiceTest {
+
+    @Autowired
+    private PromptJobRepository jobRepository;
+
+    @Autowired
+    private PromptResultRepository resultRepository;
+
+    @Autowired
+    private PromptResultSignatureRepository signatureRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private PromptReuseService reuseService;
+
+    @BeforeEach
+    void setUp() {
+        reuseService = new PromptReuseService(signatureRepository, resultRepository, transactionManager,
+                new PromptReuseProperties());
+    }
+
+    @Test
+    void findSimilar_nearDuplicateInSameStyle_shouldReturnTheStoredPrompt() {
+        PromptResult original = saveResult(ArtStyle.PIXAR, null,
+                "Maria walks through the misty forest toward the old castle at dawn.", "A Pixar forest...");
+        reuseService.sign(original, ArtStyle.PIXAR);
+
+        Optional<PromptReuseService.Match> match = reuseService.findSimilar(ArtStyle.PIXAR, null,
+                "Elena walks through the misty forest toward the old castle at dawn!", 0.8);
+
+        assertThat(match).hasValueSatisfying(m -> {
+            assertThat(m.resultId()).isEqualTo(original.getId());
+            assertThat(m.generatedPrompt()).isEqualTo("A Pixar forest...");
+            assertThat(m.similarity()).isBetween(0.8, 1.0);
+        });
+    }
+
+    @Test
+    void findSimilar_belowThresholdOrOtherStyle_shouldFindNothing() {
+        PromptResult original = saveResult(ArtStyle.PIXAR, null,
+                "Maria walks through the misty forest toward the old castle at dawn.", "A Pixar forest...");
+        reuseService.sign(original, ArtStyle.PIXAR);
+        String similar = "Elena walks through the misty forest toward the old castle at dawn.";
+
+        assertThat(reuseService.findSimilar(ArtStyle.PIXAR, null, similar, 1.0)).isEmpty();
+        assertThat(reuseService.findSimilar(ArtStyle.GHIBLI, null, similar, 0.8)).isEmpty();
+        assertThat(reuseService.findSimilar(ArtStyle.PIXAR, null, "Rockets launch under a red sky.", 0.5)).isEmpty();
+    }
+
+    @Test
+    void findSimilar_customStyle_shouldRequireTheSameDescription() {
+        PromptResult original = saveResult(ArtStyle.CUSTOM, "Gothic horror",
+                "The hero walks into the misty forest.", "A gothic forest...");
+        reuseService.sign(original, ArtStyle.CUSTOM);
+
+        assertThat(reuseService.findSimilar(ArtStyle.CUSTOM, "Gothic horror",
+                "The hero walks into the misty forest!", 0.9)).isPresent();
+        assertThat(reuseService.findSimilar(ArtStyle.CUSTOM, "Pastel comic",
+                "The hero walks into the misty forest!", 0.9)).isEmpty();
+    }
+
+    @Test
+    void findSimilar_customStyle_shouldFilterBeforeLimitingCandidates() {
+        PromptReuseProperties properties = new PromptReuseProperties();
+        properties.setMaxCandidates(1);
+        reuseService = new PromptReuseService(signatureRepository, resultRepository, transactionManager, properties);
+        PromptResult gothic = saveResult(ArtStyle.CUSTOM, "Gothic horror",
+                "The hero walks into the misty forest at night.", "A gothic forest...");
+        reuseService.sign(gothic, ArtStyle.CUSTOM);
+        // Identical text, so it shares every band and would take the only candidate slot
+        PromptResult pastel = saveResult(ArtStyle.CUSTOM, "Pastel comic",
+                "The hero walks into the misty forest!", "A pastel forest...");
+        reuseService.sign(pastel, ArtStyle.CUSTOM);
+
+        assertThat(reuseService.findSimilar(ArtStyle.CUSTOM, "Gothic horror",
+                "The hero walks into the misty forest!", 0.7))
+                .hasValueSatisfying(m -> assertThat(m.resultId()).isEqualTo(gothic.getId()));
+    }
+
+    @Test
+    void sign_sameResultTwice_shouldBeRejectedByTheUniqueBand() {
+        PromptResult original = saveResult(ArtStyle.PIXAR, null, "The hero walks.", "A Pixar hero...");
+        reuseService.sign(original, ArtStyle.PIXAR);
+        signatureRepository.flush();
+
+        assertThatThrownBy(() -> {
+            reuseService.sign(original, ArtStyle.PIXAR);
+            signatureRepository.flush();
+        }).isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void backfill_shouldSignOnlyUnsignedGeneratedPromptsOnce() {
+        PromptResult generated = saveResult(ArtStyle.ANIME, null, "A girl waits at the station.", "An anime station...");
+        saveResult(ArtStyle.ANIME, null, "A failed segment.", null);
+
+        assertThat(reuseService.backfill()).isEqualTo(1);
+        assertThat(reuseService.backfill()).isZero();
+        assertThat(signatureRepository.count()).isEqualTo(SegmentSignature.BANDS);
+        assertThat(reuseService.findSimilar(ArtStyle.ANIME, null, "A girl waits at the station", 0.9))
+                .hasValueSatisfying(m -> assertThat(m.resultId()).isEqualTo(generated.getId()));
+    }
+
+    @Test
+    void deletingTheJob_shouldCascadeToSignatures() {
+        PromptResult original = saveResult(ArtStyle.PIXAR, null, "The hero walks.", "A Pixar hero...");
+        reuseService.sign(original, ArtStyle.PIXAR);
+        resultRepository.flush();
+
+        jobRepository.deleteAllByIdIn(List.of(original.getJob().getId()));
+
+        assertThat(signatureRepository.count()).isZero();
+    }
+
+    private PromptResult saveResult(ArtStyle style, String customStyleDescription, String text, String prompt) {
+        PromptJob job = jobRepository.save(PromptJob.builder()
+                .style(style)
+                .customStyleDescription(customStyleDescription)
+                .status(JobStatus.COMPLETED)
+                .build());
+        return resultRepository.save(PromptResult.builder()
+                .job(job)
+                .segmentNumber(1)
+                .segmentText(text)
+                .generatedPrompt(prompt)
+                .build());
+    }
+}
@@ -0,0 +1,57 @@
+package com.videogen.promptgen.reuse;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentSignatureTest {
+
+    @Test
+    void similarity_punctuationAndCaseOnly_shouldBeIdentical() {
+        SegmentSignature a = SegmentSignature.of("The hero walks into the misty forest.");
+        SegmentSignature b = SegmentSignature.of("the hero walks -- into the misty forest!!");
+
+        assertThat(a.similarity(b)).isEqualTo(1.0);
+        assertThat(a.bandKeys()).containsExactly(b.bandKeys());
+    }
+
+    @Test
+    void similarity_swappedName_shouldStayHighAndShareBands() {
+        SegmentSignature a = SegmentSignature.of("Maria walks through the misty forest toward the old castle at dawn.");
+        SegmentSignature b = SegmentSignature.of("Elena walks through the misty forest toward the old castle at dawn.");
+
+        assertThat(a.similarity(b)).isBetween(0.8, 1.0);
+        assertThat(sharedBands(a, b)).isPositive();
+    }
+
+    @Test
+    void similarity_unrelatedText_shouldBeLowAndShareNoBands() {
+        SegmentSignature a = SegmentSignature.of("The hero walks into the misty forest.");
+        SegmentSignature b = SegmentSignature.of("Rockets launch from a desert base under a red sky.");
+
+        assertThat(a.similarity(b)).isLessThan(0.2);
+        assertThat(sharedBands(a, b)).isZero();
+    }
+
+    @Test
+    void of_textWithoutLettersOrDigits_shouldBeEmpty() {
+        assertThat(SegmentSignature.of("... !!").isEmpty()).isTrue();
+        assertThat(SegmentSignature.of("Hi.").isEmpty()).isFalse();
+    }
+
+    @Test
+    void bandKeys_shouldBeStableAcrossInstances() {
+        // Keys are persisted, so the same text must always produce the same keys
+        assertThat(SegmentSignature.of("A quiet village.").bandKeys())
+                .hasSize(SegmentSignature.BANDS)
+                .containsExactly(SegmentSignature.of("A quiet village.").bandKeys());
+    }
+
+    private static long sharedBands(SegmentSignature a, SegmentSignature b) {
+        long[] keysA = a.bandKeys();
+        long[] keysB = b.bandKeys();
+        return IntStream.range(0, keysA.length).filter(i -> keysA[i] == keysB[i]).count();
+    }
+}
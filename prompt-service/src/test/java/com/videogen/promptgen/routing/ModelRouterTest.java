@@ -0,0 +1,100 @@
+package com.videogen.promptgen.routing;
+
+import com.videogen.promptgen.model.ArtStyle;
+import com.videogen.promptgen.model.JobPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ModelRouterTest {
+
+    private static final String SONNET = "claude-sonnet";
+    private static final String HAIKU = "claude-haiku";
+    private static final String OPUS = "claude-opus";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ModelRoutingProperties properties = new ModelRoutingProperties();
+
+    @Test
+    void route_shouldUseTheFirstMatchingRuleElseTheDefaultModel() {
+        ModelRoutingProperties.Rule shortSegments = new ModelRoutingProperties.Rule();
+        shortSegments.setModel(HAIKU);
+        shortSegments.setMaxSegmentLength(40);
+        ModelRoutingProperties.Rule interactivePhotos = new ModelRoutingProperties.Rule();
+        interactivePhotos.setModel(OPUS);
+        interactivePhotos.setStyles(EnumSet.of(ArtStyle.PHOTOREALISTIC));
+        interactivePhotos.setPriorities(EnumSet.of(JobPriority.INTERACTIVE));
+        properties.getRules().add(shortSegments);
+        properties.getRules().add(interactivePhotos);
+        properties.getFallbacks().put(OPUS, SONNET);
+        ModelRouter router = new ModelRouter(properties, SONNET, meterRegistry);
+
+        assertThat(router.route(20, ArtStyle.PHOTOREALISTIC, JobPriority.INTERACTIVE))
+                .isEqualTo(new ModelRouter.Route(HAIKU, null));
+        assertThat(router.route(200, ArtStyle.PHOTOREALISTIC, JobPriority.INTERACTIVE))
+                .isEqualTo(new ModelRouter.Route(OPUS, SONNET));
+        assertThat(router.route(200, ArtStyle.PHOTOREALISTIC, JobPriority.NORMAL))
+                .isEqualTo(new ModelRouter.Route(SONNET, null));
+        assertThat(decisions(OPUS, "rule")).isEqualTo(1.0);
+        assertThat(decisions(SONNET, "default")).isEqualTo(1.0);
+    }
+
+    @Test
+    void route_failingModel_shouldGoToItsFallbackUntilTheCoolDownEnds() throws Exception {
+        properties.getFallbacks().put(SONNET, HAIKU);
+        properties.setMinCalls(3);
+        properties.setCoolDown(Duration.ofMillis(200));
+        ModelRouter router = new ModelRouter(properties, SONNET, meterRegistry);
+
+        for (int i = 0; i < 3; i++) {
+            router.record(SONNET, Duration.ofSeconds(1).toNanos(), true);
+        }
+
+        assertThat(router.route(100, ArtStyle.PIXAR, JobPriority.NORMAL))
+                .isEqualTo(new ModelRouter.Route(HAIKU, SONNET));
+        assertThat(decisions(HAIKU, "avoided")).isEqualTo(1.0);
+        assertThat(meterRegistry.get("videogen.claude.routing.model.available").tag("model", SONNET).gauge().value())
+                .isZero();
+
+        Thread.sleep(250);
+
+        assertThat(router.route(100, ArtStyle.PIXAR, JobPriority.NORMAL))
+                .isEqualTo(new ModelRouter.Route(SONNET, HAIKU));
+    }
+
+    @Test
+    void route_slowModel_shouldBeAvoided() {
+        properties.getFallbacks().put(SONNET, HAIKU);
+        properties.setMinCalls(3);
+        properties.setMaxLatency(Duration.ofSeconds(20));
+        ModelRouter router = new ModelRouter(properties, SONNET, meterRegistry);
+
+        for (int i = 0; i < 3; i++) {
+            router.record(SONNET, Duration.ofSeconds(30).toNanos(), false);
+        }
+
+        assertThat(router.route(100, ArtStyle.PIXAR, JobPriority.NORMAL).model()).isEqualTo(HAIKU);
+    }
+
+    @Test
+    void route_fallbackAvoidedToo_shouldKeepTheChosenModel() {
+        properties.getFallbacks().put(SONNET, HAIKU);
+        properties.setMinCalls(1);
+        ModelRouter router = new ModelRouter(properties, SONNET, meterRegistry);
+
+        router.record(SONNET, Duration.ofSeconds(1).toNanos(), true);
+        router.record(HAIKU, Duration.ofSeconds(1).toNanos(), true);
+
+        assertThat(router.route(100, ArtStyle.PIXAR, JobPriority.NORMAL))
+                .isEqualTo(new ModelRouter.Route(SONNET, HAIKU));
+    }
+
+    private double decisions(String model, String reason) {
+        return meterRegistry.get("videogen.claude.routing.decisions").tag("model", model).tag("reason", reason)
+                .counter().count();
+    }
+}
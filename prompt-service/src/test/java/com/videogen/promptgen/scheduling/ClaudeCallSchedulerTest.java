@@ -0,0 +1,209 @@
+package com.videogen.promptgen.scheduling;
+
+import com.videogen.promptgen.exception.DeadlineExceededException;
+import com.videogen.promptgen.model.JobPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClaudeCallSchedulerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> order = Collections.synchronizedList(new ArrayList<>());
+    private final List<CompletableFuture<String>> futures = new ArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ClaudeCallScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void submit_shouldRunHigherPriorityClassesFirst() throws Exception {
+        scheduler = singleWorker(Duration.ofMinutes(5));
+        blockWorker();
+
+        submit(JobPriority.BULK, "catalogue", "bulk-1");
+        submit(JobPriority.BULK, "catalogue", "bulk-2");
+        submit(JobPriority.NORMAL, "studio", "normal-1");
+        submit(JobPriority.INTERACTIVE, "preview", "interactive-1");
+        assertThat(meterRegistry.get("videogen.prompt.scheduler.queued").tag("priority", "BULK").gauge().value())
+                .isEqualTo(2.0);
+        runAll();
+
+        assertThat(order).containsExactly("interactive-1", "normal-1", "bulk-1", "bulk-2");
+    }
+
+    @Test
+    void submit_sameClass_shouldInterleaveClientsByWeight() throws Exception {
+        SchedulerProperties properties = properties(Duration.ofMinutes(5));
+        properties.getClientWeights().put("heavy", 2);
+        scheduler = new ClaudeCallScheduler(properties, meterRegistry, ObservationRegistry.NOOP);
+        blockWorker();
+
+        for (int i = 1; i <= 4; i++) {
+            submit(JobPriority.NORMAL, "heavy", "heavy-" + i);
+        }
+        for (int i = 1; i <= 4; i++) {
+            submit(JobPriority.NORMAL, "light", "light-" + i);
+        }
+        runAll();
+
+        // Weight 2 gets two calls for every one of weight 1, although all of its calls arrived first
+        assertThat(order).containsExactly("heavy-1", "heavy-2", "light-1", "heavy-3", "heavy-4", "light-2",
+                "light-3", "light-4");
+    }
+
+    @Test
+    void submit_longWaitingBulkCall_shouldAgeAheadOfNewInteractiveCalls() throws Exception {
+        scheduler = singleWorker(Duration.ofMillis(50));
+        blockWorker();
+
+        submit(JobPriority.BULK, "catalogue", "bulk-1");
+        Thread.sleep(150);
+        submit(JobPriority.INTERACTIVE, "preview", "interactive-1");
+        runAll();
+
+        assertThat(order).containsExactly("bulk-1", "interactive-1");
+    }
+
+    @Test
+    void submit_classAgedAheadOfAnother_shouldRunItsOldestCallFirst() throws Exception {
+        SchedulerProperties properties = properties(Duration.ofMillis(100));
+        properties.getClientWeights().put("studio", 4);
+        scheduler = new ClaudeCallScheduler(properties, meterRegistry, ObservationRegistry.NOOP);
+        blockWorker();
+
+        submit(JobPriority.NORMAL, "catalogue", "catalogue-1");
+        Thread.sleep(250);
+        // Arrives later, but its finish tag is the lower one
+        submit(JobPriority.NORMAL, "studio", "studio-1");
+        submit(JobPriority.INTERACTIVE, "preview", "interactive-1");
+        runAll();
+
+        assertThat(order).containsExactly("catalogue-1", "interactive-1", "studio-1");
+    }
+
+    @Test
+    void queuedAhead_shouldCountOwnAndHigherClassesAndLatencyShouldFollowCalls() throws Exception {
+        scheduler = singleWorker(Duration.ofMinutes(5));
+        assertThat(scheduler.recentCallLatency()).isZero();
+        blockWorker();
+
+        submit(JobPriority.INTERACTIVE, "preview", "interactive-1");
+        submit(JobPriority.NORMAL, "studio", "normal-1");
+        submit(JobPriority.BULK, "catalogue", "bulk-1");
+
+        assertThat(scheduler.activeCalls()).isEqualTo(1);
+        assertThat(scheduler.queuedAhead(JobPriority.INTERACTIVE)).isEqualTo(1);
+        assertThat(scheduler.queuedAhead(JobPriority.NORMAL)).isEqualTo(2);
+        assertThat(scheduler.queuedCalls()).isEqualTo(3);
+        runAll();
+        assertThat(scheduler.recentCallLatency()).isPositive();
+    }
+
+    @Test
+    void submit_failingCall_shouldCompleteFutureExceptionally() {
+        scheduler = singleWorker(Duration.ofMinutes(5));
+
+        CompletableFuture<String> future = scheduler.submit(JobPriority.NORMAL, null, () -> {
+            throw new IllegalStateException("Claude unavailable");
+        });
+
+        assertThatThrownBy(future::join).hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void submit_cancelledOrLateCalls_shouldBeDroppedWithoutRunning() throws Exception {
+        scheduler = singleWorker(Duration.ofMinutes(5));
+        blockWorker();
+        CompletableFuture<String> cancelled = scheduler.submit(JobPriority.NORMAL, null, () -> {
+            order.add("cancelled");
+            return "cancelled";
+        });
+        // Less than the default one-second min-call-time is left
+        CompletableFuture<String> late = scheduler.submit(JobPriority.NORMAL, null, Instant.now().plusMillis(500), () -> {
+            order.add("late");
+            return "late";
+        });
+        submit(JobPriority.NORMAL, null, "on-time");
+        cancelled.cancel(false);
+
+        runAll();
+
+        assertThat(order).containsExactly("on-time");
+        assertThatThrownBy(late::join).hasCauseInstanceOf(DeadlineExceededException.class);
+        assertThat(meterRegistry.get("videogen.prompt.scheduler.skipped").tag("priority", "NORMAL").counter().count())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void shutdown_shouldRejectQueuedAndNewCalls() {
+        scheduler = singleWorker(Duration.ofMinutes(5));
+        blockWorker();
+        CompletableFuture<String> queued = scheduler.submit(JobPriority.BULK, null, () -> "never");
+
+        scheduler.shutdown();
+
+        assertThatThrownBy(queued::join).hasCauseInstanceOf(RejectedExecutionException.class);
+        assertThatThrownBy(() -> scheduler.submit(JobPriority.NORMAL, null, () -> "late").join())
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+
+    private ClaudeCallScheduler singleWorker(Duration agingInterval) {
+        return new ClaudeCallScheduler(properties(agingInterval), meterRegistry, ObservationRegistry.NOOP);
+    }
+
+    private static SchedulerProperties properties(Duration agingInterval) {
+        SchedulerProperties properties = new SchedulerProperties();
+        properties.setMaxConcurrentCalls(1);
+        properties.setAgingInterval(agingInterval);
+        return properties;
+    }
+
+    /** Occupies the only worker until {@link #runAll}, so later submissions queue up. */
+    private void blockWorker() {
+        CountDownLatch started = new CountDownLatch(1);
+        scheduler.submit(JobPriority.INTERACTIVE, "blocker", () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "blocker";
+        });
+        try {
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void submit(JobPriority priority, String client, String name) {
+        futures.add(scheduler.submit(priority, client, () -> {
+            order.add(name);
+            return name;
+        }));
+    }
+
+    private void runAll() throws Exception {
+        release.countDown();
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+    }
+}
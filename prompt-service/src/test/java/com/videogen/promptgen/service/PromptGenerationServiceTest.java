@@ -1,23 +1,63 @@
 package com.videogen.promptgen.service;
 
+import com.videogen.promptgen.admission.AdmissionProperties;
+import com.videogen.promptgen.admission.AdmissionService;
 import com.videogen.promptgen.client.ClaudeApiClient;
+import com.videogen.promptgen.client.PromptCompletion;
+import com.videogen.promptgen.config.ClaudePricingProperties;
+import com.videogen.promptgen.dto.BulkDeleteRequest;
+import com.videogen.promptgen.dto.BulkDeleteResponse;
+import com.videogen.promptgen.dto.CursorPageResponse;
+import com.videogen.promptgen.dto.PromptJobFilter;
+import com.videogen.promptgen.dto.PromptJobSummaryResponse;
 import com.videogen.promptgen.dto.PromptRequest;
 import com.videogen.promptgen.dto.PromptResponse;
+import com.videogen.promptgen.dto.PromptResultResponse;
+import com.videogen.promptgen.dto.PromptView;
 import com.videogen.promptgen.exception.ResourceNotFoundException;
+import com.videogen.promptgen.exception.ServiceOverloadedException;
+import com.videogen.promptgen.metrics.PromptMetrics;
 import com.videogen.promptgen.model.ArtStyle;
+import com.videogen.promptgen.model.JobPriority;
 import com.videogen.promptgen.model.JobStatus;
 import com.videogen.promptgen.model.PromptJob;
+import com.videogen.promptgen.model.PromptResult;
+import com.videogen.promptgen.repository.PromptJobHeader;
 import com.videogen.promptgen.repository.PromptJobRepository;
+import com.videogen.promptgen.repository.PromptJobSummary;
+import com.videogen.promptgen.repository.PromptResultRepository;
+import com.videogen.promptgen.repository.PromptResultUsage;
+import com.videogen.promptgen.reuse.PromptReuseService;
+import com.videogen.promptgen.scheduling.ClaudeCallScheduler;
+import com.videogen.promptgen.scheduling.SchedulerProperties;
 import com.videogen.promptgen.service.impl.PromptGenerationServiceImpl;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -28,15 +68,50 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class PromptGenerationServiceTest {
 
+    private static final String MODEL = "claude-test-model";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @Mock
     private PromptJobRepository jobRepository;
 
+    @Mock
+    private PromptResultRepository resultRepository;
+
     @Mock
     private ClaudeApiClient claudeApiClient;
 
+    @Mock
+    private PromptReuseService reuseService;
+
+    @Spy
+    private ClaudePricingProperties pricing = pricing();
+
+    @Spy
+    private PromptMetrics promptMetrics = new PromptMetrics(meterRegistry, observationRegistry(meterRegistry));
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private SchedulerProperties schedulerProperties = new SchedulerProperties();
+
+    @Spy
+    private ClaudeCallScheduler callScheduler =
+            new ClaudeCallScheduler(schedulerProperties, meterRegistry, ObservationRegistry.NOOP);
+
+    @Spy
+    private AdmissionService admissionService =
+            new AdmissionService(new AdmissionProperties(), callScheduler, meterRegistry);
+
     @InjectMocks
     private PromptGenerationServiceImpl service;
 
+    @AfterEach
+    void tearDown() {
+        callScheduler.shutdown();
+    }
+
     @Test
     void createPromptJob_cinematicStyle_shouldReturnCompletedWith2Results() {
         PromptRequest request = PromptRequest.builder()
@@ -55,17 +130,18 @@ class PromptGenerationServiceTest {
             return job;
         });
 
-        when(claudeApiClient.generateImagePrompt(anyString(), eq(ArtStyle.CINEMATIC), isNull()))
-                .thenReturn("A cinematic wide shot of a hero...");
+        when(claudeApiClient.generateImagePrompt(anyString(), eq(ArtStyle.CINEMATIC), isNull(), any(), isNull()))
+                .thenReturn(completion("A cinematic wide shot of a hero..."));
 
-        PromptResponse response = service.createPromptJob(request);
+        PromptResponse response = service.createPromptJob(request, null);
 
         assertThat(response).isNotNull();
         assertThat(response.getStatus()).isEqualTo("COMPLETED");
         assertThat(response.getResults()).hasSize(2);
         assertThat(response.getResults().get(0).getSegmentNumber()).isEqualTo(1);
         assertThat(response.getResults().get(1).getSegmentNumber()).isEqualTo(2);
-        verify(claudeApiClient, times(2)).generateImagePrompt(anyString(), eq(ArtStyle.CINEMATIC), isNull());
+        verify(claudeApiClient, times(2)).generateImagePrompt(anyString(), eq(ArtStyle.CINEMATIC), isNull(),
+                eq(JobPriority.NORMAL), isNull());
     }
 
     @Test
@@ -87,15 +163,15 @@ class PromptGenerationServiceTest {
             return job;
         });
 
-        when(claudeApiClient.generateImagePrompt(anyString(), eq(ArtStyle.CUSTOM), eq("Dark gothic horror style with muted colors")))
-                .thenReturn("A dark gothic scene...");
+        when(claudeApiClient.generateImagePrompt(anyString(), eq(ArtStyle.CUSTOM), eq("Dark gothic horror style with muted colors"), any(), isNull()))
+                .thenReturn(completion("A dark gothic scene..."));
 
-        PromptResponse response = service.createPromptJob(request);
+        PromptResponse response = service.createPromptJob(request, null);
 
         assertThat(response.getStatus()).isEqualTo("COMPLETED");
         assertThat(response.getStyle()).isEqualTo("CUSTOM");
         assertThat(response.getCustomStyleDescription()).isEqualTo("Dark gothic horror style with muted colors");
-        verify(claudeApiClient).generateImagePrompt(anyString(), eq(ArtStyle.CUSTOM), eq("Dark gothic horror style with muted colors"));
+        verify(claudeApiClient).generateImagePrompt(anyString(), eq(ArtStyle.CUSTOM), eq("Dark gothic horror style with muted colors"), any(), isNull());
     }
 
     @Test
@@ -105,7 +181,7 @@ class PromptGenerationServiceTest {
                 .style("CUSTOM")
                 .build();
 
-        assertThatThrownBy(() -> service.createPromptJob(request))
+        assertThatThrownBy(() -> service.createPromptJob(request, null))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("customStyleDescription");
     }
@@ -117,7 +193,7 @@ class PromptGenerationServiceTest {
                 .style("INVALID_STYLE")
                 .build();
 
-        assertThatThrownBy(() -> service.createPromptJob(request))
+        assertThatThrownBy(() -> service.createPromptJob(request, null))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Invalid art style");
     }
@@ -140,10 +216,10 @@ class PromptGenerationServiceTest {
             return job;
         });
 
-        when(claudeApiClient.generateImagePrompt(anyString(), eq(ArtStyle.ANIME), isNull()))
-                .thenReturn("An anime-style wanderer...");
+        when(claudeApiClient.generateImagePrompt(anyString(), eq(ArtStyle.ANIME), isNull(), any(), isNull()))
+                .thenReturn(completion("An anime-style wanderer..."));
 
-        PromptResponse response = service.createPromptJob(request);
+        PromptResponse response = service.createPromptJob(request, null);
 
         assertThat(response.getResults()).hasSize(1);
         assertThat(response.getResults().get(0).getSegmentNumber()).isEqualTo(1);
@@ -167,15 +243,509 @@ class PromptGenerationServiceTest {
             return job;
         });
 
-        when(claudeApiClient.generateImagePrompt(anyString(), eq(ArtStyle.PIXAR), isNull()))
+        when(claudeApiClient.generateImagePrompt(anyString(), eq(ArtStyle.PIXAR), isNull(), any(), isNull()))
                 .thenThrow(new RuntimeException("API connection failed"));
 
-        PromptResponse response = service.createPromptJob(request);
+        PromptResponse response = service.createPromptJob(request, null);
 
         assertThat(response.getStatus()).isEqualTo("FAILED");
         assertThat(response.getResults()).hasSize(2);
         assertThat(response.getResults().get(0).getGeneratedPrompt()).isNull();
         assertThat(response.getResults().get(1).getGeneratedPrompt()).isNull();
+        assertThat(meterRegistry.get("videogen.prompt.results.failed").tags("style", "PIXAR").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("videogen.claude.call").tags("style", "PIXAR", "outcome", "error").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("videogen.prompt.job.create").tags("status", "FAILED").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("videogen.prompt.jobs.in.flight").gauge().value()).isZero();
+        assertThat(meterRegistry.get("videogen.prompt.segments.queued").gauge().value()).isZero();
+    }
+
+    @Test
+    void createPromptJob_repeatedSegments_shouldCallClaudeOncePerUniqueText() {
+        PromptRequest request = PromptRequest.builder()
+                .segments(List.of("Meanwhile...", "The castle looms in the distance.", "  meanwhile...", "Meanwhile..."))
+                .style("GHIBLI")
+                .build();
+
+        when(jobRepository.save(any(PromptJob.class))).thenAnswer(invocation -> {
+            PromptJob job = invocation.getArgument(0);
+            if (job.getId() == null) {
+                job.setId(1L);
+            }
+            return job;
+        });
+
+        when(claudeApiClient.generateImagePrompt(eq("Meanwhile..."), eq(ArtStyle.GHIBLI), isNull(), any(), isNull()))
+                .thenReturn(completion("A quiet Ghibli transition..."));
+        when(claudeApiClient.generateImagePrompt(eq("The castle looms in the distance."), eq(ArtStyle.GHIBLI), isNull(), any(), isNull()))
+                .thenReturn(completion("A Ghibli castle on a hill..."));
+
+        PromptResponse response = service.createPromptJob(request, null);
+
+        verify(claudeApiClient, times(2)).generateImagePrompt(anyString(), eq(ArtStyle.GHIBLI), isNull(), any(), isNull());
+        assertThat(response.getSegmentCount()).isEqualTo(4);
+        assertThat(response.getUniqueSegmentCount()).isEqualTo(2);
+        assertThat(response.getDeduplicatedSegmentCount()).isEqualTo(2);
+        assertThat(response.getResults()).extracting(PromptResultResponse::getSegmentNumber).containsExactly(1, 2, 3, 4);
+        assertThat(response.getResults()).extracting(PromptResultResponse::getReusedFromSegment)
+                .containsExactly(null, null, 1, 1);
+        assertThat(response.getResults().get(2).getSegmentText()).isEqualTo("  meanwhile...");
+        assertThat(response.getResults().get(2).getGeneratedPrompt()).isEqualTo("A quiet Ghibli transition...");
+    }
+
+    @Test
+    void createPromptJob_reuseThreshold_shouldReuseSimilarPromptInsteadOfCallingClaude() {
+        PromptRequest request = PromptRequest.builder()
+                .segments(List.of("A hero walks, slowly.", "A villain appears."))
+                .style("PIXAR")
+                .reuseThreshold(0.8)
+                .build();
+
+        when(jobRepository.save(any(PromptJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(reuseService.findSimilar(ArtStyle.PIXAR, null, "A hero walks, slowly.", 0.8))
+                .thenReturn(Optional.of(new PromptReuseService.Match(42L, "A Pixar hero...", 0.86)));
+        when(reuseService.findSimilar(ArtStyle.PIXAR, null, "A villain appears.", 0.8)).thenReturn(Optional.empty());
+        when(claudeApiClient.generateImagePrompt("A villain appears.", ArtStyle.PIXAR, null, JobPriority.NORMAL, null))
+                .thenReturn(completion("A Pixar villain..."));
+
+        PromptResponse response = service.createPromptJob(request, null);
+
+        verify(claudeApiClient, times(1)).generateImagePrompt(anyString(), eq(ArtStyle.PIXAR), isNull(), any(), isNull());
+        PromptResultResponse reused = response.getResults().get(0);
+        assertThat(reused.getGeneratedPrompt()).isEqualTo("A Pixar hero...");
+        assertThat(reused.getReusedFromResultId()).isEqualTo(42L);
+        assertThat(reused.getSimilarity()).isEqualTo(0.86);
+        assertThat(reused.getInputTokens()).isNull();
+        assertThat(response.getResults().get(1).getReusedFromResultId()).isNull();
+        assertThat(response.getStatus()).isEqualTo("COMPLETED");
+        assertThat(meterRegistry.get("videogen.prompt.results.reused").counter().count()).isEqualTo(1.0);
+        // Only the prompt Claude generated is offered to later jobs
+        verify(reuseService).sign(argThat(result -> result.getSegmentNumber() == 2), eq(ArtStyle.PIXAR));
+        verify(reuseService, never()).sign(argThat(result -> result.getSegmentNumber() == 1), any());
+    }
+
+    @Test
+    void createPromptJob_reuseLookupFails_shouldFailTheJobAndCancelItsQueuedCalls() {
+        PromptRequest request = PromptRequest.builder()
+                .segments(List.of("A hero walks.", "A villain appears."))
+                .style("PIXAR")
+                .reuseThreshold(0.8)
+                .build();
+        List<CompletableFuture<?>> submitted = new ArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(jobRepository.save(any(PromptJob.class))).thenAnswer(invocation -> {
+            PromptJob job = invocation.getArgument(0);
+            job.setId(1L);
+            return job;
+        });
+        // Keep the workers busy so the job's own call is still queued when the lookup fails
+        for (int i = 0; i < schedulerProperties.getMaxConcurrentCalls(); i++) {
+            callScheduler.submit(JobPriority.INTERACTIVE, "other", () -> blockUntil(release));
+        }
+        doAnswer(invocation -> {
+            CompletableFuture<?> call = (CompletableFuture<?>) invocation.callRealMethod();
+            submitted.add(call);
+            return call;
+        }).when(callScheduler).submit(eq(JobPriority.NORMAL), any(), any(), any());
+        when(reuseService.findSimilar(ArtStyle.PIXAR, null, "A hero walks.", 0.8)).thenReturn(Optional.empty());
+        when(reuseService.findSimilar(ArtStyle.PIXAR, null, "A villain appears.", 0.8))
+                .thenThrow(new IllegalStateException("Signature lookup failed"));
+
+        try {
+            assertThatThrownBy(() -> service.createPromptJob(request, null))
+                    .isInstanceOf(IllegalStateException.class);
+        } finally {
+            release.countDown();
+        }
+
+        verify(jobRepository).failProcessingJob(eq(1L), any());
+        assertThat(submitted).singleElement().satisfies(call -> assertThat(call.isCancelled()).isTrue());
+        verify(claudeApiClient, never()).generateImagePrompt(any(), any(), any(), any(), any());
+        assertThat(meterRegistry.get("videogen.prompt.jobs.in.flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void createPromptJob_storingResultsFails_shouldFailTheJob() {
+        PromptRequest request = PromptRequest.builder()
+                .segments(List.of("A hero walks."))
+                .style("PIXAR")
+                .build();
+        AtomicInteger saves = new AtomicInteger();
+
+        when(jobRepository.save(any(PromptJob.class))).thenAnswer(invocation -> {
+            // Creating the job saves it twice; the third save stores the results
+            if (saves.incrementAndGet() == 3) {
+                throw new DataIntegrityViolationException("Results could not be stored");
+            }
+            PromptJob job = invocation.getArgument(0);
+            job.setId(1L);
+            return job;
+        });
+        when(claudeApiClient.generateImagePrompt(anyString(), eq(ArtStyle.PIXAR), isNull(), any(), isNull()))
+                .thenReturn(completion("A Pixar hero..."));
+
+        assertThatThrownBy(() -> service.createPromptJob(request, null))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        verify(jobRepository).failProcessingJob(eq(1L), any());
+    }
+
+    @Test
+    void createPromptJob_priorityAndClient_shouldBeStoredAndUsedForScheduling() {
+        schedulerProperties.getInteractiveClients().add("studio-a");
+        PromptRequest request = PromptRequest.builder()
+                .segments(List.of("A hero walks.", "A villain appears."))
+                .style("PIXAR")
+                .priority("interactive")
+                .clientId("studio-a")
+                .build();
+
+        when(jobRepository.save(any(PromptJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(claudeApiClient.generateImagePrompt(anyString(), eq(ArtStyle.PIXAR), isNull(), any(), isNull()))
+                .thenReturn(completion("A Pixar scene..."));
+
+        PromptResponse response = service.createPromptJob(request, null);
+
+        assertThat(response.getPriority()).isEqualTo("INTERACTIVE");
+        assertThat(response.getClientId()).isEqualTo("studio-a");
+        verify(callScheduler, times(2)).submit(eq(JobPriority.INTERACTIVE), eq("studio-a"), isNull(), any());
+    }
+
+    @Test
+    void createPromptJob_interactiveFromUnlistedClient_shouldRunNormal() {
+        PromptRequest request = PromptRequest.builder()
+                .segments(List.of("A hero walks."))
+                .style("PIXAR")
+                .priority("INTERACTIVE")
+                .clientId("203.0.113.7")
+                .build();
+
+        when(jobRepository.save(any(PromptJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(claudeApiClient.generateImagePrompt(anyString(), eq(ArtStyle.PIXAR), isNull(), any(), isNull()))
+                .thenReturn(completion("A Pixar scene..."));
+
+        PromptResponse response = service.createPromptJob(request, null);
+
+        assertThat(response.getPriority()).isEqualTo("NORMAL");
+        verify(callScheduler).submit(eq(JobPriority.NORMAL), eq("203.0.113.7"), isNull(), any());
+    }
+
+    @Test
+    void createPromptJob_demotedByAdmission_shouldRunAtTheLowerPriority() {
+        PromptRequest request = PromptRequest.builder()
+                .segments(List.of("A hero walks.", "A hero walks."))
+                .style("PIXAR")
+                .build();
+        doReturn(JobPriority.BULK).when(admissionService).admit(JobPriority.NORMAL, 1);
+        when(jobRepository.save(any(PromptJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(claudeApiClient.generateImagePrompt(anyString(), eq(ArtStyle.PIXAR), isNull(), any(), isNull()))
+                .thenReturn(completion("A Pixar scene..."));
+
+        PromptResponse response = service.createPromptJob(request, null);
+
+        assertThat(response.getPriority()).isEqualTo("BULK");
+        verify(callScheduler).submit(eq(JobPriority.BULK), isNull(), isNull(), any());
+    }
+
+    @Test
+    void createPromptJob_shedByAdmission_shouldStoreNothing() {
+        PromptRequest request = PromptRequest.builder()
+                .segments(List.of("A hero walks."))
+                .style("PIXAR")
+                .priority("BULK")
+                .build();
+        doThrow(new ServiceOverloadedException("saturated", Duration.ofSeconds(5)))
+                .when(admissionService).admit(JobPriority.BULK, 1);
+
+        assertThatThrownBy(() -> service.createPromptJob(request, null)).isInstanceOf(ServiceOverloadedException.class);
+
+        verifyNoInteractions(jobRepository, claudeApiClient);
+    }
+
+    @Test
+    void createPromptJob_withListener_shouldStreamTextOfEachDistinctSegment() {
+        PromptRequest request = PromptRequest.builder()
+                .segments(List.of("A hero walks.", "A hero walks.", "A villain appears."))
+                .style("PIXAR")
+                .build();
+        when(jobRepository.save(any(PromptJob.class))).thenAnswer(invocation -> {
+            PromptJob job = invocation.getArgument(0);
+            if (job.getResults() == null) {
+                job.setResults(new ArrayList<>());
+            }
+            return job;
+        });
+        when(claudeApiClient.streamImagePrompt(anyString(), eq(ArtStyle.PIXAR), isNull(), any(), isNull(), any()))
+                .thenAnswer(invocation -> {
+                    Consumer<String> onText = invocation.getArgument(5);
+                    onText.accept("A Pixar ");
+                    onText.accept("scene");
+                    return completion("A Pixar scene");
+                });
+        Map<Integer, StringBuilder> streamed = new ConcurrentHashMap<>();
+
+        PromptResponse response = service.createPromptJob(request, null, (segmentNumber, fragment) ->
+                streamed.computeIfAbsent(segmentNumber, n -> new StringBuilder()).append(fragment));
+
+        assertThat(response.getStatus()).isEqualTo("COMPLETED");
+        assertThat(response.getResults()).extracting(PromptResultResponse::getGeneratedPrompt).containsOnly("A Pixar scene");
+        assertThat(streamed).containsOnlyKeys(1, 3);
+        assertThat(streamed.get(3)).hasToString("A Pixar scene");
+        assertThat(meterRegistry.get("videogen.claude.first.token").tags("style", "PIXAR", "mode", "stream").timer().count())
+                .isEqualTo(2);
+        verify(claudeApiClient, never()).generateImagePrompt(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void createPromptJob_timeoutSeconds_shouldBoundEachCallByTheTimeLeft() {
+        PromptRequest request = PromptRequest.builder()
+                .segments(List.of("A hero walks."))
+                .style("PIXAR")
+                .timeoutSeconds(30.0)
+                .build();
+        when(jobRepository.save(any(PromptJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(claudeApiClient.generateImagePrompt(anyString(), eq(ArtStyle.PIXAR), isNull(), any(),
+                argThat(timeout -> timeout != null && timeout.compareTo(Duration.ofSeconds(30)) <= 0)))
+                .thenReturn(completion("A Pixar scene..."));
+
+        PromptResponse response = service.createPromptJob(request, Instant.now().plusSeconds(60));
+
+        assertThat(response.getStatus()).isEqualTo("COMPLETED");
+        assertThat(response.getDeadline()).isBefore(LocalDateTime.now().plusSeconds(31));
+    }
+
+    @Test
+    void createPromptJob_deadlineTooClose_shouldSkipEverySegmentWithoutCallingClaude() {
+        PromptRequest request = PromptRequest.builder()
+                .segments(List.of("A hero walks.", "A villain appears."))
+                .style("PIXAR")
+                .build();
+        when(jobRepository.save(any(PromptJob.class))).thenAnswer(invocation -> {
+            PromptJob job = invocation.getArgument(0);
+            if (job.getResults() == null) {
+                job.setResults(new ArrayList<>());
+            }
+            return job;
+        });
+
+        // Less than the default one-second min-call-time is left
+        PromptResponse response = service.createPromptJob(request, Instant.now().plusMillis(300));
+
+        assertThat(response.getStatus()).isEqualTo("PARTIAL");
+        assertThat(response.getDeadline()).isNotNull();
+        assertThat(response.getResults()).extracting(PromptResultResponse::getGeneratedPrompt).containsOnlyNulls();
+        assertThat(meterRegistry.get("videogen.prompt.results.skipped").tags("style", "PIXAR").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("videogen.prompt.segments.queued").gauge().value()).isZero();
+        verifyNoInteractions(claudeApiClient);
+    }
+
+    @Test
+    void createPromptJob_callStillRunningAtDeadline_shouldEndPartialWithTheFinishedPrompts() {
+        PromptRequest request = PromptRequest.builder()
+                .segments(List.of("A hero walks.", "A villain appears."))
+                .style("PIXAR")
+                .build();
+        when(jobRepository.save(any(PromptJob.class))).thenAnswer(invocation -> {
+            PromptJob job = invocation.getArgument(0);
+            if (job.getResults() == null) {
+                job.setResults(new ArrayList<>());
+            }
+            return job;
+        });
+        when(claudeApiClient.generateImagePrompt(eq("A hero walks."), eq(ArtStyle.PIXAR), isNull(), any(), any()))
+                .thenReturn(completion("A Pixar hero..."));
+        when(claudeApiClient.generateImagePrompt(eq("A villain appears."), eq(ArtStyle.PIXAR), isNull(), any(), any()))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(3000);
+                    return completion("Too late");
+                });
+
+        PromptResponse response = service.createPromptJob(request, Instant.now().plusMillis(1500));
+
+        assertThat(response.getStatus()).isEqualTo("PARTIAL");
+        assertThat(response.getResults()).extracting(PromptResultResponse::getGeneratedPrompt)
+                .containsExactly("A Pixar hero...", null);
+        assertThat(meterRegistry.get("videogen.prompt.results.generated").tags("style", "PIXAR").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("videogen.prompt.results.skipped").tags("style", "PIXAR").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void createPromptJob_invalidPriority_shouldThrowIllegalArgumentException() {
+        PromptRequest request = PromptRequest.builder()
+                .segments(List.of("A hero walks."))
+                .style("PIXAR")
+                .priority("urgent")
+                .build();
+
+        assertThatThrownBy(() -> service.createPromptJob(request, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid job priority");
+        verifyNoInteractions(jobRepository, claudeApiClient);
+    }
+
+    @Test
+    void createPromptJob_withoutReuseThreshold_shouldNotLookUpSimilarSegments() {
+        PromptRequest request = PromptRequest.builder()
+                .segments(List.of("A hero walks."))
+                .style("PIXAR")
+                .build();
+
+        when(jobRepository.save(any(PromptJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(claudeApiClient.generateImagePrompt(anyString(), eq(ArtStyle.PIXAR), isNull(), any(), isNull()))
+                .thenReturn(completion("A Pixar scene..."));
+
+        service.createPromptJob(request, null);
+
+        verify(reuseService, never()).findSimilar(any(), any(), any(), anyDouble());
+    }
+
+    @Test
+    void createPromptJob_shouldAccountTokenUsagePerCallAndJob() {
+        PromptRequest request = PromptRequest.builder()
+                .segments(List.of("A hero walks.", "A villain appears.", "A hero walks."))
+                .style("PIXAR")
+                .build();
+
+        when(jobRepository.save(any(PromptJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(claudeApiClient.generateImagePrompt(anyString(), eq(ArtStyle.PIXAR), isNull(), any(), isNull()))
+                .thenReturn(completion("A Pixar scene..."));
+
+        PromptResponse response = service.createPromptJob(request, null);
+
+        // 100 * 3 + 200 * 15 + 10 * 3.75 + 1000 * 0.30 = 3637.5 per million tokens
+        assertThat(response.getResults().get(0).getEstimatedCostUsd()).isEqualByComparingTo("0.003638");
+        assertThat(response.getResults().get(0).getModel()).isEqualTo(MODEL);
+        assertThat(response.getResults().get(2).getInputTokens()).isNull();
+        assertThat(response.getTotalInputTokens()).isEqualTo(200L);
+        assertThat(response.getTotalOutputTokens()).isEqualTo(400L);
+        assertThat(response.getTotalCacheReadInputTokens()).isEqualTo(2000L);
+        assertThat(response.getEstimatedCostUsd()).isEqualByComparingTo("0.007276");
+        assertThat(meterRegistry.get("videogen.claude.tokens")
+                .tags("type", "output", "style", "PIXAR", "model", MODEL).counter().count()).isEqualTo(400.0);
+    }
+
+    @Test
+    void startPromptJob_shouldOpenProcessingJobWithoutSegments() {
+        when(jobRepository.saveAndFlush(any(PromptJob.class))).thenAnswer(invocation -> {
+            PromptJob job = invocation.getArgument(0);
+            job.setId(7L);
+            return job;
+        });
+
+        PromptResponse response = service.startPromptJob("anime", null);
+
+        assertThat(response.getId()).isEqualTo(7L);
+        assertThat(response.getStatus()).isEqualTo("PROCESSING");
+        assertThat(response.getSegmentCount()).isZero();
+        verify(jobRepository).saveAndFlush(argThat(PromptJob::isStreamed));
+        verifyNoInteractions(claudeApiClient);
+    }
+
+    @Test
+    void startPromptJob_customWithoutDescription_shouldThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> service.startPromptJob("CUSTOM", " "))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("customStyleDescription");
+
+        verifyNoInteractions(jobRepository);
+    }
+
+    @Test
+    void appendSegment_shouldNumberSegmentAndAccountUsage() {
+        PromptJob job = openJob(2);
+        when(jobRepository.findById(7L)).thenReturn(Optional.of(job));
+        when(claudeApiClient.generateImagePrompt(eq("A hero walks."), eq(ArtStyle.ANIME), isNull(), eq(JobPriority.NORMAL),
+                any(Duration.class)))
+                .thenReturn(completion("An anime hero..."));
+        when(resultRepository.save(any(PromptResult.class))).thenAnswer(invocation -> {
+            PromptResult result = invocation.getArgument(0);
+            result.setId(30L);
+            return result;
+        });
+
+        PromptResultResponse response = service.appendSegment(7L, "A hero walks.");
+
+        assertThat(response.getId()).isEqualTo(30L);
+        assertThat(response.getSegmentNumber()).isEqualTo(3);
+        assertThat(response.getGeneratedPrompt()).isEqualTo("An anime hero...");
+        assertThat(job.getSegmentCount()).isEqualTo(3);
+        assertThat(job.getTotalOutputTokens()).isEqualTo(200L);
+        verify(jobRepository).save(job);
+    }
+
+    @Test
+    void appendSegment_claudeApiFailure_shouldStoreResultWithoutPrompt() {
+        when(jobRepository.findById(7L)).thenReturn(Optional.of(openJob(0)));
+        when(claudeApiClient.generateImagePrompt(anyString(), eq(ArtStyle.ANIME), isNull(), any(), any()))
+                .thenThrow(new RuntimeException("API connection failed"));
+        when(resultRepository.save(any(PromptResult.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        PromptResultResponse response = service.appendSegment(7L, "A hero walks.");
+
+        assertThat(response.getGeneratedPrompt()).isNull();
+        assertThat(meterRegistry.get("videogen.prompt.results.failed").tags("style", "ANIME").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void appendSegment_callOutlastsTimeout_shouldStoreResultWithoutPrompt() throws Exception {
+        schedulerProperties.setStreamedSegmentTimeout(Duration.ofMillis(1500));
+        CountDownLatch release = new CountDownLatch(1);
+        when(jobRepository.findById(7L)).thenReturn(Optional.of(openJob(0)));
+        when(claudeApiClient.generateImagePrompt(anyString(), eq(ArtStyle.ANIME), isNull(), any(), any()))
+                .thenAnswer(invocation -> {
+                    release.await();
+                    return completion("Too late");
+                });
+        when(resultRepository.save(any(PromptResult.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        PromptResultResponse response = service.appendSegment(7L, "A hero walks.");
+        release.countDown();
+
+        assertThat(response.getGeneratedPrompt()).isNull();
+        assertThat(response.getSegmentNumber()).isEqualTo(1);
+    }
+
+    @Test
+    void appendSegment_finishedJob_shouldThrowIllegalArgumentException() {
+        PromptJob job = openJob(1);
+        job.setStatus(JobStatus.COMPLETED);
+        when(jobRepository.findById(7L)).thenReturn(Optional.of(job));
+
+        assertThatThrownBy(() -> service.appendSegment(7L, "A hero walks."))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("no longer accepts segments");
+
+        verifyNoInteractions(claudeApiClient);
+    }
+
+    @Test
+    void finishPromptJob_withFailedSegment_shouldSetJobFailed() {
+        when(jobRepository.findById(7L)).thenReturn(Optional.of(openJob(2)));
+        when(resultRepository.countByJobIdAndGeneratedPromptIsNull(7L)).thenReturn(1L);
+        when(jobRepository.saveAndFlush(any(PromptJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        PromptResponse response = service.finishPromptJob(7L, false);
+
+        assertThat(response.getStatus()).isEqualTo("FAILED");
+    }
+
+    @Test
+    void finishPromptJob_allSegmentsGenerated_shouldSetJobCompleted() {
+        when(jobRepository.findById(7L)).thenReturn(Optional.of(openJob(2)));
+        when(resultRepository.countByJobIdAndGeneratedPromptIsNull(7L)).thenReturn(0L);
+        when(jobRepository.saveAndFlush(any(PromptJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        PromptResponse response = service.finishPromptJob(7L, false);
+
+        assertThat(response.getStatus()).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void getCostSummary_fromAfterTo_shouldThrowIllegalArgumentException() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThatThrownBy(() -> service.getCostSummary(now, now.minusDays(1)))
+                .isInstanceOf(IllegalArgumentException.class);
     }
 
     @Test
@@ -189,7 +759,7 @@ class PromptGenerationServiceTest {
 
         when(jobRepository.findById(1L)).thenReturn(Optional.of(job));
 
-        PromptResponse response = service.getPromptJob(1L);
+        PromptResponse response = service.getPromptJob(1L, PromptView.FULL);
 
         assertThat(response.getId()).isEqualTo(1L);
         assertThat(response.getStyle()).isEqualTo("CINEMATIC");
@@ -199,20 +769,109 @@ class PromptGenerationServiceTest {
     void getPromptJob_nonExistingId_shouldThrowResourceNotFoundException() {
         when(jobRepository.findById(99L)).thenReturn(Optional.empty());
 
-        assertThatThrownBy(() -> service.getPromptJob(99L))
+        assertThatThrownBy(() -> service.getPromptJob(99L, PromptView.FULL))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void listPromptJobs_morePagesAvailable_shouldReturnNextCursor() {
+        when(jobRepository.findSummaries(isNull(), eq(JobStatus.COMPLETED), isNull(), isNull(), isNull(), eq(Limit.of(3))))
+                .thenReturn(List.of(summary(9L), summary(7L), summary(4L)));
+
+        CursorPageResponse<PromptJobSummaryResponse> page = service.listPromptJobs(
+                PromptJobFilter.builder().status("completed").limit(2).build());
+
+        assertThat(page.getItems()).extracting(PromptJobSummaryResponse::getId).containsExactly(9L, 7L);
+        assertThat(page.getNextCursor()).isEqualTo(7L);
+    }
+
+    @Test
+    void listPromptJobs_lastPage_shouldReturnNullCursor() {
+        when(jobRepository.findSummaries(eq(7L), isNull(), eq(ArtStyle.GHIBLI), isNull(), isNull(), eq(Limit.of(51))))
+                .thenReturn(List.of(summary(4L)));
+
+        CursorPageResponse<PromptJobSummaryResponse> page = service.listPromptJobs(
+                PromptJobFilter.builder().style("GHIBLI").cursor(7L).build());
+
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(page.getLimit()).isEqualTo(50);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void listPromptJobs_invalidStatus_shouldThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> service.listPromptJobs(PromptJobFilter.builder().status("DONE").build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid job status");
+    }
+
+    @Test
+    void listPromptJobs_limitOutOfRange_shouldThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> service.listPromptJobs(PromptJobFilter.builder().limit(0).build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("limit");
+    }
+
+    @Test
+    void getPromptResults_shouldPageAfterSegmentNumber() {
+        PromptJob job = PromptJob.builder().id(1L).style(ArtStyle.CINEMATIC).status(JobStatus.COMPLETED).build();
+        when(jobRepository.existsById(1L)).thenReturn(true);
+        when(resultRepository.findByJobIdOrderBySegmentNumberAsc(1L, 10, Limit.of(3))).thenReturn(List.of(
+                PromptResult.builder().id(11L).job(job).segmentNumber(11).segmentText("a").build(),
+                PromptResult.builder().id(12L).job(job).segmentNumber(12).segmentText("b").build(),
+                PromptResult.builder().id(13L).job(job).segmentNumber(13).segmentText("c").build()));
+
+        CursorPageResponse<PromptResultResponse> page = service.getPromptResults(1L, 10, 2);
+
+        assertThat(page.getItems()).extracting(PromptResultResponse::getSegmentNumber).containsExactly(11, 12);
+        assertThat(page.getNextCursor()).isEqualTo(12L);
+    }
+
+    @Test
+    void getPromptResults_nonExistingJob_shouldThrowResourceNotFoundException() {
+        when(jobRepository.existsById(99L)).thenReturn(false);
+
+        assertThatThrownBy(() -> service.getPromptResults(99L, null, null))
                 .isInstanceOf(ResourceNotFoundException.class);
     }
 
     @Test
-    void getAllPromptJobs_shouldReturnList() {
-        PromptJob job1 = PromptJob.builder().id(1L).style(ArtStyle.CINEMATIC).status(JobStatus.COMPLETED).results(new ArrayList<>()).build();
-        PromptJob job2 = PromptJob.builder().id(2L).style(ArtStyle.GHIBLI).status(JobStatus.COMPLETED).results(new ArrayList<>()).build();
+    void getPromptJob_summaryView_shouldReadHeaderOnly() {
+        when(jobRepository.findHeaderById(1L)).thenReturn(Optional.of(header(1L)));
+
+        PromptResponse response = service.getPromptJob(1L, PromptView.SUMMARY);
+
+        assertThat(response.getStatus()).isEqualTo("COMPLETED");
+        assertThat(response.getDeduplicatedSegmentCount()).isEqualTo(1);
+        assertThat(response.getResults()).isNull();
+        verify(jobRepository, never()).findById(any());
+        verifyNoInteractions(resultRepository);
+    }
 
-        when(jobRepository.findAll()).thenReturn(List.of(job1, job2));
+    @Test
+    void getPromptJob_usageView_shouldReadUsageProjections() {
+        PromptResultUsage usage = mock(PromptResultUsage.class);
+        when(usage.getSegmentNumber()).thenReturn(1);
+        when(usage.getModel()).thenReturn(MODEL);
+        when(jobRepository.findHeaderById(1L)).thenReturn(Optional.of(header(1L)));
+        when(resultRepository.findUsageByJobId(1L)).thenReturn(List.of(usage));
 
-        List<PromptResponse> responses = service.getAllPromptJobs();
+        PromptResponse response = service.getPromptJob(1L, PromptView.USAGE);
 
-        assertThat(responses).hasSize(2);
+        assertThat(response.getResults()).singleElement().satisfies(result -> {
+            assertThat(result.getModel()).isEqualTo(MODEL);
+            assertThat(result.getSegmentText()).isNull();
+            assertThat(result.getGeneratedPrompt()).isNull();
+        });
+        verify(jobRepository, never()).findById(any());
+    }
+
+    @Test
+    void getPromptJob_summaryViewNonExistingId_shouldThrowResourceNotFoundException() {
+        when(jobRepository.findHeaderById(99L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.getPromptJob(99L, PromptView.SUMMARY))
+                .isInstanceOf(ResourceNotFoundException.class);
     }
 
     @Test
@@ -231,4 +890,141 @@ class PromptGenerationServiceTest {
         assertThatThrownBy(() -> service.deletePromptJob(99L))
                 .isInstanceOf(ResourceNotFoundException.class);
     }
+
+    @Test
+    void bulkDeletePromptJobs_ids_shouldDeleteInChunksWithFilters() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 1200; id++) {
+            ids.add(id);
+        }
+        ids.add(1L);
+        when(jobRepository.deleteMatchingByIdIn(any(), eq(List.of(JobStatus.FAILED)), eq(null)))
+                .thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+
+        BulkDeleteResponse response = service.bulkDeletePromptJobs(
+                BulkDeleteRequest.builder().ids(ids).status("failed").build());
+
+        assertThat(response.getDeletedCount()).isEqualTo(1200);
+        assertThat(response.getChunks()).isEqualTo(3);
+        verify(jobRepository, times(3)).deleteMatchingByIdIn(any(), eq(List.of(JobStatus.FAILED)), eq(null));
+        verify(jobRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void bulkDeletePromptJobs_filtersOnly_shouldDeleteUntilNoMatchesRemain() {
+        LocalDateTime cutoff = LocalDateTime.of(2025, 1, 1, 0, 0);
+        when(jobRepository.findIdsMatching(List.of(JobStatus.COMPLETED, JobStatus.FAILED, JobStatus.PARTIAL), cutoff,
+                Limit.of(500)))
+                .thenReturn(List.of(1L, 2L), List.of(3L), List.of());
+        when(jobRepository.deleteAllByIdIn(any()))
+                .thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+
+        BulkDeleteResponse response = service.bulkDeletePromptJobs(
+                BulkDeleteRequest.builder().createdBefore(cutoff).build());
+
+        assertThat(response.getDeletedCount()).isEqualTo(3);
+        assertThat(response.getChunks()).isEqualTo(2);
+        verify(jobRepository).deleteAllByIdIn(List.of(1L, 2L));
+        verify(jobRepository).deleteAllByIdIn(List.of(3L));
+    }
+
+    @Test
+    void bulkDeletePromptJobs_unfinishedStatus_shouldThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> service.bulkDeletePromptJobs(BulkDeleteRequest.builder().status("processing").build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Only finished jobs");
+
+        verifyNoInteractions(jobRepository);
+    }
+
+    @Test
+    void bulkDeletePromptJobs_noCriteria_shouldThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> service.bulkDeletePromptJobs(BulkDeleteRequest.builder().ids(List.of()).build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("at least one of");
+
+        verifyNoInteractions(jobRepository);
+    }
+
+    private static ObservationRegistry observationRegistry(SimpleMeterRegistry meterRegistry) {
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        return registry;
+    }
+
+    private static Object blockUntil(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private static PromptJob openJob(int segmentCount) {
+        return PromptJob.builder()
+                .id(7L)
+                .style(ArtStyle.ANIME)
+                .status(JobStatus.PROCESSING)
+                .segmentCount(segmentCount)
+                .uniqueSegmentCount(segmentCount)
+                .build();
+    }
+
+    private static PromptCompletion completion(String text) {
+        return PromptCompletion.builder()
+                .text(text)
+                .model(MODEL)
+                .inputTokens(100)
+                .outputTokens(200)
+                .cacheCreationInputTokens(10)
+                .cacheReadInputTokens(1000)
+                .build();
+    }
+
+    private static ClaudePricingProperties pricing() {
+        ClaudePricingProperties.ModelPrice price = new ClaudePricingProperties.ModelPrice();
+        price.setInputPerMillion(new BigDecimal("3.00"));
+        price.setOutputPerMillion(new BigDecimal("15.00"));
+        price.setCacheWritePerMillion(new BigDecimal("3.75"));
+        price.setCacheReadPerMillion(new BigDecimal("0.30"));
+        ClaudePricingProperties properties = new ClaudePricingProperties();
+        properties.getModels().put(MODEL, price);
+        return properties;
+    }
+
+    private static PromptJobHeader header(Long id) {
+        return new PromptJobHeader() {
+            public Long getId() { return id; }
+            public ArtStyle getStyle() { return ArtStyle.CINEMATIC; }
+            public JobStatus getStatus() { return JobStatus.COMPLETED; }
+            public JobPriority getPriority() { return JobPriority.NORMAL; }
+            public String getClientId() { return null; }
+            public LocalDateTime getDeadline() { return null; }
+            public Long getVersion() { return 2L; }
+            public Integer getSegmentCount() { return 3; }
+            public Integer getUniqueSegmentCount() { return 2; }
+            public Long getTotalInputTokens() { return 200L; }
+            public Long getTotalOutputTokens() { return 400L; }
+            public Long getTotalCacheCreationInputTokens() { return 0L; }
+            public Long getTotalCacheReadInputTokens() { return 0L; }
+            public BigDecimal getEstimatedCostUsd() { return BigDecimal.ZERO; }
+            public LocalDateTime getCreatedAt() { return null; }
+            public LocalDateTime getUpdatedAt() { return null; }
+        };
+    }
+
+    private static PromptJobSummary summary(Long id) {
+        return new PromptJobSummary() {
+            public Long getId() { return id; }
+            public ArtStyle getStyle() { return ArtStyle.CINEMATIC; }
+            public String getCustomStyleDescription() { return null; }
+            public JobStatus getStatus() { return JobStatus.COMPLETED; }
+            public LocalDateTime getCreatedAt() { return null; }
+            public LocalDateTime getUpdatedAt() { return null; }
+            public Long getResultCount() { return 0L; }
+            public Long getFailedResultCount() { return 0L; }
+            public BigDecimal getEstimatedCostUsd() { return BigDecimal.ZERO; }
+        };
+    }
 }
@@ -0,0 +1,107 @@
+#!/usr/bin/env bash
+# Measures time-to-ready and resident memory of one service in each startup mode:
+#   jar      java -jar on the fat jar
+#   cds      unpacked class path with an AppCDS archive
+#   aot      unpacked class path with Spring AOT initializers
+#   aot-cds  both, as in the Docker image
+#   native   GraalVM binary, only if target/<service> exists (mvn -Pnative native:compile)
+#
+# Usage: scripts/startup-benchmark.sh <prompt-service|segmentation-service> [runs]
+#
+# Every mode runs the local profile (H2), so the AOT build is frozen for "local" here. Images
+# freeze the profile they deploy with instead (AOT_PROFILE build argument).
+set -euo pipefail
+
+SERVICE=${1:?usage: $0 <service-dir> [runs]}
+RUNS=${2:-3}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+DIR="$ROOT/$SERVICE"
+WORK=$(mktemp -d)
+PID=""
+trap '[[ -n "$PID" ]] && kill "$PID" 2>/dev/null; rm -rf "$WORK"' EXIT
+
+case "$SERVICE" in
+  prompt-service) PORT=8081; MAIN=com.videogen.promptgen.PromptServiceApplication ;;
+  segmentation-service) PORT=8080; MAIN=com.videogen.segmentation.SegmentationServiceApplication ;;
+  *) echo "unknown service: $SERVICE" >&2; exit 1 ;;
+esac
+
+if curl -s -o /dev/null "http://localhost:$PORT/"; then
+  echo "port $PORT is already in use; stop the running service first" >&2
+  exit 1
+fi
+
+ARGS=(--spring.profiles.active=local --videogen.tracing.exporter=none)
+CLASSPATH="$WORK/app/application.jar:$WORK/app/lib/*"
+
+echo "Building $SERVICE with AOT for the local profile..." >&2
+(cd "$DIR" && mvn -B -q -Paot -Daot.profile=local package -DskipTests)
+JAR=$(ls "$DIR"/target/"$SERVICE"-*.jar | head -1)
+
+# CDS only archives classes loaded from jar files, so the fat jar is unpacked into plain jars
+mkdir -p "$WORK/unpacked" "$WORK/app"
+(cd "$WORK/unpacked" && jar xf "$JAR")
+mv "$WORK/unpacked/BOOT-INF/lib" "$WORK/app/lib"
+jar cf "$WORK/app/application.jar" -C "$WORK/unpacked/BOOT-INF/classes" .
+
+# Each CDS mode gets its own archive, trained by refreshing the context once in the same mode
+echo "Training the CDS archives..." >&2
+java -XX:ArchiveClassesAtExit="$WORK/app/jit.jsa" -Dspring.context.exit=onRefresh \
+  -cp "$CLASSPATH" "$MAIN" "${ARGS[@]}" > "$WORK/training.log" 2>&1
+java -XX:ArchiveClassesAtExit="$WORK/app/aot.jsa" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+  -cp "$CLASSPATH" "$MAIN" "${ARGS[@]}" >> "$WORK/training.log" 2>&1
+
+command_for() {
+  case "$1" in
+    jar) echo java -jar "$JAR" ;;
+    cds) echo java -XX:SharedArchiveFile="$WORK/app/jit.jsa" -cp "$CLASSPATH" "$MAIN" ;;
+    aot) echo java -Dspring.aot.enabled=true -cp "$CLASSPATH" "$MAIN" ;;
+    aot-cds) echo java -XX:SharedArchiveFile="$WORK/app/aot.jsa" -Dspring.aot.enabled=true \
+               -cp "$CLASSPATH" "$MAIN" ;;
+    native) echo "$DIR/target/$SERVICE" ;;
+  esac
+}
+
+# Prints "<ready ms> <rss MiB> <reported start s>" for one cold start
+measure() {
+  local log="$WORK/run.log" start ready rss reported=""
+  start=$(date +%s%N)
+  # Word splitting is intended: command_for returns a command line without spaces inside arguments
+  # shellcheck disable=SC2046
+  $(command_for "$1") "${ARGS[@]}" > "$log" 2>&1 &
+  PID=$!
+  until curl -fs "http://localhost:$PORT/actuator/health" 2>/dev/null | grep -q '"status":"UP"'; do
+    if ! kill -0 "$PID" 2>/dev/null; then
+      echo "$1 exited before becoming ready; see output below" >&2
+      cat "$log" >&2
+      exit 1
+    fi
+    sleep 0.05
+  done
+  ready=$(( ($(date +%s%N) - start) / 1000000 ))
+  rss=$(( $(ps -o rss= -p "$PID") / 1024 ))
+  # Health can turn UP a moment before Boot logs its own start time
+  for _ in $(seq 1 40); do
+    reported=$(grep -oE 'Started [A-Za-z]+ in [0-9.]+ seconds' "$log" | grep -oE '[0-9.]+' | head -1 || true)
+    [[ -n "$reported" ]] && break
+    sleep 0.05
+  done
+  kill "$PID"
+  wait "$PID" 2>/dev/null || true
+  PID=""
+  echo "$ready $rss ${reported:--}"
+}
+
+MODES=(jar cds aot aot-cds)
+[[ -x "$DIR/target/$SERVICE" ]] && MODES+=(native)
+
+echo "| mode | run | time to ready (ms) | RSS after ready (MiB) | Boot-reported start (s) |"
+echo "|------|-----|--------------------|-----------------------|-------------------------|"
+for mode in "${MODES[@]}"; do
+  for run in $(seq 1 "$RUNS"); do
+    # Runs in this shell, not a subshell, so the exit trap can stop a service that never got ready
+    measure "$mode" > "$WORK/result"
+    read -r ready rss reported < "$WORK/result"
+    echo "| $mode | $run | $ready | $rss | $reported |"
+  done
+done
@@ -1,7 +1,16 @@
 package com.videogen.segmentation.config;
 
+import com.videogen.segmentation.idempotency.IdempotencyProperties;
+import com.videogen.segmentation.ratelimit.RateLimitProperties;
+import com.videogen.segmentation.retention.RetentionProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
+@EnableScheduling
+@ImportRuntimeHints(NativeRuntimeHints.class)
+@EnableConfigurationProperties({RetentionProperties.class, IdempotencyProperties.class, RateLimitProperties.class})
 public class AppConfig {
 }
@@ -0,0 +1,26 @@
+package com.videogen.segmentation.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Lets service-to-service callers exchange binary Smile ({@code application/x-jackson-smile}) instead
+ * of JSON through {@code Accept} / {@code Content-Type}. Boot swaps this bean in for Spring MVC's
+ * default Smile converter in place, behind the JSON converter, so JSON stays the default for
+ * {@code Accept: *}{@code /*}.
+ */
+@Configuration
+public class ContentNegotiationConfig {
+
+    /**
+     * Built from Boot's Jackson builder so Smile carries the same modules, date handling and view
+     * settings as JSON.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,20 @@
+package com.videogen.segmentation.config;
+
+import com.videogen.segmentation.dto.ScriptResponse;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection hints for the native image that AOT processing cannot derive from bean, controller
+ * and repository signatures. Entities, DTOs returned by controllers and JPA projections are
+ * registered by Spring itself.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Retention archives serialize scripts with Jackson outside any controller
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), ScriptResponse.class);
+    }
+}
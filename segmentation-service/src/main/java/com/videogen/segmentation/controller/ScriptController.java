@@ -1,46 +1,124 @@
 package com.videogen.segmentation.controller;
 
+import com.videogen.segmentation.dto.BulkDeleteRequest;
+import com.videogen.segmentation.dto.BulkDeleteResponse;
 import com.videogen.segmentation.dto.ScriptRequest;
 import com.videogen.segmentation.dto.ScriptResponse;
+import com.videogen.segmentation.dto.ScriptSearchResponse;
+import com.videogen.segmentation.dto.ScriptStatsResponse;
+import com.videogen.segmentation.dto.SearchRebuildResponse;
+import com.videogen.segmentation.dto.ScriptView;
+import com.videogen.segmentation.idempotency.IdempotencyService;
+import com.videogen.segmentation.idempotency.IdempotentResult;
+import com.videogen.segmentation.ratelimit.RateLimiter;
+import com.videogen.segmentation.search.ScriptSearchService;
 import com.videogen.segmentation.service.SegmentationService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/v1/scripts")
 public class ScriptController {
 
+    private static final String CREATE_OPERATION = "create-script";
+
+    /** Words per segment the segmenter aims for, used to charge segment limits before segmenting. */
+    private static final int TARGET_SEGMENT_WORDS = 20;
+
     private final SegmentationService segmentationService;
+    private final IdempotencyService idempotencyService;
+    private final ScriptSearchService searchService;
+    private final RateLimiter rateLimiter;
 
-    public ScriptController(SegmentationService segmentationService) {
+    public ScriptController(SegmentationService segmentationService,
+                            IdempotencyService idempotencyService,
+                            ScriptSearchService searchService,
+                            RateLimiter rateLimiter) {
         this.segmentationService = segmentationService;
+        this.idempotencyService = idempotencyService;
+        this.searchService = searchService;
+        this.rateLimiter = rateLimiter;
     }
 
     @PostMapping
-    public ResponseEntity<ScriptResponse> createScript(@Valid @RequestBody ScriptRequest request) {
-        ScriptResponse response = segmentationService.createScript(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    public ResponseEntity<ScriptResponse> createScript(
+            @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody ScriptRequest request,
+            HttpServletRequest httpRequest) {
+        if (idempotencyKey == null) {
+            rateLimiter.checkSegments(httpRequest, estimatedSegments(request.getRawText()));
+            ScriptResponse response = segmentationService.createScript(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        }
+        // Segments are charged only when the script is created, not when a retry replays it
+        IdempotentResult<ScriptResponse> result = idempotencyService.execute(CREATE_OPERATION, idempotencyKey, request,
+                () -> {
+                    rateLimiter.checkSegments(httpRequest, estimatedSegments(request.getRawText()));
+                    return segmentationService.createScript(request);
+                },
+                ScriptResponse::getId,
+                id -> segmentationService.getScript(id, ScriptView.FULL));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IdempotencyService.REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(result.body());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ScriptResponse> getScript(@PathVariable Long id) {
-        ScriptResponse response = segmentationService.getScript(id);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<MappingJacksonValue> getScript(@PathVariable Long id,
+                                                         @RequestParam(defaultValue = "full") String view,
+                                                         WebRequest webRequest) {
+        ScriptView scriptView = ScriptView.parse(view);
+        // Answer 304 from the version column alone, before rawText and segments are loaded and serialized
+        if (webRequest.checkNotModified(etag(id, segmentationService.getScriptVersion(id), scriptView))) {
+            return null;
+        }
+        ScriptResponse response = segmentationService.getScript(id, scriptView);
+        return ResponseEntity.ok()
+                .eTag(etag(id, response.getVersion(), scriptView))
+                .body(render(response, scriptView));
     }
 
     @GetMapping
-    public ResponseEntity<List<ScriptResponse>> getAllScripts() {
-        List<ScriptResponse> responses = segmentationService.getAllScripts();
-        return ResponseEntity.ok(responses);
+    public ResponseEntity<MappingJacksonValue> getAllScripts(@RequestParam(defaultValue = "full") String view) {
+        ScriptView scriptView = ScriptView.parse(view);
+        List<ScriptResponse> responses = segmentationService.getAllScripts(scriptView);
+        return ResponseEntity.ok(render(responses, scriptView));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<ScriptStatsResponse> getScriptStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(segmentationService.getScriptStats(from, to));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ScriptSearchResponse> searchScripts(@RequestParam(required = false) String q,
+                                                              @RequestParam(required = false) Integer offset,
+                                                              @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(searchService.search(q, offset, limit));
+    }
+
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<SearchRebuildResponse> rebuildSearchIndex() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(searchService.rebuild());
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<ScriptResponse> updateScript(@PathVariable Long id,
-                                                       @Valid @RequestBody ScriptRequest request) {
+                                                       @Valid @RequestBody ScriptRequest request,
+                                                       HttpServletRequest httpRequest) {
+        rateLimiter.checkSegments(httpRequest, estimatedSegments(request.getRawText()));
         ScriptResponse response = segmentationService.updateScript(id, request);
         return ResponseEntity.ok(response);
     }
@@ -50,4 +128,29 @@ public class ScriptController {
         segmentationService.deleteScript(id);
         return ResponseEntity.noContent().build();
     }
+
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<BulkDeleteResponse> bulkDeleteScripts(@Valid @RequestBody BulkDeleteRequest request) {
+        return ResponseEntity.ok(segmentationService.bulkDeleteScripts(request));
+    }
+
+    /**
+     * Weak so that Tomcat still gzips the body: it skips compression for strong ETags, which would
+     * otherwise have to differ per encoding.
+     */
+    private static String etag(Long id, Long version, ScriptView view) {
+        String suffix = view == ScriptView.FULL ? "" : "-" + view.name().toLowerCase(Locale.ROOT);
+        return "W/\"" + id + "-" + version + suffix + "\"";
+    }
+
+    private static int estimatedSegments(String rawText) {
+        int words = rawText.isBlank() ? 0 : rawText.strip().split("\\s+").length;
+        return (words + TARGET_SEGMENT_WORDS - 1) / TARGET_SEGMENT_WORDS;
+    }
+
+    private static MappingJacksonValue render(Object body, ScriptView view) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setSerializationView(view.getJsonView());
+        return value;
+    }
 }
@@ -0,0 +1,58 @@
+package com.videogen.segmentation.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Read-only side of the application's
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: connections flagged
+ * read-only before their first statement, as both JPA and JDBC transaction managers do for
+ * {@code @Transactional(readOnly = true)}, are taken from a healthy replica, or from the primary
+ * when no replica is healthy.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final ReadReplicas replicas;
+    private final Map<String, Counter> reads = new HashMap<>();
+    private final Counter fallbacks;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, ReadReplicas replicas, MeterRegistry meterRegistry) {
+        this.replicas = replicas;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (ReadReplicas.Replica replica : replicas.all()) {
+            targets.put(replica.getName(), replica.getDataSource());
+            reads.put(replica.getName(), readCounter(meterRegistry, replica.getName()));
+        }
+        this.fallbacks = readCounter(meterRegistry, PRIMARY);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        ReadReplicas.Replica replica = replicas.nextHealthy();
+        if (replica == null) {
+            fallbacks.increment();
+            return PRIMARY;
+        }
+        reads.get(replica.getName()).increment();
+        return replica.getName();
+    }
+
+    private static Counter readCounter(MeterRegistry registry, String target) {
+        return Counter.builder("videogen.datasource.reads")
+                .description("Read-only connections by the pool serving them; primary means no replica was healthy")
+                .tag("target", target)
+                .register(registry);
+    }
+}
@@ -0,0 +1,86 @@
+package com.videogen.segmentation.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Periodically validates each replica and reads its replication lag. A replica that cannot be
+ * reached, reports no lag (replication stopped) or lags more than {@code max-lag} leaves the
+ * rotation until a later check passes; reads fall back to the primary meanwhile.
+ */
+@Component
+public class ReplicaHealthMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaHealthMonitor.class);
+
+    private final ReadReplicas replicas;
+    private final ReplicaRoutingProperties properties;
+
+    public ReplicaHealthMonitor(ReadReplicas replicas, ReplicaRoutingProperties properties, MeterRegistry meterRegistry) {
+        this.replicas = replicas;
+        this.properties = properties;
+        for (ReadReplicas.Replica replica : replicas.all()) {
+            Gauge.builder("videogen.datasource.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                    .description("Whether the replica is taking read-only transactions")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+            Gauge.builder("videogen.datasource.replica.lag", replica, ReadReplicas.Replica::getLagSeconds)
+                    .description("Replication lag reported by the last health check")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${videogen.datasource.routing.check-interval:PT5S}")
+    public void check() {
+        for (ReadReplicas.Replica replica : replicas.all()) {
+            double lag = probe(replica);
+            boolean healthy = !Double.isNaN(lag) && lag <= properties.getMaxLag().toMillis() / 1000.0;
+            if (healthy != replica.isHealthy()) {
+                if (healthy) {
+                    log.info("Replica {} back in rotation (lag {}s)", replica.getName(), lag);
+                } else {
+                    log.warn("Replica {} out of rotation (lag {}s, max {}s); reads fall back to the primary",
+                            replica.getName(), lag, properties.getMaxLag().toSeconds());
+                }
+            }
+            replica.update(healthy, lag);
+        }
+    }
+
+    /**
+     * @return lag in seconds, zero when no lag query is configured, NaN when the replica is unusable
+     */
+    private double probe(ReadReplicas.Replica replica) {
+        try (Connection connection = replica.getPool().getConnection()) {
+            if (!connection.isValid((int) Math.max(1, properties.getValidationTimeout().toSeconds()))) {
+                return Double.NaN;
+            }
+            if (properties.getLagQuery() == null || properties.getLagQuery().isBlank()) {
+                return 0;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(properties.getLagQuery())) {
+                if (!rs.next()) {
+                    return Double.NaN;
+                }
+                double lag = properties.getLagColumn() == null
+                        ? rs.getDouble(1) : rs.getDouble(properties.getLagColumn());
+                return rs.wasNull() ? Double.NaN : lag;
+            }
+        } catch (SQLException e) {
+            log.debug("Health check of replica {} failed", replica.getName(), e);
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.videogen.segmentation.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Criteria for a bulk delete. Criteria that are set are combined with AND; at least one is required.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeleteRequest {
+
+    @Size(max = 10000, message = "At most 10000 ids may be deleted per request")
+    private List<@NotNull(message = "Ids must not be null") Long> ids;
+
+    private LocalDateTime createdBefore;
+}
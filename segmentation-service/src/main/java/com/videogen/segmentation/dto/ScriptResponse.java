@@ -1,6 +1,9 @@
 package com.videogen.segmentation.dto;
 
+import com.fasterxml.jackson.annotation.JsonView;
 import com.videogen.segmentation.model.NarrationScript;
+import com.videogen.segmentation.repository.ScriptHeader;
+import com.videogen.segmentation.repository.SegmentTiming;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,11 +19,25 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class ScriptResponse {
 
+    @JsonView(ScriptView.Summary.class)
     private Long id;
+    @JsonView(ScriptView.Summary.class)
     private String title;
+    @JsonView(ScriptView.Full.class)
     private String rawText;
+    @JsonView(ScriptView.Summary.class)
+    private Long version;
+    @JsonView(ScriptView.Summary.class)
+    private Integer segmentCount;
+    @JsonView(ScriptView.Summary.class)
+    private Integer totalWords;
+    @JsonView(ScriptView.Summary.class)
+    private Double totalDurationSeconds;
+    @JsonView(ScriptView.Summary.class)
     private LocalDateTime createdAt;
+    @JsonView(ScriptView.Summary.class)
     private LocalDateTime updatedAt;
+    @JsonView(ScriptView.Timing.class)
     private List<SegmentResponse> segments;
 
     public static ScriptResponse fromEntity(NarrationScript script) {
@@ -32,9 +49,32 @@ public class ScriptResponse {
                 .id(script.getId())
                 .title(script.getTitle())
                 .rawText(script.getRawText())
+                .version(script.getVersion())
+                .segmentCount(script.getSegmentCount())
+                .totalWords(script.getTotalWords())
+                .totalDurationSeconds(script.getTotalDurationSeconds())
                 .createdAt(script.getCreatedAt())
                 .updatedAt(script.getUpdatedAt())
                 .segments(segmentResponses)
                 .build();
     }
+
+    /**
+     * Builds a response from a header projection; {@code timings} is null for the summary view.
+     */
+    public static ScriptResponse fromHeader(ScriptHeader header, List<SegmentTiming> timings) {
+        return ScriptResponse.builder()
+                .id(header.getId())
+                .title(header.getTitle())
+                .version(header.getVersion())
+                .segmentCount(header.getSegmentCount())
+                .totalWords(header.getTotalWords())
+                .totalDurationSeconds(header.getTotalDurationSeconds())
+                .createdAt(header.getCreatedAt())
+                .updatedAt(header.getUpdatedAt())
+                .segments(timings != null
+                        ? timings.stream().map(SegmentResponse::fromTiming).collect(Collectors.toList())
+                        : null)
+                .build();
+    }
 }
@@ -0,0 +1,38 @@
+package com.videogen.segmentation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScriptSearchResponse {
+
+    private String query;
+    private int offset;
+    private int limit;
+
+    /** Matching segments; a lower bound when {@code totalHitsExact} is false. */
+    private long totalHits;
+    private boolean totalHitsExact;
+
+    /** Best-scoring segments first. */
+    private List<Hit> hits;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Hit {
+
+        private Long scriptId;
+        private String title;
+        private Integer segmentNumber;
+        private Float score;
+    }
+}
@@ -0,0 +1,38 @@
+package com.videogen.segmentation.dto;
+
+import com.videogen.segmentation.repository.ScriptTotals;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScriptStatsResponse {
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private long scriptCount;
+    private long segmentCount;
+    private long totalWords;
+    private double totalDurationSeconds;
+    private double averageDurationSeconds;
+
+    public static ScriptStatsResponse of(LocalDateTime from, LocalDateTime to, ScriptTotals totals) {
+        long scripts = totals.getScriptCount();
+        double duration = totals.getTotalDurationSeconds();
+        return ScriptStatsResponse.builder()
+                .from(from)
+                .to(to)
+                .scriptCount(scripts)
+                .segmentCount(totals.getSegmentCount())
+                .totalWords(totals.getTotalWords())
+                .totalDurationSeconds(duration)
+                .averageDurationSeconds(scripts > 0 ? duration / scripts : 0.0)
+                .build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.videogen.segmentation.dto;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Named representations of a script. Each view selects a Jackson view for serialization and is
+ * served from a projection that reads only the columns it exposes.
+ */
+public enum ScriptView {
+
+    /** Script metadata only; no {@code rawText} and no segments. */
+    SUMMARY(Summary.class),
+    /** Summary plus per-segment numbering, word counts and durations, without segment text. */
+    TIMING(Timing.class),
+    /** Everything, including {@code rawText} and each segment's text. */
+    FULL(Full.class);
+
+    public interface Summary {
+    }
+
+    public interface Timing extends Summary {
+    }
+
+    public interface Full extends Timing {
+    }
+
+    private final Class<?> jsonView;
+
+    ScriptView(Class<?> jsonView) {
+        this.jsonView = jsonView;
+    }
+
+    public Class<?> getJsonView() {
+        return jsonView;
+    }
+
+    public static ScriptView parse(String value) {
+        try {
+            return ScriptView.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid view: " + value
+                    + ". Valid views are: " + Arrays.toString(ScriptView.values()).toLowerCase(Locale.ROOT));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.videogen.segmentation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchRebuildResponse {
+
+    /** False if a rebuild requested earlier was still running, so none was started. */
+    private boolean started;
+
+    /** Segments in the index when the request was accepted. */
+    private long indexedSegments;
+}
@@ -1,6 +1,8 @@
 package com.videogen.segmentation.dto;
 
+import com.fasterxml.jackson.annotation.JsonView;
 import com.videogen.segmentation.model.ScriptSegment;
+import com.videogen.segmentation.repository.SegmentTiming;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,10 +14,15 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class SegmentResponse {
 
+    @JsonView(ScriptView.Timing.class)
     private Long id;
+    @JsonView(ScriptView.Timing.class)
     private Integer segmentNumber;
+    @JsonView(ScriptView.Full.class)
     private String segmentText;
+    @JsonView(ScriptView.Timing.class)
     private Double estimatedDurationSeconds;
+    @JsonView(ScriptView.Timing.class)
     private Integer wordCount;
 
     public static SegmentResponse fromEntity(ScriptSegment segment) {
@@ -27,4 +34,13 @@ public class SegmentResponse {
                 .wordCount(segment.getWordCount())
                 .build();
     }
+
+    public static SegmentResponse fromTiming(SegmentTiming timing) {
+        return SegmentResponse.builder()
+                .id(timing.getId())
+                .segmentNumber(timing.getSegmentNumber())
+                .estimatedDurationSeconds(timing.getEstimatedDurationSeconds())
+                .wordCount(timing.getWordCount())
+                .build();
+    }
 }
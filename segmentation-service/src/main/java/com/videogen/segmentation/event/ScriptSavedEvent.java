@@ -0,0 +1,13 @@
+package com.videogen.segmentation.event;
+
+import java.util.List;
+
+/**
+ * A script was created or re-segmented. Published inside the writing transaction; listeners that
+ * act after commit see exactly the segments that were stored.
+ */
+public record ScriptSavedEvent(Long scriptId, List<Segment> segments) {
+
+    public record Segment(int segmentNumber, String text) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.videogen.segmentation.event;
+
+import java.util.Collection;
+
+/**
+ * A delete statement targeted these scripts. Filtered deletes may have left some of them in
+ * place, so listeners must check which ids are actually gone.
+ */
+public record ScriptsDeletedEvent(Collection<Long> scriptIds) {
+}
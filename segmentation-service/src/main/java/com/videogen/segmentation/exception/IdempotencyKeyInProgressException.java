@@ -0,0 +1,21 @@
+package com.videogen.segmentation.exception;
+
+import java.time.Duration;
+
+/**
+ * The request holding this Idempotency-Key is still running and did not finish while the retry
+ * waited for it.
+ */
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public IdempotencyKeyInProgressException(String key, Duration retryAfter) {
+        super(String.format("A request with Idempotency-Key '%s' is still in progress; retry later", key));
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
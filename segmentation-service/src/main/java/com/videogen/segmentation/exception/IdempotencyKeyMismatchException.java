@@ -0,0 +1,11 @@
+package com.videogen.segmentation.exception;
+
+/**
+ * An Idempotency-Key was reused with a different request body.
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    public IdempotencyKeyMismatchException(String key) {
+        super(String.format("Idempotency-Key '%s' was already used with a different request", key));
+    }
+}
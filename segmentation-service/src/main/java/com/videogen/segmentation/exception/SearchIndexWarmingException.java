@@ -0,0 +1,12 @@
+package com.videogen.segmentation.exception;
+
+/**
+ * The search index is still being built from the database after startup, so results would be
+ * incomplete.
+ */
+public class SearchIndexWarmingException extends RuntimeException {
+
+    public SearchIndexWarmingException() {
+        super("Search index warming up; retry shortly");
+    }
+}
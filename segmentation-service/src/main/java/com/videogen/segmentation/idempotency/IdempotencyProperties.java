@@ -0,0 +1,29 @@
+package com.videogen.segmentation.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "videogen.idempotency")
+public class IdempotencyProperties {
+
+    /** How long a key is remembered after its first use. */
+    private Duration ttl = Duration.ofHours(24);
+
+    /** How long a retry waits for the original request to finish before answering 409. */
+    private Duration inProgressWait = Duration.ofSeconds(30);
+
+    /** How often a waiting retry re-reads the key. */
+    private Duration pollInterval = Duration.ofMillis(250);
+
+    /**
+     * An IN_PROGRESS key older than this is taken to belong to an instance that died mid-request.
+     * Its work was rolled back with it, so the key may be claimed again.
+     */
+    private Duration inProgressLease = Duration.ofMinutes(15);
+
+    /** How often expired keys are deleted. */
+    private Duration purgeInterval = Duration.ofMinutes(10);
+}
@@ -0,0 +1,197 @@
+package com.videogen.segmentation.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.videogen.segmentation.exception.IdempotencyKeyInProgressException;
+import com.videogen.segmentation.exception.IdempotencyKeyMismatchException;
+import com.videogen.segmentation.model.IdempotencyKey;
+import com.videogen.segmentation.model.IdempotencyKeyStatus;
+import com.videogen.segmentation.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs create operations at most once per {@code Idempotency-Key}.
+ *
+ * <p>The first request inserts the key in its own short transaction; the unique constraint on
+ * (operation, key) makes exactly one of any concurrent duplicates win. The winner then runs the
+ * operation and marks the key COMPLETED in the operation's transaction, so the key and the
+ * created resource commit together. Losers wait for that commit and replay the stored resource.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final IdempotencyKeyRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final IdempotencyProperties properties;
+
+    public IdempotencyService(IdempotencyKeyRepository repository,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              IdempotencyProperties properties) {
+        this.repository = repository;
+        // Read-write, so key lookups go to the primary: a lagging replica could miss a fresh claim
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+
+    /**
+     * Runs {@code action} unless an earlier request already used {@code key} for
+     * {@code operation}, in which case that request's resource is returned through
+     * {@code replay}. A duplicate of a request that is still running waits for it for up to
+     * {@code videogen.idempotency.in-progress-wait}.
+     *
+     * @param request    the request body; replaying a key with a different body is rejected
+     * @param resourceId extracts the id of the created resource, stored with the key
+     * @param replay     loads the current representation of a stored resource id
+     * @throws IdempotencyKeyMismatchException   if the key was used with a different body
+     * @throws IdempotencyKeyInProgressException if the original request is still running
+     */
+    public <T> IdempotentResult<T> execute(String operation, String key, Object request,
+                                           Supplier<T> action,
+                                           Function<T, Long> resourceId,
+                                           Function<Long, T> replay) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = hash(request);
+        long deadline = System.nanoTime() + properties.getInProgressWait().toNanos();
+
+        while (true) {
+            IdempotencyKey existing = transactionTemplate.execute(status ->
+                    repository.findByOperationAndIdempotencyKey(operation, key).orElse(null));
+            if (existing == null) {
+                IdempotencyKey claimed = claim(operation, key, requestHash);
+                if (claimed != null) {
+                    T body = run(claimed, action, resourceId);
+                    count(operation, "executed");
+                    return new IdempotentResult<>(body, false);
+                }
+                // Lost the race to a concurrent duplicate; read its claim
+                continue;
+            }
+            if (!existing.getRequestHash().equals(requestHash)) {
+                count(operation, "mismatch");
+                throw new IdempotencyKeyMismatchException(key);
+            }
+            if (isStale(existing)) {
+                log.warn("Reclaiming stale idempotency key {} for {} created at {}",
+                        key, operation, existing.getCreatedAt());
+                release(existing.getId());
+                continue;
+            }
+            if (existing.getStatus() == IdempotencyKeyStatus.COMPLETED) {
+                count(operation, "replayed");
+                return new IdempotentResult<>(replay.apply(existing.getResourceId()), true);
+            }
+            if (System.nanoTime() >= deadline) {
+                count(operation, "in_progress");
+                throw new IdempotencyKeyInProgressException(key, RETRY_AFTER);
+            }
+            try {
+                Thread.sleep(properties.getPollInterval().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdempotencyKeyInProgressException(key, RETRY_AFTER);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${videogen.idempotency.purge-interval:PT10M}")
+    public void purgeExpired() {
+        Integer purged = transactionTemplate.execute(status -> repository.deleteExpired(LocalDateTime.now()));
+        if (purged != null && purged > 0) {
+            log.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    /**
+     * Inserts the key, or returns null when another request already holds it.
+     */
+    private IdempotencyKey claim(String operation, String key, String requestHash) {
+        try {
+            return transactionTemplate.execute(status -> repository.saveAndFlush(IdempotencyKey.builder()
+                    .operation(operation)
+                    .idempotencyKey(key)
+                    .requestHash(requestHash)
+                    .status(IdempotencyKeyStatus.IN_PROGRESS)
+                    .expiresAt(LocalDateTime.now().plus(properties.getTtl()))
+                    .build()));
+        } catch (DataIntegrityViolationException e) {
+            return null;
+        }
+    }
+
+    private <T> T run(IdempotencyKey claimed, Supplier<T> action, Function<T, Long> resourceId) {
+        try {
+            return transactionTemplate.execute(status -> {
+                T body = action.get();
+                repository.markCompleted(claimed.getId(), resourceId.apply(body));
+                return body;
+            });
+        } catch (RuntimeException e) {
+            // Nothing was committed, so a corrected or later retry may use the key again
+            release(claimed.getId());
+            throw e;
+        }
+    }
+
+    private void release(Long id) {
+        transactionTemplate.executeWithoutResult(status -> repository.deleteById(id));
+    }
+
+    private boolean isStale(IdempotencyKey key) {
+        LocalDateTime now = LocalDateTime.now();
+        if (key.getExpiresAt().isBefore(now)) {
+            return true;
+        }
+        return key.getStatus() == IdempotencyKeyStatus.IN_PROGRESS
+                && key.getCreatedAt().isBefore(now.minus(properties.getInProgressLease()));
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash request for idempotency check", e);
+        }
+    }
+
+    private void count(String operation, String outcome) {
+        Counter.builder("videogen.idempotency.requests")
+                .description("Create requests carrying an Idempotency-Key, by outcome")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
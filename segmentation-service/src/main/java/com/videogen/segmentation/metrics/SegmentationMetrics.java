@@ -0,0 +1,72 @@
+package com.videogen.segmentation.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Segmentation meters and spans. Timed sections are Observations, so each one yields a
+ * timer and, when tracing is on, a span. Names share the {@code videogen.} prefix with
+ * prompt-service so the percentile/histogram settings in application.yml apply to both.
+ */
+@Component
+public class SegmentationMetrics {
+
+    private final ObservationRegistry observationRegistry;
+    private final Counter segmentsProduced;
+    private final AtomicInteger scriptsInFlight = new AtomicInteger();
+
+    public SegmentationMetrics(MeterRegistry registry, ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+        this.segmentsProduced = Counter.builder("videogen.segmentation.segments.produced")
+                .description("Segments produced by segmentation")
+                .baseUnit("segments")
+                .register(registry);
+        Gauge.builder("videogen.segmentation.scripts.in.flight", scriptsInFlight, AtomicInteger::get)
+                .description("Script create/update requests currently being processed")
+                .register(registry);
+    }
+
+    public <T> T timeSegmentText(int textLength, Supplier<T> segmentation) {
+        return Observation.createNotStarted("videogen.segmentation.segment.text", observationRegistry)
+                .contextualName("segment-text")
+                .highCardinalityKeyValue("text.length", String.valueOf(textLength))
+                .observe(segmentation);
+    }
+
+    public void segmentsProduced(int count) {
+        segmentsProduced.increment(count);
+    }
+
+    /**
+     * Observes a script write, tagged with the operation and whether it threw.
+     */
+    public <T> T timeScriptWrite(String operation, Long scriptId, Supplier<T> write) {
+        scriptsInFlight.incrementAndGet();
+        Observation observation = Observation.createNotStarted("videogen.segmentation.script.write", observationRegistry)
+                .contextualName(operation + "-script")
+                .lowCardinalityKeyValue("operation", operation)
+                .start();
+        if (scriptId != null) {
+            observation.highCardinalityKeyValue("script.id", String.valueOf(scriptId));
+        }
+        try (Observation.Scope scope = observation.openScope()) {
+            T result = write.get();
+            observation.lowCardinalityKeyValue("outcome", "success");
+            return result;
+        } catch (RuntimeException e) {
+            observation.lowCardinalityKeyValue("outcome", "error");
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+            scriptsInFlight.decrementAndGet();
+        }
+    }
+}
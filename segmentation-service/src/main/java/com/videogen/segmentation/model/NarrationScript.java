@@ -5,13 +5,22 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "narration_scripts")
+@Table(name = "narration_scripts",
+        indexes = {
+                @Index(name = "idx_narration_scripts_stats",
+                        columnList = "created_at, segment_count, total_words, total_duration_seconds"),
+                @Index(name = "idx_narration_scripts_updated_at", columnList = "updated_at")
+        })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "narration-scripts")
 @Data
 @Builder
 @NoArgsConstructor
@@ -28,13 +37,38 @@ public class NarrationScript {
     @Column(name = "raw_text", nullable = false, columnDefinition = "TEXT")
     private String rawText;
 
+    /**
+     * Bumped on every update of this row; backs the script's ETag. Segments are derived from
+     * {@code rawText}, so they cannot change without bumping it.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    /** Totals over {@link #segments}, kept in step by {@link #summarizeSegments()}. */
+    @Column(name = "segment_count", nullable = false)
+    @Builder.Default
+    private Integer segmentCount = 0;
+
+    @Column(name = "total_words", nullable = false)
+    @Builder.Default
+    private Integer totalWords = 0;
+
+    @Column(name = "total_duration_seconds", nullable = false)
+    @Builder.Default
+    private Double totalDurationSeconds = 0.0;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    /**
+     * Cached as the list of segment ids; the segments themselves come from their own region.
+     */
     @OneToMany(mappedBy = "script", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "narration-script-segments")
     @Builder.Default
     private List<ScriptSegment> segments = new ArrayList<>();
 
@@ -48,4 +82,13 @@ public class NarrationScript {
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
     }
+
+    /**
+     * Recomputes the summary columns from the current segments; call whenever they are replaced.
+     */
+    public void summarizeSegments() {
+        segmentCount = segments.size();
+        totalWords = segments.stream().mapToInt(ScriptSegment::getWordCount).sum();
+        totalDurationSeconds = segments.stream().mapToDouble(ScriptSegment::getEstimatedDurationSeconds).sum();
+    }
 }
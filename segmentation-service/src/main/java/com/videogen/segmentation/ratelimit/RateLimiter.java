@@ -0,0 +1,269 @@
+package com.videogen.segmentation.ratelimit;
+
+import com.videogen.segmentation.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client token buckets for requests per second and script segments per minute.
+ *
+ * <p>Checks only read a volatile snapshot of the limits and compare-and-set the client's bucket,
+ * so they never lock. Limits are per instance: behind N instances a client gets up to N times
+ * them.
+ */
+@Component
+public class RateLimiter {
+
+    public static final String LIMIT_HEADER = "RateLimit-Limit";
+    public static final String REMAINING_HEADER = "RateLimit-Remaining";
+    public static final String RESET_HEADER = "RateLimit-Reset";
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimiter.class);
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private final RateLimitProperties properties;
+    private final Map<String, ClientBuckets> buckets = new ConcurrentHashMap<>();
+    private final Counter requestsRejected;
+    private final Counter segmentsRejected;
+    private volatile Policy policy;
+    private volatile FileTime limitsFileModified;
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.policy = Policy.of(properties);
+        this.requestsRejected = Counter.builder("videogen.ratelimit.rejected")
+                .description("Requests refused with 429 by the per-client rate limits")
+                .tag("limit", "requests")
+                .register(meterRegistry);
+        this.segmentsRejected = Counter.builder("videogen.ratelimit.rejected")
+                .description("Requests refused with 429 by the per-client rate limits")
+                .tag("limit", "segments")
+                .register(meterRegistry);
+        Gauge.builder("videogen.ratelimit.clients", buckets, Map::size)
+                .description("Clients with a partly used rate limit")
+                .register(meterRegistry);
+        reload();
+    }
+
+    /**
+     * Takes one request token and reports the request limit in {@code RateLimit-*} headers; a
+     * refusal reports it through the 429 response instead.
+     *
+     * @throws RateLimitExceededException if the client has no token left
+     */
+    public void checkRequest(HttpServletRequest request, HttpServletResponse response) {
+        Policy current = policy;
+        if (!current.enabled()) {
+            return;
+        }
+        String client = clientOf(request);
+        ClientLimits limits = current.limitsFor(client);
+        if (limits.requests() == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        TokenBucket.Decision decision = bucketsOf(client, now).requests.tryConsume(limits.requests(), 1, now);
+        if (!decision.allowed()) {
+            requestsRejected.increment();
+            throw rejected("requests", decision);
+        }
+        response.setHeader(LIMIT_HEADER, String.valueOf(decision.limit()));
+        response.setHeader(REMAINING_HEADER, String.valueOf(decision.remaining()));
+        response.setHeader(RESET_HEADER, String.valueOf(seconds(decision.resetNanos())));
+    }
+
+    /**
+     * Takes {@code segments} segment tokens for the client of {@code request}.
+     *
+     * @throws RateLimitExceededException if the client has not earned that many yet
+     */
+    public void checkSegments(HttpServletRequest request, int segments) {
+        Policy current = policy;
+        if (!current.enabled() || segments <= 0) {
+            return;
+        }
+        String client = clientOf(request);
+        ClientLimits limits = current.limitsFor(client);
+        if (limits.segments() == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        TokenBucket.Decision decision = bucketsOf(client, now).segments.tryConsume(limits.segments(), segments, now);
+        if (!decision.allowed()) {
+            segmentsRejected.increment();
+            throw rejected("segments", decision);
+        }
+    }
+
+    /**
+     * The value of the first configured client header that names a client listed under
+     * {@code clients}, else the remote address, so made-up header values neither get fresh
+     * buckets nor grow the bucket map.
+     */
+    public String clientOf(HttpServletRequest request) {
+        Policy current = policy;
+        for (String header : properties.getClientHeaders()) {
+            String value = request.getHeader(header);
+            if (value != null && isKnown(current, value.strip())) {
+                return value.strip();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    /**
+     * Re-reads the limits file if it changed and forgets clients whose buckets have refilled.
+     */
+    @Scheduled(initialDelayString = "${videogen.rate-limit.reload-interval:PT15S}",
+            fixedDelayString = "${videogen.rate-limit.reload-interval:PT15S}")
+    public void refresh() {
+        reload();
+        long now = System.nanoTime();
+        buckets.values().removeIf(client -> client.isFull(now));
+    }
+
+    void reload() {
+        Path file = properties.getLimitsFile();
+        if (file == null) {
+            return;
+        }
+        try {
+            FileTime modified = Files.getLastModifiedTime(file);
+            if (modified.equals(limitsFileModified)) {
+                return;
+            }
+            policy = Policy.of(overlay(file));
+            limitsFileModified = modified;
+            log.info("Loaded rate limits from {}", file);
+        } catch (IOException | RuntimeException e) {
+            // Keep enforcing the last good limits
+            log.warn("Could not load rate limits from {}", file, e);
+        }
+    }
+
+    private RateLimitProperties overlay(Path file) throws IOException {
+        Properties entries;
+        String name = file.getFileName().toString();
+        if (name.endsWith(".yml") || name.endsWith(".yaml")) {
+            YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+            yaml.setResources(new FileSystemResource(file));
+            entries = yaml.getObject();
+        } else {
+            entries = PropertiesLoaderUtils.loadProperties(new FileSystemResource(file));
+        }
+        RateLimitProperties merged = new RateLimitProperties();
+        merged.setEnabled(properties.isEnabled());
+        merged.setDefaults(copy(properties.getDefaults()));
+        Map<String, RateLimitProperties.Limits> clients = new HashMap<>();
+        properties.getClients().forEach((client, limits) -> clients.put(client, copy(limits)));
+        merged.setClients(clients);
+        new Binder(new MapConfigurationPropertySource(Objects.requireNonNull(entries)))
+                .bind("videogen.rate-limit", Bindable.ofInstance(merged));
+        return merged;
+    }
+
+    private static boolean isKnown(Policy current, String client) {
+        return current.clients().containsKey(client);
+    }
+
+    private ClientBuckets bucketsOf(String client, long now) {
+        ClientBuckets existing = buckets.get(client);
+        return existing != null ? existing : buckets.computeIfAbsent(client, key -> new ClientBuckets(now));
+    }
+
+    private static RateLimitExceededException rejected(String what, TokenBucket.Decision decision) {
+        return new RateLimitExceededException(what, decision.limit(), Duration.ofNanos(decision.resetNanos()),
+                Duration.ofNanos(decision.retryAfterNanos()));
+    }
+
+    private static long seconds(long nanos) {
+        return (nanos + SECOND - 1) / SECOND;
+    }
+
+    private static RateLimitProperties.Limits copy(RateLimitProperties.Limits limits) {
+        RateLimitProperties.Limits copy = new RateLimitProperties.Limits();
+        copy.setRequestsPerSecond(limits.getRequestsPerSecond());
+        copy.setRequestBurst(limits.getRequestBurst());
+        copy.setSegmentsPerMinute(limits.getSegmentsPerMinute());
+        copy.setSegmentBurst(limits.getSegmentBurst());
+        return copy;
+    }
+
+    private static final class ClientBuckets {
+
+        private final TokenBucket requests;
+        private final TokenBucket segments;
+
+        private ClientBuckets(long now) {
+            this.requests = new TokenBucket(now);
+            this.segments = new TokenBucket(now);
+        }
+
+        private boolean isFull(long now) {
+            return requests.isFull(now) && segments.isFull(now);
+        }
+    }
+
+    /**
+     * A null rate means that limit is off.
+     */
+    private record ClientLimits(TokenBucket.Rate requests, TokenBucket.Rate segments) {
+
+        static ClientLimits of(RateLimitProperties.Limits limits, RateLimitProperties.Limits defaults) {
+            double requestsPerSecond = valueOr(limits.getRequestsPerSecond(), defaults.getRequestsPerSecond());
+            double segmentsPerMinute = valueOr(limits.getSegmentsPerMinute(), defaults.getSegmentsPerMinute());
+            return new ClientLimits(
+                    requestsPerSecond > 0 ? TokenBucket.Rate.of(requestsPerSecond, SECOND,
+                            valueOr(limits.getRequestBurst(), defaults.getRequestBurst())) : null,
+                    segmentsPerMinute > 0 ? TokenBucket.Rate.of(segmentsPerMinute, MINUTE,
+                            valueOr(limits.getSegmentBurst(), defaults.getSegmentBurst())) : null);
+        }
+
+        private static <T> T valueOr(T value, T fallback) {
+            return value != null ? value : fallback;
+        }
+    }
+
+    /**
+     * Immutable snapshot of the configured limits, swapped whole on reload.
+     */
+    private record Policy(boolean enabled, ClientLimits defaults, Map<String, ClientLimits> clients) {
+
+        static Policy of(RateLimitProperties properties) {
+            RateLimitProperties.Limits defaults = properties.getDefaults();
+            Map<String, ClientLimits> clients = new HashMap<>();
+            properties.getClients().forEach((client, limits) -> clients.put(client, ClientLimits.of(limits, defaults)));
+            return new Policy(properties.isEnabled(), ClientLimits.of(defaults, defaults), Map.copyOf(clients));
+        }
+
+        ClientLimits limitsFor(String client) {
+            return clients.getOrDefault(client, defaults);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.videogen.segmentation.repository;
+
+import com.videogen.segmentation.model.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+
+    Optional<IdempotencyKey> findByOperationAndIdempotencyKey(String operation, String idempotencyKey);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            update IdempotencyKey k
+            set k.status = com.videogen.segmentation.model.IdempotencyKeyStatus.COMPLETED, k.resourceId = :resourceId
+            where k.id = :id
+            """)
+    int markCompleted(@Param("id") Long id, @Param("resourceId") Long resourceId);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("delete from IdempotencyKey k where k.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
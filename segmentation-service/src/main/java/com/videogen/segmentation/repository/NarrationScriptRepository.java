@@ -1,9 +1,115 @@
 package com.videogen.segmentation.repository;
 
 import com.videogen.segmentation.model.NarrationScript;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface NarrationScriptRepository extends JpaRepository<NarrationScript, Long> {
+public interface NarrationScriptRepository extends JpaRepository<NarrationScript, Long>, ScriptCacheEviction {
+
+    @Query("""
+            select s.id as id, s.title as title, s.version as version,
+                   s.segmentCount as segmentCount, s.totalWords as totalWords,
+                   s.totalDurationSeconds as totalDurationSeconds,
+                   s.createdAt as createdAt, s.updatedAt as updatedAt
+            from NarrationScript s
+            where s.id = :id
+            """)
+    Optional<ScriptHeader> findHeaderById(@Param("id") Long id);
+
+    @Query("""
+            select s.id as id, s.title as title, s.version as version,
+                   s.segmentCount as segmentCount, s.totalWords as totalWords,
+                   s.totalDurationSeconds as totalDurationSeconds,
+                   s.createdAt as createdAt, s.updatedAt as updatedAt
+            from NarrationScript s
+            order by s.id
+            """)
+    List<ScriptHeader> findAllHeaders();
+
+    @Query("""
+            select s.id as id, s.title as title, s.version as version,
+                   s.segmentCount as segmentCount, s.totalWords as totalWords,
+                   s.totalDurationSeconds as totalDurationSeconds,
+                   s.createdAt as createdAt, s.updatedAt as updatedAt
+            from NarrationScript s
+            where s.id in :ids
+            """)
+    List<ScriptHeader> findHeadersByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select s.id from NarrationScript s where s.id in :ids")
+    List<Long> findExistingIdsIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Keyset page of ids; pass {@code afterId = 0} for the first page.
+     */
+    @Query("select s.id from NarrationScript s where s.id > :afterId order by s.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Keyset page of ids of scripts created or updated at or after {@code since}.
+     */
+    @Query("select s.id from NarrationScript s where s.updatedAt >= :since and s.id > :afterId order by s.id")
+    List<Long> findIdsUpdatedSince(@Param("since") LocalDateTime since, @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Library-wide totals from the per-script summary columns; never touches script_segments.
+     */
+    @Query("""
+            select count(s) as scriptCount,
+                   coalesce(sum(s.segmentCount), 0) as segmentCount,
+                   coalesce(sum(s.totalWords), 0) as totalWords,
+                   coalesce(sum(s.totalDurationSeconds), 0) as totalDurationSeconds
+            from NarrationScript s
+            where (:from is null or s.createdAt >= :from)
+              and (:to is null or s.createdAt < :to)
+            """)
+    ScriptTotals sumTotals(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Reads only the version column so conditional GETs can answer 304 without loading segments.
+     */
+    @Query("select s.version from NarrationScript s where s.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    long countByCreatedAtBefore(LocalDateTime cutoff);
+
+    @Query("select s.id from NarrationScript s where s.createdAt < :cutoff order by s.id")
+    List<Long> findIdsByCreatedAtBefore(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    @Query("select distinct s from NarrationScript s left join fetch s.segments where s.id in :ids order by s.id")
+    List<NarrationScript> findAllWithSegmentsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Set-based delete; segments go with the script through the foreign key's ON DELETE CASCADE.
+     * Pass the scripts and their segment ids to {@link #evictDeletedScripts} once it has committed.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("delete from NarrationScript s where s.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Deletes the given scripts that were also created before {@code createdBefore}, when set, in one statement.
+     * Pass the scripts and their segment ids to {@link #evictDeletedScripts} once it has committed.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            delete from NarrationScript s
+            where s.id in :ids
+              and (:createdBefore is null or s.createdAt < :createdBefore)
+            """)
+    int deleteMatchingByIdIn(@Param("ids") Collection<Long> ids,
+                             @Param("createdBefore") LocalDateTime createdBefore);
 }
@@ -0,0 +1,16 @@
+package com.videogen.segmentation.repository;
+
+import java.util.Collection;
+
+/**
+ * Second-level cache upkeep for deletes that bypass the persistence context.
+ */
+public interface ScriptCacheEviction {
+
+    /**
+     * Drops the cached segment lists of deleted scripts and their segment entities. The segments
+     * removed by ON DELETE CASCADE would otherwise stay cached by id. Read {@code segmentIds} before
+     * the delete, on the primary, and evict once the deleting transaction has committed.
+     */
+    void evictDeletedScripts(Collection<Long> scriptIds, Collection<Long> segmentIds);
+}
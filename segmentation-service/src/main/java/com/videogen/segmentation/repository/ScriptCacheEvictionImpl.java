@@ -0,0 +1,27 @@
+package com.videogen.segmentation.repository;
+
+import com.videogen.segmentation.model.NarrationScript;
+import com.videogen.segmentation.model.ScriptSegment;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+
+import java.util.Collection;
+
+class ScriptCacheEvictionImpl implements ScriptCacheEviction {
+
+    private static final String SEGMENTS_ROLE = NarrationScript.class.getName() + ".segments";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    ScriptCacheEvictionImpl(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void evictDeletedScripts(Collection<Long> scriptIds, Collection<Long> segmentIds) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        scriptIds.forEach(id -> cache.evictCollectionData(SEGMENTS_ROLE, id));
+        segmentIds.forEach(id -> cache.evictEntityData(ScriptSegment.class, id));
+    }
+}
@@ -0,0 +1,25 @@
+package com.videogen.segmentation.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Script columns without {@code raw_text}.
+ */
+public interface ScriptHeader {
+
+    Long getId();
+
+    String getTitle();
+
+    Long getVersion();
+
+    Integer getSegmentCount();
+
+    Integer getTotalWords();
+
+    Double getTotalDurationSeconds();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -2,8 +2,12 @@ package com.videogen.segmentation.repository;
 
 import com.videogen.segmentation.model.ScriptSegment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,4 +16,29 @@ public interface ScriptSegmentRepository extends JpaRepository<ScriptSegment, Lo
     List<ScriptSegment> findByScriptIdOrderBySegmentNumberAsc(Long scriptId);
 
     void deleteByScriptId(Long scriptId);
+
+    @Query("""
+            select g.id as id, g.script.id as scriptId, g.segmentNumber as segmentNumber,
+                   g.estimatedDurationSeconds as estimatedDurationSeconds, g.wordCount as wordCount
+            from ScriptSegment g
+            where g.script.id in :scriptIds
+            order by g.script.id, g.segmentNumber
+            """)
+    List<SegmentTiming> findTimingsByScriptIdIn(@Param("scriptIds") Collection<Long> scriptIds);
+
+    @Query("""
+            select g.script.id as scriptId, g.segmentNumber as segmentNumber, g.segmentText as segmentText
+            from ScriptSegment g
+            where g.script.id in :scriptIds
+            order by g.script.id, g.segmentNumber
+            """)
+    List<SegmentText> findTextsByScriptIdIn(@Param("scriptIds") Collection<Long> scriptIds);
+
+    /**
+     * Ids of the scripts' segments, for cache eviction after the scripts are deleted. Runs in a
+     * read-write transaction so that it reads the primary: a lagging replica could miss new segments.
+     */
+    @Transactional
+    @Query("select g.id from ScriptSegment g where g.script.id in :scriptIds")
+    List<Long> findIdsByScriptIdIn(@Param("scriptIds") Collection<Long> scriptIds);
 }
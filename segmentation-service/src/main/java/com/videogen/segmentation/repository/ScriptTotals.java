@@ -0,0 +1,15 @@
+package com.videogen.segmentation.repository;
+
+/**
+ * Sums of the per-script summary columns for an aggregate statistics query.
+ */
+public interface ScriptTotals {
+
+    Long getScriptCount();
+
+    Long getSegmentCount();
+
+    Long getTotalWords();
+
+    Double getTotalDurationSeconds();
+}
@@ -0,0 +1,14 @@
+package com.videogen.segmentation.repository;
+
+/**
+ * Segment text keyed by script and segment number, for building the search index without loading
+ * entities into the second-level cache.
+ */
+public interface SegmentText {
+
+    Long getScriptId();
+
+    Integer getSegmentNumber();
+
+    String getSegmentText();
+}
@@ -0,0 +1,17 @@
+package com.videogen.segmentation.repository;
+
+/**
+ * Segment columns without {@code segment_text}.
+ */
+public interface SegmentTiming {
+
+    Long getId();
+
+    Long getScriptId();
+
+    Integer getSegmentNumber();
+
+    Double getEstimatedDurationSeconds();
+
+    Integer getWordCount();
+}
@@ -0,0 +1,161 @@
+package com.videogen.segmentation.retention;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.videogen.segmentation.dto.ScriptResponse;
+import com.videogen.segmentation.event.ScriptsDeletedEvent;
+import com.videogen.segmentation.model.NarrationScript;
+import com.videogen.segmentation.model.ScriptSegment;
+import com.videogen.segmentation.repository.NarrationScriptRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archives scripts older than {@code videogen.retention.max-age} to gzip JSONL files and purges
+ * them with set-based deletes, one short transaction per chunk. Segments are removed by the
+ * schema's ON DELETE CASCADE rather than row by row through JPA.
+ */
+@Service
+public class RetentionService {
+
+    private static final Logger log = LoggerFactory.getLogger(RetentionService.class);
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private final NarrationScriptRepository scriptRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final RetentionProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicLong backlog = new AtomicLong();
+    private final Counter archivedScripts;
+    private final Counter archivedBytes;
+    private final Timer chunkTimer;
+
+    public RetentionService(NarrationScriptRepository scriptRepository,
+                            PlatformTransactionManager transactionManager,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            RetentionProperties properties,
+                            ApplicationEventPublisher eventPublisher) {
+        this.scriptRepository = scriptRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper.copy().disable(SerializationFeature.INDENT_OUTPUT);
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.archivedScripts = Counter.builder("videogen.retention.archived")
+                .description("Records archived and purged by retention")
+                .tag("entity", "narration_script")
+                .register(meterRegistry);
+        this.archivedBytes = Counter.builder("videogen.retention.archive.bytes")
+                .description("Compressed bytes written to retention archives")
+                .baseUnit("bytes")
+                .tag("entity", "narration_script")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("videogen.retention.chunk")
+                .description("Time to archive and purge one retention chunk")
+                .tag("entity", "narration_script")
+                .register(meterRegistry);
+        Gauge.builder("videogen.retention.backlog", backlog, AtomicLong::get)
+                .description("Records past the retention age still waiting to be archived")
+                .tag("entity", "narration_script")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${videogen.retention.cron:0 30 3 * * *}")
+    public void runScheduled() {
+        if (properties.isEnabled()) {
+            archiveAndPurge(LocalDateTime.now().minus(properties.getMaxAge()));
+        }
+    }
+
+    /**
+     * Archives and deletes scripts created before {@code cutoff}.
+     *
+     * @return number of scripts archived and deleted
+     */
+    public synchronized int archiveAndPurge(LocalDateTime cutoff) {
+        backlog.set(scriptRepository.countByCreatedAtBefore(cutoff));
+        int total = 0;
+        for (int chunk = 0; chunk < properties.getMaxChunksPerRun(); chunk++) {
+            PurgedChunk purged = chunkTimer.record(() ->
+                    transactionTemplate.execute(status -> archiveChunk(cutoff)));
+            if (purged == null || purged.deleted() == 0) {
+                break;
+            }
+            scriptRepository.evictDeletedScripts(purged.scriptIds(), purged.segmentIds());
+            total += purged.deleted();
+            backlog.addAndGet(-purged.deleted());
+        }
+        if (total > 0) {
+            log.info("Retention archived and purged {} scripts created before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    private PurgedChunk archiveChunk(LocalDateTime cutoff) {
+        List<Long> ids = scriptRepository.findIdsByCreatedAtBefore(cutoff, Limit.of(properties.getChunkSize()));
+        if (ids.isEmpty()) {
+            return new PurgedChunk(0, List.of(), List.of());
+        }
+        List<NarrationScript> scripts = scriptRepository.findAllWithSegmentsByIdIn(ids);
+        // The archive is complete on disk before the rows it holds are deleted
+        writeArchive(scripts, ids.get(0), ids.get(ids.size() - 1));
+        int deleted = scriptRepository.deleteAllByIdIn(ids);
+        eventPublisher.publishEvent(new ScriptsDeletedEvent(ids));
+        archivedScripts.increment(deleted);
+        List<Long> segmentIds = scripts.stream()
+                .flatMap(script -> script.getSegments().stream())
+                .map(ScriptSegment::getId)
+                .toList();
+        return new PurgedChunk(deleted, ids, segmentIds);
+    }
+
+    private void writeArchive(List<NarrationScript> scripts, Long firstId, Long lastId) {
+        try {
+            Files.createDirectories(properties.getArchiveDir());
+            String name = String.format("narration-scripts-%s-%d-%d.jsonl.gz",
+                    LocalDateTime.now().format(FILE_TIMESTAMP), firstId, lastId);
+            Path target = properties.getArchiveDir().resolve(name);
+            Path partial = properties.getArchiveDir().resolve(name + ".partial");
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(partial)), StandardCharsets.UTF_8))) {
+                for (NarrationScript script : scripts) {
+                    writer.write(objectMapper.writeValueAsString(ScriptResponse.fromEntity(script)));
+                    writer.write('\n');
+                }
+            }
+            archivedBytes.increment(Files.size(partial));
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write retention archive", e);
+        }
+    }
+
+    private record PurgedChunk(int deleted, List<Long> scriptIds, List<Long> segmentIds) {
+    }
+}
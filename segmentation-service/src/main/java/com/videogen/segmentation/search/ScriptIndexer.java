@@ -0,0 +1,243 @@
+package com.videogen.segmentation.search;
+
+import com.videogen.segmentation.event.ScriptSavedEvent;
+import com.videogen.segmentation.event.ScriptsDeletedEvent;
+import com.videogen.segmentation.repository.NarrationScriptRepository;
+import com.videogen.segmentation.repository.ScriptSegmentRepository;
+import com.videogen.segmentation.repository.SegmentText;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+
+/**
+ * Keeps {@link ScriptSearchIndex} in step with the database: incrementally from this instance's
+ * write events once they commit, and by a periodic sync over {@code updated_at} that picks up
+ * scripts written through other instances or whose event was lost. A full rebuild runs at startup
+ * when the index is empty, in the background so the instance can take traffic meanwhile; searches
+ * are refused until it finishes (see {@link #isReady()}). Later rebuilds, requested through the
+ * API, also run in the background and keep serving searches from the complete index.
+ */
+@Component
+public class ScriptIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(ScriptIndexer.class);
+
+    /** Re-read window before the last sync, so transactions that committed late are not missed. */
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final ScriptSearchIndex index;
+    private final NarrationScriptRepository scriptRepository;
+    private final ScriptSegmentRepository segmentRepository;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate primaryTransaction;
+    private final SearchProperties properties;
+    private final Timer rebuildTimer;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile LocalDateTime syncedUntil;
+    private volatile boolean ready;
+
+    public ScriptIndexer(ScriptSearchIndex index,
+                         NarrationScriptRepository scriptRepository,
+                         ScriptSegmentRepository segmentRepository,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         SearchProperties properties) {
+        this.index = index;
+        this.scriptRepository = scriptRepository;
+        this.segmentRepository = segmentRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        // Listeners run after the writer's commit while its resources are still bound, so checks
+        // need a transaction of their own; read-write keeps them on the primary
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = properties;
+        this.rebuildTimer = Timer.builder("videogen.search.rebuild")
+                .description("Time to rebuild the script search index from the database")
+                .register(meterRegistry);
+        Gauge.builder("videogen.search.documents", index, ScriptSearchIndex::documentCount)
+                .description("Segments in the script search index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        Thread warmUp = new Thread(this::warmUp, "search-index-warm-up");
+        warmUp.setDaemon(true);
+        warmUp.start();
+    }
+
+    /**
+     * Whether the index holds every script. False from startup until the first rebuild, or the
+     * catch-up sync of an index kept on disk, has finished.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    void warmUp() {
+        try {
+            LocalDateTime lastSync = index.syncedUntil().orElse(null);
+            if (properties.isRebuildOnStartup() || lastSync == null || index.documentCount() == 0) {
+                rebuild();
+            } else {
+                syncedUntil = lastSync;
+                sync();
+                ready = true;
+            }
+        } catch (RuntimeException e) {
+            // Searches stay refused until a rebuild is requested through the API
+            log.error("Could not build the script search index at startup", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScriptSaved(ScriptSavedEvent event) {
+        try {
+            index.index(event.scriptId(), event.segments());
+            index.refresh();
+        } catch (RuntimeException e) {
+            // The write itself committed; the next sync re-reads the script
+            log.warn("Could not index script {}", event.scriptId(), e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScriptsDeleted(ScriptsDeletedEvent event) {
+        try {
+            removeDeleted(event.scriptIds());
+        } catch (RuntimeException e) {
+            // Searches drop hits for missing scripts, so stale documents stay invisible meanwhile
+            log.warn("Could not remove {} deleted scripts from the search index", event.scriptIds().size(), e);
+        }
+    }
+
+    /**
+     * Removes from the index those of {@code scriptIds} that no longer exist. Existence is read
+     * from the primary: a lagging replica could still miss a script created moments ago.
+     */
+    public void removeDeleted(Collection<Long> scriptIds) {
+        if (scriptIds.isEmpty()) {
+            return;
+        }
+        Set<Long> remaining = new HashSet<>(primaryTransaction.execute(status ->
+                scriptRepository.findExistingIdsIn(scriptIds)));
+        List<Long> gone = scriptIds.stream().filter(id -> !remaining.contains(id)).toList();
+        if (!gone.isEmpty()) {
+            index.delete(gone);
+            index.refresh();
+        }
+    }
+
+    /**
+     * Starts {@link #rebuild()} on a thread of its own.
+     *
+     * @return false, starting nothing, if a rebuild started this way is still running
+     */
+    public boolean startRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.error("Could not rebuild the script search index", e);
+            } finally {
+                rebuilding.set(false);
+            }
+        }, "search-index-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    /**
+     * Re-reads every script, one keyset batch per read-only transaction, over the live index; the
+     * documents of scripts it did not find are dropped at the end. Searches keep seeing every
+     * script meanwhile.
+     *
+     * @return number of scripts indexed
+     */
+    public synchronized int rebuild() {
+        return rebuildTimer.record(() -> {
+            LocalDateTime startedAt = LocalDateTime.now();
+            index.startGeneration();
+            int scripts = indexBatches((afterId, limit) -> scriptRepository.findIdsAfter(afterId, limit));
+            index.dropOlderGenerations();
+            syncedUntil = startedAt;
+            index.commit(startedAt);
+            index.refresh();
+            ready = true;
+            log.info("Rebuilt script search index: {} scripts, {} segments", scripts, index.documentCount());
+            return scripts;
+        });
+    }
+
+    /**
+     * Re-indexes scripts created or updated since the last sync and commits the index.
+     */
+    @Scheduled(initialDelayString = "${videogen.search.sync-interval:PT1M}",
+            fixedDelayString = "${videogen.search.sync-interval:PT1M}")
+    public synchronized void sync() {
+        if (syncedUntil == null) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime since = syncedUntil.minus(SYNC_OVERLAP);
+        int scripts = indexBatches((afterId, limit) -> scriptRepository.findIdsUpdatedSince(since, afterId, limit));
+        syncedUntil = startedAt;
+        index.commit(startedAt);
+        index.refresh();
+        if (scripts > 0) {
+            log.debug("Search sync re-indexed {} scripts changed since {}", scripts, since);
+        }
+    }
+
+    private int indexBatches(BiFunction<Long, Limit, List<Long>> nextIds) {
+        int total = 0;
+        long afterId = 0;
+        while (true) {
+            long from = afterId;
+            List<Long> ids = readTransaction.execute(status ->
+                    nextIds.apply(from, Limit.of(properties.getBatchSize())));
+            if (ids == null || ids.isEmpty()) {
+                return total;
+            }
+            List<SegmentText> texts = readTransaction.execute(status -> segmentRepository.findTextsByScriptIdIn(ids));
+            Map<Long, List<ScriptSavedEvent.Segment>> segmentsByScript = new LinkedHashMap<>();
+            ids.forEach(id -> segmentsByScript.put(id, new ArrayList<>()));
+            for (SegmentText text : texts) {
+                segmentsByScript.get(text.getScriptId())
+                        .add(new ScriptSavedEvent.Segment(text.getSegmentNumber(), text.getSegmentText()));
+            }
+            // A script without segments still replaces, and so removes, whatever was indexed for it
+            segmentsByScript.forEach(index::index);
+            total += ids.size();
+            afterId = ids.get(ids.size() - 1);
+        }
+    }
+}
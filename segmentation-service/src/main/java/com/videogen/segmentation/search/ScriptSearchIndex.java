@@ -0,0 +1,225 @@
+package com.videogen.segmentation.search;
+
+import com.videogen.segmentation.event.ScriptSavedEvent;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Embedded Lucene index with one document per script segment. Segments partition a script's raw
+ * text, so matching them covers {@code rawText} as well and pins each hit to a segment number.
+ *
+ * <p>Writes go through a single {@link IndexWriter} and become searchable on the next refresh,
+ * which every update triggers. Commits to disk happen separately through {@link #commit}.
+ *
+ * <p>Every document carries the generation current when it was written. A rebuild starts a new
+ * generation, re-indexes every script over the live documents and only then drops the older
+ * generations, so searches meanwhile still see every script.
+ */
+public class ScriptSearchIndex implements AutoCloseable {
+
+    static final String SCRIPT_ID = "script_id";
+    static final String SEGMENT_NUMBER = "segment_number";
+    static final String TEXT = "text";
+    static final String GENERATION = "generation";
+    private static final String SYNCED_UNTIL = "synced_until";
+    private static final Set<String> HIT_FIELDS = Set.of(SCRIPT_ID, SEGMENT_NUMBER);
+
+    private final Directory directory;
+    private final Analyzer analyzer = new EnglishAnalyzer();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private volatile String generation = UUID.randomUUID().toString();
+
+    private ScriptSearchIndex(Directory directory) throws IOException {
+        this.directory = directory;
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    /** Opens or creates an index in {@code dir}; only one process may hold it at a time. */
+    public static ScriptSearchIndex open(Path dir) throws IOException {
+        return new ScriptSearchIndex(FSDirectory.open(dir));
+    }
+
+    public static ScriptSearchIndex inMemory() throws IOException {
+        return new ScriptSearchIndex(new ByteBuffersDirectory());
+    }
+
+    /** Replaces every document of the script with its current segments. */
+    public void index(Long scriptId, List<ScriptSavedEvent.Segment> segments) {
+        List<Document> documents = new ArrayList<>(segments.size());
+        for (ScriptSavedEvent.Segment segment : segments) {
+            Document document = new Document();
+            document.add(new StringField(SCRIPT_ID, scriptId.toString(), Field.Store.YES));
+            document.add(new StoredField(SEGMENT_NUMBER, segment.segmentNumber()));
+            document.add(new TextField(TEXT, segment.text(), Field.Store.NO));
+            document.add(new StringField(GENERATION, generation, Field.Store.NO));
+            documents.add(document);
+        }
+        try {
+            writer.updateDocuments(scriptTerm(scriptId), documents);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void delete(Collection<Long> scriptIds) {
+        try {
+            writer.deleteDocuments(scriptIds.stream().map(ScriptSearchIndex::scriptTerm).toArray(Term[]::new));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Starts a generation; documents written from now on carry it. */
+    public void startGeneration() {
+        generation = UUID.randomUUID().toString();
+    }
+
+    /** Drops every document written before the current generation started. */
+    public void dropOlderGenerations() {
+        try {
+            writer.deleteDocuments(new BooleanQuery.Builder()
+                    .add(new MatchAllDocsQuery(), BooleanClause.Occur.FILTER)
+                    .add(new TermQuery(new Term(GENERATION, generation)), BooleanClause.Occur.MUST_NOT)
+                    .build());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Makes writes so far visible to searches. */
+    public void refresh() {
+        try {
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Makes writes so far durable, recording that the index reflects every script change up to
+     * {@code syncedUntil}.
+     */
+    public void commit(LocalDateTime syncedUntil) {
+        try {
+            writer.setLiveCommitData(Map.of(SYNCED_UNTIL, syncedUntil.toString()).entrySet());
+            writer.commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** The {@code syncedUntil} of the last commit, empty for a new or never-committed index. */
+    public Optional<LocalDateTime> syncedUntil() {
+        Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+        if (commitData != null) {
+            for (Map.Entry<String, String> entry : commitData) {
+                if (entry.getKey().equals(SYNCED_UNTIL)) {
+                    return Optional.of(LocalDateTime.parse(entry.getValue()));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    public int documentCount() {
+        return writer.getDocStats().numDocs;
+    }
+
+    /**
+     * Ranks segments against {@code queryText} in simple query syntax: terms are ANDed,
+     * {@code "quoted phrases"}, {@code -exclusions}, {@code a | b} and {@code prefix*} work, and
+     * nothing in it can be a syntax error.
+     *
+     * @return hits {@code offset} to {@code offset + limit} by descending score
+     */
+    public Page search(String queryText, int offset, int limit) {
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, TEXT);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        Query query = parser.parse(queryText);
+        if (query == null || query instanceof MatchNoDocsQuery) {
+            return new Page(0, true, List.of());
+        }
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                // Counts exactly up to 1000 hits only, so common terms can skip non-competitive blocks
+                TopDocs top = searcher.search(query, offset + limit);
+                StoredFields storedFields = searcher.storedFields();
+                List<Hit> hits = new ArrayList<>();
+                for (int i = offset; i < top.scoreDocs.length; i++) {
+                    ScoreDoc scoreDoc = top.scoreDocs[i];
+                    Document document = storedFields.document(scoreDoc.doc, HIT_FIELDS);
+                    hits.add(new Hit(Long.valueOf(document.get(SCRIPT_ID)),
+                            document.getField(SEGMENT_NUMBER).numericValue().intValue(),
+                            scoreDoc.score));
+                }
+                return new Page(top.totalHits.value,
+                        top.totalHits.relation == TotalHits.Relation.EQUAL_TO, hits);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    private static Term scriptTerm(Long scriptId) {
+        return new Term(SCRIPT_ID, scriptId.toString());
+    }
+
+    public record Hit(long scriptId, int segmentNumber, float score) {
+    }
+
+    /**
+     * @param totalHits      number of matching segments; a lower bound unless {@code totalHitsExact}
+     * @param totalHitsExact whether {@code totalHits} was counted exactly
+     */
+    public record Page(long totalHits, boolean totalHitsExact, List<Hit> hits) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.videogen.segmentation.search;
+
+import com.videogen.segmentation.dto.ScriptSearchResponse;
+import com.videogen.segmentation.dto.SearchRebuildResponse;
+import com.videogen.segmentation.exception.SearchIndexWarmingException;
+import com.videogen.segmentation.repository.NarrationScriptRepository;
+import com.videogen.segmentation.repository.ScriptHeader;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Serves full-text queries from {@link ScriptSearchIndex}. Titles come from the database, which
+ * also filters out hits for scripts deleted through another instance that the index still holds.
+ * Until the startup rebuild finishes, queries are refused rather than answered from a partial index.
+ */
+@Service
+public class ScriptSearchService {
+
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+    private static final int MAX_QUERY_LENGTH = 500;
+
+    private final ScriptSearchIndex index;
+    private final ScriptIndexer indexer;
+    private final NarrationScriptRepository scriptRepository;
+    private final SearchProperties properties;
+
+    public ScriptSearchService(ScriptSearchIndex index,
+                               ScriptIndexer indexer,
+                               NarrationScriptRepository scriptRepository,
+                               SearchProperties properties) {
+        this.index = index;
+        this.indexer = indexer;
+        this.scriptRepository = scriptRepository;
+        this.properties = properties;
+    }
+
+    @Observed(name = "videogen.segmentation.script.search", contextualName = "search-scripts")
+    public ScriptSearchResponse search(String query, Integer offset, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("q must not be blank");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("q must be at most " + MAX_QUERY_LENGTH + " characters");
+        }
+        int from = offset != null ? offset : 0;
+        int size = limit != null ? limit : DEFAULT_LIMIT;
+        if (from < 0 || size < 1 || size > MAX_LIMIT) {
+            throw new IllegalArgumentException("offset must be >= 0 and limit between 1 and " + MAX_LIMIT);
+        }
+        if (from + size > properties.getMaxResultWindow()) {
+            throw new IllegalArgumentException("offset + limit must be at most " + properties.getMaxResultWindow()
+                    + "; narrow the query instead of paging deeper");
+        }
+        if (!indexer.isReady()) {
+            throw new SearchIndexWarmingException();
+        }
+
+        ScriptSearchIndex.Page page = index.search(query, from, size);
+        List<Long> scriptIds = page.hits().stream().map(ScriptSearchIndex.Hit::scriptId).distinct().toList();
+        Map<Long, ScriptHeader> headers = scriptIds.isEmpty() ? Map.of()
+                : scriptRepository.findHeadersByIdIn(scriptIds).stream()
+                        .collect(Collectors.toMap(ScriptHeader::getId, Function.identity()));
+        if (headers.size() < scriptIds.size()) {
+            indexer.removeDeleted(scriptIds.stream().filter(id -> !headers.containsKey(id)).toList());
+        }
+
+        List<ScriptSearchResponse.Hit> hits = page.hits().stream()
+                .filter(hit -> headers.containsKey(hit.scriptId()))
+                .map(hit -> ScriptSearchResponse.Hit.builder()
+                        .scriptId(hit.scriptId())
+                        .title(headers.get(hit.scriptId()).getTitle())
+                        .segmentNumber(hit.segmentNumber())
+                        .score(hit.score())
+                        .build())
+                .collect(Collectors.toList());
+        return ScriptSearchResponse.builder()
+                .query(query)
+                .offset(from)
+                .limit(size)
+                .totalHits(page.totalHits())
+                .totalHitsExact(page.totalHitsExact())
+                .hits(hits)
+                .build();
+    }
+
+    /**
+     * Starts rebuilding the index in the background; a rebuild of a large corpus outlasts any
+     * request timeout. Its end is logged and timed in {@code videogen.search.rebuild}.
+     */
+    public SearchRebuildResponse rebuild() {
+        boolean started = indexer.startRebuild();
+        return SearchRebuildResponse.builder()
+                .started(started)
+                .indexedSegments(index.documentCount())
+                .build();
+    }
+}
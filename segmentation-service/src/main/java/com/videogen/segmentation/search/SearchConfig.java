@@ -0,0 +1,19 @@
+package com.videogen.segmentation.search;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+@Configuration
+@EnableConfigurationProperties(SearchProperties.class)
+public class SearchConfig {
+
+    @Bean(destroyMethod = "close")
+    public ScriptSearchIndex scriptSearchIndex(SearchProperties properties) throws IOException {
+        return properties.getIndexDir() != null
+                ? ScriptSearchIndex.open(properties.getIndexDir())
+                : ScriptSearchIndex.inMemory();
+    }
+}
@@ -0,0 +1,30 @@
+package com.videogen.segmentation.search;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "videogen.search")
+public class SearchProperties {
+
+    /**
+     * Directory holding this instance's Lucene index. When unset the index lives in memory and is
+     * rebuilt from the database at every start.
+     */
+    private Path indexDir;
+
+    /** Rebuild at startup even when the index on disk already has documents. */
+    private boolean rebuildOnStartup = false;
+
+    /** How often scripts changed through other instances are re-indexed and the index is committed. */
+    private Duration syncInterval = Duration.ofMinutes(1);
+
+    /** Scripts read from the database per batch when rebuilding or syncing. */
+    private int batchSize = 500;
+
+    /** Deepest hit a page may reach (offset + limit); bounds the work per query. */
+    private int maxResultWindow = 10_000;
+}
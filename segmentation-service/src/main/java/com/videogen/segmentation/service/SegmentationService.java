@@ -1,19 +1,30 @@
 package com.videogen.segmentation.service;
 
+import com.videogen.segmentation.dto.BulkDeleteRequest;
+import com.videogen.segmentation.dto.BulkDeleteResponse;
 import com.videogen.segmentation.dto.ScriptRequest;
 import com.videogen.segmentation.dto.ScriptResponse;
+import com.videogen.segmentation.dto.ScriptStatsResponse;
+import com.videogen.segmentation.dto.ScriptView;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface SegmentationService {
 
     ScriptResponse createScript(ScriptRequest request);
 
-    ScriptResponse getScript(Long id);
+    ScriptResponse getScript(Long id, ScriptView view);
 
-    List<ScriptResponse> getAllScripts();
+    long getScriptVersion(Long id);
+
+    List<ScriptResponse> getAllScripts(ScriptView view);
+
+    ScriptStatsResponse getScriptStats(LocalDateTime from, LocalDateTime to);
 
     ScriptResponse updateScript(Long id, ScriptRequest request);
 
     void deleteScript(Long id);
+
+    BulkDeleteResponse bulkDeleteScripts(BulkDeleteRequest request);
 }
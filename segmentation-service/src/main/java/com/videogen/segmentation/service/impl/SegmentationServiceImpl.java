@@ -1,18 +1,33 @@
 package com.videogen.segmentation.service.impl;
 
+import com.videogen.segmentation.dto.BulkDeleteRequest;
+import com.videogen.segmentation.dto.BulkDeleteResponse;
 import com.videogen.segmentation.dto.ScriptRequest;
 import com.videogen.segmentation.dto.ScriptResponse;
+import com.videogen.segmentation.dto.ScriptStatsResponse;
+import com.videogen.segmentation.dto.ScriptView;
+import com.videogen.segmentation.event.ScriptSavedEvent;
+import com.videogen.segmentation.event.ScriptsDeletedEvent;
 import com.videogen.segmentation.exception.ResourceNotFoundException;
+import com.videogen.segmentation.metrics.SegmentationMetrics;
 import com.videogen.segmentation.model.NarrationScript;
 import com.videogen.segmentation.model.ScriptSegment;
 import com.videogen.segmentation.repository.NarrationScriptRepository;
+import com.videogen.segmentation.repository.ScriptHeader;
 import com.videogen.segmentation.repository.ScriptSegmentRepository;
+import com.videogen.segmentation.repository.SegmentTiming;
 import com.videogen.segmentation.service.SegmentationService;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,73 +37,184 @@ public class SegmentationServiceImpl implements SegmentationService {
     private static final double WORDS_PER_SECOND = 2.5;
     private static final double TARGET_DURATION = 8.0;
     private static final int TARGET_WORDS = 20;
+    private static final int BULK_DELETE_CHUNK_SIZE = 500;
 
     private final NarrationScriptRepository scriptRepository;
     private final ScriptSegmentRepository segmentRepository;
+    private final SegmentationMetrics metrics;
+    private final ApplicationEventPublisher eventPublisher;
 
     public SegmentationServiceImpl(NarrationScriptRepository scriptRepository,
-                                   ScriptSegmentRepository segmentRepository) {
+                                   ScriptSegmentRepository segmentRepository,
+                                   SegmentationMetrics metrics,
+                                   ApplicationEventPublisher eventPublisher) {
         this.scriptRepository = scriptRepository;
         this.segmentRepository = segmentRepository;
+        this.metrics = metrics;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public ScriptResponse createScript(ScriptRequest request) {
-        NarrationScript script = NarrationScript.builder()
-                .title(request.getTitle())
-                .rawText(request.getRawText())
-                .build();
+        return metrics.timeScriptWrite("create", null, () -> {
+            NarrationScript script = NarrationScript.builder()
+                    .title(request.getTitle())
+                    .rawText(request.getRawText())
+                    .build();
+
+            script = scriptRepository.save(script);
 
-        script = scriptRepository.save(script);
+            List<ScriptSegment> segments = segmentText(request.getRawText(), script);
+            script.setSegments(segments);
+            script.summarizeSegments();
+            script = scriptRepository.save(script);
+            publishSaved(script);
 
-        List<ScriptSegment> segments = segmentText(request.getRawText(), script);
-        script.setSegments(segments);
-        script = scriptRepository.save(script);
+            return ScriptResponse.fromEntity(script);
+        });
+    }
 
-        return ScriptResponse.fromEntity(script);
+    @Override
+    @Transactional(readOnly = true)
+    @Observed(name = "videogen.segmentation.script.read", contextualName = "get-script")
+    public ScriptResponse getScript(Long id, ScriptView view) {
+        if (view == ScriptView.FULL) {
+            NarrationScript script = scriptRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Script", id));
+            return ScriptResponse.fromEntity(script);
+        }
+        // Narrower views never select raw_text or segment_text
+        ScriptHeader header = scriptRepository.findHeaderById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Script", id));
+        List<SegmentTiming> timings = view == ScriptView.TIMING
+                ? segmentRepository.findTimingsByScriptIdIn(List.of(id)) : null;
+        return ScriptResponse.fromHeader(header, timings);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public ScriptResponse getScript(Long id) {
-        NarrationScript script = scriptRepository.findById(id)
+    public long getScriptVersion(Long id) {
+        return scriptRepository.findVersionById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Script", id));
-        return ScriptResponse.fromEntity(script);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ScriptResponse> getAllScripts() {
-        return scriptRepository.findAll().stream()
-                .map(ScriptResponse::fromEntity)
+    @Observed(name = "videogen.segmentation.script.read", contextualName = "list-scripts")
+    public List<ScriptResponse> getAllScripts(ScriptView view) {
+        if (view == ScriptView.FULL) {
+            return scriptRepository.findAll().stream()
+                    .map(ScriptResponse::fromEntity)
+                    .collect(Collectors.toList());
+        }
+        List<ScriptHeader> headers = scriptRepository.findAllHeaders();
+        Map<Long, List<SegmentTiming>> timingsByScript = view == ScriptView.TIMING && !headers.isEmpty()
+                ? segmentRepository.findTimingsByScriptIdIn(headers.stream().map(ScriptHeader::getId).toList())
+                        .stream().collect(Collectors.groupingBy(SegmentTiming::getScriptId))
+                : null;
+        return headers.stream()
+                .map(header -> ScriptResponse.fromHeader(header, timingsByScript != null
+                        ? timingsByScript.getOrDefault(header.getId(), List.of()) : null))
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    @Observed(name = "videogen.segmentation.script.read", contextualName = "script-stats")
+    public ScriptStatsResponse getScriptStats(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        return ScriptStatsResponse.of(from, to, scriptRepository.sumTotals(from, to));
+    }
+
     @Override
     public ScriptResponse updateScript(Long id, ScriptRequest request) {
-        NarrationScript script = scriptRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Script", id));
+        return metrics.timeScriptWrite("update", id, () -> {
+            NarrationScript script = scriptRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Script", id));
 
-        script.setTitle(request.getTitle());
-        script.setRawText(request.getRawText());
+            script.setTitle(request.getTitle());
+            script.setRawText(request.getRawText());
 
-        // Clear existing segments and re-segment
-        script.getSegments().clear();
-        scriptRepository.saveAndFlush(script);
+            // Clear existing segments and re-segment
+            script.getSegments().clear();
+            scriptRepository.saveAndFlush(script);
 
-        List<ScriptSegment> newSegments = segmentText(request.getRawText(), script);
-        script.getSegments().addAll(newSegments);
-        script = scriptRepository.save(script);
+            List<ScriptSegment> newSegments = segmentText(request.getRawText(), script);
+            script.getSegments().addAll(newSegments);
+            script.summarizeSegments();
+            script = scriptRepository.save(script);
+            publishSaved(script);
 
-        return ScriptResponse.fromEntity(script);
+            return ScriptResponse.fromEntity(script);
+        });
     }
 
     @Override
+    @Observed(name = "videogen.segmentation.script.delete", contextualName = "delete-script")
     public void deleteScript(Long id) {
         if (!scriptRepository.existsById(id)) {
             throw new ResourceNotFoundException("Script", id);
         }
         scriptRepository.deleteById(id);
+        eventPublisher.publishEvent(new ScriptsDeletedEvent(List.of(id)));
+    }
+
+    /**
+     * Runs outside the class-level transaction so every chunk commits on its own and row locks are
+     * held for one statement at a time rather than for the whole cleanup.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Observed(name = "videogen.segmentation.script.delete", contextualName = "bulk-delete-scripts")
+    public BulkDeleteResponse bulkDeleteScripts(BulkDeleteRequest request) {
+        boolean hasIds = request.getIds() != null && !request.getIds().isEmpty();
+        if (!hasIds && request.getCreatedBefore() == null) {
+            throw new IllegalArgumentException("Bulk delete requires at least one of ids or createdBefore");
+        }
+
+        long deleted = 0;
+        int chunks = 0;
+        if (hasIds) {
+            List<Long> ids = request.getIds().stream().distinct().toList();
+            for (int from = 0; from < ids.size(); from += BULK_DELETE_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + BULK_DELETE_CHUNK_SIZE, ids.size()));
+                List<Long> segmentIds = segmentRepository.findIdsByScriptIdIn(chunk);
+                int chunkDeleted = scriptRepository.deleteMatchingByIdIn(chunk, request.getCreatedBefore());
+                if (chunkDeleted > 0) {
+                    scriptRepository.evictDeletedScripts(chunk, segmentIds);
+                }
+                deleted += chunkDeleted;
+                eventPublisher.publishEvent(new ScriptsDeletedEvent(List.copyOf(chunk)));
+                chunks++;
+            }
+        } else {
+            List<Long> chunk;
+            while (!(chunk = scriptRepository.findIdsByCreatedAtBefore(request.getCreatedBefore(),
+                    Limit.of(BULK_DELETE_CHUNK_SIZE))).isEmpty()) {
+                List<Long> segmentIds = segmentRepository.findIdsByScriptIdIn(chunk);
+                deleted += scriptRepository.deleteAllByIdIn(chunk);
+                scriptRepository.evictDeletedScripts(chunk, segmentIds);
+                eventPublisher.publishEvent(new ScriptsDeletedEvent(chunk));
+                chunks++;
+            }
+        }
+
+        return BulkDeleteResponse.builder()
+                .deletedCount(deleted)
+                .chunks(chunks)
+                .build();
+    }
+
+    /**
+     * Announces the script's stored segments; listeners such as the search index act once the
+     * surrounding transaction commits.
+     */
+    private void publishSaved(NarrationScript script) {
+        eventPublisher.publishEvent(new ScriptSavedEvent(script.getId(), script.getSegments().stream()
+                .map(segment -> new ScriptSavedEvent.Segment(segment.getSegmentNumber(), segment.getSegmentText()))
+                .toList()));
     }
 
     /**
@@ -99,7 +225,12 @@ public class SegmentationServiceImpl implements SegmentationService {
         if (text == null || text.isBlank()) {
             return new ArrayList<>();
         }
+        List<ScriptSegment> segments = metrics.timeSegmentText(text.length(), () -> splitIntoSegments(text, script));
+        metrics.segmentsProduced(segments.size());
+        return segments;
+    }
 
+    private List<ScriptSegment> splitIntoSegments(String text, NarrationScript script) {
         // Split into sentences
         String[] sentences = text.split("(?<=[.!?])\\s+");
         List<ScriptSegment> segments = new ArrayList<>();
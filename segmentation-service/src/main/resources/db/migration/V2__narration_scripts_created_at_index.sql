@@ -0,0 +1,2 @@
+-- Retention scans scripts by creation time
+CREATE INDEX idx_narration_scripts_created_at ON narration_scripts(created_at);
@@ -0,0 +1,2 @@
+-- Optimistic-locking version; also the basis of the script's ETag
+ALTER TABLE narration_scripts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
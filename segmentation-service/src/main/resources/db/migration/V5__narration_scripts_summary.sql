@@ -0,0 +1,21 @@
+-- Per-script totals over script_segments, maintained by the service whenever segments are rewritten
+ALTER TABLE narration_scripts ADD COLUMN segment_count INT NOT NULL DEFAULT 0;
+ALTER TABLE narration_scripts ADD COLUMN total_words INT NOT NULL DEFAULT 0;
+ALTER TABLE narration_scripts ADD COLUMN total_duration_seconds DOUBLE NOT NULL DEFAULT 0;
+
+-- Responses gain the totals, so the backfill bumps the version to invalidate cached ETags
+UPDATE narration_scripts s
+JOIN (SELECT script_id,
+             COUNT(*) AS segment_count,
+             SUM(word_count) AS total_words,
+             SUM(estimated_duration_seconds) AS total_duration_seconds
+      FROM script_segments
+      GROUP BY script_id) t ON t.script_id = s.id
+SET s.segment_count = t.segment_count,
+    s.total_words = t.total_words,
+    s.total_duration_seconds = t.total_duration_seconds,
+    s.version = s.version + 1;
+
+-- Covers GET /api/v1/scripts/stats, so the aggregate never reads the raw_text rows
+CREATE INDEX idx_narration_scripts_stats
+    ON narration_scripts(created_at, segment_count, total_words, total_duration_seconds);
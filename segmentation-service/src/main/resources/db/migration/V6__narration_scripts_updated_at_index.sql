@@ -0,0 +1,2 @@
+-- The search index re-reads scripts changed since its last sync
+CREATE INDEX idx_narration_scripts_updated_at ON narration_scripts(updated_at);
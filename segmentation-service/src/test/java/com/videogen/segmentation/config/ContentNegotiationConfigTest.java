@@ -0,0 +1,114 @@
+package com.videogen.segmentation.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.videogen.segmentation.dto.ScriptResponse;
+import com.videogen.segmentation.dto.ScriptView;
+import com.videogen.segmentation.dto.SegmentResponse;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares Smile with JSON on a large script. Payload size is asserted; encode/decode time is only
+ * logged because wall-clock numbers are too noisy to assert on in CI.
+ */
+class ContentNegotiationConfigTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentNegotiationConfigTest.class);
+    private static final int ITERATIONS = 200;
+
+    private final ObjectMapper json = new Jackson2ObjectMapperBuilder().build();
+    private final ObjectMapper smile = new ContentNegotiationConfig()
+            .smileHttpMessageConverter(new Jackson2ObjectMapperBuilder())
+            .getObjectMapper();
+
+    @Test
+    void smile_fullView_shouldRoundTripAndBeSmallerThanJson() throws Exception {
+        ScriptResponse script = largeScript(2000);
+
+        byte[] jsonBytes = json.writerWithView(ScriptView.Full.class).writeValueAsBytes(script);
+        byte[] smileBytes = smile.writerWithView(ScriptView.Full.class).writeValueAsBytes(script);
+
+        assertThat(smile.readValue(smileBytes, ScriptResponse.class)).isEqualTo(script);
+        assertThat(smileBytes.length).isLessThan(jsonBytes.length);
+        report("full", script, jsonBytes, smileBytes);
+    }
+
+    @Test
+    void smile_timingView_shouldBeMuchSmallerThanJson() throws Exception {
+        ScriptResponse script = largeScript(2000);
+        script.setRawText(null);
+        script.getSegments().forEach(segment -> segment.setSegmentText(null));
+
+        byte[] jsonBytes = json.writerWithView(ScriptView.Timing.class).writeValueAsBytes(script);
+        byte[] smileBytes = smile.writerWithView(ScriptView.Timing.class).writeValueAsBytes(script);
+
+        assertThat(smile.readValue(smileBytes, ScriptResponse.class)).isEqualTo(script);
+        // Repeated property names are back-referenced, which dominates once text is gone
+        assertThat(smileBytes.length).isLessThan(jsonBytes.length / 2);
+        report("timing", script, jsonBytes, smileBytes);
+    }
+
+    private void report(String view, ScriptResponse script, byte[] jsonBytes, byte[] smileBytes) throws Exception {
+        log.info("{} view, {} segments: json={} bytes, smile={} bytes; encode json={}us smile={}us; "
+                        + "decode json={}us smile={}us",
+                view, script.getSegments().size(), jsonBytes.length, smileBytes.length,
+                encodeMicros(json, script), encodeMicros(smile, script),
+                decodeMicros(json, jsonBytes), decodeMicros(smile, smileBytes));
+    }
+
+    private static long encodeMicros(ObjectMapper mapper, ScriptResponse value) throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(value);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(value);
+        }
+        return (System.nanoTime() - start) / ITERATIONS / 1000;
+    }
+
+    private static long decodeMicros(ObjectMapper mapper, byte[] bytes) throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.readValue(bytes, ScriptResponse.class);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.readValue(bytes, ScriptResponse.class);
+        }
+        return (System.nanoTime() - start) / ITERATIONS / 1000;
+    }
+
+    private static ScriptResponse largeScript(int segmentCount) {
+        List<SegmentResponse> segments = new ArrayList<>();
+        StringBuilder rawText = new StringBuilder();
+        for (int i = 1; i <= segmentCount; i++) {
+            String text = "Segment " + i + " follows the hero as she crosses the river at dawn, "
+                    + "searching for the lantern her grandfather hid before the war.";
+            rawText.append(text).append(' ');
+            segments.add(SegmentResponse.builder()
+                    .id((long) i)
+                    .segmentNumber(i)
+                    .segmentText(text)
+                    .estimatedDurationSeconds(8.4)
+                    .wordCount(21)
+                    .build());
+        }
+        return ScriptResponse.builder()
+                .id(1L)
+                .title("The Lantern")
+                .rawText(rawText.toString().trim())
+                .version(3L)
+                .createdAt(LocalDateTime.of(2025, 1, 1, 9, 30))
+                .updatedAt(LocalDateTime.of(2025, 1, 2, 9, 30))
+                .segments(segments)
+                .build();
+    }
+}
@@ -0,0 +1,23 @@
+package com.videogen.segmentation.config;
+
+import com.videogen.segmentation.dto.ScriptResponse;
+import com.videogen.segmentation.dto.SegmentResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NativeRuntimeHintsTest {
+
+    @Test
+    void registerHints_shouldCoverArchivedScriptsAndNestedSegments() throws Exception {
+        RuntimeHints hints = new RuntimeHints();
+        new NativeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(ScriptResponse.class.getMethod("getSegments")))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(SegmentResponse.class.getMethod("getSegmentText")))
+                .accepts(hints);
+    }
+}
@@ -1,31 +1,57 @@
 package com.videogen.segmentation.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.videogen.segmentation.config.ContentNegotiationConfig;
+import com.videogen.segmentation.dto.BulkDeleteRequest;
+import com.videogen.segmentation.dto.BulkDeleteResponse;
 import com.videogen.segmentation.dto.ScriptRequest;
 import com.videogen.segmentation.dto.ScriptResponse;
+import com.videogen.segmentation.dto.ScriptSearchResponse;
+import com.videogen.segmentation.dto.SearchRebuildResponse;
+import com.videogen.segmentation.dto.ScriptStatsResponse;
+import com.videogen.segmentation.dto.ScriptView;
 import com.videogen.segmentation.dto.SegmentResponse;
 import com.videogen.segmentation.exception.GlobalExceptionHandler;
+import com.videogen.segmentation.exception.IdempotencyKeyInProgressException;
+import com.videogen.segmentation.exception.RateLimitExceededException;
+import com.videogen.segmentation.exception.SearchIndexWarmingException;
 import com.videogen.segmentation.exception.ResourceNotFoundException;
+import com.videogen.segmentation.idempotency.IdempotencyService;
+import com.videogen.segmentation.idempotency.IdempotentResult;
+import com.videogen.segmentation.ratelimit.RateLimiter;
+import com.videogen.segmentation.search.ScriptSearchService;
 import com.videogen.segmentation.service.SegmentationService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ScriptController.class)
+@Import(ContentNegotiationConfig.class)
 class ScriptControllerTest {
 
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -35,6 +61,59 @@ class ScriptControllerTest {
     @MockBean
     private SegmentationService segmentationService;
 
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    @MockBean
+    private ScriptSearchService searchService;
+
+    @MockBean
+    private RateLimiter rateLimiter;
+
+    @Test
+    void createScript_shouldChargeEstimatedSegments() throws Exception {
+        when(segmentationService.createScript(any())).thenReturn(ScriptResponse.builder().id(1L).build());
+
+        mockMvc.perform(post("/api/v1/scripts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ScriptRequest.builder()
+                                .title("Long")
+                                .rawText("word ".repeat(41))
+                                .build())))
+                .andExpect(status().isCreated());
+
+        verify(rateLimiter).checkSegments(any(), eq(3));
+    }
+
+    @Test
+    void updateScript_segmentLimitExceeded_shouldReturn429WithRateLimitHeaders() throws Exception {
+        doThrow(new RateLimitExceededException("segments", 1000, Duration.ofSeconds(20), Duration.ofMillis(1200)))
+                .when(rateLimiter).checkSegments(any(), anyInt());
+
+        mockMvc.perform(put("/api/v1/scripts/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"T\",\"rawText\":\"Some text.\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(header().string("RateLimit-Limit", "1000"))
+                .andExpect(header().string("RateLimit-Remaining", "0"))
+                .andExpect(header().string("RateLimit-Reset", "20"));
+
+        verifyNoInteractions(segmentationService);
+    }
+
+    @Test
+    void searchScripts_requestLimitExceeded_shouldReturn429BeforeTheController() throws Exception {
+        doThrow(new RateLimitExceededException("requests", 40, Duration.ofSeconds(2), Duration.ofMillis(50)))
+                .when(rateLimiter).checkRequest(any(), any());
+
+        mockMvc.perform(get("/api/v1/scripts/search").param("q", "dragon"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+
+        verifyNoInteractions(searchService);
+    }
+
     @Test
     void createScript_validRequest_shouldReturn201() throws Exception {
         ScriptRequest request = ScriptRequest.builder()
@@ -70,6 +149,77 @@ class ScriptControllerTest {
                 .andExpect(jsonPath("$.segments[0].segmentNumber").value(1));
     }
 
+    @Test
+    void createScript_replayedIdempotencyKey_shouldReturnOriginalScript() throws Exception {
+        ScriptRequest request = ScriptRequest.builder()
+                .title("Test Script")
+                .rawText("This is a test narration.")
+                .build();
+        ScriptResponse original = ScriptResponse.builder().id(4L).title("Test Script").build();
+
+        when(idempotencyService.<ScriptResponse>execute(eq("create-script"), eq("retry-1"), eq(request),
+                any(), any(), any())).thenReturn(new IdempotentResult<>(original, true));
+
+        mockMvc.perform(post("/api/v1/scripts")
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(4));
+
+        verify(segmentationService, never()).createScript(any());
+        verify(rateLimiter, never()).checkSegments(any(), anyInt());
+    }
+
+    @Test
+    void createScript_newIdempotencyKey_shouldChargeSegmentsWhenTheScriptIsCreated() throws Exception {
+        when(idempotencyService.<ScriptResponse>execute(eq("create-script"), eq("new-1"), any(), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    Supplier<ScriptResponse> action = invocation.getArgument(3);
+                    return new IdempotentResult<>(action.get(), false);
+                });
+        when(segmentationService.createScript(any())).thenReturn(ScriptResponse.builder().id(5L).build());
+
+        mockMvc.perform(post("/api/v1/scripts")
+                        .header("Idempotency-Key", "new-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"T\",\"rawText\":\"One. Two.\"}"))
+                .andExpect(status().isCreated());
+
+        verify(rateLimiter).checkSegments(any(), eq(1));
+    }
+
+    @Test
+    void createScript_idempotencyKeyStillInProgress_shouldReturn409WithRetryAfter() throws Exception {
+        when(idempotencyService.execute(any(), any(), any(), any(), any(), any()))
+                .thenThrow(new IdempotencyKeyInProgressException("retry-1", Duration.ofSeconds(1)));
+
+        mockMvc.perform(post("/api/v1/scripts")
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Test Script\",\"rawText\":\"Some text.\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void getScriptStats_shouldReturn200WithTotals() throws Exception {
+        when(segmentationService.getScriptStats(null, null)).thenReturn(ScriptStatsResponse.builder()
+                .scriptCount(2)
+                .segmentCount(5)
+                .totalWords(90)
+                .totalDurationSeconds(36.0)
+                .averageDurationSeconds(18.0)
+                .build());
+
+        mockMvc.perform(get("/api/v1/scripts/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.scriptCount").value(2))
+                .andExpect(jsonPath("$.totalWords").value(90))
+                .andExpect(jsonPath("$.averageDurationSeconds").value(18.0));
+    }
+
     @Test
     void createScript_missingTitle_shouldReturn400() throws Exception {
         ScriptRequest request = ScriptRequest.builder()
@@ -100,22 +250,113 @@ class ScriptControllerTest {
                 .id(1L)
                 .title("Test Script")
                 .rawText("Text.")
+                .version(2L)
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .segments(List.of())
                 .build();
 
-        when(segmentationService.getScript(1L)).thenReturn(response);
+        when(segmentationService.getScriptVersion(1L)).thenReturn(2L);
+        when(segmentationService.getScript(1L, ScriptView.FULL)).thenReturn(response);
 
         mockMvc.perform(get("/api/v1/scripts/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"1-2\""))
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.title").value("Test Script"));
     }
 
+    @Test
+    void getScript_matchingIfNoneMatch_shouldReturn304WithoutLoadingScript() throws Exception {
+        when(segmentationService.getScriptVersion(1L)).thenReturn(2L);
+
+        mockMvc.perform(get("/api/v1/scripts/1").header("If-None-Match", "\"1-2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(segmentationService, never()).getScript(any(), any());
+    }
+
+    @Test
+    void createScript_smileRequestAndResponse_shouldRoundTrip() throws Exception {
+        SmileMapper smileMapper = SmileMapper.builder().findAndAddModules().build();
+        ScriptRequest request = ScriptRequest.builder()
+                .title("Binary Script")
+                .rawText("Sent as Smile.")
+                .build();
+        when(segmentationService.createScript(request)).thenReturn(ScriptResponse.builder()
+                .id(5L)
+                .title("Binary Script")
+                .rawText("Sent as Smile.")
+                .segments(List.of())
+                .build());
+
+        byte[] body = mockMvc.perform(post("/api/v1/scripts")
+                        .contentType(SMILE)
+                        .accept(SMILE)
+                        .content(smileMapper.writeValueAsBytes(request)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(smileMapper.readValue(body, ScriptResponse.class).getId()).isEqualTo(5L);
+    }
+
+    @Test
+    void getScript_anyAccept_shouldDefaultToJson() throws Exception {
+        when(segmentationService.getScriptVersion(1L)).thenReturn(0L);
+        when(segmentationService.getScript(1L, ScriptView.FULL))
+                .thenReturn(ScriptResponse.builder().id(1L).title("Test Script").segments(List.of()).build());
+
+        mockMvc.perform(get("/api/v1/scripts/1").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void getScript_timingView_shouldOmitTextFieldsAndTagETagWithView() throws Exception {
+        ScriptResponse response = ScriptResponse.builder()
+                .id(1L)
+                .title("Test Script")
+                .rawText("Should not be serialized.")
+                .version(2L)
+                .segments(List.of(SegmentResponse.builder().id(10L).segmentNumber(1)
+                        .segmentText("Should not be serialized.").estimatedDurationSeconds(3.2).wordCount(8).build()))
+                .build();
+        when(segmentationService.getScriptVersion(1L)).thenReturn(2L);
+        when(segmentationService.getScript(1L, ScriptView.TIMING)).thenReturn(response);
+
+        mockMvc.perform(get("/api/v1/scripts/1").param("view", "timing"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"1-2-timing\""))
+                .andExpect(jsonPath("$.title").value("Test Script"))
+                .andExpect(jsonPath("$.rawText").doesNotExist())
+                .andExpect(jsonPath("$.segments[0].estimatedDurationSeconds").value(3.2))
+                .andExpect(jsonPath("$.segments[0].segmentText").doesNotExist());
+    }
+
+    @Test
+    void getAllScripts_summaryView_shouldOmitRawTextAndSegments() throws Exception {
+        when(segmentationService.getAllScripts(ScriptView.SUMMARY)).thenReturn(List.of(
+                ScriptResponse.builder().id(1L).title("Script 1").version(0L).build()));
+
+        mockMvc.perform(get("/api/v1/scripts").param("view", "SUMMARY"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Script 1"))
+                .andExpect(jsonPath("$[0].rawText").doesNotExist())
+                .andExpect(jsonPath("$[0].segments").doesNotExist());
+    }
+
+    @Test
+    void getAllScripts_invalidView_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/v1/scripts").param("view", "compact"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("summary")));
+    }
+
     @Test
     void getScript_nonExistingId_shouldReturn404() throws Exception {
-        when(segmentationService.getScript(99L))
+        when(segmentationService.getScript(99L, ScriptView.FULL))
                 .thenThrow(new ResourceNotFoundException("Script", 99L));
 
         mockMvc.perform(get("/api/v1/scripts/99"))
@@ -139,7 +380,7 @@ class ScriptControllerTest {
                         .build()
         );
 
-        when(segmentationService.getAllScripts()).thenReturn(responses);
+        when(segmentationService.getAllScripts(ScriptView.FULL)).thenReturn(responses);
 
         mockMvc.perform(get("/api/v1/scripts"))
                 .andExpect(status().isOk())
@@ -180,4 +421,76 @@ class ScriptControllerTest {
 
         verify(segmentationService).deleteScript(1L);
     }
+
+    @Test
+    void bulkDeleteScripts_shouldReturnDeletedCount() throws Exception {
+        when(segmentationService.bulkDeleteScripts(any(BulkDeleteRequest.class)))
+                .thenReturn(BulkDeleteResponse.builder().deletedCount(3).chunks(1).build());
+
+        mockMvc.perform(post("/api/v1/scripts/bulk-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[1,2,3]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deletedCount").value(3));
+
+        verify(segmentationService).bulkDeleteScripts(argThat(request -> request.getIds().equals(List.of(1L, 2L, 3L))));
+    }
+
+    @Test
+    void bulkDeleteScripts_tooManyIds_shouldReturn400() throws Exception {
+        String ids = LongStream.rangeClosed(1, 10001)
+                .mapToObj(Long::toString)
+                .collect(Collectors.joining(","));
+
+        mockMvc.perform(post("/api/v1/scripts/bulk-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[" + ids + "]}"))
+                .andExpect(status().isBadRequest());
+
+        verify(segmentationService, never()).bulkDeleteScripts(any());
+    }
+
+    @Test
+    void searchScripts_shouldReturnRankedHits() throws Exception {
+        when(searchService.search("dragon", 0, 10)).thenReturn(ScriptSearchResponse.builder()
+                .query("dragon").offset(0).limit(10).totalHits(1).totalHitsExact(true)
+                .hits(List.of(ScriptSearchResponse.Hit.builder()
+                        .scriptId(7L).title("Dragon Tale").segmentNumber(2).score(1.5f).build()))
+                .build());
+
+        mockMvc.perform(get("/api/v1/scripts/search").param("q", "dragon").param("offset", "0").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalHits").value(1))
+                .andExpect(jsonPath("$.hits[0].scriptId").value(7))
+                .andExpect(jsonPath("$.hits[0].segmentNumber").value(2));
+    }
+
+    @Test
+    void rebuildSearchIndex_shouldAcceptAndReturnAtOnce() throws Exception {
+        when(searchService.rebuild()).thenReturn(SearchRebuildResponse.builder()
+                .started(true).indexedSegments(12).build());
+
+        mockMvc.perform(post("/api/v1/scripts/search/rebuild"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.started").value(true))
+                .andExpect(jsonPath("$.indexedSegments").value(12));
+    }
+
+    @Test
+    void searchScripts_missingQuery_shouldReturn400() throws Exception {
+        when(searchService.search(null, null, null)).thenThrow(new IllegalArgumentException("q must not be blank"));
+
+        mockMvc.perform(get("/api/v1/scripts/search"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchScripts_indexWarming_shouldReturn503() throws Exception {
+        when(searchService.search("dragon", null, null)).thenThrow(new SearchIndexWarmingException());
+
+        mockMvc.perform(get("/api/v1/scripts/search").param("q", "dragon"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.message").value("Search index warming up; retry shortly"));
+    }
 }
@@ -0,0 +1,133 @@
+package com.videogen.segmentation.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes against separate in-memory H2 databases, each holding a row naming itself.
+ */
+class ReadReplicaRoutingDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReplicaRoutingProperties properties = new ReplicaRoutingProperties();
+    private DataSource primary;
+
+    @BeforeEach
+    void setUp() {
+        properties.setLagQuery("SELECT seconds FROM replication_lag");
+        properties.setMaxLag(Duration.ofSeconds(5));
+        primary = database("primary", 0);
+    }
+
+    @Test
+    void readOnlyTransactions_shouldUseReplica_andWritesThePrimary() {
+        ReadReplicas replicas = new ReadReplicas(List.of(new ReadReplicas.Replica("replica-1", database("replica-1", 0))));
+        new ReplicaHealthMonitor(replicas, properties, meterRegistry).check();
+        Routing routing = new Routing(replicas);
+
+        assertThat(routing.node(true)).isEqualTo("replica-1");
+        assertThat(routing.node(false)).isEqualTo("primary");
+        assertThat(meterRegistry.counter("videogen.datasource.reads", "target", "replica-1").count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.counter("videogen.datasource.reads", "target", "primary").count())
+                .isZero();
+    }
+
+    @Test
+    void readOnlyTransactions_shouldRoundRobinAcrossHealthyReplicas() {
+        ReadReplicas replicas = new ReadReplicas(List.of(
+                new ReadReplicas.Replica("replica-1", database("replica-1", 0)),
+                new ReadReplicas.Replica("replica-2", database("replica-2", 1))));
+        new ReplicaHealthMonitor(replicas, properties, meterRegistry).check();
+        Routing routing = new Routing(replicas);
+
+        assertThat(List.of(routing.node(true), routing.node(true), routing.node(true), routing.node(true)))
+                .containsExactly("replica-1", "replica-2", "replica-1", "replica-2");
+    }
+
+    @Test
+    void replicaNotYetChecked_shouldFallBackToPrimary() {
+        ReadReplicas replicas = new ReadReplicas(List.of(new ReadReplicas.Replica("replica-1", database("replica-1", 0))));
+        Routing routing = new Routing(replicas);
+
+        assertThat(routing.node(true)).isEqualTo("primary");
+        assertThat(meterRegistry.counter("videogen.datasource.reads", "target", "primary").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void laggingReplica_shouldLeaveRotationUntilItCatchesUp() {
+        DataSource lagging = database("replica-1", 30);
+        ReadReplicas replicas = new ReadReplicas(List.of(new ReadReplicas.Replica("replica-1", lagging)));
+        ReplicaHealthMonitor monitor = new ReplicaHealthMonitor(replicas, properties, meterRegistry);
+        Routing routing = new Routing(replicas);
+
+        monitor.check();
+        assertThat(routing.node(true)).isEqualTo("primary");
+        assertThat(meterRegistry.get("videogen.datasource.replica.lag").gauge().value()).isEqualTo(30);
+        assertThat(meterRegistry.get("videogen.datasource.replica.healthy").gauge().value()).isZero();
+
+        new JdbcTemplate(lagging).update("UPDATE replication_lag SET seconds = 1");
+        monitor.check();
+        assertThat(routing.node(true)).isEqualTo("replica-1");
+    }
+
+    @Test
+    void unreachableReplica_shouldBeSkipped() {
+        JdbcDataSource missing = new JdbcDataSource();
+        missing.setURL("jdbc:h2:mem:missing-" + UUID.randomUUID() + ";IFEXISTS=TRUE");
+        ReadReplicas replicas = new ReadReplicas(List.of(
+                new ReadReplicas.Replica("replica-1", missing),
+                new ReadReplicas.Replica("replica-2", database("replica-2", 0))));
+        new ReplicaHealthMonitor(replicas, properties, meterRegistry).check();
+        Routing routing = new Routing(replicas);
+
+        assertThat(List.of(routing.node(true), routing.node(true))).containsOnly("replica-2");
+    }
+
+    private static DataSource database(String node, int lagSeconds) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + node + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE node (name VARCHAR(32))");
+        jdbc.update("INSERT INTO node VALUES (?)", node);
+        jdbc.execute("CREATE TABLE replication_lag (seconds INT)");
+        jdbc.update("INSERT INTO replication_lag VALUES (?)", lagSeconds);
+        return dataSource;
+    }
+
+    /**
+     * The routing data source wired the way the application wires it, with a transaction manager.
+     */
+    private final class Routing {
+
+        private final JdbcTemplate jdbc;
+        private final DataSourceTransactionManager transactionManager;
+
+        private Routing(ReadReplicas replicas) {
+            LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+            dataSource.setReadOnlyDataSource(new ReadReplicaRoutingDataSource(primary, replicas, meterRegistry));
+            this.jdbc = new JdbcTemplate(dataSource);
+            this.transactionManager = new DataSourceTransactionManager(dataSource);
+        }
+
+        private String node(boolean readOnly) {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(readOnly);
+            return transaction.execute(status -> jdbc.queryForObject("SELECT name FROM node", String.class));
+        }
+    }
+}
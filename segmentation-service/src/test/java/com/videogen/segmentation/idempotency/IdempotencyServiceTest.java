@@ -0,0 +1,133 @@
+package com.videogen.segmentation.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.videogen.segmentation.dto.ScriptRequest;
+import com.videogen.segmentation.exception.IdempotencyKeyMismatchException;
+import com.videogen.segmentation.model.NarrationScript;
+import com.videogen.segmentation.repository.IdempotencyKeyRepository;
+import com.videogen.segmentation.repository.NarrationScriptRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs without a test transaction so that claims commit and are visible across threads, as they
+ * are between concurrent requests.
+ */
+@DataJpaTest
+@ActiveProfiles("local")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceTest {
+
+    private static final String OPERATION = "create-script";
+
+    @Autowired
+    private IdempotencyKeyRepository keyRepository;
+
+    @Autowired
+    private NarrationScriptRepository scriptRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicInteger executions = new AtomicInteger();
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setInProgressWait(Duration.ofSeconds(5));
+        properties.setPollInterval(Duration.ofMillis(10));
+        idempotencyService = new IdempotencyService(keyRepository, transactionManager,
+                new ObjectMapper(), new SimpleMeterRegistry(), properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        keyRepository.deleteAll();
+        scriptRepository.deleteAll();
+    }
+
+    @Test
+    void execute_sameKeyTwice_shouldCreateOneScriptAndReplayIt() {
+        IdempotentResult<Long> first = execute("key-1", request("Intro"), this::createScript);
+        IdempotentResult<Long> second = execute("key-1", request("Intro"), this::createScript);
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(second.replayed()).isTrue();
+        assertThat(second.body()).isEqualTo(first.body());
+        assertThat(scriptRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_sameKeyWithDifferentBody_shouldBeRejected() {
+        execute("key-1", request("Intro"), this::createScript);
+
+        assertThatThrownBy(() -> execute("key-1", request("Outro"), this::createScript))
+                .isInstanceOf(IdempotencyKeyMismatchException.class);
+    }
+
+    @Test
+    void execute_concurrentDuplicates_shouldCreateExactlyOneScript() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<IdempotentResult<Long>>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                Callable<IdempotentResult<Long>> call = () -> {
+                    start.await(5, TimeUnit.SECONDS);
+                    return execute("key-1", request("Intro"), this::createScript);
+                };
+                results.add(executor.submit(call));
+            }
+            start.countDown();
+
+            List<Long> ids = new ArrayList<>();
+            for (Future<IdempotentResult<Long>> result : results) {
+                ids.add(result.get(10, TimeUnit.SECONDS).body());
+            }
+            assertThat(ids).containsOnly(ids.get(0));
+            assertThat(executions).hasValue(1);
+            assertThat(scriptRepository.count()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private IdempotentResult<Long> execute(String key, ScriptRequest request,
+                                           Supplier<Long> action) {
+        return idempotencyService.execute(OPERATION, key, request, action, Function.identity(), Function.identity());
+    }
+
+    private Long createScript() {
+        executions.incrementAndGet();
+        return scriptRepository.save(NarrationScript.builder().title("Intro").rawText("One. Two.").build()).getId();
+    }
+
+    private static ScriptRequest request(String title) {
+        return ScriptRequest.builder().title(title).rawText("One. Two.").build();
+    }
+}
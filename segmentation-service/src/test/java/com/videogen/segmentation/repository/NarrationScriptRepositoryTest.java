@@ -7,10 +7,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 
 @DataJpaTest
 @ActiveProfiles("local")
@@ -122,4 +124,83 @@ class NarrationScriptRepositoryTest {
         assertThat(segments.get(1).getSegmentNumber()).isEqualTo(2);
         assertThat(segments.get(2).getSegmentNumber()).isEqualTo(3);
     }
+
+    @Test
+    void findVersionById_shouldIncreaseWhenScriptIsUpdated() {
+        NarrationScript script = NarrationScript.builder().title("Versioned").rawText("Text.").build();
+        script.getSegments().add(ScriptSegment.builder().script(script).segmentNumber(1)
+                .segmentText("Text.").estimatedDurationSeconds(0.4).wordCount(1).build());
+        script = scriptRepository.saveAndFlush(script);
+        long initial = scriptRepository.findVersionById(script.getId()).orElseThrow();
+
+        script.setRawText("Other.");
+        script.getSegments().clear();
+        script.getSegments().add(ScriptSegment.builder().script(script).segmentNumber(1)
+                .segmentText("Other.").estimatedDurationSeconds(0.4).wordCount(1).build());
+        scriptRepository.saveAndFlush(script);
+
+        assertThat(scriptRepository.findVersionById(script.getId())).contains(initial + 1);
+        assertThat(scriptRepository.findVersionById(-1L)).isEmpty();
+    }
+
+    @Test
+    void findHeaderAndTimings_shouldReturnProjectionsWithoutText() {
+        NarrationScript script = NarrationScript.builder().title("Projected").rawText("One. Two.").build();
+        script.getSegments().add(ScriptSegment.builder().script(script).segmentNumber(2)
+                .segmentText("Two.").estimatedDurationSeconds(0.4).wordCount(1).build());
+        script.getSegments().add(ScriptSegment.builder().script(script).segmentNumber(1)
+                .segmentText("One.").estimatedDurationSeconds(0.4).wordCount(1).build());
+        script = scriptRepository.saveAndFlush(script);
+
+        ScriptHeader header = scriptRepository.findHeaderById(script.getId()).orElseThrow();
+        assertThat(header.getTitle()).isEqualTo("Projected");
+        assertThat(header.getVersion()).isNotNull();
+        assertThat(scriptRepository.findAllHeaders()).extracting(ScriptHeader::getId).contains(script.getId());
+
+        List<SegmentTiming> timings = segmentRepository.findTimingsByScriptIdIn(List.of(script.getId()));
+        assertThat(timings).extracting(SegmentTiming::getSegmentNumber).containsExactly(1, 2);
+        assertThat(timings).allSatisfy(timing -> assertThat(timing.getScriptId()).isEqualTo(header.getId()));
+    }
+
+    @Test
+    void deleteMatchingByIdIn_shouldDeleteScriptsCreatedBeforeCutoffAndCascadeSegments() {
+        NarrationScript script = NarrationScript.builder().title("Bulk").rawText("Text.").build();
+        script.getSegments().add(ScriptSegment.builder().script(script).segmentNumber(1)
+                .segmentText("Text.").estimatedDurationSeconds(0.4).wordCount(1).build());
+        script = scriptRepository.saveAndFlush(script);
+        Long id = script.getId();
+
+        assertThat(scriptRepository.deleteMatchingByIdIn(List.of(id), LocalDateTime.now().minusDays(1))).isZero();
+        assertThat(scriptRepository.deleteMatchingByIdIn(List.of(id), null)).isEqualTo(1);
+
+        assertThat(scriptRepository.findById(id)).isEmpty();
+        assertThat(segmentRepository.findByScriptIdOrderBySegmentNumberAsc(id)).isEmpty();
+    }
+
+    @Test
+    void sumTotals_shouldAggregateSummaryColumnsWithinCreationRange() {
+        NarrationScript first = NarrationScript.builder().title("First").rawText("One. Two.").build();
+        first.getSegments().add(ScriptSegment.builder().script(first).segmentNumber(1)
+                .segmentText("One.").estimatedDurationSeconds(0.4).wordCount(1).build());
+        first.getSegments().add(ScriptSegment.builder().script(first).segmentNumber(2)
+                .segmentText("Two.").estimatedDurationSeconds(0.4).wordCount(1).build());
+        first.summarizeSegments();
+        scriptRepository.saveAndFlush(first);
+        NarrationScript second = NarrationScript.builder().title("Second").rawText("Three four.").build();
+        second.getSegments().add(ScriptSegment.builder().script(second).segmentNumber(1)
+                .segmentText("Three four.").estimatedDurationSeconds(0.8).wordCount(2).build());
+        second.summarizeSegments();
+        scriptRepository.saveAndFlush(second);
+
+        ScriptTotals totals = scriptRepository.sumTotals(null, null);
+        assertThat(totals.getScriptCount()).isEqualTo(2);
+        assertThat(totals.getSegmentCount()).isEqualTo(3);
+        assertThat(totals.getTotalWords()).isEqualTo(4);
+        assertThat(totals.getTotalDurationSeconds()).isCloseTo(1.6, within(1e-9));
+
+        ScriptTotals none = scriptRepository.sumTotals(LocalDateTime.now().plusDays(1), null);
+        assertThat(none.getScriptCount()).isZero();
+        assertThat(none.getTotalWords()).isZero();
+        assertThat(none.getTotalDurationSeconds()).isZero();
+    }
 }
@@ -0,0 +1,138 @@
+package com.videogen.segmentation.repository;
+
+import com.videogen.segmentation.model.NarrationScript;
+import com.videogen.segmentation.model.ScriptSegment;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs each step in its own transaction, as requests do, so reads after the first come from the
+ * second-level cache rather than the persistence context.
+ */
+@DataJpaTest
+@ActiveProfiles("local")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private NarrationScriptRepository scriptRepository;
+
+    @Autowired
+    private ScriptSegmentRepository segmentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scriptRepository.deleteAll();
+    }
+
+    @Test
+    void scriptWithSegments_shouldBeServedFromCacheAfterFirstLoad() {
+        Long id = saveScript("One.", "Two.");
+
+        assertThat(segmentTexts(id)).containsExactly("One.", "Two.");
+        long queries = statistics.getPrepareStatementCount();
+
+        assertThat(segmentTexts(id)).containsExactly("One.", "Two.");
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(queries);
+        assertThat(statistics.getDomainDataRegionStatistics("narration-scripts").getHitCount()).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics("narration-script-segments").getHitCount()).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics("script-segments").getHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void updatedSegments_shouldReplaceCachedOnes() {
+        Long id = saveScript("One.", "Two.");
+        segmentTexts(id);
+
+        transaction.executeWithoutResult(status -> {
+            NarrationScript script = scriptRepository.findById(id).orElseThrow();
+            script.getSegments().clear();
+            scriptRepository.saveAndFlush(script);
+            script.getSegments().add(segment(script, 1, "Three."));
+        });
+
+        assertThat(segmentTexts(id)).containsExactly("Three.");
+    }
+
+    @Test
+    void bulkDelete_shouldEvictOnlyTheDeletedScriptsSegments() {
+        Long id = saveScript("One.", "Two.");
+        Long kept = saveScript("Kept.");
+        segmentTexts(id);
+        segmentTexts(kept);
+        List<Long> segmentIds = segmentRepository.findIdsByScriptIdIn(List.of(id));
+        List<Long> keptSegmentIds = segmentRepository.findIdsByScriptIdIn(List.of(kept));
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        assertThat(segmentIds).hasSize(2).allMatch(segmentId -> cache.containsEntity(ScriptSegment.class, segmentId));
+
+        assertThat(scriptRepository.deleteAllByIdIn(List.of(id))).isEqualTo(1);
+        scriptRepository.evictDeletedScripts(List.of(id), segmentIds);
+
+        assertThat(segmentIds).noneMatch(segmentId -> cache.containsEntity(ScriptSegment.class, segmentId));
+        assertThat(keptSegmentIds).allMatch(segmentId -> cache.containsEntity(ScriptSegment.class, segmentId));
+        assertThat(querySegmentTexts(id)).isEmpty();
+        assertThat(scriptRepository.findById(id)).isEmpty();
+    }
+
+    private Long saveScript(String... texts) {
+        return transaction.execute(status -> {
+            NarrationScript script = NarrationScript.builder().title("Cached").rawText(String.join(" ", texts)).build();
+            for (int i = 0; i < texts.length; i++) {
+                script.getSegments().add(segment(script, i + 1, texts[i]));
+            }
+            return scriptRepository.save(script).getId();
+        });
+    }
+
+    private List<String> segmentTexts(Long id) {
+        return transaction.execute(status -> scriptRepository.findById(id).orElseThrow().getSegments().stream()
+                .map(ScriptSegment::getSegmentText)
+                .toList());
+    }
+
+    private List<String> querySegmentTexts(Long id) {
+        return transaction.execute(status -> segmentRepository.findByScriptIdOrderBySegmentNumberAsc(id).stream()
+                .map(ScriptSegment::getSegmentText)
+                .toList());
+    }
+
+    private static ScriptSegment segment(NarrationScript script, int number, String text) {
+        return ScriptSegment.builder().script(script).segmentNumber(number).segmentText(text)
+                .estimatedDurationSeconds(0.4).wordCount(1).build();
+    }
+}
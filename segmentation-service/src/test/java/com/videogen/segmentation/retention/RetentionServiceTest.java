@@ -0,0 +1,127 @@
+package com.videogen.segmentation.retention;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.videogen.segmentation.event.ScriptsDeletedEvent;
+import com.videogen.segmentation.model.NarrationScript;
+import com.videogen.segmentation.model.ScriptSegment;
+import com.videogen.segmentation.repository.NarrationScriptRepository;
+import com.videogen.segmentation.repository.ScriptSegmentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("local")
+class RetentionServiceTest {
+
+    @Autowired
+    private NarrationScriptRepository scriptRepository;
+
+    @Autowired
+    private ScriptSegmentRepository segmentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path archiveDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Object> publishedEvents = new ArrayList<>();
+    private RetentionService retentionService;
+
+    @BeforeEach
+    void setUp() {
+        RetentionProperties properties = new RetentionProperties();
+        properties.setArchiveDir(archiveDir);
+        properties.setChunkSize(2);
+        retentionService = new RetentionService(scriptRepository, transactionManager, objectMapper, meterRegistry, properties,
+                publishedEvents::add);
+    }
+
+    @Test
+    void archiveAndPurge_shouldArchiveOldScriptsInChunksAndCascadeSegments() {
+        Long old1 = saveScript(2);
+        Long old2 = saveScript(1);
+        Long old3 = saveScript(3);
+        Long recent = saveScript(1);
+        backdate(List.of(old1, old2, old3), LocalDateTime.now().minusDays(120));
+
+        int archived = retentionService.archiveAndPurge(LocalDateTime.now().minusDays(90));
+
+        assertThat(archived).isEqualTo(3);
+        assertThat(scriptRepository.findAll()).extracting(NarrationScript::getId).containsExactly(recent);
+        assertThat(segmentRepository.findByScriptIdOrderBySegmentNumberAsc(old3)).isEmpty();
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(archiveDir)) {
+            files = listing.toList();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        assertThat(files).hasSize(2).allMatch(file -> file.getFileName().toString().endsWith(".jsonl.gz"));
+
+        List<JsonNode> records = files.stream().flatMap(this::readArchive).toList();
+        assertThat(records).extracting(node -> node.get("id").asLong()).containsExactlyInAnyOrder(old1, old2, old3);
+        assertThat(records).filteredOn(node -> node.get("id").asLong() == old3)
+                .singleElement().satisfies(node -> assertThat(node.get("segments")).hasSize(3));
+
+        assertThat(publishedEvents).flatExtracting(event -> ((ScriptsDeletedEvent) event).scriptIds())
+                .containsExactlyInAnyOrder(old1, old2, old3);
+        assertThat(meterRegistry.get("videogen.retention.archived").counter().count()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("videogen.retention.backlog").gauge().value()).isZero();
+    }
+
+    private Long saveScript(int segmentCount) {
+        NarrationScript script = NarrationScript.builder().title("Script").rawText("Raw text").build();
+        for (int i = 1; i <= segmentCount; i++) {
+            script.getSegments().add(ScriptSegment.builder().script(script).segmentNumber(i)
+                    .segmentText("Segment " + i).estimatedDurationSeconds(1.0).wordCount(2).build());
+        }
+        return scriptRepository.saveAndFlush(script).getId();
+    }
+
+    private void backdate(List<Long> ids, LocalDateTime createdAt) {
+        ids.forEach(id -> jdbcTemplate.update("UPDATE narration_scripts SET created_at = ? WHERE id = ?", createdAt, id));
+    }
+
+    private Stream<JsonNode> readArchive(Path file) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            List<JsonNode> lines = reader.lines().map(line -> {
+                try {
+                    return objectMapper.readTree(line);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }).toList();
+            return lines.stream();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.videogen.segmentation.search;
+
+import com.videogen.segmentation.event.ScriptSavedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScriptSearchIndexTest {
+
+    private ScriptSearchIndex index;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        index = ScriptSearchIndex.inMemory();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        index.close();
+    }
+
+    @Test
+    void search_shouldRankMatchingSegmentsAndStemTerms() {
+        index.index(1L, List.of(
+                segment(1, "The dragon sleeps in the mountain."),
+                segment(2, "Villagers fear the dragons and their dragon fire.")));
+        index.index(2L, List.of(segment(1, "A knight rides toward the castle.")));
+        index.refresh();
+
+        ScriptSearchIndex.Page page = index.search("dragon", 0, 10);
+
+        assertThat(page.totalHits()).isEqualTo(2);
+        assertThat(page.totalHitsExact()).isTrue();
+        assertThat(page.hits()).extracting(ScriptSearchIndex.Hit::scriptId).containsOnly(1L);
+        assertThat(page.hits().get(0).segmentNumber()).isEqualTo(2);
+    }
+
+    @Test
+    void search_multipleTerms_shouldRequireAll() {
+        index.index(1L, List.of(segment(1, "The dragon sleeps."), segment(2, "The knight waits.")));
+        index.index(2L, List.of(segment(1, "The knight fights the dragon.")));
+        index.refresh();
+
+        assertThat(index.search("knight dragon", 0, 10).hits())
+                .extracting(ScriptSearchIndex.Hit::scriptId).containsExactly(2L);
+        assertThat(index.search("knight | dragon", 0, 10).totalHits()).isEqualTo(3);
+    }
+
+    @Test
+    void index_sameScriptAgain_shouldReplaceItsSegments() {
+        index.index(1L, List.of(segment(1, "The dragon sleeps."), segment(2, "The dragon wakes.")));
+        index.index(1L, List.of(segment(1, "The knight sleeps.")));
+        index.refresh();
+
+        assertThat(index.search("dragon", 0, 10).hits()).isEmpty();
+        assertThat(index.search("knight", 0, 10).hits()).singleElement()
+                .satisfies(hit -> assertThat(hit.segmentNumber()).isEqualTo(1));
+        assertThat(index.documentCount()).isEqualTo(1);
+    }
+
+    @Test
+    void delete_shouldRemoveEveryDocumentOfTheScripts() {
+        index.index(1L, List.of(segment(1, "The dragon sleeps."), segment(2, "The dragon wakes.")));
+        index.index(2L, List.of(segment(1, "Another dragon.")));
+        index.refresh();
+
+        index.delete(List.of(1L));
+        index.refresh();
+
+        assertThat(index.search("dragon", 0, 10).hits())
+                .extracting(ScriptSearchIndex.Hit::scriptId).containsExactly(2L);
+    }
+
+    @Test
+    void search_offset_shouldPageThroughHits() {
+        for (long id = 1; id <= 5; id++) {
+            index.index(id, List.of(segment(1, "Dragon number " + id + ".")));
+        }
+        index.refresh();
+
+        ScriptSearchIndex.Page first = index.search("dragon", 0, 2);
+        ScriptSearchIndex.Page third = index.search("dragon", 4, 2);
+
+        assertThat(first.hits()).hasSize(2);
+        assertThat(third.hits()).hasSize(1);
+        assertThat(third.totalHits()).isEqualTo(5);
+    }
+
+    @Test
+    void search_onlyStopWords_shouldMatchNothing() {
+        index.index(1L, List.of(segment(1, "The dragon and the knight.")));
+        index.refresh();
+
+        assertThat(index.search("the and", 0, 10).hits()).isEmpty();
+    }
+
+    @Test
+    void commit_shouldPersistSyncedUntilAcrossReopen(@TempDir Path dir) throws Exception {
+        LocalDateTime syncedUntil = LocalDateTime.of(2025, 6, 1, 12, 0);
+        try (ScriptSearchIndex onDisk = ScriptSearchIndex.open(dir)) {
+            assertThat(onDisk.syncedUntil()).isEmpty();
+            onDisk.index(1L, List.of(segment(1, "The dragon sleeps.")));
+            onDisk.commit(syncedUntil);
+        }
+
+        try (ScriptSearchIndex reopened = ScriptSearchIndex.open(dir)) {
+            assertThat(reopened.syncedUntil()).contains(syncedUntil);
+            assertThat(reopened.documentCount()).isEqualTo(1);
+            assertThat(reopened.search("dragon", 0, 10).hits()).hasSize(1);
+        }
+    }
+
+    @Test
+    void dropOlderGenerations_shouldKeepOnlyScriptsWrittenSinceTheGenerationStarted() {
+        index.index(1L, List.of(segment(1, "The dragon sleeps.")));
+        index.index(2L, List.of(segment(1, "A deleted dragon.")));
+        index.refresh();
+
+        index.startGeneration();
+        index.index(1L, List.of(segment(1, "The dragon wakes.")));
+        index.refresh();
+        // Mid-rebuild, scripts not re-indexed yet are still found
+        assertThat(index.search("dragon", 0, 10).hits())
+                .extracting(ScriptSearchIndex.Hit::scriptId).containsExactlyInAnyOrder(1L, 2L);
+
+        index.dropOlderGenerations();
+        index.refresh();
+
+        assertThat(index.search("dragon", 0, 10).hits())
+                .extracting(ScriptSearchIndex.Hit::scriptId).containsExactly(1L);
+        assertThat(index.documentCount()).isEqualTo(1);
+    }
+
+    private static ScriptSavedEvent.Segment segment(int number, String text) {
+        return new ScriptSavedEvent.Segment(number, text);
+    }
+}
@@ -0,0 +1,104 @@
+package com.videogen.segmentation.search;
+
+import com.videogen.segmentation.dto.ScriptSearchResponse;
+import com.videogen.segmentation.exception.SearchIndexWarmingException;
+import com.videogen.segmentation.repository.NarrationScriptRepository;
+import com.videogen.segmentation.repository.ScriptHeader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScriptSearchServiceTest {
+
+    @Mock
+    private ScriptSearchIndex index;
+
+    @Mock
+    private ScriptIndexer indexer;
+
+    @Mock
+    private NarrationScriptRepository scriptRepository;
+
+    private ScriptSearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        SearchProperties properties = new SearchProperties();
+        properties.setMaxResultWindow(100);
+        searchService = new ScriptSearchService(index, indexer, scriptRepository, properties);
+    }
+
+    @Test
+    void search_shouldAttachTitlesAndDropScriptsThatNoLongerExist() {
+        when(indexer.isReady()).thenReturn(true);
+        when(index.search("dragon", 0, 20)).thenReturn(new ScriptSearchIndex.Page(3, true, List.of(
+                new ScriptSearchIndex.Hit(1L, 2, 2.0f),
+                new ScriptSearchIndex.Hit(9L, 1, 1.5f),
+                new ScriptSearchIndex.Hit(1L, 1, 1.0f))));
+        when(scriptRepository.findHeadersByIdIn(List.of(1L, 9L))).thenReturn(List.of(header(1L, "Dragon Tale")));
+
+        ScriptSearchResponse response = searchService.search("dragon", null, null);
+
+        assertThat(response.getLimit()).isEqualTo(20);
+        assertThat(response.getHits()).extracting(ScriptSearchResponse.Hit::getSegmentNumber).containsExactly(2, 1);
+        assertThat(response.getHits()).extracting(ScriptSearchResponse.Hit::getTitle).containsOnly("Dragon Tale");
+        verify(indexer).removeDeleted(List.of(9L));
+    }
+
+    @Test
+    void search_noHits_shouldNotQueryTheDatabase() {
+        when(indexer.isReady()).thenReturn(true);
+        when(index.search("dragon", 0, 20)).thenReturn(new ScriptSearchIndex.Page(0, true, List.of()));
+
+        assertThat(searchService.search("dragon", 0, 20).getHits()).isEmpty();
+
+        verifyNoInteractions(scriptRepository);
+        verify(indexer, never()).removeDeleted(any());
+    }
+
+    @Test
+    void search_indexWarming_shouldThrowWithoutSearching() {
+        when(indexer.isReady()).thenReturn(false);
+
+        assertThatThrownBy(() -> searchService.search("dragon", null, null))
+                .isInstanceOf(SearchIndexWarmingException.class);
+
+        verifyNoInteractions(index, scriptRepository);
+    }
+
+    @Test
+    void search_invalidParameters_shouldThrowException() {
+        assertThatThrownBy(() -> searchService.search(" ", null, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> searchService.search("x".repeat(501), null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> searchService.search("dragon", -1, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> searchService.search("dragon", 0, 101)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> searchService.search("dragon", 95, 10)).isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(index);
+    }
+
+    private static ScriptHeader header(Long id, String title) {
+        return new ScriptHeader() {
+            public Long getId() { return id; }
+            public String getTitle() { return title; }
+            public Long getVersion() { return 0L; }
+            public LocalDateTime getCreatedAt() { return null; }
+            public LocalDateTime getUpdatedAt() { return null; }
+            public Integer getSegmentCount() { return 0; }
+            public Integer getTotalWords() { return 0; }
+            public Double getTotalDurationSeconds() { return 0.0; }
+        };
+    }
+}
@@ -1,19 +1,36 @@
 package com.videogen.segmentation.service;
 
+import com.videogen.segmentation.dto.BulkDeleteRequest;
+import com.videogen.segmentation.dto.BulkDeleteResponse;
 import com.videogen.segmentation.dto.ScriptRequest;
 import com.videogen.segmentation.dto.ScriptResponse;
+import com.videogen.segmentation.dto.ScriptStatsResponse;
+import com.videogen.segmentation.dto.ScriptView;
+import com.videogen.segmentation.event.ScriptSavedEvent;
+import com.videogen.segmentation.event.ScriptsDeletedEvent;
 import com.videogen.segmentation.exception.ResourceNotFoundException;
+import com.videogen.segmentation.metrics.SegmentationMetrics;
 import com.videogen.segmentation.model.NarrationScript;
 import com.videogen.segmentation.model.ScriptSegment;
 import com.videogen.segmentation.repository.NarrationScriptRepository;
+import com.videogen.segmentation.repository.ScriptHeader;
 import com.videogen.segmentation.repository.ScriptSegmentRepository;
+import com.videogen.segmentation.repository.ScriptTotals;
+import com.videogen.segmentation.repository.SegmentTiming;
 import com.videogen.segmentation.service.impl.SegmentationServiceImpl;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -21,6 +38,7 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +50,14 @@ class SegmentationServiceTest {
     @Mock
     private ScriptSegmentRepository segmentRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private SegmentationMetrics metrics = new SegmentationMetrics(meterRegistry, observationRegistry(meterRegistry));
+
     @InjectMocks
     private SegmentationServiceImpl segmentationService;
 
@@ -56,6 +82,11 @@ class SegmentationServiceTest {
         assertThat(response).isNotNull();
         assertThat(response.getTitle()).isEqualTo("Short Script");
         verify(scriptRepository, times(2)).save(any(NarrationScript.class));
+        assertThat(meterRegistry.get("videogen.segmentation.segments.produced").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("videogen.segmentation.script.write")
+                .tags("operation", "create", "outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("videogen.segmentation.segment.text").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("videogen.segmentation.scripts.in.flight").gauge().value()).isZero();
     }
 
     @Test
@@ -181,17 +212,54 @@ class SegmentationServiceTest {
 
         when(scriptRepository.findById(1L)).thenReturn(Optional.of(script));
 
-        ScriptResponse response = segmentationService.getScript(1L);
+        ScriptResponse response = segmentationService.getScript(1L, ScriptView.FULL);
 
         assertThat(response.getId()).isEqualTo(1L);
         assertThat(response.getTitle()).isEqualTo("Test Script");
     }
 
+    @Test
+    void getScript_timingView_shouldReadProjectionsOnly() {
+        when(scriptRepository.findHeaderById(1L)).thenReturn(Optional.of(header(1L, "Test Script")));
+        when(segmentRepository.findTimingsByScriptIdIn(List.of(1L))).thenReturn(List.of(timing(1L, 1), timing(1L, 2)));
+
+        ScriptResponse response = segmentationService.getScript(1L, ScriptView.TIMING);
+
+        assertThat(response.getTitle()).isEqualTo("Test Script");
+        assertThat(response.getRawText()).isNull();
+        assertThat(response.getSegments()).extracting("segmentNumber").containsExactly(1, 2);
+        assertThat(response.getSegments()).allSatisfy(segment -> assertThat(segment.getSegmentText()).isNull());
+        verify(scriptRepository, never()).findById(any());
+    }
+
+    @Test
+    void getAllScripts_summaryView_shouldNotLoadSegments() {
+        when(scriptRepository.findAllHeaders()).thenReturn(List.of(header(1L, "One"), header(2L, "Two")));
+
+        List<ScriptResponse> responses = segmentationService.getAllScripts(ScriptView.SUMMARY);
+
+        assertThat(responses).extracting(ScriptResponse::getTitle).containsExactly("One", "Two");
+        assertThat(responses).allSatisfy(response -> assertThat(response.getSegments()).isNull());
+        verifyNoInteractions(segmentRepository);
+        verify(scriptRepository, never()).findAll();
+    }
+
+    @Test
+    void getAllScripts_timingView_shouldGroupSegmentsByScript() {
+        when(scriptRepository.findAllHeaders()).thenReturn(List.of(header(1L, "One"), header(2L, "Two")));
+        when(segmentRepository.findTimingsByScriptIdIn(List.of(1L, 2L))).thenReturn(List.of(timing(1L, 1), timing(1L, 2)));
+
+        List<ScriptResponse> responses = segmentationService.getAllScripts(ScriptView.TIMING);
+
+        assertThat(responses.get(0).getSegments()).hasSize(2);
+        assertThat(responses.get(1).getSegments()).isEmpty();
+    }
+
     @Test
     void getScript_nonExistingId_shouldThrowException() {
         when(scriptRepository.findById(99L)).thenReturn(Optional.empty());
 
-        assertThatThrownBy(() -> segmentationService.getScript(99L))
+        assertThatThrownBy(() -> segmentationService.getScript(99L, ScriptView.FULL))
                 .isInstanceOf(ResourceNotFoundException.class);
     }
 
@@ -202,6 +270,7 @@ class SegmentationServiceTest {
         segmentationService.deleteScript(1L);
 
         verify(scriptRepository).deleteById(1L);
+        verify(eventPublisher).publishEvent(new ScriptsDeletedEvent(List.of(1L)));
     }
 
     @Test
@@ -211,4 +280,122 @@ class SegmentationServiceTest {
         assertThatThrownBy(() -> segmentationService.deleteScript(99L))
                 .isInstanceOf(ResourceNotFoundException.class);
     }
+
+    @Test
+    void bulkDeleteScripts_ids_shouldDeleteInChunks() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 750; id++) {
+            ids.add(id);
+        }
+        when(scriptRepository.deleteMatchingByIdIn(any(), eq(null)))
+                .thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+
+        BulkDeleteResponse response = segmentationService.bulkDeleteScripts(
+                BulkDeleteRequest.builder().ids(ids).build());
+
+        assertThat(response.getDeletedCount()).isEqualTo(750);
+        assertThat(response.getChunks()).isEqualTo(2);
+        verify(scriptRepository, never()).deleteById(any());
+        verify(scriptRepository).evictDeletedScripts(eq(ids.subList(0, 500)), any());
+        verify(scriptRepository).evictDeletedScripts(eq(ids.subList(500, 750)), any());
+        verify(eventPublisher, times(2)).publishEvent(any(ScriptsDeletedEvent.class));
+    }
+
+    @Test
+    void bulkDeleteScripts_createdBefore_shouldDeleteUntilNoMatchesRemain() {
+        LocalDateTime cutoff = LocalDateTime.of(2025, 1, 1, 0, 0);
+        when(scriptRepository.findIdsByCreatedAtBefore(cutoff, Limit.of(500)))
+                .thenReturn(List.of(1L, 2L), List.of());
+        when(scriptRepository.deleteAllByIdIn(List.of(1L, 2L))).thenReturn(2);
+        when(segmentRepository.findIdsByScriptIdIn(List.of(1L, 2L))).thenReturn(List.of(10L, 11L, 20L));
+
+        BulkDeleteResponse response = segmentationService.bulkDeleteScripts(
+                BulkDeleteRequest.builder().createdBefore(cutoff).build());
+
+        assertThat(response.getDeletedCount()).isEqualTo(2);
+        assertThat(response.getChunks()).isEqualTo(1);
+        verify(scriptRepository).evictDeletedScripts(List.of(1L, 2L), List.of(10L, 11L, 20L));
+    }
+
+    @Test
+    void createScript_shouldStoreSegmentTotalsOnScript() {
+        ScriptRequest request = ScriptRequest.builder()
+                .title("Totals")
+                .rawText("One two three four five. Six seven eight nine ten eleven twelve thirteen fourteen "
+                        + "fifteen sixteen seventeen eighteen nineteen twenty. Twenty-one twenty-two.")
+                .build();
+        when(scriptRepository.save(any(NarrationScript.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ScriptResponse response = segmentationService.createScript(request);
+
+        assertThat(response.getSegmentCount()).isEqualTo(2);
+        assertThat(response.getTotalWords()).isEqualTo(22);
+        assertThat(response.getTotalDurationSeconds()).isEqualTo(22 / 2.5);
+        verify(eventPublisher).publishEvent(new ScriptSavedEvent(null, List.of(
+                new ScriptSavedEvent.Segment(1, "One two three four five. Six seven eight nine ten eleven twelve "
+                        + "thirteen fourteen fifteen sixteen seventeen eighteen nineteen twenty."),
+                new ScriptSavedEvent.Segment(2, "Twenty-one twenty-two."))));
+    }
+
+    @Test
+    void getScriptStats_shouldReturnTotalsAndAverage() {
+        when(scriptRepository.sumTotals(null, null)).thenReturn(new ScriptTotals() {
+            public Long getScriptCount() { return 4L; }
+            public Long getSegmentCount() { return 10L; }
+            public Long getTotalWords() { return 200L; }
+            public Double getTotalDurationSeconds() { return 80.0; }
+        });
+
+        ScriptStatsResponse stats = segmentationService.getScriptStats(null, null);
+
+        assertThat(stats.getScriptCount()).isEqualTo(4);
+        assertThat(stats.getTotalWords()).isEqualTo(200);
+        assertThat(stats.getAverageDurationSeconds()).isEqualTo(20.0);
+        verifyNoInteractions(segmentRepository);
+    }
+
+    @Test
+    void getScriptStats_fromNotBeforeTo_shouldThrowException() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThatThrownBy(() -> segmentationService.getScriptStats(now, now))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void bulkDeleteScripts_noCriteria_shouldThrowException() {
+        assertThatThrownBy(() -> segmentationService.bulkDeleteScripts(new BulkDeleteRequest()))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(scriptRepository);
+    }
+
+    private static ScriptHeader header(Long id, String title) {
+        return new ScriptHeader() {
+            public Long getId() { return id; }
+            public String getTitle() { return title; }
+            public Long getVersion() { return 0L; }
+            public Integer getSegmentCount() { return 0; }
+            public Integer getTotalWords() { return 0; }
+            public Double getTotalDurationSeconds() { return 0.0; }
+            public LocalDateTime getCreatedAt() { return null; }
+            public LocalDateTime getUpdatedAt() { return null; }
+        };
+    }
+
+    private static SegmentTiming timing(Long scriptId, int segmentNumber) {
+        return new SegmentTiming() {
+            public Long getId() { return scriptId * 100 + segmentNumber; }
+            public Long getScriptId() { return scriptId; }
+            public Integer getSegmentNumber() { return segmentNumber; }
+            public Double getEstimatedDurationSeconds() { return 8.0; }
+            public Integer getWordCount() { return 20; }
+        };
+    }
+
+    private static ObservationRegistry observationRegistry(SimpleMeterRegistry meterRegistry) {
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        return registry;
+    }
 }